@@ -0,0 +1,43 @@
+plugins {
+    id("java-library")
+}
+
+group = "org.UTS"
+version = "1.0-SNAPSHOT"
+
+repositories {
+    mavenCentral()
+}
+
+// Núcleo sin interfaz: servicio, motores, estrategias, comandos y utilidades.
+// No debe depender de AWT ni Swing para que otros servicios lo embeban.
+dependencies {
+    // Vosk - Speech Recognition Library
+    implementation("com.alphacephei:vosk:0.3.45")
+
+    // JNA (Java Native Access) - Requerido por Vosk
+    implementation("net.java.dev.jna:jna:5.13.0")
+
+    // JSON - Para parsear resultados de Vosk (aparece en la API pública)
+    api("org.json:json:20230227")
+
+    // Logging: solo la API; el binding lo elige la aplicación que embebe el núcleo
+    api("org.slf4j:slf4j-api:2.0.12")
+
+    // Testing
+    testImplementation(platform("org.junit:junit-bom:5.10.0"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testRuntimeOnly("org.slf4j:slf4j-simple:2.0.12")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+tasks.register<JavaExec>("resamplerBenchmark") {
+    group = "verification"
+    description = "Benchmark de CPU y calidad del remuestreador polifásico"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.uts.asr.util.ResamplerBenchmark")
+}
@@ -0,0 +1,186 @@
+package com.uts.asr.admin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.MemoryBudget;
+import com.uts.asr.core.MemoryBudgetExceededException;
+import com.uts.asr.core.ModelHandle;
+import com.uts.asr.core.NativeCallWatchdog;
+import com.uts.asr.core.VoskService;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+
+/**
+ * Endpoint HTTP de administración ({@code admin.port}), pensado para escuchar
+ * solo en local.
+ * <ul>
+ *   <li>{@code GET /model}: modelo actual, cargas y descargas, modelos
+ *       retirados que aún terminan sesiones y sesiones en cuarentena.</li>
+ *   <li>{@code POST /model/swap?path=<carpeta>}: cambia el modelo en caliente y
+ *       responde al terminar la carga.</li>
+ * </ul>
+ */
+public final class AdminServer {
+    private static final Logger logger = LoggerFactory.getLogger(AdminServer.class);
+
+    private static HttpServer server;
+
+    private AdminServer() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Arranca el endpoint si {@code admin.port} no es -1 (idempotente).
+     *
+     * @return puerto en escucha, o -1 si está deshabilitado
+     */
+    public static synchronized int startIfEnabled() throws IOException {
+        AppSettings settings = AppSettings.current();
+        if (server != null) {
+            return server.getAddress().getPort();
+        }
+        if (settings.adminPort() < 0) {
+            return -1;
+        }
+        HttpServer created = HttpServer.create(
+            new InetSocketAddress(settings.adminBind(), settings.adminPort()), 0);
+        created.createContext("/model", AdminServer::handle);
+        created.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "admin-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        // El hilo despachador hereda el carácter daemon de quien llama a start():
+        // arrancarlo desde un hilo daemon para no impedir que la JVM termine
+        Thread starter = new Thread(created::start, "admin-http-start");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            created.stop(0);
+            throw new InterruptedIOException("Interrumpido arrancando el endpoint de administración");
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> created.stop(0), "admin-http-shutdown"));
+        server = created;
+        int port = created.getAddress().getPort();
+        logger.info("Endpoint de administración en http://{}:{}/model", settings.adminBind(), port);
+        return port;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/model") && method.equals("GET")) {
+                try {
+                    respond(exchange, 200, status());
+                } catch (IllegalStateException e) {
+                    // Reconocimiento en procesos worker: no hay modelo en este proceso
+                    respond(exchange, 409, error(e.getMessage()));
+                }
+            } else if (path.equals("/model/swap") && method.equals("POST")) {
+                swap(exchange);
+            } else {
+                respond(exchange, 404, error("Ruta o método no soportado: " + method + " " + path));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error en el endpoint de administración", e);
+        }
+    }
+
+    private static void swap(HttpExchange exchange) throws IOException {
+        String modelPath = queryParameter(exchange.getRequestURI(), "path");
+        if (modelPath == null || modelPath.isBlank()) {
+            respond(exchange, 400, error("Falta el parámetro path"));
+            return;
+        }
+        try {
+            VoskService.SwapResult result = VoskService.swapModel(Path.of(modelPath));
+            respond(exchange, 200, new JSONObject()
+                .put("previous", result.previous().toString())
+                .put("current", result.current().toString())
+                .put("generation", result.generation())
+                .put("loadMs", result.loadMs())
+                .put("draining", result.draining()));
+        } catch (MemoryBudgetExceededException e) {
+            respond(exchange, 507, error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            respond(exchange, 409, error(e.getMessage()));
+        } catch (IOException e) {
+            logger.warn("Cambio de modelo a {} fallido: {}", modelPath, e.getMessage());
+            respond(exchange, 500, error("No se pudo cargar el modelo: " + e.getMessage()));
+        }
+    }
+
+    private static JSONObject status() {
+        ModelHandle current = VoskService.currentHandle();
+        JSONArray draining = new JSONArray();
+        for (ModelHandle handle : VoskService.draining()) {
+            draining.put(describe(handle));
+        }
+        VoskService.LifecycleStats lifecycle = VoskService.lifecycle();
+        // Descargado por inactividad: se informa la carpeta que se recargará
+        JSONObject status = current != null
+            ? describe(current)
+            : new JSONObject().put("path", VoskService.modelPath().toString());
+        return status
+            .put("loaded", lifecycle.loaded())
+            .put("loads", lifecycle.loads())
+            .put("unloads", lifecycle.unloads())
+            .put("reloads", lifecycle.reloads())
+            .put("lastLoadMs", lifecycle.lastLoadMs())
+            .put("reloadWaitMs", lifecycle.reloadWaitMs())
+            .put("draining", draining)
+            .put("quarantined", NativeCallWatchdog.shared().quarantined())
+            .put("memory", MemoryBudget.shared().usage().toString());
+    }
+
+    private static JSONObject describe(ModelHandle handle) {
+        return new JSONObject()
+            .put("path", handle.path().toString())
+            .put("generation", handle.generation())
+            .put("recognizers", handle.references());
+    }
+
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message);
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
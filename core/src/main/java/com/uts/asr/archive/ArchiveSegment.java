@@ -0,0 +1,372 @@
+package com.uts.asr.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento append-only del archivo de transcripciones.
+ * <p>
+ * Estructura: {@code [cabecera][bloque]*[footer][trailer]}. Cada bloque es
+ * {@code [bytesComprimidos][bytesSinComprimir][entradas][crc32]} seguido de las
+ * entradas ({@code [varint longitud][entrada]}) comprimidas con deflate. Mientras
+ * el segmento está activo no tiene footer y se recupera escaneando bloques (un
+ * bloque final incompleto se trunca). Al sellarse se añade el footer con la
+ * ubicación de cada entrada para acceso aleatorio sin escanear.
+ * </p>
+ */
+final class ArchiveSegment {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveSegment.class);
+
+    private static final int MAGIC = 0x55545341;          // "UTSA"
+    private static final int FOOTER_MAGIC = 0x55545346;   // "UTSF"
+    private static final int TRAILER_MAGIC = 0x55545345;  // "UTSE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int BLOCK_HEADER_BYTES = 16;
+    private static final int TRAILER_BYTES = 12;
+    private static final int FLAG_PACKED = 1;
+
+    /**
+     * Ubicación de una entrada: bloque y posición dentro del bloque.
+     */
+    record Location(long id, long blockOffset, int indexInBlock, long savedAt) {
+    }
+
+    private final Path file;
+    private final int number;
+    private final FileChannel channel;
+    private final List<Location> entries = new ArrayList<>();
+    private final List<Integer> replaced = new ArrayList<>();
+    private long size;
+    private boolean sealed;
+    private boolean packed;
+
+    private ArchiveSegment(Path file, int number, FileChannel channel) {
+        this.file = file;
+        this.number = number;
+        this.channel = channel;
+    }
+
+    /**
+     * Crea un segmento vacío y activo.
+     */
+    static ArchiveSegment create(Path file, int number) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ArchiveSegment segment = new ArchiveSegment(file, number, channel);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+        writeFully(channel, header, 0);
+        channel.force(true);
+        segment.size = HEADER_BYTES;
+        return segment;
+    }
+
+    /**
+     * Abre un segmento existente: lee el footer si está sellado o escanea sus bloques.
+     */
+    static ArchiveSegment open(Path file, int number) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ArchiveSegment segment = new ArchiveSegment(file, number, channel);
+        try {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Segmento de archivo inválido: " + file);
+            }
+            if (!segment.readFooter()) {
+                segment.scan();
+            }
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Comprime y añade un bloque con las entradas dadas; se fuerza a disco antes de volver.
+     *
+     * @return ubicaciones de las entradas añadidas
+     */
+    synchronized List<Location> appendBlock(List<ArchivedTranscript> transcripts) throws IOException {
+        if (sealed) {
+            throw new IllegalStateException("Segmento sellado: " + file);
+        }
+        EntryCodec.Sink raw = new EntryCodec.Sink();
+        EntryCodec.Sink entry = new EntryCodec.Sink();
+        for (ArchivedTranscript transcript : transcripts) {
+            entry.reset();
+            EntryCodec.encode(transcript, entry);
+            raw.writeVarInt(entry.size());
+            raw.writeBytes(entry.array(), 0, entry.size());
+        }
+
+        byte[] compressed = deflate(raw.array(), raw.size());
+        CRC32 crc = new CRC32();
+        crc.update(raw.array(), 0, raw.size());
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + compressed.length)
+            .putInt(compressed.length).putInt(raw.size()).putInt(transcripts.size())
+            .putInt((int) crc.getValue()).put(compressed).flip();
+
+        long blockOffset = size;
+        writeFully(channel, block, blockOffset);
+        channel.force(false);
+        size += block.limit();
+
+        List<Location> added = new ArrayList<>(transcripts.size());
+        for (int i = 0; i < transcripts.size(); i++) {
+            ArchivedTranscript transcript = transcripts.get(i);
+            added.add(new Location(transcript.id(), blockOffset, i, transcript.savedAt().toEpochMilli()));
+        }
+        entries.addAll(added);
+        return added;
+    }
+
+    /**
+     * Escribe el footer; el segmento pasa a ser de solo lectura.
+     *
+     * @param packedBlocks true si los bloques agrupan varias entradas (compactado)
+     * @param replacedSegments segmentos que este reemplaza (se borran al abrir si siguen existiendo)
+     */
+    synchronized void seal(boolean packedBlocks, List<Integer> replacedSegments) throws IOException {
+        if (sealed) {
+            return;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(16 + 4 * replacedSegments.size() + 28 * entries.size()
+                + TRAILER_BYTES)
+            .putInt(FOOTER_MAGIC)
+            .putInt(packedBlocks ? FLAG_PACKED : 0)
+            .putInt(replacedSegments.size());
+        for (int replacedNumber : replacedSegments) {
+            footer.putInt(replacedNumber);
+        }
+        footer.putInt(entries.size());
+        for (Location location : entries) {
+            footer.putLong(location.id()).putLong(location.blockOffset())
+                .putInt(location.indexInBlock()).putLong(location.savedAt());
+        }
+        footer.putLong(size).putInt(TRAILER_MAGIC).flip();
+        writeFully(channel, footer, size);
+        channel.force(true);
+        size += footer.limit();
+        sealed = true;
+        packed = packedBlocks;
+        replaced.addAll(replacedSegments);
+    }
+
+    /**
+     * Lee una entrada concreta.
+     */
+    ArchivedTranscript read(Location location) throws IOException {
+        return readBlock(location.blockOffset()).get(location.indexInBlock());
+    }
+
+    /**
+     * Lee y descomprime un bloque completo.
+     */
+    List<ArchivedTranscript> readBlock(long blockOffset) throws IOException {
+        return decodeBlock(inflateBlock(blockOffset));
+    }
+
+    private static List<ArchivedTranscript> decodeBlock(RawBlock block) {
+        ByteBuffer raw = block.data();
+        List<ArchivedTranscript> transcripts = new ArrayList<>(block.entries());
+        for (int i = 0; i < block.entries(); i++) {
+            int length = EntryCodec.readVarInt(raw);
+            ByteBuffer entry = raw.slice(raw.position(), length);
+            transcripts.add(EntryCodec.decode(entry));
+            raw.position(raw.position() + length);
+        }
+        return transcripts;
+    }
+
+    /**
+     * Desplazamientos de los bloques en orden.
+     */
+    List<Long> blockOffsets() {
+        List<Long> offsets = new ArrayList<>();
+        long previous = -1;
+        for (Location location : entries) {
+            if (location.blockOffset() != previous) {
+                offsets.add(location.blockOffset());
+                previous = location.blockOffset();
+            }
+        }
+        return offsets;
+    }
+
+    List<Location> entries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    List<Integer> replaced() {
+        return Collections.unmodifiableList(replaced);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int number() {
+        return number;
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    boolean isPacked() {
+        return packed;
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error cerrando {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Bloque descomprimido y verificado.
+     */
+    private record RawBlock(ByteBuffer data, int entries, int storedBytes) {
+    }
+
+    private RawBlock inflateBlock(long blockOffset) throws IOException {
+        ByteBuffer header = readFully(channel, blockOffset, BLOCK_HEADER_BYTES);
+        int compressedLength = header.getInt();
+        int rawLength = header.getInt();
+        int count = header.getInt();
+        int crc = header.getInt();
+        if (compressedLength < 0 || rawLength < 0 || count < 0
+                || blockOffset + BLOCK_HEADER_BYTES + compressedLength > channel.size()) {
+            throw new IOException("Bloque corrupto en " + file + "@" + blockOffset);
+        }
+        ByteBuffer compressed = readFully(channel, blockOffset + BLOCK_HEADER_BYTES, compressedLength);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array(), 0, compressedLength);
+            int inflated = inflater.inflate(raw, 0, rawLength);
+            if (inflated != rawLength || !inflater.finished()) {
+                throw new IOException("Bloque truncado en " + file + "@" + blockOffset);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque corrupto en " + file + "@" + blockOffset, e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 check = new CRC32();
+        check.update(raw, 0, rawLength);
+        if ((int) check.getValue() != crc) {
+            throw new IOException("CRC inválido en " + file + "@" + blockOffset);
+        }
+        return new RawBlock(ByteBuffer.wrap(raw), count, BLOCK_HEADER_BYTES + compressedLength);
+    }
+
+    private boolean readFooter() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES + TRAILER_BYTES) {
+            return false;
+        }
+        ByteBuffer trailer = readFully(channel, fileSize - TRAILER_BYTES, TRAILER_BYTES);
+        long footerOffset = trailer.getLong();
+        if (trailer.getInt() != TRAILER_MAGIC || footerOffset < HEADER_BYTES
+                || footerOffset > fileSize - TRAILER_BYTES - 16) {
+            return false;
+        }
+        ByteBuffer footer = readFully(channel, footerOffset, (int) (fileSize - footerOffset));
+        if (footer.getInt() != FOOTER_MAGIC) {
+            return false;
+        }
+        packed = (footer.getInt() & FLAG_PACKED) != 0;
+        int replacedCount = footer.getInt();
+        for (int i = 0; i < replacedCount; i++) {
+            replaced.add(footer.getInt());
+        }
+        int count = footer.getInt();
+        for (int i = 0; i < count; i++) {
+            entries.add(new Location(footer.getLong(), footer.getLong(), footer.getInt(), footer.getLong()));
+        }
+        size = fileSize;
+        sealed = true;
+        return true;
+    }
+
+    /**
+     * Recorre los bloques de un segmento activo; trunca un bloque final dañado
+     * (escritura interrumpida).
+     */
+    private void scan() throws IOException {
+        long fileSize = channel.size();
+        long offset = HEADER_BYTES;
+        while (offset < fileSize) {
+            try {
+                RawBlock block = inflateBlock(offset);
+                List<ArchivedTranscript> transcripts = decodeBlock(block);
+                for (int i = 0; i < transcripts.size(); i++) {
+                    ArchivedTranscript transcript = transcripts.get(i);
+                    entries.add(new Location(transcript.id(), offset, i, transcript.savedAt().toEpochMilli()));
+                }
+                offset += block.storedBytes();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Segmento {}: bloque dañado en {}, se truncan {} bytes",
+                    file, offset, fileSize - offset);
+                channel.truncate(offset);
+                channel.force(true);
+                break;
+            }
+        }
+        size = offset;
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            EntryCodec.Sink out = new EntryCodec.Sink();
+            byte[] chunk = new byte[Math.max(64, length / 2)];
+            while (!deflater.finished()) {
+                int produced = deflater.deflate(chunk);
+                out.writeBytes(chunk, 0, produced);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado en " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data, position + data.position());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.uts.asr.archive;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transcripción guardada en el archivo.
+ *
+ * @param id identificador estable (no cambia al compactar)
+ * @param session nombre de la sesión
+ * @param savedAt momento del guardado
+ * @param text texto completo
+ * @param words palabras con tiempos, vacía si el resultado no los traía.
+ *              Las etiquetas de hablante se guardan por palabra, así que una
+ *              transcripción sin tiempos las pierde
+ */
+public record ArchivedTranscript(long id, String session, Instant savedAt, String text, List<Word> words) {
+
+    public ArchivedTranscript {
+        words = List.copyOf(words);
+    }
+
+    /**
+     * Palabra con tiempos, como en el {@code result} de Vosk.
+     *
+     * @param speaker hablante del segmento que la contiene (1, 2, ...), 0 si no se etiquetó
+     */
+    public record Word(String word, double start, double end, double conf, int speaker) {
+
+        public Word(String word, double start, double end, double conf) {
+            this(word, start, end, conf, 0);
+        }
+    }
+
+    /**
+     * Referencia usada como origen en el índice de búsqueda.
+     */
+    public String reference() {
+        return TranscriptArchive.REFERENCE_PREFIX + id;
+    }
+
+    /**
+     * Reconstruye el JSON de Vosk ({@code text} y {@code result}). Si hay
+     * palabras etiquetadas añade {@code segments} como
+     * {@code SingleFileStrategy.mergeFinals}, uno por cada tramo seguido del
+     * mismo hablante.
+     */
+    public String toVoskJson() {
+        JSONObject obj = new JSONObject().put("text", text);
+        if (!words.isEmpty()) {
+            JSONArray result = new JSONArray();
+            boolean labeled = words.stream().anyMatch(word -> word.speaker() > 0);
+            JSONArray segments = new JSONArray();
+            JSONObject segment = null;
+            StringBuilder segmentText = new StringBuilder();
+            for (Word word : words) {
+                result.put(new JSONObject()
+                    .put("word", word.word())
+                    .put("start", word.start())
+                    .put("end", word.end())
+                    .put("conf", word.conf()));
+                if (segment != null && segment.optInt("speaker") != word.speaker()) {
+                    segments.put(segment.put("text", segmentText.toString()));
+                    segment = null;
+                }
+                if (labeled) {
+                    if (segment == null) {
+                        segment = new JSONObject().put("speaker", word.speaker()).put("start", word.start());
+                        segmentText.setLength(0);
+                    } else {
+                        segmentText.append(' ');
+                    }
+                    segment.put("end", word.end());
+                    segmentText.append(word.word());
+                }
+            }
+            if (segment != null) {
+                segments.put(segment.put("text", segmentText.toString()));
+            }
+            obj.put("result", result);
+            if (segments.length() > 0) {
+                obj.put("segments", segments);
+            }
+        }
+        return obj.toString();
+    }
+
+    /**
+     * Construye una transcripción a partir del JSON de Vosk. Cada palabra
+     * toma el hablante del segmento ({@code segments}) que contiene su inicio.
+     */
+    static ArchivedTranscript fromVoskJson(long id, String session, Instant savedAt, String voskJson) {
+        JSONObject obj = new JSONObject(voskJson);
+        JSONArray result = obj.optJSONArray("result");
+        JSONArray segments = obj.optJSONArray("segments");
+        List<Word> words = new ArrayList<>();
+        if (result != null) {
+            int segment = 0;
+            for (int i = 0; i < result.length(); i++) {
+                JSONObject word = result.getJSONObject(i);
+                double start = word.optDouble("start", 0);
+                int speaker = 0;
+                // Palabras y segmentos van en el mismo orden temporal
+                while (segments != null && segment < segments.length()
+                        && segments.getJSONObject(segment).optDouble("end", 0) < start) {
+                    segment++;
+                }
+                if (segments != null && segment < segments.length()
+                        && segments.getJSONObject(segment).optDouble("start", 0) <= start) {
+                    speaker = segments.getJSONObject(segment).optInt("speaker", 0);
+                }
+                words.add(new Word(word.optString("word", ""), start,
+                    word.optDouble("end", 0), word.optDouble("conf", 1), speaker));
+            }
+        }
+        return new ArchivedTranscript(id, session, savedAt, obj.optString("text", "").trim(), words);
+    }
+}
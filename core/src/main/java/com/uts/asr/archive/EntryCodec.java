@@ -0,0 +1,217 @@
+package com.uts.asr.archive;
+
+import com.uts.asr.archive.ArchivedTranscript.Word;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificación binaria de una transcripción dentro de un bloque.
+ * <p>
+ * Las palabras del texto y del {@code result} comparten un diccionario local y
+ * se guardan como índices varint. Los tiempos se guardan en ms como delta
+ * respecto al final de la palabra anterior (zigzag) más la duración, y la
+ * confianza en un byte. El texto se parte por espacios simples, así que se
+ * reconstruye exactamente.
+ * </p>
+ * <p>
+ * Si alguna palabra tiene hablante, la entrada termina con el hablante de
+ * cada palabra (varint, 0 = sin etiqueta). Las entradas anteriores, sin esa
+ * sección, se leen con todas las palabras sin etiquetar.
+ * </p>
+ */
+final class EntryCodec {
+
+    private EntryCodec() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    static void encode(ArchivedTranscript transcript, Sink out) {
+        String[] tokens = transcript.text().split(" ", -1);
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        int[] textCodes = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            textCodes[i] = code(tokens[i], dictionary, terms);
+        }
+        int[] wordCodes = new int[transcript.words().size()];
+        for (int i = 0; i < wordCodes.length; i++) {
+            wordCodes[i] = code(transcript.words().get(i).word(), dictionary, terms);
+        }
+
+        out.writeVarLong(transcript.id());
+        out.writeString(transcript.session());
+        out.writeVarLong(transcript.savedAt().toEpochMilli());
+        out.writeVarInt(terms.size());
+        for (String term : terms) {
+            out.writeString(term);
+        }
+        out.writeVarInt(textCodes.length);
+        for (int code : textCodes) {
+            out.writeVarInt(code);
+        }
+        out.writeVarInt(wordCodes.length);
+        long previousEnd = 0;
+        for (int i = 0; i < wordCodes.length; i++) {
+            Word word = transcript.words().get(i);
+            long start = Math.round(word.start() * 1000);
+            long end = Math.max(start, Math.round(word.end() * 1000));
+            out.writeVarInt(wordCodes[i]);
+            out.writeVarLong(zigzag(start - previousEnd));
+            out.writeVarLong(end - start);
+            out.writeByte((int) Math.round(Math.max(0, Math.min(1, word.conf())) * 255));
+            previousEnd = end;
+        }
+        if (transcript.words().stream().anyMatch(word -> word.speaker() > 0)) {
+            for (Word word : transcript.words()) {
+                out.writeVarInt(word.speaker());
+            }
+        }
+    }
+
+    static ArchivedTranscript decode(ByteBuffer in) {
+        long id = readVarLong(in);
+        String session = readString(in);
+        Instant savedAt = Instant.ofEpochMilli(readVarLong(in));
+        String[] terms = new String[readVarInt(in)];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = readString(in);
+        }
+        String[] tokens = new String[readVarInt(in)];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = terms[readVarInt(in)];
+        }
+        int wordCount = readVarInt(in);
+        List<Word> words = new ArrayList<>(wordCount);
+        long previousEnd = 0;
+        for (int i = 0; i < wordCount; i++) {
+            String term = terms[readVarInt(in)];
+            long start = previousEnd + unzigzag(readVarLong(in));
+            long end = start + readVarLong(in);
+            double conf = (in.get() & 0xFF) / 255.0;
+            words.add(new Word(term, start / 1000.0, end / 1000.0, conf));
+            previousEnd = end;
+        }
+        // La entrada llega recortada a su longitud: lo que queda son los hablantes
+        if (in.hasRemaining()) {
+            for (int i = 0; i < wordCount; i++) {
+                Word word = words.get(i);
+                words.set(i, new Word(word.word(), word.start(), word.end(), word.conf(), readVarInt(in)));
+            }
+        }
+        return new ArchivedTranscript(id, session, savedAt, String.join(" ", tokens), words);
+    }
+
+    /**
+     * Lee solo el id de una entrada (para el escaneo de segmentos).
+     */
+    static long peekId(ByteBuffer in) {
+        return readVarLong(in.duplicate());
+    }
+
+    private static int code(String term, Map<String, Integer> dictionary, List<String> terms) {
+        Integer code = dictionary.get(term);
+        if (code == null) {
+            code = terms.size();
+            dictionary.put(term, code);
+            terms.add(term);
+        }
+        return code;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Array de bytes creciente con escritura de varints.
+     */
+    static final class Sink {
+        private byte[] data = new byte[256];
+        private int size;
+
+        void writeByte(int value) {
+            ensure(1);
+            data[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, data, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        byte[] array() {
+            return data;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+}
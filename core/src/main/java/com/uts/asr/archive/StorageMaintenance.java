@@ -0,0 +1,66 @@
+package com.uts.asr.archive;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.WriterFormat;
+import com.uts.asr.util.TempRetention;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantenimiento periódico del almacenamiento en segundo plano: retención de
+ * {@code dirs.temp} y compactación del archivo de transcripciones.
+ */
+public final class StorageMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(StorageMaintenance.class);
+
+    private static final long INITIAL_DELAY_SECONDS = 30;
+    private static final long PERIOD_SECONDS = 3600;
+
+    private static ScheduledExecutorService scheduler;
+
+    private StorageMaintenance() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Programa el mantenimiento (idempotente). El hilo es daemon y de baja prioridad.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(StorageMaintenance::runOnce,
+            INITIAL_DELAY_SECONDS, PERIOD_SECONDS, TimeUnit.SECONDS);
+        logger.debug("Mantenimiento de almacenamiento programado cada {} s", PERIOD_SECONDS);
+    }
+
+    /**
+     * Ejecuta una pasada completa; los errores se registran y no detienen la programación.
+     */
+    public static void runOnce() {
+        try {
+            TempRetention.sweep();
+        } catch (Exception e) {
+            logger.warn("Fallo en la retención de temporales", e);
+        }
+        try {
+            AppSettings settings = AppSettings.current();
+            if (settings.writerFormat() == WriterFormat.ARCHIVE || Files.isDirectory(settings.archiveDir())) {
+                TranscriptArchive.shared().compact();
+            }
+        } catch (Exception e) {
+            logger.warn("Fallo en la compactación del archivo", e);
+        }
+    }
+}
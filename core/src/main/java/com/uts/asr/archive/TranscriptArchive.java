@@ -0,0 +1,427 @@
+package com.uts.asr.archive;
+
+import com.uts.asr.archive.ArchiveSegment.Location;
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Archivo de transcripciones en segmentos append-only.
+ * <p>
+ * Sustituye a los miles de {@code .json}/{@code .txt} sueltos cuando
+ * {@code writer.format=archive}. Cada guardado se añade como un bloque deflate
+ * al segmento activo y se fuerza a disco; al alcanzar {@code archive.segmentBytes}
+ * el segmento se sella con un footer de acceso aleatorio. La compactación en
+ * segundo plano reescribe los segmentos sellados agrupando muchas entradas por
+ * bloque ({@code archive.blockBytes}), lo que mejora la compresión del diccionario.
+ * </p>
+ * <p>
+ * Los ids de entrada son estables: el índice de búsqueda los guarda como
+ * {@code archive:<id>} y siguen siendo válidos tras compactar.
+ * </p>
+ */
+public final class TranscriptArchive {
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptArchive.class);
+
+    public static final String REFERENCE_PREFIX = "archive:";
+
+    private static final String SEGMENT_PREFIX = "arch-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Entradas a partir de las cuales la compactación sella el segmento activo. */
+    private static final int SEAL_ACTIVE_ENTRIES = 64;
+
+    private static TranscriptArchive shared;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int blockBytes;
+
+    // Estado protegido por this
+    private final List<ArchiveSegment> segments = new ArrayList<>();
+    private final Map<Long, Placement> placements = new HashMap<>();
+    private ArchiveSegment active;
+    private long nextId;
+    private int nextSegment;
+
+    /**
+     * Transcripción pendiente de archivar en un lote.
+     *
+     * @param session nombre de la sesión
+     * @param savedAt momento del guardado
+     * @param voskJson JSON de Vosk ({@code text} y opcionalmente {@code result})
+     */
+    public record Pending(String session, Instant savedAt, String voskJson) {
+    }
+
+    /**
+     * Segmento y posición actuales de una entrada.
+     */
+    private record Placement(ArchiveSegment segment, Location location) {
+    }
+
+    private TranscriptArchive(Path directory, long segmentBytes, int blockBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.blockBytes = blockBytes;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Abre (o crea) un archivo en el directorio indicado.
+     */
+    public static TranscriptArchive open(Path directory, long segmentBytes, int blockBytes) throws IOException {
+        return new TranscriptArchive(directory, segmentBytes, blockBytes);
+    }
+
+    /**
+     * Archivo de la configuración activa ({@code dirs.archive}), abierto al primer uso.
+     */
+    public static synchronized TranscriptArchive shared() throws IOException {
+        if (shared == null) {
+            AppSettings settings = AppSettings.current();
+            shared = open(settings.archiveDir(), settings.archiveSegmentBytes(), settings.archiveBlockBytes());
+            logger.info("Archivo de transcripciones abierto en {} ({} entradas)",
+                settings.archiveDir(), shared.size());
+        }
+        return shared;
+    }
+
+    /**
+     * Indica si una referencia de origen apunta al archivo.
+     */
+    public static boolean isReference(String source) {
+        return source != null && source.startsWith(REFERENCE_PREFIX);
+    }
+
+    /**
+     * Añade una transcripción. Cuando vuelve, la entrada ya está en disco.
+     *
+     * @param session nombre de la sesión
+     * @param savedAt momento del guardado
+     * @param voskJson JSON de Vosk ({@code text} y opcionalmente {@code result})
+     * @return la entrada archivada (con su id)
+     */
+    public ArchivedTranscript append(String session, Instant savedAt, String voskJson) throws IOException {
+        ArchivedTranscript parsed = ArchivedTranscript.fromVoskJson(-1, session, savedAt, voskJson);
+        return append(session, savedAt, parsed.text(), parsed.words());
+    }
+
+    /**
+     * Añade varias transcripciones como un único bloque: una escritura y un
+     * fsync para todo el lote. Cuando vuelve, todas están en disco.
+     *
+     * @return las entradas archivadas, en el orden recibido
+     */
+    public List<ArchivedTranscript> appendAll(List<Pending> pending) throws IOException {
+        List<ArchivedTranscript> parsed = new ArrayList<>(pending.size());
+        for (Pending entry : pending) {
+            parsed.add(ArchivedTranscript.fromVoskJson(-1, entry.session(), entry.savedAt(), entry.voskJson()));
+        }
+        if (parsed.isEmpty()) {
+            return parsed;
+        }
+        synchronized (this) {
+            List<ArchivedTranscript> block = new ArrayList<>(parsed.size());
+            for (ArchivedTranscript transcript : parsed) {
+                block.add(new ArchivedTranscript(nextId + block.size(), transcript.session(),
+                    transcript.savedAt(), transcript.text(), transcript.words()));
+            }
+            if (active == null || active.size() >= segmentBytes) {
+                rollActive();
+            }
+            List<Location> locations = active.appendBlock(block);
+            for (Location location : locations) {
+                placements.put(location.id(), new Placement(active, location));
+            }
+            nextId += block.size();
+            return block;
+        }
+    }
+
+    synchronized ArchivedTranscript append(String session, Instant savedAt, String text,
+                                           List<ArchivedTranscript.Word> words) throws IOException {
+        ArchivedTranscript transcript = new ArchivedTranscript(nextId, session, savedAt, text, words);
+        if (active == null || active.size() >= segmentBytes) {
+            rollActive();
+        }
+        Location location = active.appendBlock(List.of(transcript)).get(0);
+        placements.put(transcript.id(), new Placement(active, location));
+        nextId++;
+        return transcript;
+    }
+
+    /**
+     * Lee una entrada por id.
+     *
+     * @return la transcripción o null si no existe
+     */
+    public ArchivedTranscript read(long id) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Placement placement;
+            synchronized (this) {
+                placement = placements.get(id);
+            }
+            if (placement == null) {
+                return null;
+            }
+            try {
+                return placement.segment().read(placement.location());
+            } catch (IOException e) {
+                // El segmento pudo cerrarse por una compactación: se relee la ubicación
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee una entrada a partir de una referencia {@code archive:<id>}.
+     */
+    public ArchivedTranscript read(String reference) throws IOException {
+        String id = isReference(reference) ? reference.substring(REFERENCE_PREFIX.length()) : reference;
+        try {
+            return read(Long.parseLong(id.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Referencia de archivo inválida: " + reference);
+        }
+    }
+
+    /**
+     * Recorre todas las entradas en orden de segmento, bloque a bloque.
+     */
+    public void forEach(Consumer<ArchivedTranscript> action) throws IOException {
+        List<ArchiveSegment> view;
+        synchronized (this) {
+            view = new ArrayList<>(segments);
+        }
+        for (ArchiveSegment segment : view) {
+            for (long blockOffset : segment.blockOffsets()) {
+                for (ArchivedTranscript transcript : segment.readBlock(blockOffset)) {
+                    Placement placement;
+                    synchronized (this) {
+                        placement = placements.get(transcript.id());
+                    }
+                    if (placement != null && placement.segment() == segment) {
+                        action.accept(transcript);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Número de entradas.
+     */
+    public synchronized int size() {
+        return placements.size();
+    }
+
+    /**
+     * Reescribe los segmentos sellados sin compactar (y fusiona los compactados
+     * pequeños) agrupando entradas en bloques grandes. Si el segmento activo acumula suficientes entradas, se
+     * sella antes para incluirlo. La escritura ocurre fuera del lock; solo el
+     * reemplazo es sincronizado, así que los guardados no esperan.
+     *
+     * @return segmentos reemplazados
+     */
+    public int compact() throws IOException {
+        List<List<ArchiveSegment>> groups;
+        synchronized (this) {
+            if (active != null && active.entries().size() >= SEAL_ACTIVE_ENTRIES) {
+                active.seal(false, List.of());
+                active = null;
+            }
+            groups = compactionGroups();
+        }
+
+        int replaced = 0;
+        for (List<ArchiveSegment> group : groups) {
+            compactGroup(group);
+            replaced += group.size();
+        }
+        return replaced;
+    }
+
+    /**
+     * Agrupa segmentos consecutivos a reescribir: los sellados sin compactar y
+     * los ya compactados pero pequeños (menos de un cuarto de segmento), hasta
+     * {@code archive.segmentBytes} por grupo. Un grupo de un único segmento ya
+     * compactado no se reescribe.
+     */
+    private List<List<ArchiveSegment>> compactionGroups() {
+        List<List<ArchiveSegment>> groups = new ArrayList<>();
+        List<ArchiveSegment> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (ArchiveSegment segment : segments) {
+            boolean candidate = segment.isSealed()
+                && (!segment.isPacked() || segment.size() < segmentBytes / 4);
+            if (!candidate || currentBytes + segment.size() > segmentBytes) {
+                addGroup(groups, current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            if (candidate) {
+                current.add(segment);
+                currentBytes += segment.size();
+            }
+        }
+        addGroup(groups, current);
+        return groups;
+    }
+
+    private static void addGroup(List<List<ArchiveSegment>> groups, List<ArchiveSegment> group) {
+        if (group.size() > 1 || (group.size() == 1 && !group.get(0).isPacked())) {
+            groups.add(group);
+        }
+    }
+
+    private void compactGroup(List<ArchiveSegment> group) throws IOException {
+        long start = System.nanoTime();
+        int number;
+        synchronized (this) {
+            number = nextSegment++;
+        }
+        Path finalFile = segmentPath(number);
+        Path tempFile = finalFile.resolveSibling(finalFile.getFileName() + TEMP_SUFFIX);
+        List<Integer> replacedNumbers = group.stream().map(ArchiveSegment::number).toList();
+
+        long inputBytes = 0;
+        ArchiveSegment packed = ArchiveSegment.create(tempFile, number);
+        try {
+            List<ArchivedTranscript> block = new ArrayList<>();
+            long blockEstimate = 0;
+            for (ArchiveSegment segment : group) {
+                inputBytes += segment.size();
+                for (long blockOffset : segment.blockOffsets()) {
+                    for (ArchivedTranscript transcript : segment.readBlock(blockOffset)) {
+                        block.add(transcript);
+                        blockEstimate += estimateBytes(transcript);
+                        if (blockEstimate >= blockBytes) {
+                            packed.appendBlock(block);
+                            block.clear();
+                            blockEstimate = 0;
+                        }
+                    }
+                }
+            }
+            if (!block.isEmpty()) {
+                packed.appendBlock(block);
+            }
+            packed.seal(true, replacedNumbers);
+        } finally {
+            packed.close();
+        }
+        Files.move(tempFile, finalFile, StandardCopyOption.ATOMIC_MOVE);
+        ArchiveSegment reopened = ArchiveSegment.open(finalFile, number);
+
+        synchronized (this) {
+            int at = segments.indexOf(group.get(0));
+            segments.removeAll(group);
+            segments.add(at, reopened);
+            for (Location location : reopened.entries()) {
+                Placement previous = placements.get(location.id());
+                if (previous != null && group.contains(previous.segment())) {
+                    placements.put(location.id(), new Placement(reopened, location));
+                }
+            }
+        }
+        for (ArchiveSegment old : group) {
+            old.close();
+            Files.deleteIfExists(old.file());
+        }
+        logger.info("Compactados {} segmentos ({} KB) en {} ({} KB) en {} ms", group.size(),
+            inputBytes / 1024, finalFile.getFileName(), reopened.size() / 1024,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void rollActive() throws IOException {
+        if (active != null) {
+            active.seal(false, List.of());
+        }
+        active = ArchiveSegment.create(segmentPath(nextSegment), nextSegment);
+        nextSegment++;
+        segments.add(active);
+    }
+
+    /**
+     * Abre los segmentos existentes. Un segmento compactado lista en su footer
+     * los que reemplazó: si siguen en disco (fallo antes de borrarlos) se borran.
+     */
+    private synchronized void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file); // compactación interrumpida
+                } else if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+
+        List<ArchiveSegment> opened = new ArrayList<>();
+        Set<Integer> replaced = new HashSet<>();
+        for (Path file : files) {
+            ArchiveSegment segment = ArchiveSegment.open(file, segmentNumber(file));
+            opened.add(segment);
+            replaced.addAll(segment.replaced());
+            nextSegment = Math.max(nextSegment, segment.number() + 1);
+        }
+
+        for (ArchiveSegment segment : opened) {
+            if (replaced.contains(segment.number())) {
+                logger.info("Eliminando segmento ya compactado: {}", segment.file());
+                segment.close();
+                Files.deleteIfExists(segment.file());
+                continue;
+            }
+            segments.add(segment);
+            for (Location location : segment.entries()) {
+                placements.put(location.id(), new Placement(segment, location));
+                nextId = Math.max(nextId, location.id() + 1);
+            }
+        }
+
+        // Solo el último segmento sin sellar sigue activo
+        for (ArchiveSegment segment : segments) {
+            if (!segment.isSealed()) {
+                if (active != null) {
+                    active.seal(false, List.of());
+                }
+                active = segment;
+            }
+        }
+    }
+
+    private static long estimateBytes(ArchivedTranscript transcript) {
+        return 32 + transcript.session().length() + transcript.text().length()
+            + 6L * transcript.words().size();
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,38 @@
+package com.uts.asr.config;
+
+/**
+ * Qué hacer con un recognizer nuevo cuando el presupuesto de memoria está agotado.
+ */
+public enum AdmissionPolicy {
+
+    /** Esperar (hasta {@code memory.queueTimeoutMs}) a que se libere memoria. */
+    QUEUE("queue"),
+
+    /** Rechazar de inmediato. */
+    REJECT("reject");
+
+    private final String id;
+
+    AdmissionPolicy(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Busca una política por su identificador.
+     *
+     * @throws IllegalArgumentException si la política no existe
+     */
+    public static AdmissionPolicy fromId(String id) {
+        String normalized = id == null ? "" : id.trim();
+        for (AdmissionPolicy policy : values()) {
+            if (policy.id.equalsIgnoreCase(normalized)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Política de admisión desconocida: " + id + " (queue, reject)");
+    }
+}
@@ -0,0 +1,21 @@
+package com.uts.asr.config;
+
+/**
+ * Constantes fijas de la aplicación: formato de audio y nombre de sesión por
+ * defecto. Los parámetros ajustables por despliegue están en
+ * {@link AppSettings}; la paleta de la interfaz, en el módulo {@code gui}.
+ */
+public final class AppConfig {
+    
+    // Formato de audio que espera Vosk (fijo). Los parámetros ajustables
+    // (modelo, tasa, chunks, rutas, concurrencia) están en AppSettings.
+    public static final int SAMPLE_SIZE_BITS = 16;
+    public static final int CHANNELS = 1; // Mono
+    
+    // UI
+    public static final String DEFAULT_SESSION_NAME = "Nueva Sesión";
+    
+    private AppConfig() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+}
@@ -0,0 +1,1250 @@
+package com.uts.asr.config;
+
+import com.uts.asr.network.StreamEncoding;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuración de rendimiento tipada y validada.
+ * <p>
+ * Sustituye a las constantes fijas de {@link AppConfig} para todo lo que se
+ * ajusta por despliegue (modelo, tamaños de chunk, rutas, concurrencia). Los
+ * valores se resuelven con {@link SettingsLoader} a partir de un perfil, un
+ * archivo de propiedades/YAML, variables de entorno y flags de línea de comandos.
+ * </p>
+ */
+public final class AppSettings {
+
+    // Claves de configuración
+    public static final String PROFILE = "profile";
+    public static final String ENGINE_ID = "engine.id";
+    public static final String ENGINE_SYNTHETIC_COST = "engine.synthetic.costPercent";
+    public static final String ENGINE_SYNTHETIC_CALL = "engine.synthetic.callMicros";
+    public static final String MODEL_PATH = "model.path";
+    public static final String MODEL_IDLE_UNLOAD = "model.idleUnloadSeconds";
+    public static final String MODEL_PREWARM_AT = "model.prewarmAt";
+    public static final String SAMPLE_RATE = "audio.sampleRate";
+    public static final String CHUNK_LIVE = "audio.chunkLive";
+    public static final String CHUNK_FILE = "audio.chunkFile";
+    public static final String AUDIO_CAPTURE_NATIVE = "audio.captureNative";
+    public static final String TEMP_DIR = "dirs.temp";
+    public static final String TRANSCRIPTIONS_DIR = "dirs.transcriptions";
+    public static final String CHECKPOINT_DIR = "dirs.checkpoints";
+    public static final String CHECKPOINT_INTERVAL = "checkpoint.intervalBytes";
+    public static final String MAX_RECOGNIZERS = "workers.maxRecognizers";
+    public static final String GRAMMAR_STREAMS_PER_CPU = "workers.grammarStreamsPerCpu";
+    public static final String GRAMMAR_CACHE = "workers.grammarCachePerGrammar";
+    public static final String FFMPEG_TIMEOUT = "ffmpeg.timeoutSeconds";
+    public static final String FILE_DEADLINE = "file.deadlineSeconds";
+    public static final String BATCH_CONVERT_THREADS = "batch.convertThreads";
+    public static final String BATCH_DECODE_THREADS = "batch.decodeThreads";
+    public static final String BATCH_PERSIST_THREADS = "batch.persistThreads";
+    public static final String BATCH_QUEUE_DEPTH = "batch.queueDepth";
+    public static final String FOLLOW_POLL = "follow.pollMs";
+    public static final String FOLLOW_IDLE = "follow.idleSeconds";
+    public static final String FOLLOW_SENTINEL_SUFFIX = "follow.sentinelSuffix";
+    public static final String FOLLOW_SAVE_INTERVAL = "follow.saveIntervalSeconds";
+    public static final String KEYWORDS_MIN_CONFIDENCE = "keywords.minConfidencePercent";
+    public static final String PARTIALS_FILE = "partials.file";
+    public static final String PARTIALS_LIVE = "partials.live";
+    public static final String PARTIALS_NETWORK = "partials.network";
+    public static final String PARTIALS_INTERVAL = "partials.intervalMs";
+    public static final String LIVE_LATENCY_OVERLAY = "live.latencyOverlay";
+    public static final String WATCHDOG_NATIVE_CALL = "watchdog.nativeCallMs";
+    public static final String DECODER_THREADS = "decoder.threads";
+    public static final String DECODER_QUANTUM_CHUNKS = "decoder.quantumChunks";
+    public static final String DECODER_MAX_LATENCY = "decoder.maxLatencyMs";
+    public static final String DECODER_BUFFER_MS = "decoder.bufferMs";
+    public static final String WORKER_PROCESSES = "workers.processes";
+    public static final String WORKER_ENDPOINTS = "workers.endpoints";
+    public static final String WORKER_RETRIES = "workers.maxRetries";
+    public static final String WORKER_JVM_ARGS = "workers.jvmArgs";
+    public static final String WORKER_BIND = "worker.bind";
+    public static final String WORKER_PORT = "worker.port";
+    public static final String INDEX_DIR = "dirs.index";
+    public static final String INDEX_ENABLED = "index.enabled";
+    public static final String INDEX_MERGE_FACTOR = "index.mergeFactor";
+    public static final String WRITER_FORMAT = "writer.format";
+    public static final String WRITER_QUEUE_CAPACITY = "writer.queueCapacity";
+    public static final String WRITER_BATCH_MAX = "writer.batchMax";
+    public static final String WRITER_SUBMIT_TIMEOUT = "writer.submitTimeoutMs";
+    public static final String ARCHIVE_DIR = "dirs.archive";
+    public static final String ARCHIVE_SEGMENT_BYTES = "archive.segmentBytes";
+    public static final String ARCHIVE_BLOCK_BYTES = "archive.blockBytes";
+    public static final String TEMP_RETENTION_HOURS = "temp.retentionHours";
+    public static final String WARMUP_ENABLED = "warmup.enabled";
+    public static final String WARMUP_AUDIO_MS = "warmup.audioMs";
+    public static final String WARMUP_PREFAULT = "warmup.prefault";
+    public static final String WARMUP_RECOGNIZERS = "warmup.recognizers";
+    public static final String MEMORY_BUDGET = "memory.budgetMb";
+    public static final String MEMORY_MODEL = "memory.modelMb";
+    public static final String MEMORY_RECOGNIZER = "memory.recognizerMb";
+    public static final String MEMORY_GRAMMAR_RECOGNIZER = "memory.grammarRecognizerMb";
+    public static final String MEMORY_ADMISSION = "memory.admission";
+    public static final String MEMORY_QUEUE_TIMEOUT = "memory.queueTimeoutMs";
+    public static final String TWO_PASS_MODEL_PATH = "twopass.modelPath";
+    public static final String TWO_PASS_BUFFER_BYTES = "twopass.bufferBytes";
+    public static final String TWO_PASS_KEEP_RECORDINGS = "twopass.keepRecordings";
+    public static final String SPEAKER_MODEL_PATH = "speaker.modelPath";
+    public static final String SPEAKER_THREADS = "speaker.threads";
+    public static final String SPEAKER_BATCH_SIZE = "speaker.batchSize";
+    public static final String SPEAKER_SIMILARITY = "speaker.similarityPercent";
+    public static final String SPEAKER_MAX_SPEAKERS = "speaker.maxSpeakers";
+    public static final String SPEAKER_LIVE = "speaker.live";
+    public static final String LOADTEST_START_STREAMS = "loadtest.startStreams";
+    public static final String LOADTEST_MAX_STREAMS = "loadtest.maxStreams";
+    public static final String LOADTEST_STEP = "loadtest.step";
+    public static final String LOADTEST_STEP_SECONDS = "loadtest.stepSeconds";
+    public static final String LOADTEST_SLO_MS = "loadtest.sloMs";
+    public static final String LOADTEST_PERCENTILE = "loadtest.percentile";
+    public static final String LOADTEST_STAND_IN = "loadtest.standIn";
+    public static final String LOADTEST_STAND_IN_COST = "loadtest.standInCostPercent";
+    public static final String LOADTEST_REPORT = "loadtest.report";
+    public static final String NETWORK_BIND = "network.bind";
+    public static final String NETWORK_TCP_PORT = "network.tcpPort";
+    public static final String NETWORK_UDP_PORT = "network.udpPort";
+    public static final String NETWORK_HTTP_PORT = "network.httpPort";
+    public static final String NETWORK_ENCODING = "network.encoding";
+    public static final String NETWORK_SAMPLE_RATE = "network.sampleRate";
+    public static final String NETWORK_CHANNELS = "network.channels";
+    public static final String NETWORK_UDP_RTP = "network.udpRtp";
+    public static final String NETWORK_JITTER_MS = "network.jitterMs";
+    public static final String NETWORK_IDLE_TIMEOUT_MS = "network.idleTimeoutMs";
+    public static final String ADMIN_BIND = "admin.bind";
+    public static final String ADMIN_PORT = "admin.port";
+    public static final String JFR_FILE = "jfr.file";
+    public static final String JFR_MAX_AGE_MINUTES = "jfr.maxAgeMinutes";
+
+    private static final String AUTO = "auto";
+
+    private static final Map<String, String> DEFAULTS;
+
+    static {
+        Map<String, String> d = new LinkedHashMap<>();
+        d.put(PROFILE, PerformanceProfile.BALANCED.id());
+        d.put(ENGINE_ID, "vosk");           // motor de reconocimiento (vosk, synthetic)
+        d.put(ENGINE_SYNTHETIC_COST, "10"); // CPU del motor sintético, % del tiempo real
+        d.put(ENGINE_SYNTHETIC_CALL, "0");  // CPU fija del motor sintético por chunk, µs
+        d.put(MODEL_PATH, "model");
+        d.put(MODEL_IDLE_UNLOAD, "0");      // 0 = el modelo no se descarga nunca
+        d.put(MODEL_PREWARM_AT, "");        // horas HH:mm de precarga, separadas por comas
+        d.put(SAMPLE_RATE, "16000");
+        d.put(CHUNK_LIVE, "4000");          // ~250ms
+        d.put(CHUNK_FILE, "8000");          // ~500ms
+        d.put(AUDIO_CAPTURE_NATIVE, "true"); // micrófono en su formato nativo, conversión en la JVM
+        d.put(TEMP_DIR, "temp");
+        d.put(TRANSCRIPTIONS_DIR, "transcriptions");
+        d.put(CHECKPOINT_DIR, "");          // vacío = <temp>/checkpoints
+        d.put(CHECKPOINT_INTERVAL, "1920000"); // ~60s de audio
+        d.put(MAX_RECOGNIZERS, AUTO);       // auto = número de CPUs
+        d.put(GRAMMAR_STREAMS_PER_CPU, "8");
+        d.put(GRAMMAR_CACHE, "4");
+        d.put(FFMPEG_TIMEOUT, "300");
+        d.put(FILE_DEADLINE, "0");          // plazo total de un archivo; 0 = sin plazo
+        d.put(BATCH_CONVERT_THREADS, "2");  // conversiones ffmpeg simultáneas en lotes
+        d.put(BATCH_DECODE_THREADS, "0");   // 0 = una por permiso de recognizer
+        d.put(BATCH_PERSIST_THREADS, "1");
+        d.put(BATCH_QUEUE_DEPTH, "2");      // archivos en espera entre etapas
+        d.put(FOLLOW_POLL, "500");          // mira el tamaño aunque no lleguen eventos del sistema
+        d.put(FOLLOW_IDLE, "60");           // sin crecer este tiempo = grabación terminada
+        d.put(FOLLOW_SENTINEL_SUFFIX, ".done"); // <archivo>.done también la da por terminada
+        d.put(FOLLOW_SAVE_INTERVAL, "300"); // guardado parcial; 0 = solo al terminar
+        d.put(KEYWORDS_MIN_CONFIDENCE, "60"); // confianza media (%) para dar por detectada una frase
+        d.put(PARTIALS_FILE, PartialResultMode.OFF.id());
+        d.put(PARTIALS_LIVE, PartialResultMode.CHANGED.id());
+        d.put(PARTIALS_NETWORK, PartialResultMode.CHANGED.id());
+        d.put(PARTIALS_INTERVAL, "150");    // más rápido de lo que se lee no aporta
+        d.put(LIVE_LATENCY_OVERLAY, "false"); // retardo captura→pantalla sobre el texto
+        d.put(WATCHDOG_NATIVE_CALL, "30000"); // llamada nativa colgada; 0 = sin vigilancia
+        d.put(DECODER_THREADS, "0");        // 0 = un hilo por stream; auto = número de CPUs
+        d.put(DECODER_QUANTUM_CHUNKS, "2"); // chunks por turno antes de ceder el hilo
+        d.put(DECODER_MAX_LATENCY, "500");  // espera máxima de un chunk incompleto
+        d.put(DECODER_BUFFER_MS, "10000");  // audio pendiente por stream antes de descartar
+        d.put(WORKER_PROCESSES, "0");       // 0 = reconocimiento en este proceso
+        d.put(WORKER_ENDPOINTS, "");        // host:port de workers lanzados aparte
+        d.put(WORKER_RETRIES, "3");
+        d.put(WORKER_JVM_ARGS, "-Xmx256m");
+        d.put(WORKER_BIND, "127.0.0.1");
+        d.put(WORKER_PORT, "0");            // 0 = puerto efímero
+        d.put(INDEX_DIR, "");               // vacío = <transcriptions>/.index
+        d.put(INDEX_ENABLED, "true");
+        d.put(INDEX_MERGE_FACTOR, "10");
+        d.put(WRITER_FORMAT, WriterFormat.FILES.id());
+        d.put(WRITER_QUEUE_CAPACITY, "256");
+        d.put(WRITER_BATCH_MAX, "64");
+        d.put(WRITER_SUBMIT_TIMEOUT, "30000");
+        d.put(ARCHIVE_DIR, "");             // vacío = <transcriptions>/.archive
+        d.put(ARCHIVE_SEGMENT_BYTES, "67108864"); // 64 MB
+        d.put(ARCHIVE_BLOCK_BYTES, "262144");     // 256 KB sin comprimir
+        d.put(TEMP_RETENTION_HOURS, "168"); // 7 días; 0 = conservar siempre
+        d.put(WARMUP_ENABLED, "true");
+        d.put(WARMUP_AUDIO_MS, "2000");     // audio sintético decodificado al arrancar
+        d.put(WARMUP_PREFAULT, "true");     // leer los archivos del modelo antes de cargarlo
+        d.put(WARMUP_RECOGNIZERS, "1");     // recognizers calentados en reserva
+        d.put(MEMORY_BUDGET, AUTO);         // auto = RAM física - heap máximo; 0 = sin límite
+        d.put(MEMORY_MODEL, "0");           // 0 = estimar por el tamaño del modelo en disco
+        d.put(MEMORY_RECOGNIZER, "0");      // 0 = estimar como fracción del modelo
+        d.put(MEMORY_GRAMMAR_RECOGNIZER, "16");
+        d.put(MEMORY_ADMISSION, AdmissionPolicy.QUEUE.id());
+        d.put(MEMORY_QUEUE_TIMEOUT, "30000");
+        d.put(TWO_PASS_MODEL_PATH, "");     // vacío = sin segunda pasada
+        d.put(TWO_PASS_BUFFER_BYTES, "1048576");
+        d.put(TWO_PASS_KEEP_RECORDINGS, "false");
+        d.put(SPEAKER_MODEL_PATH, "");      // vacío = sin etiquetas de hablante
+        d.put(SPEAKER_THREADS, "2");        // hilos que agrupan embeddings, fuera de la decodificación
+        d.put(SPEAKER_BATCH_SIZE, "16");    // finales de una sesión por turno
+        d.put(SPEAKER_SIMILARITY, "50");    // similitud coseno (%) para asignar un hablante conocido
+        d.put(SPEAKER_MAX_SPEAKERS, "8");
+        d.put(SPEAKER_LIVE, "false");       // etiquetar también las sesiones de micrófono
+        d.put(LOADTEST_START_STREAMS, "1");
+        d.put(LOADTEST_MAX_STREAMS, "64");
+        d.put(LOADTEST_STEP, "2");
+        d.put(LOADTEST_STEP_SECONDS, "30");
+        d.put(LOADTEST_SLO_MS, "1000");     // latencia máxima de finales en el percentil
+        d.put(LOADTEST_PERCENTILE, "95");
+        d.put(LOADTEST_STAND_IN, "false");  // true = recognizer sintético, sin modelo
+        d.put(LOADTEST_STAND_IN_COST, "10"); // CPU del sustituto, % del tiempo real
+        d.put(LOADTEST_REPORT, "loadtest-report.json");
+        d.put(NETWORK_BIND, "127.0.0.1");
+        d.put(NETWORK_TCP_PORT, "-1");      // -1 = deshabilitado, 0 = efímero
+        d.put(NETWORK_UDP_PORT, "-1");
+        d.put(NETWORK_HTTP_PORT, "-1");
+        d.put(NETWORK_ENCODING, StreamEncoding.PCM_S16LE.id());
+        d.put(NETWORK_SAMPLE_RATE, "16000");
+        d.put(NETWORK_CHANNELS, "1");
+        d.put(NETWORK_UDP_RTP, "true");     // false = PCM crudo por datagrama
+        d.put(NETWORK_JITTER_MS, "60");
+        d.put(NETWORK_IDLE_TIMEOUT_MS, "5000");
+        d.put(ADMIN_BIND, "127.0.0.1");
+        d.put(ADMIN_PORT, "-1");            // -1 = sin endpoint de administración
+        d.put(JFR_FILE, "");                // vacío = sin grabación JFR continua
+        d.put(JFR_MAX_AGE_MINUTES, "30");   // ventana que se conserva y se vuelca al salir
+        DEFAULTS = Collections.unmodifiableMap(d);
+    }
+
+    private static volatile AppSettings current = new AppSettings(DEFAULTS);
+
+    private final Map<String, String> values;
+    private final PerformanceProfile profile;
+    private final String engineId;
+    private final int syntheticCostPercent;
+    private final int syntheticCallMicros;
+    private final String modelPath;
+    private final int modelIdleUnloadSeconds;
+    private final List<LocalTime> modelPrewarmAt;
+    private final float sampleRate;
+    private final int chunkSizeLive;
+    private final int chunkSizeFile;
+    private final boolean audioCaptureNative;
+    private final Path tempDir;
+    private final Path transcriptionsDir;
+    private final Path checkpointDir;
+    private final int checkpointIntervalBytes;
+    private final int maxRecognizers;
+    private final int grammarStreamsPerCpu;
+    private final int grammarCachePerGrammar;
+    private final int ffmpegTimeoutSeconds;
+    private final int fileDeadlineSeconds;
+    private final int batchConvertThreads;
+    private final int batchDecodeThreads;
+    private final int batchPersistThreads;
+    private final int batchQueueDepth;
+    private final int followPollMs;
+    private final int followIdleSeconds;
+    private final String followSentinelSuffix;
+    private final int followSaveIntervalSeconds;
+    private final int keywordsMinConfidencePercent;
+    private final PartialResultMode partialsFile;
+    private final PartialResultMode partialsLive;
+    private final boolean liveLatencyOverlay;
+    private final PartialResultMode partialsNetwork;
+    private final int partialsIntervalMs;
+    private final int watchdogNativeCallMs;
+    private final int decoderThreads;
+    private final int decoderQuantumChunks;
+    private final int decoderMaxLatencyMs;
+    private final int decoderBufferMs;
+    private final int workerProcesses;
+    private final List<String> workerEndpoints;
+    private final int workerMaxRetries;
+    private final List<String> workerJvmArgs;
+    private final String workerBind;
+    private final int workerPort;
+    private final Path indexDir;
+    private final boolean indexEnabled;
+    private final int indexMergeFactor;
+    private final WriterFormat writerFormat;
+    private final int writerQueueCapacity;
+    private final int writerBatchMax;
+    private final int writerSubmitTimeoutMs;
+    private final Path archiveDir;
+    private final int archiveSegmentBytes;
+    private final int archiveBlockBytes;
+    private final int tempRetentionHours;
+    private final boolean warmupEnabled;
+    private final int warmupAudioMs;
+    private final boolean warmupPrefault;
+    private final int warmupRecognizers;
+    private final long memoryBudgetMb;
+    private final int memoryModelMb;
+    private final int memoryRecognizerMb;
+    private final int memoryGrammarRecognizerMb;
+    private final AdmissionPolicy memoryAdmission;
+    private final int memoryQueueTimeoutMs;
+    private final String twoPassModelPath;
+    private final int twoPassBufferBytes;
+    private final boolean twoPassKeepRecordings;
+    private final String speakerModelPath;
+    private final int speakerThreads;
+    private final int speakerBatchSize;
+    private final int speakerSimilarityPercent;
+    private final int speakerMaxSpeakers;
+    private final boolean speakerLive;
+    private final int loadTestStartStreams;
+    private final int loadTestMaxStreams;
+    private final int loadTestStep;
+    private final int loadTestStepSeconds;
+    private final int loadTestSloMs;
+    private final int loadTestPercentile;
+    private final boolean loadTestStandIn;
+    private final int loadTestStandInCostPercent;
+    private final Path loadTestReport;
+    private final String networkBind;
+    private final int networkTcpPort;
+    private final int networkUdpPort;
+    private final int networkHttpPort;
+    private final String networkEncoding;
+    private final int networkSampleRate;
+    private final int networkChannels;
+    private final boolean networkUdpRtp;
+    private final int networkJitterMs;
+    private final int networkIdleTimeoutMs;
+    private final String adminBind;
+    private final int adminPort;
+    private final Path jfrFile;
+    private final int jfrMaxAgeMinutes;
+
+    /**
+     * Construye y valida la configuración a partir de valores ya resueltos.
+     *
+     * @param resolved valores por clave (las claves ausentes toman el valor por defecto)
+     * @throws IllegalArgumentException con todos los errores de validación encontrados
+     */
+    AppSettings(Map<String, String> resolved) {
+        Map<String, String> merged = new LinkedHashMap<>(DEFAULTS);
+        merged.putAll(resolved);
+        this.values = Collections.unmodifiableMap(merged);
+
+        List<String> errors = new ArrayList<>();
+        for (String key : resolved.keySet()) {
+            if (!DEFAULTS.containsKey(key)) {
+                errors.add("Clave de configuración desconocida: " + key);
+            }
+        }
+
+        PerformanceProfile parsedProfile = PerformanceProfile.BALANCED;
+        try {
+            parsedProfile = PerformanceProfile.fromId(merged.get(PROFILE));
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+        }
+        this.profile = parsedProfile;
+
+        this.engineId = requireText(ENGINE_ID, errors);
+        this.syntheticCostPercent = intValue(ENGINE_SYNTHETIC_COST, 0, 1000, errors);
+        this.syntheticCallMicros = intValue(ENGINE_SYNTHETIC_CALL, 0, 1_000_000, errors);
+        this.modelPath = requireText(MODEL_PATH, errors);
+        this.modelIdleUnloadSeconds = intValue(MODEL_IDLE_UNLOAD, 0, 7 * 86400, errors);
+        List<LocalTime> prewarm = new ArrayList<>();
+        for (String time : listValue(MODEL_PREWARM_AT)) {
+            try {
+                prewarm.add(LocalTime.parse(time));
+            } catch (DateTimeParseException e) {
+                errors.add(MODEL_PREWARM_AT + ": hora inválida (HH:mm): " + time);
+            }
+        }
+        this.modelPrewarmAt = Collections.unmodifiableList(prewarm);
+        this.sampleRate = intValue(SAMPLE_RATE, 8000, 48000, errors);
+        this.chunkSizeLive = evenValue(CHUNK_LIVE, 320, 64000, errors);
+        this.chunkSizeFile = evenValue(CHUNK_FILE, 320, 1 << 20, errors);
+        this.audioCaptureNative = booleanValue(AUDIO_CAPTURE_NATIVE, errors);
+        this.tempDir = Paths.get(requireText(TEMP_DIR, errors));
+        this.transcriptionsDir = Paths.get(requireText(TRANSCRIPTIONS_DIR, errors));
+        String checkpoints = merged.get(CHECKPOINT_DIR).trim();
+        this.checkpointDir = checkpoints.isEmpty() ? tempDir.resolve("checkpoints") : Paths.get(checkpoints);
+        this.checkpointIntervalBytes = intValue(CHECKPOINT_INTERVAL, 32000, Integer.MAX_VALUE, errors);
+        this.maxRecognizers = AUTO.equalsIgnoreCase(merged.get(MAX_RECOGNIZERS).trim())
+            ? Runtime.getRuntime().availableProcessors()
+            : intValue(MAX_RECOGNIZERS, 1, 1024, errors);
+        this.grammarStreamsPerCpu = intValue(GRAMMAR_STREAMS_PER_CPU, 1, 256, errors);
+        this.grammarCachePerGrammar = intValue(GRAMMAR_CACHE, 0, 256, errors);
+        this.ffmpegTimeoutSeconds = intValue(FFMPEG_TIMEOUT, 1, 86400, errors);
+        this.fileDeadlineSeconds = intValue(FILE_DEADLINE, 0, 7 * 86400, errors);
+        this.batchConvertThreads = intValue(BATCH_CONVERT_THREADS, 1, 64, errors);
+        this.batchDecodeThreads = intValue(BATCH_DECODE_THREADS, 0, 256, errors);
+        this.batchPersistThreads = intValue(BATCH_PERSIST_THREADS, 1, 16, errors);
+        this.batchQueueDepth = intValue(BATCH_QUEUE_DEPTH, 1, 64, errors);
+        this.followPollMs = intValue(FOLLOW_POLL, 10, 60_000, errors);
+        this.followIdleSeconds = intValue(FOLLOW_IDLE, 1, 7 * 86400, errors);
+        this.followSentinelSuffix = requireText(FOLLOW_SENTINEL_SUFFIX, errors);
+        this.followSaveIntervalSeconds = intValue(FOLLOW_SAVE_INTERVAL, 0, 86400, errors);
+        this.keywordsMinConfidencePercent = intValue(KEYWORDS_MIN_CONFIDENCE, 0, 100, errors);
+        this.partialsFile = partialModeValue(PARTIALS_FILE, errors);
+        this.partialsLive = partialModeValue(PARTIALS_LIVE, errors);
+        this.liveLatencyOverlay = booleanValue(LIVE_LATENCY_OVERLAY, errors);
+        this.partialsNetwork = partialModeValue(PARTIALS_NETWORK, errors);
+        this.partialsIntervalMs = intValue(PARTIALS_INTERVAL, 0, 60_000, errors);
+        this.watchdogNativeCallMs = intValue(WATCHDOG_NATIVE_CALL, 0, 3_600_000, errors);
+        this.decoderThreads = AUTO.equalsIgnoreCase(merged.get(DECODER_THREADS).trim())
+            ? Runtime.getRuntime().availableProcessors()
+            : intValue(DECODER_THREADS, 0, 1024, errors);
+        this.decoderQuantumChunks = intValue(DECODER_QUANTUM_CHUNKS, 1, 1000, errors);
+        this.decoderMaxLatencyMs = intValue(DECODER_MAX_LATENCY, 10, 60_000, errors);
+        this.decoderBufferMs = intValue(DECODER_BUFFER_MS, 100, 600_000, errors);
+        this.workerProcesses = intValue(WORKER_PROCESSES, 0, 256, errors);
+        this.workerEndpoints = listValue(WORKER_ENDPOINTS);
+        for (String endpoint : workerEndpoints) {
+            if (!endpoint.matches("[^:\\s]+:\\d{1,5}")) {
+                errors.add(WORKER_ENDPOINTS + ": endpoint inválido (host:puerto): " + endpoint);
+            }
+        }
+        this.workerMaxRetries = intValue(WORKER_RETRIES, 0, 100, errors);
+        this.workerJvmArgs = List.of(merged.get(WORKER_JVM_ARGS).trim().split("\\s+")).stream()
+            .filter(arg -> !arg.isEmpty())
+            .toList();
+        this.workerBind = requireText(WORKER_BIND, errors);
+        this.workerPort = intValue(WORKER_PORT, 0, 65535, errors);
+        String index = merged.get(INDEX_DIR).trim();
+        this.indexDir = index.isEmpty() ? transcriptionsDir.resolve(".index") : Paths.get(index);
+        this.indexEnabled = booleanValue(INDEX_ENABLED, errors);
+        this.indexMergeFactor = intValue(INDEX_MERGE_FACTOR, 2, 100, errors);
+        WriterFormat parsedFormat = WriterFormat.FILES;
+        try {
+            parsedFormat = WriterFormat.fromId(merged.get(WRITER_FORMAT));
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+        }
+        this.writerFormat = parsedFormat;
+        this.writerQueueCapacity = intValue(WRITER_QUEUE_CAPACITY, 1, 1 << 16, errors);
+        this.writerBatchMax = intValue(WRITER_BATCH_MAX, 1, 4096, errors);
+        this.writerSubmitTimeoutMs = intValue(WRITER_SUBMIT_TIMEOUT, 0, Integer.MAX_VALUE, errors);
+        String archive = merged.get(ARCHIVE_DIR).trim();
+        this.archiveDir = archive.isEmpty() ? transcriptionsDir.resolve(".archive") : Paths.get(archive);
+        this.archiveSegmentBytes = intValue(ARCHIVE_SEGMENT_BYTES, 1 << 20, 1 << 30, errors);
+        this.archiveBlockBytes = intValue(ARCHIVE_BLOCK_BYTES, 4096, 16 << 20, errors);
+        this.tempRetentionHours = intValue(TEMP_RETENTION_HOURS, 0, 87600, errors);
+        this.warmupEnabled = booleanValue(WARMUP_ENABLED, errors);
+        this.warmupAudioMs = intValue(WARMUP_AUDIO_MS, 100, 60_000, errors);
+        this.warmupPrefault = booleanValue(WARMUP_PREFAULT, errors);
+        this.warmupRecognizers = intValue(WARMUP_RECOGNIZERS, 0, 64, errors);
+        this.memoryBudgetMb = AUTO.equalsIgnoreCase(merged.get(MEMORY_BUDGET).trim())
+            ? -1
+            : intValue(MEMORY_BUDGET, 0, Integer.MAX_VALUE, errors);
+        this.memoryModelMb = intValue(MEMORY_MODEL, 0, 1 << 20, errors);
+        this.memoryRecognizerMb = intValue(MEMORY_RECOGNIZER, 0, 1 << 20, errors);
+        this.memoryGrammarRecognizerMb = intValue(MEMORY_GRAMMAR_RECOGNIZER, 0, 1 << 20, errors);
+        AdmissionPolicy parsedAdmission = AdmissionPolicy.QUEUE;
+        try {
+            parsedAdmission = AdmissionPolicy.fromId(merged.get(MEMORY_ADMISSION));
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+        }
+        this.memoryAdmission = parsedAdmission;
+        this.memoryQueueTimeoutMs = intValue(MEMORY_QUEUE_TIMEOUT, 0, 3_600_000, errors);
+        this.twoPassModelPath = merged.get(TWO_PASS_MODEL_PATH).trim();
+        this.twoPassBufferBytes = evenValue(TWO_PASS_BUFFER_BYTES, 65536, 64 << 20, errors);
+        this.twoPassKeepRecordings = booleanValue(TWO_PASS_KEEP_RECORDINGS, errors);
+        this.speakerModelPath = merged.get(SPEAKER_MODEL_PATH).trim();
+        this.speakerThreads = intValue(SPEAKER_THREADS, 1, 64, errors);
+        this.speakerBatchSize = intValue(SPEAKER_BATCH_SIZE, 1, 1024, errors);
+        this.speakerSimilarityPercent = intValue(SPEAKER_SIMILARITY, 0, 100, errors);
+        this.speakerMaxSpeakers = intValue(SPEAKER_MAX_SPEAKERS, 1, 100, errors);
+        this.speakerLive = booleanValue(SPEAKER_LIVE, errors);
+        this.loadTestStartStreams = intValue(LOADTEST_START_STREAMS, 1, 10_000, errors);
+        this.loadTestMaxStreams = intValue(LOADTEST_MAX_STREAMS, 1, 10_000, errors);
+        if (loadTestMaxStreams < loadTestStartStreams) {
+            errors.add(LOADTEST_MAX_STREAMS + " debe ser >= " + LOADTEST_START_STREAMS);
+        }
+        this.loadTestStep = intValue(LOADTEST_STEP, 1, 10_000, errors);
+        this.loadTestStepSeconds = intValue(LOADTEST_STEP_SECONDS, 5, 86400, errors);
+        this.loadTestSloMs = intValue(LOADTEST_SLO_MS, 10, 600_000, errors);
+        this.loadTestPercentile = intValue(LOADTEST_PERCENTILE, 50, 100, errors);
+        this.loadTestStandIn = booleanValue(LOADTEST_STAND_IN, errors);
+        this.loadTestStandInCostPercent = intValue(LOADTEST_STAND_IN_COST, 0, 1000, errors);
+        this.loadTestReport = Paths.get(requireText(LOADTEST_REPORT, errors));
+        this.networkBind = requireText(NETWORK_BIND, errors);
+        this.networkTcpPort = intValue(NETWORK_TCP_PORT, -1, 65535, errors);
+        this.networkUdpPort = intValue(NETWORK_UDP_PORT, -1, 65535, errors);
+        this.networkHttpPort = intValue(NETWORK_HTTP_PORT, -1, 65535, errors);
+        this.networkEncoding = merged.get(NETWORK_ENCODING).trim();
+        try {
+            StreamEncoding.fromId(networkEncoding);
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+        }
+        this.networkSampleRate = intValue(NETWORK_SAMPLE_RATE, 8000, 192000, errors);
+        this.networkChannels = intValue(NETWORK_CHANNELS, 1, 8, errors);
+        this.networkUdpRtp = booleanValue(NETWORK_UDP_RTP, errors);
+        this.networkJitterMs = intValue(NETWORK_JITTER_MS, 0, 2000, errors);
+        this.networkIdleTimeoutMs = intValue(NETWORK_IDLE_TIMEOUT_MS, 100, 3_600_000, errors);
+        this.adminBind = requireText(ADMIN_BIND, errors);
+        this.adminPort = intValue(ADMIN_PORT, -1, 65535, errors);
+        String jfr = merged.get(JFR_FILE).trim();
+        this.jfrFile = jfr.isEmpty() ? null : Paths.get(jfr);
+        this.jfrMaxAgeMinutes = intValue(JFR_MAX_AGE_MINUTES, 1, 7 * 24 * 60, errors);
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(
+                "Configuración inválida:\n  - " + String.join("\n  - ", errors));
+        }
+    }
+
+    /**
+     * Configuración activa. Mientras no se instale otra, usa los valores por defecto.
+     */
+    public static AppSettings current() {
+        return current;
+    }
+
+    /**
+     * Instala la configuración activa. Debe llamarse al inicio, antes de usar
+     * los servicios del core (algunos leen la configuración al cargarse).
+     */
+    public static void install(AppSettings settings) {
+        current = settings;
+    }
+
+    /**
+     * Claves conocidas, en orden de declaración.
+     */
+    public static Set<String> keys() {
+        return DEFAULTS.keySet();
+    }
+
+    /**
+     * Valores efectivos por clave (para registro y diagnóstico).
+     */
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    public PerformanceProfile profile() {
+        return profile;
+    }
+
+    /**
+     * Motor de reconocimiento ({@code engine.id}), ver {@code AsrEngines}.
+     */
+    public String engineId() {
+        return engineId;
+    }
+
+    /**
+     * CPU del motor sintético por segundo de audio, en % de un núcleo.
+     */
+    public int syntheticCostPercent() {
+        return syntheticCostPercent;
+    }
+
+    /**
+     * CPU fija del motor sintético por {@code acceptWaveForm}, en microsegundos.
+     */
+    public int syntheticCallMicros() {
+        return syntheticCallMicros;
+    }
+
+    public String modelPath() {
+        return modelPath;
+    }
+
+    /**
+     * Segundos sin recognizers activos tras los que se descarga el modelo (0 = nunca).
+     */
+    public int modelIdleUnloadSeconds() {
+        return modelIdleUnloadSeconds;
+    }
+
+    /**
+     * Horas del día a las que se carga y calienta el modelo si estaba descargado.
+     */
+    public List<LocalTime> modelPrewarmAt() {
+        return modelPrewarmAt;
+    }
+
+    public float sampleRate() {
+        return sampleRate;
+    }
+
+    public int chunkSizeLive() {
+        return chunkSizeLive;
+    }
+
+    public int chunkSizeFile() {
+        return chunkSizeFile;
+    }
+
+    /**
+     * Si el micrófono se abre en su formato nativo (convirtiendo en la JVM)
+     * aunque el mezclador del SO acepte el del modelo.
+     */
+    public boolean audioCaptureNative() {
+        return audioCaptureNative;
+    }
+
+    public Path tempDir() {
+        return tempDir;
+    }
+
+    /**
+     * Grabaciones de sesiones en vivo pendientes de segunda pasada.
+     */
+    public Path recordingsDir() {
+        return tempDir.resolve("recordings");
+    }
+
+    public Path transcriptionsDir() {
+        return transcriptionsDir;
+    }
+
+    public Path checkpointDir() {
+        return checkpointDir;
+    }
+
+    public int checkpointIntervalBytes() {
+        return checkpointIntervalBytes;
+    }
+
+    public int maxRecognizers() {
+        return maxRecognizers;
+    }
+
+    public int grammarStreamsPerCpu() {
+        return grammarStreamsPerCpu;
+    }
+
+    public int grammarCachePerGrammar() {
+        return grammarCachePerGrammar;
+    }
+
+    public int ffmpegTimeoutSeconds() {
+        return ffmpegTimeoutSeconds;
+    }
+
+    /**
+     * Plazo total para transcribir un archivo (conversión incluida), en
+     * segundos; 0 = sin plazo.
+     */
+    public int fileDeadlineSeconds() {
+        return fileDeadlineSeconds;
+    }
+
+    /**
+     * Conversiones ffmpeg simultáneas en un lote.
+     */
+    public int batchConvertThreads() {
+        return batchConvertThreads;
+    }
+
+    /**
+     * Decodificaciones simultáneas en un lote (0 = {@link #maxRecognizers()}).
+     */
+    public int batchDecodeThreads() {
+        return batchDecodeThreads;
+    }
+
+    /**
+     * Guardados simultáneos en un lote.
+     */
+    public int batchPersistThreads() {
+        return batchPersistThreads;
+    }
+
+    /**
+     * Archivos en espera entre dos etapas de un lote.
+     */
+    public int batchQueueDepth() {
+        return batchQueueDepth;
+    }
+
+    /**
+     * Intervalo con el que el seguimiento de un archivo mira su tamaño, haya
+     * o no eventos de {@code WatchService}.
+     */
+    public int followPollMs() {
+        return followPollMs;
+    }
+
+    /**
+     * Tiempo sin crecer tras el cual se da por terminada la grabación seguida.
+     */
+    public int followIdleSeconds() {
+        return followIdleSeconds;
+    }
+
+    /**
+     * Sufijo del archivo centinela ({@code grabacion.wav.done}) que marca el
+     * fin de la grabación seguida.
+     */
+    public String followSentinelSuffix() {
+        return followSentinelSuffix;
+    }
+
+    /**
+     * Cada cuánto se guarda la transcripción en curso de un archivo seguido;
+     * 0 = solo al terminar. Con {@code writer.format=archive} se guarda solo al
+     * terminar sea cual sea.
+     */
+    public int followSaveIntervalSeconds() {
+        return followSaveIntervalSeconds;
+    }
+
+    /**
+     * Confianza media mínima (en %) de las palabras de una frase para emitirla
+     * como coincidencia en el modo palabras clave.
+     */
+    public int keywordsMinConfidencePercent() {
+        return keywordsMinConfidencePercent;
+    }
+
+    /**
+     * Resultados parciales al transcribir archivos.
+     */
+    public PartialResultMode partialsFile() {
+        return partialsFile;
+    }
+
+    /**
+     * Resultados parciales en micrófono.
+     */
+    public PartialResultMode partialsLive() {
+        return partialsLive;
+    }
+
+    /**
+     * Muestra sobre la transcripción en vivo el retardo entre la captura y el
+     * texto en pantalla.
+     */
+    public boolean liveLatencyOverlay() {
+        return liveLatencyOverlay;
+    }
+
+    /**
+     * Resultados parciales en la ingesta de red.
+     */
+    public PartialResultMode partialsNetwork() {
+        return partialsNetwork;
+    }
+
+    /**
+     * Intervalo mínimo entre parciales en los modos {@code interval} y {@code changed}.
+     */
+    public int partialsIntervalMs() {
+        return partialsIntervalMs;
+    }
+
+    /**
+     * Duración a partir de la cual una llamada al recognizer se considera
+     * colgada y su sesión se pone en cuarentena; 0 = sin vigilancia.
+     */
+    public int watchdogNativeCallMs() {
+        return watchdogNativeCallMs;
+    }
+
+    /**
+     * Hilos del planificador de decodificación (0 = un hilo por stream).
+     */
+    public int decoderThreads() {
+        return decoderThreads;
+    }
+
+    /**
+     * Si los streams de red se decodifican con el planificador compartido.
+     */
+    public boolean decoderSchedulerEnabled() {
+        return decoderThreads > 0;
+    }
+
+    /**
+     * Chunks que decodifica una sesión por turno antes de ceder el hilo.
+     */
+    public int decoderQuantumChunks() {
+        return decoderQuantumChunks;
+    }
+
+    /**
+     * Espera máxima del audio antes de decodificarse aunque no complete un chunk.
+     */
+    public int decoderMaxLatencyMs() {
+        return decoderMaxLatencyMs;
+    }
+
+    /**
+     * Audio pendiente por sesión, en ms, antes de descartar los chunks más antiguos.
+     */
+    public int decoderBufferMs() {
+        return decoderBufferMs;
+    }
+
+    /**
+     * Número de procesos worker locales a lanzar (0 = reconocimiento en este proceso).
+     */
+    public int workerProcesses() {
+        return workerProcesses;
+    }
+
+    /**
+     * Workers remotos ya en ejecución ({@code host:puerto}), p. ej. en otros hosts.
+     */
+    public List<String> workerEndpoints() {
+        return workerEndpoints;
+    }
+
+    /**
+     * Indica si el reconocimiento se delega a procesos worker.
+     */
+    public boolean workerModeEnabled() {
+        return workerProcesses > 0 || !workerEndpoints.isEmpty();
+    }
+
+    public int workerMaxRetries() {
+        return workerMaxRetries;
+    }
+
+    public List<String> workerJvmArgs() {
+        return workerJvmArgs;
+    }
+
+    public String workerBind() {
+        return workerBind;
+    }
+
+    public int workerPort() {
+        return workerPort;
+    }
+
+    public Path indexDir() {
+        return indexDir;
+    }
+
+    /**
+     * Indica si {@code Writer} actualiza el índice de búsqueda en cada guardado.
+     */
+    public boolean indexEnabled() {
+        return indexEnabled;
+    }
+
+    public int indexMergeFactor() {
+        return indexMergeFactor;
+    }
+
+    public WriterFormat writerFormat() {
+        return writerFormat;
+    }
+
+    /**
+     * Guardados pendientes que admite la cola de escritura antes de bloquear
+     * a quien guarda.
+     */
+    public int writerQueueCapacity() {
+        return writerQueueCapacity;
+    }
+
+    /**
+     * Máximo de guardados que se confirman juntos en un lote.
+     */
+    public int writerBatchMax() {
+        return writerBatchMax;
+    }
+
+    /**
+     * Espera máxima por sitio en la cola llena; al vencer, el guardado falla.
+     */
+    public int writerSubmitTimeoutMs() {
+        return writerSubmitTimeoutMs;
+    }
+
+    public Path archiveDir() {
+        return archiveDir;
+    }
+
+    /**
+     * Tamaño a partir del cual se sella el segmento activo del archivo.
+     */
+    public int archiveSegmentBytes() {
+        return archiveSegmentBytes;
+    }
+
+    /**
+     * Tamaño objetivo (sin comprimir) de los bloques al compactar el archivo.
+     */
+    public int archiveBlockBytes() {
+        return archiveBlockBytes;
+    }
+
+    /**
+     * Horas que se conservan los archivos sueltos de {@code dirs.temp} (0 = siempre).
+     */
+    public int tempRetentionHours() {
+        return tempRetentionHours;
+    }
+
+    /**
+     * Si se calienta el modelo (audio sintético) tras cargarlo.
+     */
+    public boolean warmupEnabled() {
+        return warmupEnabled;
+    }
+
+    /**
+     * Duración del audio sintético del calentamiento.
+     */
+    public int warmupAudioMs() {
+        return warmupAudioMs;
+    }
+
+    /**
+     * Si se leen los archivos del modelo antes de cargarlo (caché de páginas del SO).
+     */
+    public boolean warmupPrefault() {
+        return warmupPrefault;
+    }
+
+    /**
+     * Recognizers del modelo completo que se crean calentados al arrancar y se
+     * conservan reiniciados entre sesiones (0 = crear uno nuevo cada vez).
+     */
+    public int warmupRecognizers() {
+        return warmupRecognizers;
+    }
+
+    /**
+     * Presupuesto de memoria nativa para modelo y recognizers, en MB
+     * (-1 = automático, 0 = sin límite).
+     */
+    public long memoryBudgetMb() {
+        return memoryBudgetMb;
+    }
+
+    /**
+     * Estimación inicial de memoria del modelo (0 = según su tamaño en disco).
+     */
+    public int memoryModelMb() {
+        return memoryModelMb;
+    }
+
+    /**
+     * Estimación inicial por recognizer del modelo completo (0 = según el modelo).
+     */
+    public int memoryRecognizerMb() {
+        return memoryRecognizerMb;
+    }
+
+    public int memoryGrammarRecognizerMb() {
+        return memoryGrammarRecognizerMb;
+    }
+
+    public AdmissionPolicy memoryAdmission() {
+        return memoryAdmission;
+    }
+
+    /**
+     * Espera máxima por memoria con la política {@code queue}.
+     */
+    public int memoryQueueTimeoutMs() {
+        return memoryQueueTimeoutMs;
+    }
+
+    /**
+     * Modelo preciso con el que se redecodifican las sesiones en vivo; vacío
+     * si la segunda pasada está desactivada.
+     */
+    public String twoPassModelPath() {
+        return twoPassModelPath;
+    }
+
+    public boolean twoPassEnabled() {
+        return !twoPassModelPath.isEmpty();
+    }
+
+    /**
+     * Buffer directo en el que se acumula el PCM grabado antes de cada escritura.
+     */
+    public int twoPassBufferBytes() {
+        return twoPassBufferBytes;
+    }
+
+    /**
+     * Conservar la grabación tras la segunda pasada (si no, se borra).
+     */
+    public boolean twoPassKeepRecordings() {
+        return twoPassKeepRecordings;
+    }
+
+    /**
+     * Modelo de hablante con el que se etiquetan los finales de los archivos
+     * (y del micrófono con {@code speaker.live}); vacío si no se etiquetan.
+     */
+    public String speakerModelPath() {
+        return speakerModelPath;
+    }
+
+    public boolean speakerEnabled() {
+        return !speakerModelPath.isEmpty();
+    }
+
+    /**
+     * Hilos que asignan hablantes a los finales, compartidos por todas las sesiones.
+     */
+    public int speakerThreads() {
+        return speakerThreads;
+    }
+
+    /**
+     * Finales de una misma sesión que se etiquetan por turno antes de ceder el hilo.
+     */
+    public int speakerBatchSize() {
+        return speakerBatchSize;
+    }
+
+    /**
+     * Similitud coseno mínima (en %) entre un embedding y un hablante conocido
+     * para atribuirle el segmento; por debajo se abre un hablante nuevo.
+     */
+    public int speakerSimilarityPercent() {
+        return speakerSimilarityPercent;
+    }
+
+    /**
+     * Hablantes distintos por sesión; al llegar al máximo cada segmento va al más parecido.
+     */
+    public int speakerMaxSpeakers() {
+        return speakerMaxSpeakers;
+    }
+
+    /**
+     * Si las sesiones de micrófono también etiquetan hablantes (requiere
+     * {@code speaker.modelPath}). Desactivado por defecto: el embedding
+     * encarece cada final en vivo.
+     */
+    public boolean speakerLive() {
+        return speakerLive;
+    }
+
+    /**
+     * Streams simultáneos del primer escalón de la prueba de carga.
+     */
+    public int loadTestStartStreams() {
+        return loadTestStartStreams;
+    }
+
+    public int loadTestMaxStreams() {
+        return loadTestMaxStreams;
+    }
+
+    /**
+     * Streams que se añaden en cada escalón.
+     */
+    public int loadTestStep() {
+        return loadTestStep;
+    }
+
+    /**
+     * Duración del audio de cada stream en un escalón.
+     */
+    public int loadTestStepSeconds() {
+        return loadTestStepSeconds;
+    }
+
+    /**
+     * Latencia máxima admitida en {@link #loadTestPercentile()} para dar un escalón por bueno.
+     */
+    public int loadTestSloMs() {
+        return loadTestSloMs;
+    }
+
+    public int loadTestPercentile() {
+        return loadTestPercentile;
+    }
+
+    /**
+     * Si la prueba de carga usa un recognizer sintético en lugar del modelo.
+     */
+    public boolean loadTestStandIn() {
+        return loadTestStandIn;
+    }
+
+    /**
+     * CPU que consume el recognizer sintético, en % de la duración del audio.
+     */
+    public int loadTestStandInCostPercent() {
+        return loadTestStandInCostPercent;
+    }
+
+    /**
+     * Archivo JSON del informe de capacidad.
+     */
+    public Path loadTestReport() {
+        return loadTestReport;
+    }
+
+    /**
+     * Interfaz de escucha de la ingesta de audio por red.
+     */
+    public String networkBind() {
+        return networkBind;
+    }
+
+    /**
+     * Puerto TCP de PCM crudo (-1 = deshabilitado, 0 = efímero).
+     */
+    public int networkTcpPort() {
+        return networkTcpPort;
+    }
+
+    /**
+     * Puerto UDP (RTP o PCM crudo por datagrama; -1 = deshabilitado).
+     */
+    public int networkUdpPort() {
+        return networkUdpPort;
+    }
+
+    /**
+     * Puerto HTTP para cuerpos POST/PUT chunked (-1 = deshabilitado).
+     */
+    public int networkHttpPort() {
+        return networkHttpPort;
+    }
+
+    /**
+     * Codificación por defecto de los streams de red (ver {@code StreamEncoding}).
+     */
+    public String networkEncoding() {
+        return networkEncoding;
+    }
+
+    public int networkSampleRate() {
+        return networkSampleRate;
+    }
+
+    public int networkChannels() {
+        return networkChannels;
+    }
+
+    /**
+     * Si los datagramas UDP llevan cabecera RTP (reordenación y detección de pérdidas).
+     */
+    public boolean networkUdpRtp() {
+        return networkUdpRtp;
+    }
+
+    /**
+     * Espera máxima del jitter buffer ante un hueco antes de rellenarlo con silencio.
+     */
+    public int networkJitterMs() {
+        return networkJitterMs;
+    }
+
+    /**
+     * Inactividad tras la que se da por terminado un stream UDP.
+     */
+    public int networkIdleTimeoutMs() {
+        return networkIdleTimeoutMs;
+    }
+
+    /**
+     * Dirección del endpoint HTTP de administración.
+     */
+    public String adminBind() {
+        return adminBind;
+    }
+
+    /**
+     * Puerto del endpoint de administración (-1 = deshabilitado, 0 = efímero).
+     */
+    public int adminPort() {
+        return adminPort;
+    }
+
+    /**
+     * Archivo donde volcar la grabación JFR continua al salir, o null si no se graba.
+     */
+    public Path jfrFile() {
+        return jfrFile;
+    }
+
+    /**
+     * Minutos de eventos JFR que conserva la grabación continua.
+     */
+    public int jfrMaxAgeMinutes() {
+        return jfrMaxAgeMinutes;
+    }
+
+    private PartialResultMode partialModeValue(String key, List<String> errors) {
+        try {
+            return PartialResultMode.fromId(values.get(key));
+        } catch (IllegalArgumentException e) {
+            errors.add(key + ": " + e.getMessage());
+            return PartialResultMode.ALL;
+        }
+    }
+
+    private String requireText(String key, List<String> errors) {
+        String value = values.get(key).trim();
+        if (value.isEmpty()) {
+            errors.add(key + " no puede estar vacío");
+        }
+        return value;
+    }
+
+    private List<String> listValue(String key) {
+        List<String> items = new ArrayList<>();
+        for (String item : values.get(key).split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private boolean booleanValue(String key, List<String> errors) {
+        String raw = values.get(key).trim();
+        if (!raw.equalsIgnoreCase("true") && !raw.equalsIgnoreCase("false")) {
+            errors.add(key + "=" + raw + " debe ser true o false");
+        }
+        return Boolean.parseBoolean(raw);
+    }
+
+    private int intValue(String key, int min, int max, List<String> errors) {
+        String raw = values.get(key).trim();
+        try {
+            int value = Integer.parseInt(raw);
+            if (value < min || value > max) {
+                errors.add(key + "=" + raw + " fuera de rango [" + min + ", " + max + "]");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            errors.add(key + "=" + raw + " no es un entero");
+            return min;
+        }
+    }
+
+    /**
+     * Tamaños de chunk en bytes: deben ser pares para no partir muestras de 16 bits.
+     */
+    private int evenValue(String key, int min, int max, List<String> errors) {
+        int value = intValue(key, min, max, errors);
+        if (value % 2 != 0) {
+            errors.add(key + "=" + value + " debe ser par (muestras de 16 bits)");
+        }
+        return value;
+    }
+}
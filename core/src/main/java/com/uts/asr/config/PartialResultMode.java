@@ -0,0 +1,46 @@
+package com.uts.asr.config;
+
+/**
+ * Cuándo pedir al recognizer el resultado parcial tras un chunk sin final.
+ * Cada petición es una llamada nativa (o un viaje al worker) que serializa JSON.
+ */
+public enum PartialResultMode {
+
+    /** Nunca: solo finales (lotes de archivos). */
+    OFF("off"),
+
+    /** Tras cada chunk sin final. */
+    ALL("all"),
+
+    /** Como mucho uno cada {@code partials.intervalMs}. */
+    INTERVAL("interval"),
+
+    /** Como mucho uno cada {@code partials.intervalMs}, y solo si el texto cambió. */
+    CHANGED("changed");
+
+    private final String id;
+
+    PartialResultMode(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Busca un modo por su identificador.
+     *
+     * @throws IllegalArgumentException si el modo no existe
+     */
+    public static PartialResultMode fromId(String id) {
+        String normalized = id == null ? "" : id.trim();
+        for (PartialResultMode mode : values()) {
+            if (mode.id.equalsIgnoreCase(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Modo de parciales desconocido: " + id
+            + " (off, all, interval, changed)");
+    }
+}
@@ -0,0 +1,81 @@
+package com.uts.asr.config;
+
+import java.util.Map;
+
+/**
+ * Perfiles de rendimiento con valores predefinidos.
+ * <p>
+ * Un perfil solo sobrescribe los valores por defecto; el archivo de
+ * configuración, las variables de entorno y los flags tienen prioridad sobre él.
+ * </p>
+ */
+public enum PerformanceProfile {
+
+    /** Valores por defecto: equilibrio latencia/throughput. */
+    BALANCED("balanced", Map.of()),
+
+    /** Chunks pequeños para partials rápidos en micrófono. */
+    LOW_LATENCY_LIVE("low-latency-live", Map.of(
+        AppSettings.CHUNK_LIVE, "1600",      // ~50ms
+        AppSettings.CHUNK_FILE, "8000",
+        AppSettings.PARTIALS_INTERVAL, "50"
+    )),
+
+    /** Chunks grandes y checkpoints espaciados para lotes de archivos. */
+    MAX_THROUGHPUT_BATCH("max-throughput-batch", Map.of(
+        AppSettings.CHUNK_LIVE, "8000",
+        AppSettings.CHUNK_FILE, "64000",     // ~2s
+        AppSettings.CHECKPOINT_INTERVAL, "9600000", // ~5 min de audio
+        AppSettings.PARTIALS_INTERVAL, "500",
+        AppSettings.BATCH_CONVERT_THREADS, "4",
+        AppSettings.BATCH_QUEUE_DEPTH, "4"
+    )),
+
+    /** Un solo recognizer y cachés mínimas para equipos con poca memoria. */
+    LOW_MEMORY_EDGE("low-memory-edge", Map.of(
+        AppSettings.MAX_RECOGNIZERS, "1",
+        AppSettings.GRAMMAR_STREAMS_PER_CPU, "2",
+        AppSettings.GRAMMAR_CACHE, "1",
+        AppSettings.CHUNK_FILE, "4000",
+        AppSettings.WARMUP_RECOGNIZERS, "0",
+        AppSettings.BATCH_CONVERT_THREADS, "1",
+        AppSettings.BATCH_QUEUE_DEPTH, "1"
+    ));
+
+    private final String id;
+    private final Map<String, String> overrides;
+
+    PerformanceProfile(String id, Map<String, String> overrides) {
+        this.id = id;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Identificador usado en configuración (por ejemplo {@code low-latency-live}).
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Valores que el perfil sobrescribe sobre los valores por defecto.
+     */
+    public Map<String, String> overrides() {
+        return overrides;
+    }
+
+    /**
+     * Busca un perfil por su identificador.
+     *
+     * @throws IllegalArgumentException si el perfil no existe
+     */
+    public static PerformanceProfile fromId(String id) {
+        String normalized = id == null ? "" : id.trim();
+        for (PerformanceProfile profile : values()) {
+            if (profile.id.equalsIgnoreCase(normalized) || profile.name().equalsIgnoreCase(normalized)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Perfil de rendimiento desconocido: " + id);
+    }
+}
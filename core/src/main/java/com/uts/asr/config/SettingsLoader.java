@@ -0,0 +1,273 @@
+package com.uts.asr.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Resuelve la configuración efectiva a partir de varias fuentes.
+ * <p>
+ * Prioridad (de menor a mayor): valores por defecto, perfil de rendimiento,
+ * archivo de configuración, variables de entorno y flags de línea de comandos.
+ * </p>
+ * <ul>
+ *   <li>Archivo: {@code --config=ruta} o {@code UTS_ASR_CONFIG}; por defecto
+ *       {@code uts-asr.properties} si existe. Admite {@code .properties} y YAML
+ *       simple ({@code clave: valor} con anidación por indentación).</li>
+ *   <li>Entorno: {@code UTS_ASR_} + clave en mayúsculas, p. ej.
+ *       {@code audio.chunkLive} → {@code UTS_ASR_AUDIO_CHUNK_LIVE}.</li>
+ *   <li>Flags: {@code --clave=valor}, p. ej. {@code --profile=low-latency-live}.</li>
+ * </ul>
+ */
+public final class SettingsLoader {
+    private static final Logger logger = LoggerFactory.getLogger(SettingsLoader.class);
+
+    public static final String CONFIG_FLAG = "config";
+    private static final String ENV_PREFIX = "UTS_ASR_";
+    private static final Path DEFAULT_CONFIG_FILE = Paths.get("uts-asr.properties");
+
+    private SettingsLoader() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Carga, valida, registra e instala la configuración efectiva.
+     *
+     * @param args argumentos de la aplicación (se ignoran los que no son {@code --clave=valor})
+     * @return la configuración instalada
+     * @throws IOException si el archivo de configuración no se puede leer
+     * @throws IllegalArgumentException si algún valor es inválido
+     */
+    public static AppSettings load(String[] args) throws IOException {
+        return load(args, System.getenv());
+    }
+
+    static AppSettings load(String[] args, Map<String, String> environment) throws IOException {
+        Map<String, String> cli = parseFlags(args);
+        Map<String, String> env = readEnvironment(environment);
+
+        // Archivo de configuración
+        String configArg = cli.remove(CONFIG_FLAG);
+        if (configArg == null) {
+            configArg = environment.get(ENV_PREFIX + "CONFIG");
+        }
+        Map<String, String> file = new LinkedHashMap<>();
+        Path configFile = null;
+        if (configArg != null) {
+            configFile = Paths.get(configArg);
+            if (!Files.exists(configFile)) {
+                throw new IOException("Archivo de configuración no existe: " + configFile);
+            }
+        } else if (Files.exists(DEFAULT_CONFIG_FILE)) {
+            configFile = DEFAULT_CONFIG_FILE;
+        }
+        if (configFile != null) {
+            file = readFile(configFile);
+        }
+
+        // El perfil puede venir de cualquier fuente
+        String profileId = firstNonNull(cli.get(AppSettings.PROFILE), env.get(AppSettings.PROFILE),
+            file.get(AppSettings.PROFILE), PerformanceProfile.BALANCED.id());
+        PerformanceProfile profile = PerformanceProfile.fromId(profileId);
+
+        Map<String, String> resolved = new LinkedHashMap<>();
+        Map<String, String> sources = new LinkedHashMap<>();
+        merge(resolved, sources, profile.overrides(), "perfil " + profile.id());
+        merge(resolved, sources, file, "archivo " + configFile);
+        merge(resolved, sources, env, "entorno");
+        merge(resolved, sources, cli, "flag");
+        resolved.put(AppSettings.PROFILE, profile.id());
+
+        AppSettings settings = new AppSettings(resolved);
+        AppSettings.install(settings);
+        logEffective(settings, sources);
+        return settings;
+    }
+
+    /**
+     * Argumentos posicionales (los que no son {@code --clave=valor}).
+     */
+    public static List<String> positionalArgs(String[] args) {
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+            }
+        }
+        return positional;
+    }
+
+    /**
+     * Nombre de la variable de entorno para una clave.
+     */
+    static String envName(String key) {
+        return ENV_PREFIX + key
+            .replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+            .replace('.', '_')
+            .toUpperCase(Locale.ROOT);
+    }
+
+    private static Map<String, String> parseFlags(String[] args) {
+        Map<String, String> flags = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Flag sin valor (use --clave=valor): " + arg);
+            }
+            flags.put(arg.substring(2, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        return flags;
+    }
+
+    private static Map<String, String> readEnvironment(Map<String, String> environment) {
+        Map<String, String> env = new LinkedHashMap<>();
+        for (String key : AppSettings.keys()) {
+            String value = environment.get(envName(key));
+            if (value != null) {
+                env.put(key, value.trim());
+            }
+        }
+        return env;
+    }
+
+    private static Map<String, String> readFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            return readYaml(Files.readAllLines(file));
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            props.load(reader);
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            values.put(key, props.getProperty(key).trim());
+        }
+        return values;
+    }
+
+    /**
+     * YAML mínimo: mapas anidados por indentación con valores escalares.
+     * Listas, anclas y bloques multilínea no se admiten.
+     */
+    static Map<String, String> readYaml(List<String> lines) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Deque<int[]> indents = new ArrayDeque<>();
+        Deque<String> prefixes = new ArrayDeque<>();
+
+        int lineNumber = 0;
+        for (String raw : lines) {
+            lineNumber++;
+            String line = stripComment(raw);
+            if (line.isBlank() || line.trim().equals("---")) {
+                continue;
+            }
+            int indent = line.length() - line.stripLeading().length();
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("YAML no soportado en línea " + lineNumber + ": " + raw);
+            }
+            while (!indents.isEmpty() && indents.peek()[0] >= indent) {
+                indents.pop();
+                prefixes.pop();
+            }
+            String key = line.substring(0, colon).trim();
+            String value = unquote(line.substring(colon + 1).trim());
+            String fullKey = prefixes.isEmpty() ? key : prefixes.peek() + "." + key;
+            if (value.isEmpty()) {
+                indents.push(new int[] {indent});
+                prefixes.push(fullKey);
+            } else {
+                values.put(fullKey, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Quita el comentario de una línea: un {@code #} al principio o tras un
+     * espacio, fuera de un valor entre comillas ({@code "/models/es #2"}).
+     */
+    private static String stripComment(String line) {
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if ((c == '"' || c == '\'') && opensScalar(line, i)) {
+                quote = c;
+            } else if (c == '#' && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Una comilla solo abre un valor entre comillas al inicio del escalar
+     * (tras los dos puntos); en {@code it's} es un carácter más.
+     */
+    private static boolean opensScalar(String line, int index) {
+        for (int i = index - 1; i >= 0; i--) {
+            char c = line.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == ':';
+            }
+        }
+        return true;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2
+                && ((value.startsWith("\"") && value.endsWith("\""))
+                || (value.startsWith("'") && value.endsWith("'")))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static void merge(Map<String, String> target, Map<String, String> sources,
+                              Map<String, String> layer, String source) {
+        for (Map.Entry<String, String> entry : layer.entrySet()) {
+            target.put(entry.getKey(), entry.getValue());
+            sources.put(entry.getKey(), source);
+        }
+    }
+
+    private static void logEffective(AppSettings settings, Map<String, String> sources) {
+        logger.info("Configuración efectiva (perfil {}):", settings.profile().id());
+        for (Map.Entry<String, String> entry : settings.asMap().entrySet()) {
+            logger.info("  {} = {} [{}]", entry.getKey(), entry.getValue(),
+                sources.getOrDefault(entry.getKey(), "defecto"));
+        }
+        logger.info("  (recognizers concurrentes resueltos: {})", settings.maxRecognizers());
+    }
+
+    @SafeVarargs
+    private static <T> T firstNonNull(T... values) {
+        for (T value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.uts.asr.config;
+
+/**
+ * Formato de almacenamiento de las transcripciones guardadas.
+ */
+public enum WriterFormat {
+
+    /** Un JSON en {@code dirs.temp} y un {@code .txt} en {@code dirs.transcriptions} por sesión. */
+    FILES("files"),
+
+    /** Segmentos comprimidos append-only en {@code dirs.archive}. */
+    ARCHIVE("archive");
+
+    private final String id;
+
+    WriterFormat(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Busca un formato por su identificador.
+     *
+     * @throws IllegalArgumentException si el formato no existe
+     */
+    public static WriterFormat fromId(String id) {
+        String normalized = id == null ? "" : id.trim();
+        for (WriterFormat format : values()) {
+            if (format.id.equalsIgnoreCase(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Formato de escritura desconocido: " + id + " (files, archive)");
+    }
+}
@@ -0,0 +1,111 @@
+package com.uts.asr.core;
+
+import com.uts.asr.util.PolyphaseResampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.TargetDataLine;
+
+/**
+ * Captura de micrófono entregada siempre en el formato del modelo.
+ * <p>
+ * Envuelve una {@link TargetDataLine} abierta en el formato nativo del
+ * dispositivo y, si difiere del formato requerido, convierte cada bloque con
+ * un {@link PolyphaseResampler} (remuestreo + mezcla a mono) sin reservar
+ * memoria por lectura. Si el dispositivo ya entrega 16 kHz mono, los bytes
+ * pasan sin copia adicional.
+ * </p>
+ */
+public final class AudioCapture implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AudioCapture.class);
+
+    private final TargetDataLine line;
+    private final PolyphaseResampler resampler; // null = formato directo
+    private byte[] nativeBuffer = new byte[0];
+
+    AudioCapture(TargetDataLine line, float targetRate) {
+        this.line = line;
+        AudioFormat format = line.getFormat();
+        boolean direct = format.getSampleRate() == targetRate
+            && format.getChannels() == 1
+            && !format.isBigEndian();
+        this.resampler = direct ? null : new PolyphaseResampler(
+            Math.round(format.getSampleRate()),
+            Math.round(targetRate),
+            format.getChannels(),
+            format.isBigEndian()
+        );
+        if (resampler != null) {
+            logger.info("Captura nativa {} convertida en la JVM a {} Hz mono", format, Math.round(targetRate));
+        }
+    }
+
+    /**
+     * Lee audio convertido al formato del modelo (PCM 16 bits mono LE).
+     * Bloquea hasta capturar el equivalente a {@code length} bytes de salida.
+     *
+     * @return bytes escritos en {@code buffer} (puede ser 0 si la línea se detuvo)
+     */
+    public int read(byte[] buffer, int offset, int length) {
+        if (resampler == null) {
+            return line.read(buffer, offset, length);
+        }
+        int nativeBytes = resampler.inputBytesFor(length);
+        if (nativeBuffer.length < nativeBytes) {
+            // Solo en la primera lectura (o si cambia el tamaño de chunk)
+            nativeBuffer = new byte[nativeBytes];
+        }
+        int read = line.read(nativeBuffer, 0, nativeBytes);
+        if (read <= 0) {
+            return 0;
+        }
+        return resampler.process(nativeBuffer, read, buffer, offset);
+    }
+
+    /**
+     * Audio ya capturado que espera en el buffer de la línea, como duración en
+     * ns. Leído justo después de {@link #read}, es cuánto antes se capturó el
+     * final del bloque leído: si la decodificación se retrasa, crece.
+     */
+    public long bufferedNanos() {
+        AudioFormat format = line.getFormat();
+        double bytesPerSecond = format.getFrameRate() * format.getFrameSize();
+        if (bytesPerSecond <= 0) {
+            return 0;
+        }
+        return Math.round(line.available() / bytesPerSecond * 1_000_000_000L);
+    }
+
+    /**
+     * Formato en el que el hardware está capturando.
+     */
+    public AudioFormat nativeFormat() {
+        return line.getFormat();
+    }
+
+    /**
+     * Indica si la captura se convierte en la JVM.
+     */
+    public boolean isResampling() {
+        return resampler != null;
+    }
+
+    public boolean isOpen() {
+        return line.isOpen();
+    }
+
+    /**
+     * Detiene la línea para desbloquear un {@link #read} en curso.
+     */
+    public void stop() {
+        if (line.isOpen()) {
+            line.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        AudioDeviceManager.closeLine(line);
+    }
+}
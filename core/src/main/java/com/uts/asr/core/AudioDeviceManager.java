@@ -0,0 +1,210 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppConfig;
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.*;
+
+/**
+ * Factory para gestionar dispositivos de audio (micrófono).
+ * Proporciona capturas en el formato de Vosk. Con {@code audio.captureNative}
+ * (por defecto) abre el micrófono en su formato nativo y convierte en la JVM:
+ * que el mezclador del SO acepte 16 kHz no significa que el hardware capture
+ * así, y su remuestreo tiene calidad y latencia desconocidas.
+ */
+public final class AudioDeviceManager {
+    private static final Logger logger = LoggerFactory.getLogger(AudioDeviceManager.class);
+
+    private AudioDeviceManager() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    // Formatos nativos a probar si el dispositivo no declara los suyos, en
+    // orden de preferencia (tasas comunes en interfaces USB)
+    private static final float[] NATIVE_RATES = {48000f, 44100f, 32000f, 96000f, 88200f, 22050f, 16000f, 8000f};
+    private static final int[] NATIVE_CHANNELS = {1, 2};
+
+    /**
+     * Abre una captura que entrega audio en el formato del modelo.
+     * Con {@code audio.captureNative} negocia el formato nativo del
+     * dispositivo y convierte dentro de la JVM, evitando el remuestreo del
+     * mezclador del SO; si no, intenta primero el formato exacto (PCM 16 bits
+     * mono a {@code sampleRate}) y solo negocia si el hardware no lo admite.
+     *
+     * @param sampleRate tasa que espera el modelo (típicamente 16000 Hz)
+     * @return captura abierta y lista para usar
+     * @throws LineUnavailableException si ningún formato PCM 16 bits está disponible
+     */
+    public static AudioCapture openCapture(float sampleRate) throws LineUnavailableException {
+        AudioFormat format = negotiateFormat(sampleRate, AppSettings.current().audioCaptureNative());
+        return new AudioCapture(openLine(format), sampleRate);
+    }
+
+    /**
+     * Abre una línea de captura de audio configurada para Vosk.
+     * Solo funciona si el hardware admite el formato exacto; en general
+     * conviene usar {@link #openCapture(float)}.
+     * 
+     * @param sampleRate tasa de muestreo (típicamente 16000 Hz, ver AppSettings)
+     * @return línea de audio abierta y lista para usar
+     * @throws LineUnavailableException si no hay micrófono disponible
+     */
+    public static TargetDataLine openLine(float sampleRate) throws LineUnavailableException {
+        AudioFormat format = modelFormat(sampleRate);
+        if (!AudioSystem.isLineSupported(new DataLine.Info(TargetDataLine.class, format))) {
+            logger.error("Formato de audio no soportado: {}", format);
+            throw new LineUnavailableException(
+                "El formato de audio no está soportado por el hardware.\n" +
+                "Requerido: PCM 16 bits, " + sampleRate + " Hz, mono"
+            );
+        }
+        return openLine(format);
+    }
+
+    /**
+     * Elige el formato de captura.
+     * <ol>
+     *   <li>Sin {@code preferNative}, el del modelo si está soportado.</li>
+     *   <li>Un formato PCM 16 bits que el dispositivo declare con tasa y
+     *       canales concretos (su formato nativo), por el orden de
+     *       {@link #NATIVE_RATES}.</li>
+     *   <li>El primer formato de {@link #NATIVE_RATES} y
+     *       {@link #NATIVE_CHANNELS} soportado (hay mezcladores que solo
+     *       declaran tasas sin especificar).</li>
+     *   <li>El del modelo, si nada de lo anterior se admite.</li>
+     * </ol>
+     */
+    static AudioFormat negotiateFormat(float sampleRate, boolean preferNative) throws LineUnavailableException {
+        AudioFormat model = modelFormat(sampleRate);
+        if (!preferNative) {
+            if (isCaptureSupported(model)) {
+                return model;
+            }
+            logger.info("Formato {} no soportado, negociando formato nativo", model);
+        }
+
+        AudioFormat declared = declaredNativeFormat();
+        if (declared != null) {
+            logger.info("Formato nativo declarado por el dispositivo: {}", declared);
+            return declared;
+        }
+        for (float rate : NATIVE_RATES) {
+            for (int channels : NATIVE_CHANNELS) {
+                for (boolean bigEndian : new boolean[] {false, true}) {
+                    AudioFormat candidate = new AudioFormat(rate, AppConfig.SAMPLE_SIZE_BITS,
+                        channels, true, bigEndian);
+                    if (isCaptureSupported(candidate)) {
+                        logger.info("Formato nativo negociado: {}", candidate);
+                        return candidate;
+                    }
+                }
+            }
+        }
+        if (isCaptureSupported(model)) {
+            return model;
+        }
+        throw new LineUnavailableException(
+            "El micrófono no admite PCM de 16 bits en ninguna tasa conocida"
+        );
+    }
+
+    /**
+     * Formato PCM 16 bits con tasa y canales concretos que declaran las
+     * líneas de captura, el de tasa más preferida; null si ninguna lo declara.
+     */
+    private static AudioFormat declaredNativeFormat() {
+        AudioFormat best = null;
+        int bestRank = Integer.MAX_VALUE;
+        for (Line.Info info : AudioSystem.getTargetLineInfo(new Line.Info(TargetDataLine.class))) {
+            if (!(info instanceof DataLine.Info dataInfo)) {
+                continue;
+            }
+            for (AudioFormat format : dataInfo.getFormats()) {
+                int rank = rateRank(format.getSampleRate());
+                if (rank < 0 || format.getSampleSizeInBits() != AppConfig.SAMPLE_SIZE_BITS
+                        || !AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())
+                        || format.getChannels() < 1 || format.getChannels() > 2) {
+                    continue;
+                }
+                AudioFormat concrete = new AudioFormat(format.getSampleRate(), AppConfig.SAMPLE_SIZE_BITS,
+                    format.getChannels(), true, format.isBigEndian());
+                // A igual tasa, mono antes que estéreo
+                rank = rank * 2 + format.getChannels() - 1;
+                if (rank < bestRank && isCaptureSupported(concrete)) {
+                    best = concrete;
+                    bestRank = rank;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int rateRank(float rate) {
+        for (int i = 0; i < NATIVE_RATES.length; i++) {
+            if (NATIVE_RATES[i] == rate) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isCaptureSupported(AudioFormat format) {
+        return AudioSystem.isLineSupported(new DataLine.Info(TargetDataLine.class, format));
+    }
+
+    private static AudioFormat modelFormat(float sampleRate) {
+        return new AudioFormat(
+            sampleRate,
+            AppConfig.SAMPLE_SIZE_BITS,
+            AppConfig.CHANNELS,
+            true,  // signed
+            false  // little endian
+        );
+    }
+
+    private static TargetDataLine openLine(AudioFormat format) throws LineUnavailableException {
+        logger.info("Intentando abrir línea de audio: {}", format);
+        DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
+
+        // Intentar obtener y abrir la línea
+        TargetDataLine line = null;
+        try {
+            line = (TargetDataLine) AudioSystem.getLine(info);
+            line.open(format);
+            line.start();
+            
+            logger.info("Línea de audio abierta exitosamente");
+            return line;
+            
+        } catch (LineUnavailableException e) {
+            logger.error("No se pudo abrir la línea de audio", e);
+            if (line != null && line.isOpen()) {
+                line.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra una línea de audio de forma segura.
+     * 
+     * @param line la línea a cerrar (puede ser null)
+     */
+    public static void closeLine(TargetDataLine line) {
+        if (line != null) {
+            try {
+                if (line.isActive()) {
+                    line.stop();
+                }
+                if (line.isOpen()) {
+                    line.close();
+                }
+                logger.info("Línea de audio cerrada");
+            } catch (Exception e) {
+                logger.error("Error al cerrar línea de audio", e);
+            }
+        }
+    }
+}
\ No newline at end of file
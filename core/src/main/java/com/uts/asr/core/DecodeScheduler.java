@@ -0,0 +1,478 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.engine.RecognizerFactory;
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.jfr.TracedRecognizer;
+import com.uts.asr.strategy.PartialResultPolicy;
+import com.uts.asr.strategy.TranscriptionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Planificador de decodificación: muchos streams de baja tasa sobre pocos hilos.
+ * <p>
+ * Cada sesión es un objeto ligero con su buffer de entrada; no ocupa un hilo
+ * mientras espera audio. Un conjunto fijo de hilos decodificadores
+ * ({@code decoder.threads}) atiende por turnos las sesiones con audio listo:
+ * un chunk completo ({@code audio.chunkLive}), lo que haya si el audio más
+ * antiguo lleva {@code decoder.maxLatencyMs} esperando, o el fin del stream.
+ * </p>
+ * <ul>
+ *   <li><b>Equidad:</b> en cada turno una sesión decodifica como mucho
+ *       {@code decoder.quantumChunks} chunks y vuelve al final de la cola.</li>
+ *   <li><b>Latencia acotada:</b> el audio que no llega a un chunk completo se
+ *       decodifica igualmente al vencer su plazo; lo que espera más que el
+ *       plazo se cuenta como incumplimiento en las métricas.</li>
+ *   <li><b>Robo de trabajo:</b> cada sesión tiene un hilo de referencia (su
+ *       recognizer se queda en las cachés de ese núcleo); un hilo sin trabajo
+ *       propio toma sesiones del final de la cola de otro.</li>
+ * </ul>
+ * <p>
+ * Una sesión solo la procesa un hilo a la vez, así que su recognizer sigue
+ * siendo exclusivo de un hilo en cada momento. El recognizer se crea fuera de
+ * los hilos decodificadores (puede esperar memoria, una recarga del modelo o
+ * la conexión con un worker) y la sesión no entra en las colas hasta tenerlo. Si la sesión acumula más de
+ * {@code decoder.bufferMs} de audio se descartan los chunks más antiguos.
+ * </p>
+ */
+public final class DecodeScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(DecodeScheduler.class);
+
+    /** Espera en la cola propia antes de volver a intentar robar. */
+    private static final long STEAL_POLL_MILLIS = 10;
+
+    private static DecodeScheduler shared;
+
+    /**
+     * Métricas acumuladas desde el arranque.
+     *
+     * @param threads hilos decodificadores
+     * @param sessions sesiones abiertas ahora
+     * @param chunks chunks decodificados
+     * @param steals turnos tomados de la cola de otro hilo
+     * @param deadlineFlushes chunks incompletos decodificados al vencer su plazo
+     * @param latencyViolations chunks cuyo audio esperó más que {@code decoder.maxLatencyMs}
+     * @param maxWaitMs máxima espera del audio en el buffer antes de decodificarse
+     * @param overruns chunks descartados por buffers llenos
+     */
+    public record Metrics(int threads, int sessions, long chunks, long steals, long deadlineFlushes,
+                          long latencyViolations, double maxWaitMs, long overruns) {
+
+        @Override
+        public String toString() {
+            return String.format("%d hilo(s), %d sesión(es), %d chunks, %d robados, %d por plazo, "
+                    + "%d fuera de plazo (máx %.1f ms), %d descartados", threads, sessions, chunks,
+                steals, deadlineFlushes, latencyViolations, maxWaitMs, overruns);
+        }
+    }
+
+    private final Worker[] workers;
+    private final int chunkBytes;
+    private final int quantumChunks;
+    private final long maxLatencyNanos;
+    private final int maxBufferedBytes;
+    private final ScheduledExecutorService timer;
+    private final Executor opener;
+    private final AtomicInteger nextHome = new AtomicInteger();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong steals = new AtomicLong();
+    private final AtomicLong deadlineFlushes = new AtomicLong();
+    private final AtomicLong latencyViolations = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+
+    DecodeScheduler(int threads, int chunkBytes, int quantumChunks, long maxLatencyMs, int maxBufferedBytes,
+                    Executor opener) {
+        this.chunkBytes = chunkBytes;
+        this.opener = opener;
+        this.quantumChunks = quantumChunks;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+        this.maxBufferedBytes = Math.max(chunkBytes, maxBufferedBytes);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "decoder-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            Thread thread = new Thread(worker, "decoder-" + worker.index);
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((t, e) -> logger.error("Excepción no capturada en {}", t.getName(), e));
+            thread.start();
+        }
+    }
+
+    /**
+     * Planificador de la configuración activa, creado al primer uso con
+     * {@code decoder.threads} hilos (al menos uno).
+     */
+    public static synchronized DecodeScheduler shared() {
+        if (shared == null) {
+            AppSettings settings = AppSettings.current();
+            int bytesPerMs = (int) settings.sampleRate() * 2 / 1000;
+            shared = new DecodeScheduler(Math.max(1, settings.decoderThreads()), settings.chunkSizeLive(),
+                settings.decoderQuantumChunks(), settings.decoderMaxLatencyMs(),
+                settings.decoderBufferMs() * bytesPerMs, WorkerFactory.getExecutor());
+            logger.info("Planificador de decodificación: {} hilo(s), {} chunk(s) por turno, plazo {} ms",
+                shared.workers.length, settings.decoderQuantumChunks(), settings.decoderMaxLatencyMs());
+        }
+        return shared;
+    }
+
+    /**
+     * Abre una sesión. El recognizer se crea en segundo plano, sin bloquear a
+     * quien la abre ni a los hilos decodificadores; el audio que llegue antes
+     * se acumula en el buffer de la sesión.
+     *
+     * @param name nombre para los logs
+     * @param recognizers origen del recognizer de la sesión
+     * @param listener recibe parciales, finales (incluido el último) y errores;
+     *                 {@code onComplete} queda a cargo de quien abre la sesión
+     */
+    public Session open(String name, RecognizerFactory recognizers, TranscriptionListener listener) {
+        Worker home = workers[Math.floorMod(nextHome.getAndIncrement(), workers.length)];
+        sessions.incrementAndGet();
+        Session session = new Session(name, listener, home);
+        opener.execute(() -> session.create(recognizers));
+        return session;
+    }
+
+    /**
+     * Métricas actuales.
+     */
+    public Metrics metrics() {
+        return new Metrics(workers.length, sessions.get(), chunks.get(), steals.get(), deadlineFlushes.get(),
+            latencyViolations.get(), maxWaitNanos.get() / 1e6, overruns.get());
+    }
+
+    private void schedule(Session session) {
+        if (session.scheduled.compareAndSet(false, true)) {
+            session.home.queue.addLast(session);
+        }
+    }
+
+    /**
+     * Audio pendiente de un chunk y el instante en que llegó.
+     */
+    private record Pending(byte[] data, long arrivedNanos) {
+    }
+
+    /**
+     * Stream decodificado por el planificador. {@link #offer} y {@link #finish}
+     * no bloquean: se pueden llamar desde un hilo selector.
+     */
+    public final class Session {
+        private final String name;
+        private final TranscriptionListener listener;
+        private final Worker home;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Entrada, protegida por this; buffered no incluye lo ya consumido del primero
+        private final ArrayDeque<Pending> input = new ArrayDeque<>();
+        private int headOffset;
+        private int buffered;
+        private boolean finished;
+
+        // Solo el hilo que procesa la sesión
+        private final byte[] frame = new byte[chunkBytes];
+        private SpeechRecognizer recognizer;
+        private boolean fed;
+        private final PartialResultPolicy partials = PartialResultPolicy.forNetwork();
+        // El recognizer se publica antes de ponerlo a true
+        private volatile boolean ready;
+        private volatile boolean completed;
+
+        private Session(String name, TranscriptionListener listener, Worker home) {
+            this.name = name;
+            this.listener = listener;
+            this.home = home;
+        }
+
+        /**
+         * Añade PCM 16 bits mono en el formato del modelo.
+         */
+        public void offer(byte[] pcm) {
+            if (pcm.length == 0) {
+                return;
+            }
+            boolean armDeadline;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                armDeadline = buffered == 0;
+                input.addLast(new Pending(pcm, System.nanoTime()));
+                buffered += pcm.length;
+                while (buffered > maxBufferedBytes && input.size() > 1) {
+                    buffered -= input.removeFirst().data().length - headOffset;
+                    headOffset = 0;
+                    long count = dropped.incrementAndGet();
+                    overruns.incrementAndGet();
+                    if (count == 1 || count % 100 == 0) {
+                        logger.warn("Sesión {}: decodificación saturada, {} chunk(s) descartados", name, count);
+                    }
+                }
+            }
+            if (needsWork()) {
+                schedule(this);
+            } else if (armDeadline) {
+                armDeadline(maxLatencyNanos);
+            }
+        }
+
+        /**
+         * Fin del stream: se decodifica lo pendiente y se emite el resultado final.
+         */
+        public void finish() {
+            synchronized (this) {
+                finished = true;
+            }
+            if (needsWork()) {
+                schedule(this);
+            }
+        }
+
+        /**
+         * Chunks descartados por buffer lleno.
+         */
+        public long overruns() {
+            return dropped.get();
+        }
+
+        /**
+         * Se completa al emitir el resultado final (o con el error de la sesión).
+         */
+        public CompletableFuture<Void> done() {
+            return done;
+        }
+
+        /**
+         * Crea el recognizer (en el executor de apertura) y, si ya hay audio
+         * listo, pone la sesión en cola.
+         */
+        private void create(RecognizerFactory recognizers) {
+            try {
+                recognizer = TracedRecognizer.trace(name, recognizers.create());
+            } catch (Exception e) {
+                logger.error("No se pudo crear el recognizer de la sesión {}", name, e);
+                listener.onError(e);
+                complete(e);
+                return;
+            }
+            ready = true;
+            if (needsWork()) {
+                schedule(this);
+            }
+        }
+
+        private synchronized boolean needsWork() {
+            if (completed || !ready) {
+                return false;
+            }
+            return finished || buffered >= chunkBytes
+                || (buffered > 0 && System.nanoTime() - input.peekFirst().arrivedNanos() >= maxLatencyNanos);
+        }
+
+        /**
+         * Copia el siguiente chunk a {@link #frame}: completo, o parcial si
+         * venció el plazo o terminó el stream.
+         *
+         * @return bytes copiados (0 = nada listo)
+         */
+        private int take() {
+            long now = System.nanoTime();
+            long waited;
+            int length;
+            boolean partial;
+            synchronized (this) {
+                if (buffered == 0) {
+                    return 0;
+                }
+                waited = now - input.peekFirst().arrivedNanos();
+                partial = buffered < chunkBytes;
+                if (partial && !finished && waited < maxLatencyNanos) {
+                    return 0;
+                }
+                length = Math.min(buffered, chunkBytes);
+                int copied = 0;
+                while (copied < length) {
+                    Pending head = input.peekFirst();
+                    int n = Math.min(length - copied, head.data().length - headOffset);
+                    System.arraycopy(head.data(), headOffset, frame, copied, n);
+                    copied += n;
+                    headOffset += n;
+                    if (headOffset == head.data().length) {
+                        input.removeFirst();
+                        headOffset = 0;
+                    }
+                }
+                buffered -= length;
+                if (buffered > 0 && buffered < chunkBytes && !finished) {
+                    armDeadline(maxLatencyNanos - (now - input.peekFirst().arrivedNanos()));
+                }
+            }
+
+            chunks.incrementAndGet();
+            if (partial && !finished) {
+                deadlineFlushes.incrementAndGet();
+            }
+            if (waited > maxLatencyNanos) {
+                latencyViolations.incrementAndGet();
+            }
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return length;
+        }
+
+        private void armDeadline(long delayNanos) {
+            timer.schedule(() -> {
+                if (needsWork()) {
+                    schedule(this);
+                }
+            }, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Un turno: hasta {@code decoder.quantumChunks} chunks y, si terminó el
+         * stream y no queda audio, el resultado final.
+         */
+        private void step() {
+            if (completed || !ready) {
+                return;
+            }
+            try {
+                for (int i = 0; i < quantumChunks; i++) {
+                    int length = take();
+                    if (length == 0) {
+                        break;
+                    }
+                    fed = true;
+                    if (recognizer.acceptWaveForm(frame, length)) {
+                        String result = recognizer.getResult();
+                        partials.segmentClosed();
+                        listener.onFinal(result);
+                        logger.debug("Final [{}]: {}", name, result);
+                    } else {
+                        String partial = partials.poll(recognizer);
+                        if (partial != null) {
+                            listener.onPartial(partial);
+                        }
+                    }
+                }
+                boolean drained;
+                synchronized (this) {
+                    drained = finished && buffered == 0;
+                }
+                if (drained && !fed) {
+                    // Stream vacío: no hay resultado que emitir
+                    complete(null);
+                } else if (drained) {
+                    String finalResult = recognizer.getFinalResult();
+                    if (!finalResult.isEmpty()) {
+                        listener.onFinal(finalResult);
+                    }
+                    complete(null);
+                }
+            } catch (Exception e) {
+                logger.error("Error decodificando sesión {}", name, e);
+                listener.onError(e);
+                complete(e);
+            }
+        }
+
+        private void complete(Exception error) {
+            completed = true;
+            synchronized (this) {
+                input.clear();
+                buffered = 0;
+                finished = true;
+            }
+            if (recognizer != null) {
+                try {
+                    recognizer.close();
+                } catch (Exception e) {
+                    logger.error("Error al cerrar recognizer", e);
+                }
+                recognizer = null;
+            }
+            sessions.decrementAndGet();
+            if (error == null) {
+                done.complete(null);
+            } else {
+                done.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Hilo decodificador con su cola de sesiones listas.
+     */
+    private final class Worker implements Runnable {
+        private final int index;
+        private final LinkedBlockingDeque<Session> queue = new LinkedBlockingDeque<>();
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Session session = queue.pollFirst();
+                if (session == null) {
+                    session = steal();
+                }
+                if (session == null) {
+                    try {
+                        session = queue.pollFirst(STEAL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (session == null) {
+                        continue;
+                    }
+                }
+
+                session.step();
+                session.scheduled.set(false);
+                // Si queda trabajo, al final de la cola: turno para las demás sesiones
+                if (session.needsWork()) {
+                    schedule(session);
+                }
+            }
+        }
+
+        private Session steal() {
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim != this) {
+                    Session session = victim.queue.pollLast();
+                    if (session != null) {
+                        steals.incrementAndGet();
+                        return session;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
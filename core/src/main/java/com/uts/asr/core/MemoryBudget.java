@@ -0,0 +1,443 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AdmissionPolicy;
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Control de admisión por memoria nativa.
+ * <p>
+ * El modelo y cada recognizer de Vosk reservan memoria fuera del heap que la
+ * JVM no ve; con modelos grandes un host se queda sin memoria mucho antes de
+ * agotar los permisos por CPU de {@link WorkerFactory}. Cada modelo y
+ * recognizer vivo (en uso o en caché) reserva aquí su tamaño estimado contra
+ * un presupuesto; si no cabe, se liberan los recognizers inactivos de los
+ * cachés y, si aun así no cabe, se espera o se rechaza según
+ * {@code memory.admission}.
+ * </p>
+ * <p>
+ * Las estimaciones parten de la configuración (o del tamaño del modelo en
+ * disco) y se calibran con la variación real de la RSS al crear cada objeto,
+ * medida solo cuando no hay otra creación en curso.
+ * </p>
+ */
+public final class MemoryBudget {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryBudget.class);
+
+    private static final long MB = 1024L * 1024;
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+    /** Peso de cada medición nueva en la media móvil de un recognizer. */
+    private static final double CALIBRATION_WEIGHT = 0.3;
+    /** Fracción del modelo en disco que se supone por recognizer sin configuración. */
+    private static final double RECOGNIZER_MODEL_FRACTION = 0.1;
+    private static final long MIN_RECOGNIZER_BYTES = 16 * MB;
+    /** Memoria que el presupuesto automático deja al sistema y a la propia JVM. */
+    private static final long AUTO_HEADROOM_BYTES = 512 * MB;
+
+    private static volatile MemoryBudget shared;
+
+    /**
+     * Objetos nativos que se contabilizan.
+     */
+    public enum Kind {
+        MODEL("modelo"),
+        RECOGNIZER("recognizer"),
+        GRAMMAR_RECOGNIZER("recognizer con gramática"),
+        SECOND_PASS_MODEL("modelo de segunda pasada");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Foto del uso del presupuesto.
+     *
+     * @param budgetBytes presupuesto (0 = sin límite)
+     * @param reservedBytes reservado por los objetos vivos
+     * @param counts objetos vivos por tipo
+     * @param estimates estimación actual por tipo
+     * @param residentBytes RSS del proceso (-1 si no se conoce)
+     * @param waiting peticiones esperando memoria
+     * @param rejected peticiones rechazadas desde el arranque
+     */
+    public record Usage(long budgetBytes, long reservedBytes, Map<Kind, Integer> counts,
+                        Map<Kind, Long> estimates, long residentBytes, int waiting, long rejected) {
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(reservedBytes / MB).append(" MB reservados de ")
+                .append(budgetBytes == 0 ? "sin límite" : budgetBytes / MB + " MB");
+            for (Kind kind : Kind.values()) {
+                int count = counts.getOrDefault(kind, 0);
+                if (count > 0) {
+                    text.append(", ").append(count).append(" ").append(kind.label())
+                        .append(" × ").append(estimates.get(kind) / MB).append(" MB");
+                }
+            }
+            if (residentBytes >= 0) {
+                text.append(", RSS ").append(residentBytes / MB).append(" MB");
+            }
+            if (waiting > 0) {
+                text.append(", ").append(waiting).append(" en espera");
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Memoria reservada por un objeto vivo. Se libera una sola vez al cerrarlo.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final Kind kind;
+        private long bytes;
+        private boolean released;
+
+        private Reservation(Kind kind, long bytes) {
+            this.kind = kind;
+            this.bytes = bytes;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        public long bytes() {
+            synchronized (MemoryBudget.this) {
+                return bytes;
+            }
+        }
+
+        /**
+         * Ajusta la reserva a la estimación actual del tipo, p. ej. tras
+         * calibrarla con la medición del propio objeto.
+         */
+        public void adjustToEstimate() {
+            adjust(this);
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private final long budgetBytes;
+    private final AdmissionPolicy policy;
+    private final long queueTimeoutNanos;
+    private final Map<Kind, Long> estimates = new EnumMap<>(Kind.class);
+    private final Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+    private final Map<Kind, Long> reservedByKind = new EnumMap<>(Kind.class);
+    private final Map<Kind, Integer> calibrations = new EnumMap<>(Kind.class);
+    private final List<Runnable> reclaimers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger measuring = new AtomicInteger();
+    private long reserved;
+    private int waiting;
+    private long rejected;
+
+    /**
+     * @param budgetBytes presupuesto (0 = sin límite)
+     * @param estimates estimación inicial por tipo, en bytes
+     */
+    MemoryBudget(long budgetBytes, Map<Kind, Long> estimates, AdmissionPolicy policy, long queueTimeoutMs) {
+        this.budgetBytes = budgetBytes;
+        this.policy = policy;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        for (Kind kind : Kind.values()) {
+            this.estimates.put(kind, estimates.getOrDefault(kind, 0L));
+            this.counts.put(kind, 0);
+            this.reservedByKind.put(kind, 0L);
+            this.calibrations.put(kind, 0);
+        }
+    }
+
+    /**
+     * Presupuesto del proceso según {@code memory.*}.
+     */
+    public static MemoryBudget shared() {
+        MemoryBudget budget = shared;
+        if (budget == null) {
+            synchronized (MemoryBudget.class) {
+                budget = shared;
+                if (budget == null) {
+                    budget = fromSettings(AppSettings.current());
+                    shared = budget;
+                }
+            }
+        }
+        return budget;
+    }
+
+    private static MemoryBudget fromSettings(AppSettings settings) {
+        long modelOnDisk = directorySize(Path.of(settings.modelPath()));
+        long model = settings.memoryModelMb() > 0 ? settings.memoryModelMb() * MB : modelOnDisk;
+        long recognizer = settings.memoryRecognizerMb() > 0
+            ? settings.memoryRecognizerMb() * MB
+            : Math.max(MIN_RECOGNIZER_BYTES, (long) (modelOnDisk * RECOGNIZER_MODEL_FRACTION));
+        Map<Kind, Long> estimates = new EnumMap<>(Kind.class);
+        estimates.put(Kind.MODEL, model);
+        estimates.put(Kind.RECOGNIZER, recognizer);
+        estimates.put(Kind.GRAMMAR_RECOGNIZER, settings.memoryGrammarRecognizerMb() * MB);
+        if (settings.twoPassEnabled()) {
+            estimates.put(Kind.SECOND_PASS_MODEL, directorySize(Path.of(settings.twoPassModelPath())));
+        }
+
+        long budget = settings.memoryBudgetMb() >= 0 ? settings.memoryBudgetMb() * MB : automaticBudget();
+        MemoryBudget memoryBudget = new MemoryBudget(budget, estimates, settings.memoryAdmission(),
+            settings.memoryQueueTimeoutMs());
+        logger.info("Presupuesto de memoria nativa: {} (modelo ~{} MB, recognizer ~{} MB, política {})",
+            budget == 0 ? "sin límite" : budget / MB + " MB", model / MB, recognizer / MB,
+            settings.memoryAdmission().id());
+        return memoryBudget;
+    }
+
+    /**
+     * Registra una acción que libera objetos inactivos (p. ej. vaciar un caché)
+     * para intentar antes de esperar o rechazar.
+     */
+    public void addReclaimer(Runnable reclaimer) {
+        reclaimers.add(reclaimer);
+    }
+
+    /**
+     * Reserva memoria para un objeto nuevo.
+     *
+     * @throws MemoryBudgetExceededException si no cabe (de inmediato con
+     *         {@code reject}, o tras {@code memory.queueTimeoutMs} con {@code queue})
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public Reservation reserve(Kind kind) throws InterruptedException {
+        synchronized (this) {
+            if (fits(estimates.get(kind))) {
+                return grant(kind);
+            }
+        }
+
+        // Antes de esperar, liberar lo que está inactivo en los cachés
+        for (Runnable reclaimer : reclaimers) {
+            try {
+                reclaimer.run();
+            } catch (RuntimeException e) {
+                logger.warn("Error liberando memoria inactiva", e);
+            }
+        }
+
+        synchronized (this) {
+            long need = estimates.get(kind);
+            if (fits(need)) {
+                return grant(kind);
+            }
+            if (policy == AdmissionPolicy.REJECT || need > budgetBytes - reserved(Kind.MODEL)) {
+                throw reject(kind, need);
+            }
+            waiting++;
+            logger.info("Esperando memoria para un {} (~{} MB): {}", kind.label(), need / MB, usage());
+            try {
+                long deadline = System.nanoTime() + queueTimeoutNanos;
+                while (!fits(estimates.get(kind))) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        throw reject(kind, estimates.get(kind));
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } finally {
+                waiting--;
+            }
+            return grant(kind);
+        }
+    }
+
+    /**
+     * Inicio de una medición de RSS alrededor de la creación de un objeto.
+     *
+     * @return RSS de partida, o -1 si hay otra creación en curso (la medición no sería fiable)
+     */
+    public long beginMeasurement() {
+        boolean alone = measuring.incrementAndGet() == 1;
+        return alone ? residentBytes() : -1;
+    }
+
+    /**
+     * Fin de la medición: si nadie más creó objetos entretanto, la variación
+     * de RSS calibra la estimación del tipo.
+     */
+    public void endMeasurement(Kind kind, long startResident) {
+        boolean alone = measuring.getAndDecrement() == 1;
+        if (startResident < 0 || !alone) {
+            return;
+        }
+        long end = residentBytes();
+        if (end >= 0) {
+            calibrate(kind, end - startResident);
+        }
+    }
+
+    /**
+     * Ajusta la estimación de un tipo con una variación de RSS medida. Las
+     * variaciones no positivas (memoria reutilizada del allocator) se ignoran.
+     */
+    synchronized void calibrate(Kind kind, long measuredBytes) {
+        if (measuredBytes <= 0) {
+            return;
+        }
+        long previous = estimates.get(kind);
+        int samples = calibrations.merge(kind, 1, Integer::sum);
+        long updated = kind == Kind.MODEL || kind == Kind.SECOND_PASS_MODEL || samples == 1
+            ? measuredBytes
+            : Math.round(previous * (1 - CALIBRATION_WEIGHT) + measuredBytes * CALIBRATION_WEIGHT);
+        estimates.put(kind, updated);
+        logger.debug("Estimación de {} calibrada: {} -> {} MB (medido {} MB)", kind.label(),
+            previous / MB, updated / MB, measuredBytes / MB);
+        notifyAll();
+    }
+
+    /**
+     * Estima un modelo por su tamaño en disco antes de cargarlo (al cambiar de
+     * modelo en caliente); la carga lo calibra después con lo medido.
+     */
+    synchronized void estimateFromDisk(Kind kind, Path modelDir) {
+        long size = directorySize(modelDir);
+        if (size > 0) {
+            estimates.put(kind, size);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Uso actual del presupuesto.
+     */
+    public synchronized Usage usage() {
+        return new Usage(budgetBytes, reserved, Collections.unmodifiableMap(new EnumMap<>(counts)),
+            Collections.unmodifiableMap(new EnumMap<>(estimates)), residentBytes(), waiting, rejected);
+    }
+
+    /**
+     * Estimación actual para un tipo, en bytes.
+     */
+    public synchronized long estimate(Kind kind) {
+        return estimates.get(kind);
+    }
+
+    /**
+     * RSS del proceso según {@code /proc/self/status}, o -1 fuera de Linux.
+     */
+    public static long residentBytes() {
+        if (!Files.isReadable(PROC_STATUS)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("No se pudo leer la RSS: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    private boolean fits(long need) {
+        return budgetBytes == 0 || reserved + need <= budgetBytes;
+    }
+
+    private long reserved(Kind kind) {
+        return reservedByKind.get(kind);
+    }
+
+    private Reservation grant(Kind kind) {
+        long bytes = estimates.get(kind);
+        reserved += bytes;
+        reservedByKind.merge(kind, bytes, Long::sum);
+        counts.merge(kind, 1, Integer::sum);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Memoria reservada para {}: {}", kind.label(), usage());
+        }
+        return new Reservation(kind, bytes);
+    }
+
+    private synchronized void release(Reservation reservation) {
+        if (reservation.released) {
+            return;
+        }
+        reservation.released = true;
+        reserved -= reservation.bytes;
+        reservedByKind.merge(reservation.kind, -reservation.bytes, Long::sum);
+        counts.merge(reservation.kind, -1, Integer::sum);
+        notifyAll();
+    }
+
+    private synchronized void adjust(Reservation reservation) {
+        if (reservation.released) {
+            return;
+        }
+        long delta = estimates.get(reservation.kind) - reservation.bytes;
+        reservation.bytes += delta;
+        reserved += delta;
+        reservedByKind.merge(reservation.kind, delta, Long::sum);
+        notifyAll();
+    }
+
+    private MemoryBudgetExceededException reject(Kind kind, long need) {
+        rejected++;
+        String message = String.format("Presupuesto de memoria agotado: un %s necesita ~%d MB y hay %d MB "
+                + "reservados de %d MB (%s). Ajuste memory.budgetMb o reduzca las sesiones simultáneas",
+            kind.label(), need / MB, reserved / MB, budgetBytes / MB, usage());
+        logger.warn(message);
+        return new MemoryBudgetExceededException(message);
+    }
+
+    /**
+     * RAM física menos el heap máximo y un margen para el sistema; 0 (sin
+     * límite) si la JVM no expone la RAM física.
+     */
+    private static long automaticBudget() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            long physical = sunOs.getTotalMemorySize();
+            return Math.max(MB, physical - Runtime.getRuntime().maxMemory() - AUTO_HEADROOM_BYTES);
+        }
+        return 0;
+    }
+
+    private static long directorySize(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            logger.debug("No se pudo medir el modelo {}: {}", directory, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.uts.asr.core;
+
+/**
+ * No hay memoria nativa en el presupuesto para un modelo o recognizer nuevo.
+ * El mensaje explica el uso actual y la estimación que no cupo.
+ */
+public class MemoryBudgetExceededException extends IllegalStateException {
+
+    public MemoryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,140 @@
+package com.uts.asr.core;
+
+import com.uts.asr.engine.EngineModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Modelo cargado por el motor de reconocimiento, con cuenta de referencias.
+ * <p>
+ * Cada recognizer creado sobre el modelo retiene una referencia hasta que se
+ * cierra. Al cambiar de modelo en caliente el anterior se retira: ya no se
+ * crean recognizers nuevos sobre él, las sesiones en curso terminan con el
+ * suyo y el modelo se cierra (liberando su reserva de memoria) cuando se
+ * suelta la última referencia.
+ * </p>
+ */
+public final class ModelHandle {
+    private static final Logger logger = LoggerFactory.getLogger(ModelHandle.class);
+
+    private final EngineModel model;
+    private final Path path;
+    private final long generation;
+    private final MemoryBudget.Reservation reservation;
+
+    // Protegidos por this
+    private int references;
+    private boolean retired;
+    private boolean closed;
+
+    ModelHandle(EngineModel model, Path path, long generation, MemoryBudget.Reservation reservation) {
+        this.model = model;
+        this.path = path;
+        this.generation = generation;
+        this.reservation = reservation;
+    }
+
+    /**
+     * Retiene una referencia para un recognizer nuevo.
+     *
+     * @return false si el modelo ya está retirado (hay que usar el actual)
+     */
+    synchronized boolean retain() {
+        if (retired) {
+            return false;
+        }
+        references++;
+        return true;
+    }
+
+    /**
+     * Suelta una referencia; si el modelo está retirado y era la última, lo cierra.
+     */
+    void release() {
+        boolean last;
+        synchronized (this) {
+            references--;
+            last = retired && references == 0 && !closed;
+            closed |= last;
+        }
+        if (last) {
+            closeModel();
+        }
+    }
+
+    /**
+     * Retira el modelo: se cierra ya si nadie lo usa, o al soltar la última referencia.
+     */
+    void retire() {
+        boolean idle;
+        synchronized (this) {
+            retired = true;
+            idle = references == 0 && !closed;
+            closed |= idle;
+        }
+        if (idle) {
+            closeModel();
+        } else {
+            logger.info("Modelo {} retirado; se cerrará al terminar {} recognizer(s) en uso",
+                path, references());
+        }
+    }
+
+    /**
+     * Cierra el modelo aunque tenga referencias (solo al apagar la aplicación).
+     */
+    void closeNow() {
+        boolean open;
+        synchronized (this) {
+            retired = true;
+            open = !closed;
+            closed = true;
+        }
+        if (open) {
+            closeModel();
+        }
+    }
+
+    EngineModel model() {
+        return model;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Número de carga: 1 para el modelo del arranque, +1 por cada cambio.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Recognizers vivos (en uso o en caché) creados sobre este modelo.
+     */
+    public synchronized int references() {
+        return references;
+    }
+
+    public synchronized boolean isRetired() {
+        return retired;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void closeModel() {
+        try {
+            model.close();
+            logger.info("Modelo {} (generación {}) cerrado", path, generation);
+        } catch (Exception e) {
+            logger.error("Error al cerrar el modelo {}", path, e);
+        } finally {
+            reservation.close();
+        }
+    }
+}
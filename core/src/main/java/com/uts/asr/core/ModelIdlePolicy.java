@@ -0,0 +1,85 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Descarga por inactividad y precarga programada del modelo.
+ * <p>
+ * Con {@code model.idleUnloadSeconds} &gt; 0 se comprueba periódicamente si hay
+ * recognizers prestados; tras ese tiempo sin ninguno, {@link VoskService}
+ * cierra el modelo y la siguiente sesión lo recarga. Las horas de
+ * {@code model.prewarmAt} cargan y calientan el modelo antes de que se
+ * necesite (p. ej. al abrir un quiosco), y el plazo de inactividad empieza a
+ * contar desde la precarga.
+ * </p>
+ */
+final class ModelIdlePolicy {
+    private static final Logger logger = LoggerFactory.getLogger(ModelIdlePolicy.class);
+
+    private static final long MAX_CHECK_SECONDS = 30;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "model-idle");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static boolean started;
+
+    private ModelIdlePolicy() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Programa las comprobaciones según la configuración (idempotente).
+     */
+    static synchronized void start(AppSettings settings) {
+        if (started) {
+            return;
+        }
+        started = true;
+        int idleSeconds = settings.modelIdleUnloadSeconds();
+        if (idleSeconds > 0) {
+            // Se descarga como mucho un cuarto del plazo tarde
+            long period = Math.max(1, Math.min(MAX_CHECK_SECONDS, idleSeconds / 4));
+            long idleMillis = TimeUnit.SECONDS.toMillis(idleSeconds);
+            SCHEDULER.scheduleWithFixedDelay(() -> {
+                try {
+                    VoskService.unloadIfIdle(idleMillis);
+                } catch (RuntimeException e) {
+                    logger.warn("Error descargando el modelo inactivo", e);
+                }
+            }, period, period, TimeUnit.SECONDS);
+            logger.info("El modelo se descargará tras {} s sin recognizers activos", idleSeconds);
+        }
+        for (LocalTime time : settings.modelPrewarmAt()) {
+            schedulePrewarm(time);
+        }
+    }
+
+    private static void schedulePrewarm(LocalTime time) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(time);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        SCHEDULER.schedule(() -> {
+            try {
+                VoskService.preload();
+            } catch (Exception e) {
+                logger.warn("Precarga del modelo de las {} fallida: {}", time, e.getMessage());
+            } finally {
+                schedulePrewarm(time);
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
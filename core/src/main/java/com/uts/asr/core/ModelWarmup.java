@@ -0,0 +1,210 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.engine.EngineRecognizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Calentamiento del modelo al arrancar.
+ * <p>
+ * El primer {@code acceptWaveForm} de un modelo recién cargado es mucho más
+ * lento que el régimen estable: las páginas del modelo se cargan bajo demanda
+ * y las cachés están frías. Aquí se paga ese coste antes de mostrar la
+ * interfaz: se leen los archivos del modelo (caché de páginas del SO), se
+ * decodifica audio sintético con voz aproximada y se dejan recognizers ya
+ * calentados en el caché de {@link WorkerFactory}.
+ * </p>
+ */
+public final class ModelWarmup {
+    private static final Logger logger = LoggerFactory.getLogger(ModelWarmup.class);
+
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+    private static final long SYNTHETIC_SEED = 0x5EED;
+
+    private ModelWarmup() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Resultado del calentamiento.
+     *
+     * @param warmupMs duración total del calentamiento
+     * @param coldFirstChunkMs primer chunk del primer recognizer tras cargar el modelo
+     * @param warmFirstChunkMs primer chunk de un recognizer obtenido tras calentar
+     * @param steadyChunkMs mediana de los chunks siguientes (régimen estable)
+     * @param pooled recognizers calentados que quedan en reserva
+     */
+    public record Report(double warmupMs, double coldFirstChunkMs, double warmFirstChunkMs,
+                         double steadyChunkMs, int pooled) {
+    }
+
+    /**
+     * Lee secuencialmente todos los archivos del modelo para que la carga
+     * posterior no espere al disco. No falla si el directorio no existe.
+     *
+     * @return bytes leídos
+     */
+    public static long prefault(Path modelDir) {
+        if (!Files.isDirectory(modelDir)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        long total = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(modelDir)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            logger.warn("No se pudo recorrer el modelo {}: {}", modelDir, e.getMessage());
+            return 0;
+        }
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                int read;
+                while ((read = channel.read(buffer)) >= 0) {
+                    total += read;
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                logger.debug("No se pudo leer {}: {}", file, e.getMessage());
+            }
+        }
+        logger.info("Modelo precargado en caché: {} archivo(s), {} MB en {} ms", files.size(),
+            total >> 20, (System.nanoTime() - start) / 1_000_000);
+        return total;
+    }
+
+    /**
+     * Calienta el modelo ya cargado en {@link VoskService} y llena el caché de
+     * recognizers según {@code warmup.recognizers}.
+     */
+    public static Report run() throws IOException {
+        AppSettings settings = AppSettings.current();
+        RecognizerPool pool = WorkerFactory.modelPool();
+        int sampleRate = (int) settings.sampleRate();
+        int chunk = settings.chunkSizeLive();
+        byte[] audio = syntheticSpeech(sampleRate, settings.warmupAudioMs());
+        long start = System.nanoTime();
+
+        // Lo prestado vuelve al caché aunque algo falle a medias: si no, el
+        // presupuesto de memoria y la descarga por inactividad lo darían por en uso
+        List<EngineRecognizer> reserve = new ArrayList<>();
+        EngineRecognizer current = null;
+        double cold;
+        List<Double> steady = new ArrayList<>();
+        try {
+            // 1. Primer recognizer: el primer chunk paga los fallos de página y las cachés frías.
+            // Sus buffers de decodificación cuentan para la estimación de memoria por recognizer
+            MemoryBudget budget = MemoryBudget.shared();
+            long resident = budget.beginMeasurement();
+            try {
+                current = pool.borrow(null);
+                cold = timeChunk(current, audio, 0, chunk);
+                for (int offset = chunk; offset < audio.length; offset += chunk) {
+                    steady.add(timeChunk(current, audio, offset, Math.min(chunk, audio.length - offset)));
+                }
+                current.getFinalResult();
+            } finally {
+                budget.endMeasurement(MemoryBudget.Kind.RECOGNIZER, resident);
+            }
+            reserve.add(current);
+            current = null;
+
+            // 2. Reserva: cada recognizer decodifica un chunk para reservar sus buffers
+            while (reserve.size() < settings.warmupRecognizers()) {
+                current = pool.borrow(null);
+                timeChunk(current, audio, 0, Math.min(chunk, audio.length));
+                current.getFinalResult();
+                reserve.add(current);
+                current = null;
+            }
+        } finally {
+            if (current != null) {
+                // Falló a medio decodificar: su estado no es de fiar
+                pool.discard(current);
+            }
+            for (EngineRecognizer recognizer : reserve) {
+                pool.giveBack(null, recognizer);
+            }
+        }
+
+        // 3. Lo que verá la primera sesión real
+        EngineRecognizer next = pool.borrow(null);
+        double warm;
+        try {
+            warm = timeChunk(next, audio, 0, Math.min(chunk, audio.length));
+            next.getFinalResult();
+        } catch (RuntimeException e) {
+            pool.discard(next);
+            throw e;
+        }
+        pool.giveBack(null, next);
+
+        Report report = new Report((System.nanoTime() - start) / 1e6, cold, warm,
+            median(steady), pool.idleCount(null));
+        logger.info(String.format("Calentamiento completado en %.0f ms: primer chunk %.1f ms en frío, "
+                + "%.1f ms tras calentar (estable %.1f ms/chunk), %d recognizer(s) en reserva",
+            report.warmupMs(), report.coldFirstChunkMs(), report.warmFirstChunkMs(),
+            report.steadyChunkMs(), report.pooled()));
+        return report;
+    }
+
+    /**
+     * Audio con forma aproximada de voz: armónicos de un tono glotal que varía
+     * entre 110 y 220 Hz, modulados a ritmo silábico (~4 Hz), con ruido de
+     * fricativas. Es determinista para que las mediciones sean comparables;
+     * también lo usa la prueba de carga cuando no hay WAV.
+     *
+     * @return PCM 16 bits mono little endian
+     */
+    public static byte[] syntheticSpeech(int sampleRate, int durationMs) {
+        int samples = (int) ((long) sampleRate * durationMs / 1000);
+        byte[] pcm = new byte[samples * 2];
+        Random random = new Random(SYNTHETIC_SEED);
+        double phase = 0;
+        for (int i = 0; i < samples; i++) {
+            double t = (double) i / sampleRate;
+            double pitch = 165 + 55 * Math.sin(2 * Math.PI * 0.7 * t);
+            phase += 2 * Math.PI * pitch / sampleRate;
+            double voiced = 0;
+            for (int harmonic = 1; harmonic <= 12; harmonic++) {
+                voiced += Math.sin(harmonic * phase) / harmonic;
+            }
+            double syllable = 0.5 * (1 - Math.cos(2 * Math.PI * 4 * t));
+            double noise = random.nextGaussian() * (syllable < 0.2 ? 0.3 : 0.05);
+            int value = (int) (6000 * (syllable * voiced + noise));
+            value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+            pcm[2 * i] = (byte) value;
+            pcm[2 * i + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+
+    private static double timeChunk(EngineRecognizer recognizer, byte[] audio, int offset, int length) {
+        byte[] chunk = offset == 0 ? audio : Arrays.copyOfRange(audio, offset, offset + length);
+        long start = System.nanoTime();
+        recognizer.acceptWaveForm(chunk, length);
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static double median(List<Double> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        return sorted[sorted.length / 2];
+    }
+}
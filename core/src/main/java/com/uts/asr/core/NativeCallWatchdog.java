@@ -0,0 +1,209 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.engine.SpeechRecognizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vigila las llamadas al recognizer y pone en cuarentena las sesiones colgadas.
+ * <p>
+ * Una llamada nativa ({@code acceptWaveForm} y compañía) no se puede
+ * interrumpir desde Java: si no vuelve, el hilo y el permiso de su sesión
+ * quedan retenidos para siempre. El watchdog anota el inicio de cada llamada
+ * y, cuando una pasa de {@code watchdog.nativeCallMs}, marca la sesión y
+ * ejecuta su acción de cuarentena (cancelar el trabajo, soltar el permiso y
+ * los temporales) desde su propio hilo. Si la llamada vuelve más tarde, el
+ * recognizer se descarta en vez de volver al caché; su memoria sigue
+ * reservada mientras tanto.
+ * </p>
+ */
+public final class NativeCallWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(NativeCallWatchdog.class);
+
+    private static final long MIN_SCAN_MILLIS = 10;
+
+    private static NativeCallWatchdog shared;
+
+    private final long thresholdNanos;
+    private final Set<Watched> watched = ConcurrentHashMap.newKeySet();
+    private final AtomicLong quarantined = new AtomicLong();
+    private final ScheduledExecutorService scanner;
+
+    /**
+     * @param thresholdMillis duración de llamada a partir de la cual se pone
+     *                        la sesión en cuarentena; 0 = sin vigilancia
+     */
+    NativeCallWatchdog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        if (thresholdMillis > 0) {
+            this.scanner = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "native-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Se detecta como mucho un cuarto del umbral tarde
+            long period = Math.max(MIN_SCAN_MILLIS, thresholdMillis / 4);
+            scanner.scheduleWithFixedDelay(this::scan, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.scanner = null;
+        }
+    }
+
+    /**
+     * Watchdog del proceso, con el umbral de {@code watchdog.nativeCallMs}.
+     */
+    public static synchronized NativeCallWatchdog shared() {
+        if (shared == null) {
+            shared = new NativeCallWatchdog(AppSettings.current().watchdogNativeCallMs());
+        }
+        return shared;
+    }
+
+    /**
+     * Envuelve un recognizer para vigilar sus llamadas. Cerrar el envoltorio
+     * deja de vigilarlo.
+     *
+     * @param session nombre de la sesión para los logs
+     * @param onStuck acción de cuarentena; se ejecuta una vez, en el hilo del watchdog
+     * @return el recognizer vigilado, o el mismo si la vigilancia está deshabilitada
+     */
+    public SpeechRecognizer watch(String session, SpeechRecognizer recognizer, Runnable onStuck) {
+        if (scanner == null) {
+            return recognizer;
+        }
+        Watched wrapper = new Watched(session, recognizer, onStuck, Thread.currentThread());
+        watched.add(wrapper);
+        return wrapper;
+    }
+
+    /**
+     * Sesiones puestas en cuarentena desde el arranque.
+     */
+    public long quarantined() {
+        return quarantined.get();
+    }
+
+    /**
+     * Recognizers vigilados ahora.
+     */
+    public int watching() {
+        return watched.size();
+    }
+
+    private void scan() {
+        long now = System.nanoTime();
+        for (Watched wrapper : watched) {
+            long started = wrapper.callStartNanos;
+            if (started != 0 && now - started > thresholdNanos && wrapper.quarantine()) {
+                quarantined.incrementAndGet();
+                logger.warn("Sesión {}: {} lleva {} ms sin volver en el hilo {}; sesión en cuarentena",
+                    wrapper.session, wrapper.call, TimeUnit.NANOSECONDS.toMillis(now - started),
+                    wrapper.thread.getName());
+                try {
+                    wrapper.onStuck.run();
+                } catch (RuntimeException e) {
+                    logger.error("Error en la cuarentena de la sesión {}", wrapper.session, e);
+                }
+            }
+        }
+    }
+
+    /** Recognizer vigilado: anota el inicio y el fin de cada llamada. */
+    private final class Watched implements SpeechRecognizer {
+        private final String session;
+        private final SpeechRecognizer delegate;
+        private final Runnable onStuck;
+        private final Thread thread;
+        private final AtomicBoolean quarantine = new AtomicBoolean();
+        private volatile long callStartNanos;
+        private volatile String call;
+
+        Watched(String session, SpeechRecognizer delegate, Runnable onStuck, Thread thread) {
+            this.session = session;
+            this.delegate = delegate;
+            this.onStuck = onStuck;
+            this.thread = thread;
+        }
+
+        @Override
+        public boolean acceptWaveForm(byte[] data, int length) {
+            begin("acceptWaveForm");
+            try {
+                return delegate.acceptWaveForm(data, length);
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public String getResult() {
+            begin("getResult");
+            try {
+                return delegate.getResult();
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public String getPartialResult() {
+            begin("getPartialResult");
+            try {
+                return delegate.getPartialResult();
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public String getFinalResult() {
+            begin("getFinalResult");
+            try {
+                return delegate.getFinalResult();
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public void close() {
+            watched.remove(this);
+            if (quarantine.get()) {
+                delegate.discard();
+            } else {
+                delegate.close();
+            }
+        }
+
+        @Override
+        public void discard() {
+            watched.remove(this);
+            delegate.discard();
+        }
+
+        private void begin(String name) {
+            call = name;
+            callStartNanos = System.nanoTime();
+        }
+
+        private void end() {
+            callStartNanos = 0;
+        }
+
+        /**
+         * @return true solo la primera vez
+         */
+        private boolean quarantine() {
+            return quarantine.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.uts.asr.core;
+
+import com.uts.asr.engine.EngineRecognizer;
+import com.uts.asr.engine.SpeechRecognizer;
+
+/**
+ * Recognizer prestado por un {@link RecognizerPool}: al cerrarlo vuelve al
+ * caché en vez de liberarse, y al descartarlo se libera sin volver.
+ */
+final class PooledRecognizer implements SpeechRecognizer {
+
+    private final RecognizerPool pool;
+    private final String grammar;
+    private final EngineRecognizer recognizer;
+    private boolean closed;
+
+    PooledRecognizer(RecognizerPool pool, String grammar, EngineRecognizer recognizer) {
+        this.pool = pool;
+        this.grammar = grammar;
+        this.recognizer = recognizer;
+    }
+
+    @Override
+    public boolean acceptWaveForm(byte[] data, int length) {
+        return recognizer.acceptWaveForm(data, length);
+    }
+
+    @Override
+    public String getResult() {
+        return recognizer.getResult();
+    }
+
+    @Override
+    public String getPartialResult() {
+        return recognizer.getPartialResult();
+    }
+
+    @Override
+    public String getFinalResult() {
+        return recognizer.getFinalResult();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            pool.giveBack(grammar, recognizer);
+        }
+    }
+
+    @Override
+    public void discard() {
+        if (!closed) {
+            closed = true;
+            pool.discard(recognizer);
+        }
+    }
+}
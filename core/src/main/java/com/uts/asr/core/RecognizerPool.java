@@ -0,0 +1,256 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.engine.EngineRecognizer;
+import com.uts.asr.engine.EngineSpeakerModel;
+import com.uts.asr.jfr.RecognizerCreateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caché de recognizers inactivos, por gramática o del modelo completo.
+ * <p>
+ * Construir un recognizer con gramática compila un grafo pequeño; reutilizarlo
+ * entre sesiones evita repetir ese trabajo. Con el modelo completo lo que se
+ * evita es el primer chunk lento de un recognizer recién creado (ver
+ * {@link ModelWarmup}). Cada recognizer sigue siendo exclusivo de un hilo
+ * mientras está prestado: solo los inactivos se guardan aquí, reiniciados con
+ * {@link EngineRecognizer#reset()}.
+ * </p>
+ * <p>
+ * Cada recognizer vivo, prestado o en caché, tiene una reserva en el
+ * {@link MemoryBudget} y una referencia a su {@link ModelHandle}; ambas se
+ * sueltan al cerrarlo. Los recognizers de un modelo retirado no vuelven al
+ * caché.
+ * </p>
+ * <p>
+ * Un pool creado con {@code labelSpeakers} asocia el modelo de hablante
+ * ({@code speaker.modelPath}) a sus recognizers del modelo completo: solo lo
+ * usan las sesiones que se etiquetan, porque calcular el embedding encarece
+ * cada final y el ajuste no se puede quitar al devolverlos al caché.
+ * </p>
+ */
+final class RecognizerPool {
+    private static final Logger logger = LoggerFactory.getLogger(RecognizerPool.class);
+
+    /** Clave interna del modelo completo (sin gramática). */
+    private static final String FULL_MODEL = "";
+
+    private final Map<String, Deque<EngineRecognizer>> idle = new ConcurrentHashMap<>();
+    private final Map<EngineRecognizer, Lease> leases = new IdentityHashMap<>();
+    private final AtomicInteger borrowed = new AtomicInteger();
+    private volatile long lastActivityNanos = System.nanoTime();
+    private final int maxIdlePerGrammar;
+    private final MemoryBudget budget;
+    private final boolean labelSpeakers;
+
+    /** Lo que retiene un recognizer vivo hasta cerrarse. */
+    private record Lease(ModelHandle model, MemoryBudget.Reservation reservation) {
+    }
+
+    RecognizerPool(int maxIdlePerGrammar, MemoryBudget budget, boolean labelSpeakers) {
+        this.maxIdlePerGrammar = maxIdlePerGrammar;
+        this.budget = budget;
+        this.labelSpeakers = labelSpeakers;
+    }
+
+    /**
+     * Presta un recognizer para la gramática dada, creándolo si no hay uno libre.
+     *
+     * @param grammar gramática en JSON (lista de frases), o null para el modelo completo
+     * @throws MemoryBudgetExceededException si el recognizer no cabe en el presupuesto de memoria
+     * @throws InterruptedIOException si se interrumpe la espera por memoria
+     */
+    EngineRecognizer borrow(String grammar) throws IOException {
+        RecognizerCreateEvent event = new RecognizerCreateEvent();
+        event.begin();
+        Deque<EngineRecognizer> queue = idle.get(key(grammar));
+        EngineRecognizer cached;
+        while (queue != null && (cached = queue.pollFirst()) != null) {
+            if (!isRetired(cached)) {
+                logger.debug("Recognizer reutilizado desde caché");
+                markBorrowed(1);
+                commitCreate(event, "caché", grammar, cached);
+                return cached;
+            }
+            closeQuietly(cached);
+        }
+
+        // Antes de medir: si el modelo estaba descargado, su recarga no debe
+        // calibrar la estimación del recognizer
+        ModelHandle model = VoskService.acquire();
+        EngineRecognizer recognizer;
+        try {
+            recognizer = create(grammar, model);
+        } catch (IOException | RuntimeException e) {
+            model.release();
+            throw e;
+        }
+        markBorrowed(1);
+        commitCreate(event, "nuevo", grammar, recognizer);
+        logger.debug("Recognizer creado ({})", grammar == null ? "modelo completo" : grammar.length() + " caracteres de gramática");
+        return recognizer;
+    }
+
+    /**
+     * Devuelve un recognizer al caché, o lo cierra si el caché está lleno.
+     *
+     * @param grammar la misma gramática con la que se prestó (null = modelo completo)
+     */
+    void giveBack(String grammar, EngineRecognizer recognizer) {
+        markBorrowed(-1);
+        Deque<EngineRecognizer> queue = idle.computeIfAbsent(key(grammar), k -> new ConcurrentLinkedDeque<>());
+        try {
+            recognizer.reset();
+            if (queue.size() < maxIdlePerGrammar && !isRetired(recognizer)) {
+                // La estimación pudo calibrarse mientras estaba prestado
+                Lease lease;
+                synchronized (leases) {
+                    lease = leases.get(recognizer);
+                }
+                if (lease != null) {
+                    lease.reservation().adjustToEstimate();
+                }
+                queue.offerFirst(recognizer);
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("No se pudo reiniciar recognizer, se descarta", e);
+        }
+        closeQuietly(recognizer);
+    }
+
+    /**
+     * Cierra un recognizer prestado sin devolverlo al caché (estado dudoso).
+     */
+    void discard(EngineRecognizer recognizer) {
+        markBorrowed(-1);
+        closeQuietly(recognizer);
+    }
+
+    /**
+     * Cierra todos los recognizers inactivos.
+     */
+    void clear() {
+        for (Deque<EngineRecognizer> queue : idle.values()) {
+            EngineRecognizer recognizer;
+            while ((recognizer = queue.pollFirst()) != null) {
+                closeQuietly(recognizer);
+            }
+        }
+        idle.clear();
+    }
+
+    /**
+     * Recognizers prestados ahora (sesiones en curso).
+     */
+    int borrowedCount() {
+        return borrowed.get();
+    }
+
+    /**
+     * Último préstamo o devolución, en {@link System#nanoTime()}.
+     */
+    long lastActivityNanos() {
+        return lastActivityNanos;
+    }
+
+    /**
+     * Recognizers inactivos guardados para la gramática (null = modelo completo).
+     */
+    int idleCount(String grammar) {
+        Deque<EngineRecognizer> queue = idle.get(key(grammar));
+        return queue == null ? 0 : queue.size();
+    }
+
+    private EngineRecognizer create(String grammar, ModelHandle model) throws IOException {
+        MemoryBudget.Kind kind = grammar == null
+            ? MemoryBudget.Kind.RECOGNIZER
+            : MemoryBudget.Kind.GRAMMAR_RECOGNIZER;
+        MemoryBudget.Reservation reservation;
+        try {
+            reservation = budget.reserve(kind);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando memoria para un recognizer");
+        }
+
+        EngineRecognizer recognizer;
+        long resident = budget.beginMeasurement();
+        try {
+            recognizer = model.model().newRecognizer(AppSettings.current().sampleRate(), grammar);
+            EngineSpeakerModel speakerModel = VoskService.speakerModel();
+            if (labelSpeakers && grammar == null && speakerModel != null) {
+                // Las gramáticas son comandos y palabras clave: no se etiquetan
+                recognizer.setSpeakerModel(speakerModel);
+            }
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        } finally {
+            budget.endMeasurement(kind, resident);
+        }
+        reservation.adjustToEstimate();
+        synchronized (leases) {
+            leases.put(recognizer, new Lease(model, reservation));
+        }
+        return recognizer;
+    }
+
+    private void commitCreate(RecognizerCreateEvent event, String source, String grammar, EngineRecognizer recognizer) {
+        event.end();
+        if (event.shouldCommit()) {
+            Lease lease;
+            synchronized (leases) {
+                lease = leases.get(recognizer);
+            }
+            event.source = source;
+            event.grammar = grammar != null;
+            event.modelGeneration = lease != null ? lease.model().generation() : 0;
+            event.commit();
+        }
+    }
+
+    private void markBorrowed(int delta) {
+        borrowed.addAndGet(delta);
+        lastActivityNanos = System.nanoTime();
+    }
+
+    private boolean isRetired(EngineRecognizer recognizer) {
+        Lease lease;
+        synchronized (leases) {
+            lease = leases.get(recognizer);
+        }
+        return lease != null && lease.model().isRetired();
+    }
+
+    private static String key(String grammar) {
+        return grammar == null ? FULL_MODEL : grammar;
+    }
+
+    private void closeQuietly(EngineRecognizer recognizer) {
+        try {
+            recognizer.close();
+        } catch (Exception e) {
+            logger.error("Error al cerrar recognizer", e);
+        } finally {
+            Lease lease;
+            synchronized (leases) {
+                lease = leases.remove(recognizer);
+            }
+            if (lease != null) {
+                lease.reservation().close();
+                lease.model().release();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Graba el PCM capturado de una sesión en vivo para la segunda pasada.
+ * <p>
+ * El hilo de captura solo copia cada chunk a un buffer directo reservado al
+ * abrir ({@code twopass.bufferBytes}); el archivo se escribe cuando el buffer
+ * se llena, sin reservar memoria por chunk. No es thread-safe: una instancia
+ * por sesión, usada desde su hilo de captura.
+ * </p>
+ */
+public final class SessionRecorder implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SessionRecorder.class);
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long bytes;
+    private boolean closed;
+
+    private SessionRecorder(Path file, int bufferBytes) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /**
+     * Abre una grabación nueva para la sesión.
+     */
+    public static SessionRecorder create(String sessionName) throws IOException {
+        Path directory = AppSettings.current().recordingsDir();
+        Files.createDirectories(directory);
+        String name = (sessionName == null || sessionName.isBlank() ? "session" : sessionName.trim())
+            .replaceAll("[^a-zA-Z0-9._-]", "_");
+        Path file = directory.resolve(name + "_" + LocalDateTime.now().format(TIMESTAMP_FORMAT)
+            + "_" + Long.toHexString(System.nanoTime()) + ".pcm");
+        logger.debug("Grabando sesión en {}", file);
+        return new SessionRecorder(file, AppSettings.current().twoPassBufferBytes());
+    }
+
+    /**
+     * Añade un chunk de PCM.
+     */
+    public void write(byte[] data, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int count = Math.min(length - offset, buffer.remaining());
+            buffer.put(data, offset, count);
+            offset += count;
+            if (!buffer.hasRemaining()) {
+                flush(false);
+            }
+        }
+        bytes += length;
+    }
+
+    /**
+     * Bytes grabados hasta ahora.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Vuelca lo pendiente y cierra el archivo (idempotente).
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Cierra y borra la grabación (sesión fallida o sin segunda pasada).
+     */
+    public void discard() {
+        try {
+            close();
+        } catch (IOException e) {
+            logger.debug("Error cerrando grabación descartada {}: {}", file, e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar la grabación {}", file, e);
+        }
+    }
+
+    private void flush(boolean force) throws IOException {
+        // Al detener la sesión el hilo de captura suele estar interrumpido, y un
+        // FileChannel se cierra solo si se escribe con la marca de interrupción
+        boolean interrupted = Thread.interrupted();
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            if (force) {
+                channel.force(false);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
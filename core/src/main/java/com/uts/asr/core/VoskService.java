@@ -0,0 +1,508 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.engine.AsrEngine;
+import com.uts.asr.engine.AsrEngines;
+import com.uts.asr.engine.EngineModel;
+import com.uts.asr.engine.EngineSpeakerModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio singleton para gestionar el modelo de reconocimiento.
+ * Carga el modelo una sola vez al inicio y lo libera al cerrar la app.
+ * <p>
+ * El modelo lo carga el motor elegido con {@code engine.id} (ver
+ * {@link AsrEngines}); Vosk por defecto.
+ * </p>
+ * <p>
+ * El modelo puede cambiarse en caliente con {@link #swapModel(Path)}: el nuevo
+ * se carga en segundo plano, los recognizers nuevos lo usan en cuanto está
+ * listo y el anterior se cierra cuando terminan las sesiones que lo usaban
+ * (ver {@link ModelHandle}).
+ * </p>
+ * <p>
+ * Con {@code model.idleUnloadSeconds} el modelo se descarga tras ese tiempo
+ * sin recognizers activos y se recarga al pedir el siguiente (ver
+ * {@link ModelIdlePolicy}).
+ * </p>
+ * <p>
+ * Con {@code speaker.modelPath} carga además, una vez, el modelo de hablante
+ * que comparten los recognizers de las sesiones que etiquetan hablantes (ver
+ * {@link WorkerFactory#createRecognizer(boolean)}).
+ * </p>
+ */
+public final class VoskService {
+    private static final Logger logger = LoggerFactory.getLogger(VoskService.class);
+    private static volatile ModelHandle current;
+    private static volatile Path modelPath;
+    private static final List<ModelHandle> retiring = new CopyOnWriteArrayList<>();
+    private static long generations;
+    // Protegido por SWAP_LOCK
+    private static long loadedAtNanos;
+    // Estadísticas del ciclo de vida: se leen sin SWAP_LOCK, que se mantiene
+    // durante cargas enteras
+    private static final AtomicInteger loads = new AtomicInteger();
+    private static final AtomicInteger unloads = new AtomicInteger();
+    private static final AtomicInteger reloads = new AtomicInteger();
+    private static final AtomicLong reloadWaitMs = new AtomicLong();
+    private static volatile long lastLoadMs;
+    private static EngineModel secondPassModel;
+    private static MemoryBudget.Reservation secondPassReservation;
+    private static volatile EngineSpeakerModel speakerModel;
+    private static volatile boolean initialized = false;
+
+    private static final Object SWAP_LOCK = new Object();
+    private static final ExecutorService SWAP_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "model-swap");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private VoskService() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Resultado de un cambio de modelo.
+     *
+     * @param previous modelo retirado
+     * @param current modelo nuevo
+     * @param generation número de carga del modelo nuevo
+     * @param loadMs tiempo de carga y calentamiento del modelo nuevo
+     * @param draining recognizers que seguían usando el anterior al cambiar
+     */
+    public record SwapResult(Path previous, Path current, long generation, long loadMs, int draining) {
+
+        @Override
+        public String toString() {
+            return String.format("%s -> %s (generación %d) en %d ms, %d recognizer(s) terminando con el anterior",
+                previous, current, generation, loadMs, draining);
+        }
+    }
+
+    /**
+     * Cargas y descargas del modelo desde el arranque.
+     *
+     * @param loaded si el modelo está en memoria ahora
+     * @param loads cargas (arranque, cambios, precargas y recargas)
+     * @param unloads descargas por inactividad
+     * @param reloads recargas bajo demanda, pagadas por la sesión que las pidió
+     * @param lastLoadMs duración de la última carga
+     * @param reloadWaitMs espera total de las sesiones por recargas bajo demanda
+     */
+    public record LifecycleStats(boolean loaded, int loads, int unloads, int reloads,
+                                 long lastLoadMs, long reloadWaitMs) {
+
+        @Override
+        public String toString() {
+            return String.format("%s, %d carga(s), %d descarga(s) por inactividad, %d recarga(s) bajo demanda "
+                    + "(espera total %d ms), última carga %d ms", loaded ? "cargado" : "descargado",
+                loads, unloads, reloads, reloadWaitMs, lastLoadMs);
+        }
+    }
+
+    /**
+     * Inicializa el modelo desde la ruta configurada.
+     * Debe llamarse UNA VEZ al inicio de la aplicación.
+     * 
+     * @throws IOException si el modelo no se puede cargar
+     * @throws MemoryBudgetExceededException si el modelo no cabe en {@code memory.budgetMb}
+     */
+    public static synchronized void init() throws IOException {
+        if (initialized) {
+            logger.warn("VoskService ya estaba inicializado");
+            return;
+        }
+
+        AppSettings settings = AppSettings.current();
+        long start = System.nanoTime();
+        modelPath = Path.of(settings.modelPath());
+        current = load(modelPath);
+        initialized = true;
+        logger.info("Modelo cargado en {} ms", (System.nanoTime() - start) / 1_000_000);
+        if (settings.speakerEnabled()) {
+            // Antes del calentamiento: los recognizers en reserva ya salen con él
+            long speakerStart = System.nanoTime();
+            speakerModel = AsrEngines.current().loadSpeakerModel(Path.of(settings.speakerModelPath()));
+            logger.info("Modelo de hablante cargado en {} ms desde {}",
+                (System.nanoTime() - speakerStart) / 1_000_000, settings.speakerModelPath());
+        }
+
+        // Registrar hook para liberar recursos al cerrar
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("Liberando recursos del modelo...");
+            shutdown();
+        }, "vosk-shutdown-hook"));
+
+        warmUp();
+        logger.info("Modelo cargado exitosamente. Memoria: {}", MemoryBudget.shared().usage());
+        ModelIdlePolicy.start(settings);
+    }
+
+    /**
+     * Obtiene la instancia compartida del modelo.
+     * <p>
+     * No retiene referencia: tras un cambio de modelo o una descarga por
+     * inactividad la instancia devuelta puede cerrarse. Los recognizers se
+     * crean con {@link #acquire()}.
+     * </p>
+     * 
+     * @return el modelo cargado (se recarga si estaba descargado)
+     * @throws IllegalStateException si no se ha inicializado
+     * @throws UncheckedIOException si la recarga falla
+     */
+    public static EngineModel getModel() {
+        ModelHandle handle = currentHandle();
+        try {
+            return (handle != null ? handle : reload()).model();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Modelo actual (ruta, generación y recognizers que lo usan).
+     *
+     * @return el modelo cargado, o null si está descargado por inactividad
+     * @throws IllegalStateException si no se ha inicializado
+     */
+    public static ModelHandle currentHandle() {
+        if (!initialized) {
+            throw new IllegalStateException(
+                "VoskService no inicializado. Llamar a init() primero."
+            );
+        }
+        return current;
+    }
+
+    /**
+     * Carpeta del modelo en uso (o del que se recargará si está descargado).
+     */
+    public static Path modelPath() {
+        return modelPath;
+    }
+
+    /**
+     * Cargas, descargas y tiempo de recarga desde el arranque. No bloquea
+     * aunque haya una carga o un cambio de modelo en curso (se llama desde el
+     * EDT y desde {@code GET /model}); los contadores pueden no ser del mismo
+     * instante.
+     */
+    public static LifecycleStats lifecycle() {
+        return new LifecycleStats(current != null, loads.get(), unloads.get(), reloads.get(),
+            lastLoadMs, reloadWaitMs.get());
+    }
+
+    /**
+     * Modelos retirados que aún esperan a que terminen sus sesiones.
+     */
+    public static List<ModelHandle> draining() {
+        retiring.removeIf(ModelHandle::isClosed);
+        return List.copyOf(retiring);
+    }
+
+    /**
+     * Retiene el modelo actual para un recognizer nuevo; debe soltarse con
+     * {@link ModelHandle#release()} al cerrar el recognizer. Si el modelo
+     * estaba descargado por inactividad, lo recarga antes.
+     *
+     * @throws IllegalStateException si no se ha inicializado
+     * @throws IOException si la recarga falla
+     */
+    static ModelHandle acquire() throws IOException {
+        while (true) {
+            ModelHandle handle = currentHandle();
+            if (handle == null) {
+                handle = reload();
+            }
+            if (handle.retain()) {
+                return handle;
+            }
+            // Se retiró entre la lectura y la retención: el cambio ya publicó el
+            // nuevo, o se descargó y la próxima vuelta lo recarga
+        }
+    }
+
+    /**
+     * Descarga el modelo si lleva {@code idleMillis} sin recognizers activos.
+     * Los recognizers en caché se cierran; el modelo se cierra en cuanto nadie
+     * lo use.
+     *
+     * @return true si se descargó
+     */
+    static boolean unloadIfIdle(long idleMillis) {
+        synchronized (SWAP_LOCK) {
+            ModelHandle handle = current;
+            if (handle == null || WorkerFactory.activeRecognizers() > 0) {
+                return false;
+            }
+            long lastActivity = WorkerFactory.lastRecognizerActivityNanos();
+            long idleNanos = System.nanoTime() - (lastActivity - loadedAtNanos > 0 ? lastActivity : loadedAtNanos);
+            if (idleNanos < TimeUnit.MILLISECONDS.toNanos(idleMillis)) {
+                return false;
+            }
+
+            current = null;
+            WorkerFactory.discardIdleRecognizers();
+            handle.retire();
+            if (!handle.isClosed()) {
+                retiring.add(handle);
+            }
+            unloads.incrementAndGet();
+            logger.info("Modelo {} descargado tras {} s sin recognizers activos. Memoria: {}", handle.path(),
+                TimeUnit.NANOSECONDS.toSeconds(idleNanos), MemoryBudget.shared().usage());
+            return true;
+        }
+    }
+
+    /**
+     * Carga y calienta el modelo si estaba descargado; si está cargado, solo
+     * reinicia el plazo de inactividad.
+     */
+    static void preload() throws IOException {
+        synchronized (SWAP_LOCK) {
+            if (!initialized) {
+                return;
+            }
+            if (current != null) {
+                loadedAtNanos = System.nanoTime();
+                return;
+            }
+            current = load(modelPath);
+            warmUp();
+            logger.info("Modelo precargado: {}", lifecycle());
+        }
+    }
+
+    /**
+     * Cambia el modelo sin parar el servicio: carga el nuevo, lo publica para
+     * los recognizers nuevos y retira el anterior, que se cierra cuando
+     * terminan las sesiones que lo usan. Durante el cambio ambos modelos
+     * ocupan memoria, así que el nuevo debe caber en {@code memory.budgetMb}
+     * junto al anterior.
+     *
+     * @param modelPath carpeta del modelo nuevo
+     * @throws IOException si el modelo no se puede cargar (el actual sigue en uso)
+     * @throws MemoryBudgetExceededException si el modelo nuevo no cabe
+     * @throws IllegalStateException si no se ha inicializado o el reconocimiento está en workers
+     */
+    public static SwapResult swapModel(Path modelPath) throws IOException {
+        if (AppSettings.current().workerModeEnabled()) {
+            throw new IllegalStateException("Con procesos worker el modelo se cambia reiniciándolos");
+        }
+        synchronized (SWAP_LOCK) {
+            // null si estaba descargado por inactividad: no hay nada que retirar
+            ModelHandle previous = currentHandle();
+            Path previousPath = VoskService.modelPath;
+            long start = System.nanoTime();
+            if (AppSettings.current().memoryModelMb() == 0 && AsrEngines.current().usesModelFiles()) {
+                MemoryBudget.shared().estimateFromDisk(MemoryBudget.Kind.MODEL, modelPath);
+            }
+            ModelHandle loaded = load(modelPath);
+
+            current = loaded;
+            VoskService.modelPath = modelPath;
+            int draining = 0;
+            if (previous != null) {
+                retiring.add(previous);
+                draining = previous.references();
+                // Los recognizers en caché son del modelo anterior y no se volverán a prestar
+                WorkerFactory.discardIdleRecognizers();
+                previous.retire();
+            }
+            warmUp();
+
+            SwapResult result = new SwapResult(previousPath, loaded.path(), loaded.generation(),
+                (System.nanoTime() - start) / 1_000_000, draining);
+            logger.info("Modelo cambiado: {}. Memoria: {}", result, MemoryBudget.shared().usage());
+            return result;
+        }
+    }
+
+    /**
+     * {@link #swapModel(Path)} en el hilo {@code model-swap}; los cambios
+     * pedidos a la vez se aplican en orden.
+     */
+    public static CompletableFuture<SwapResult> swapModelAsync(Path modelPath) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return swapModel(modelPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, SWAP_EXECUTOR);
+    }
+
+    /**
+     * Modelo preciso de la segunda pasada ({@code twopass.modelPath}). Se carga
+     * al primer uso, no al arrancar: solo lo necesitan las redecodificaciones
+     * en segundo plano.
+     *
+     * @throws IllegalStateException si la segunda pasada está desactivada
+     * @throws MemoryBudgetExceededException si el modelo no cabe en el presupuesto
+     * @throws IOException si el modelo no se puede cargar
+     */
+    public static synchronized EngineModel getSecondPassModel() throws IOException {
+        if (secondPassModel != null) {
+            return secondPassModel;
+        }
+        AppSettings settings = AppSettings.current();
+        if (!settings.twoPassEnabled()) {
+            throw new IllegalStateException("Segunda pasada desactivada (twopass.modelPath vacío)");
+        }
+
+        MemoryBudget budget = MemoryBudget.shared();
+        MemoryBudget.Reservation reservation;
+        try {
+            reservation = budget.reserve(MemoryBudget.Kind.SECOND_PASS_MODEL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando memoria para el modelo de segunda pasada");
+        }
+
+        logger.info("Cargando modelo de segunda pasada desde: {}", settings.twoPassModelPath());
+        long start = System.nanoTime();
+        long resident = budget.beginMeasurement();
+        try {
+            secondPassModel = AsrEngines.current().loadModel(Path.of(settings.twoPassModelPath()));
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        } finally {
+            budget.endMeasurement(MemoryBudget.Kind.SECOND_PASS_MODEL, resident);
+        }
+        reservation.adjustToEstimate();
+        secondPassReservation = reservation;
+        logger.info("Modelo de segunda pasada cargado en {} ms", (System.nanoTime() - start) / 1_000_000);
+        return secondPassModel;
+    }
+
+    /**
+     * Modelo de hablante compartido ({@code speaker.modelPath}).
+     *
+     * @return el modelo, o null si no hay etiquetado de hablantes
+     */
+    public static EngineSpeakerModel speakerModel() {
+        return speakerModel;
+    }
+
+    /**
+     * Libera los recursos del modelo.
+     * Solo debe llamarse al cerrar la aplicación.
+     */
+    private static synchronized void shutdown() {
+        if (secondPassModel != null) {
+            try {
+                secondPassModel.close();
+            } catch (Exception e) {
+                logger.error("Error al cerrar el modelo de segunda pasada", e);
+            } finally {
+                secondPassModel = null;
+                secondPassReservation.close();
+                secondPassReservation = null;
+            }
+        }
+        for (ModelHandle handle : retiring) {
+            handle.closeNow();
+        }
+        retiring.clear();
+        ModelHandle handle = current;
+        if (handle != null) {
+            current = null;
+            initialized = false;
+            handle.closeNow();
+        }
+        // Después de los recognizers que lo usaban
+        EngineSpeakerModel speaker = speakerModel;
+        if (speaker != null) {
+            speakerModel = null;
+            speaker.close();
+        }
+    }
+
+    /**
+     * Carga un modelo con su reserva de memoria, calibrando la estimación con
+     * lo medido.
+     */
+    private static ModelHandle load(Path modelPath) throws IOException {
+        AppSettings settings = AppSettings.current();
+        AsrEngine engine = AsrEngines.current();
+        if (settings.warmupPrefault() && engine.usesModelFiles()) {
+            ModelWarmup.prefault(modelPath);
+        }
+        MemoryBudget budget = MemoryBudget.shared();
+        MemoryBudget.Reservation reservation;
+        try {
+            reservation = budget.reserve(MemoryBudget.Kind.MODEL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando memoria para el modelo");
+        }
+
+        logger.info("Cargando modelo ({}) desde: {}", engine.id(), modelPath);
+        long start = System.nanoTime();
+        long resident = budget.beginMeasurement();
+        EngineModel model;
+        try {
+            model = engine.loadModel(modelPath);
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        } finally {
+            budget.endMeasurement(MemoryBudget.Kind.MODEL, resident);
+        }
+        reservation.adjustToEstimate();
+        synchronized (SWAP_LOCK) {
+            loadedAtNanos = System.nanoTime();
+            loads.incrementAndGet();
+            lastLoadMs = TimeUnit.NANOSECONDS.toMillis(loadedAtNanos - start);
+            return new ModelHandle(model, modelPath, ++generations, reservation);
+        }
+    }
+
+    /**
+     * Recarga bajo demanda el modelo descargado por inactividad. La espera la
+     * paga quien pidió el recognizer; no se calienta para no alargarla.
+     */
+    private static ModelHandle reload() throws IOException {
+        synchronized (SWAP_LOCK) {
+            ModelHandle handle = currentHandle();
+            if (handle != null) {
+                return handle;
+            }
+            long start = System.nanoTime();
+            handle = load(modelPath);
+            long waitedMs = (System.nanoTime() - start) / 1_000_000;
+            reloads.incrementAndGet();
+            reloadWaitMs.addAndGet(waitedMs);
+            current = handle;
+            logger.info("Modelo recargado bajo demanda en {} ms: {}", waitedMs, lifecycle());
+            return handle;
+        }
+    }
+
+    private static void warmUp() {
+        // Un calentamiento fallido solo retrasa la primera sesión
+        if (AppSettings.current().warmupEnabled()) {
+            try {
+                ModelWarmup.run();
+            } catch (Exception e) {
+                logger.warn("Calentamiento del modelo fallido: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.engine.EngineRecognizer;
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.jfr.PermitWaitEvent;
+import com.uts.asr.jfr.RecognizerCreateEvent;
+import com.uts.asr.util.CancellationToken;
+import com.uts.asr.worker.WorkerProcessPool;
+import org.json.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory para crear recognizers del motor de reconocimiento y gestionar threads de trabajo.
+ * Implementa un límite de recognizers concurrentes basado en CPUs disponibles.
+ */
+public final class WorkerFactory {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerFactory.class);
+
+    // Espera máxima entre comprobaciones de cancelación al esperar un permiso
+    private static final long PERMIT_POLL_MILLIS = 100;
+    
+    // Limitar recognizers concurrentes (por defecto, según CPUs disponibles)
+    private static final Semaphore AVAILABLE = new Semaphore(
+        AppSettings.current().maxRecognizers()
+    );
+    
+    // Recognizers con gramática: mucho más baratos, admiten más streams por CPU
+    private static final Semaphore GRAMMAR_AVAILABLE = new Semaphore(
+        Runtime.getRuntime().availableProcessors() * AppSettings.current().grammarStreamsPerCpu()
+    );
+    
+    private static final RecognizerPool GRAMMAR_POOL =
+        new RecognizerPool(AppSettings.current().grammarCachePerGrammar(), MemoryBudget.shared(), false);
+
+    // Recognizers del modelo completo ya calentados, listos para la próxima sesión
+    private static final RecognizerPool MODEL_POOL =
+        new RecognizerPool(AppSettings.current().warmupRecognizers(), MemoryBudget.shared(), false);
+
+    // Recognizers con modelo de hablante, solo para sesiones que se etiquetan
+    private static final RecognizerPool SPEAKER_POOL =
+        new RecognizerPool(AppSettings.current().warmupRecognizers(), MemoryBudget.shared(), true);
+    
+    // Executor compartido para todas las tareas de transcripción
+    private static final ExecutorService EXECUTOR;
+    
+    static {
+        // Si falta memoria, los recognizers inactivos de los cachés son lo primero que se libera
+        MemoryBudget.shared().addReclaimer(MODEL_POOL::clear);
+        MemoryBudget.shared().addReclaimer(SPEAKER_POOL::clear);
+        MemoryBudget.shared().addReclaimer(GRAMMAR_POOL::clear);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        
+        EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r);
+                t.setName("vosk-worker-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                
+                // Handler para excepciones no capturadas
+                t.setUncaughtExceptionHandler((thread, throwable) -> {
+                    logger.error("Excepción no capturada en {}", thread.getName(), throwable);
+                });
+                
+                return t;
+            }
+        });
+        
+        // Registrar shutdown del executor
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("Cerrando executor de transcripciones...");
+            EXECUTOR.shutdownNow();
+            GRAMMAR_POOL.clear();
+            MODEL_POOL.clear();
+            SPEAKER_POOL.clear();
+        }, "worker-factory-shutdown"));
+    }
+
+    private WorkerFactory() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Obtiene el executor compartido para tareas de transcripción.
+     */
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Adquiere un permiso para crear un recognizer.
+     * Debe llamarse antes de createRecognizer().
+     * 
+     * @throws InterruptedException si el thread es interrumpido
+     */
+    public static void acquireRecognizerPermit() throws InterruptedException {
+        logger.debug("Adquiriendo permiso para recognizer...");
+        PermitWaitEvent event = new PermitWaitEvent();
+        event.begin();
+        boolean acquired = false;
+        try {
+            AVAILABLE.acquire();
+            acquired = true;
+        } finally {
+            commitWait(event, "recognizer", acquired, AVAILABLE);
+        }
+        logger.debug("Permiso adquirido. Disponibles: {}", AVAILABLE.availablePermits());
+    }
+
+    /**
+     * Adquiere un permiso para crear un recognizer atendiendo la cancelación
+     * y el plazo del trabajo mientras espera.
+     *
+     * @throws CancellationException si el token se cancela antes de obtenerlo
+     * @throws InterruptedException si el thread es interrumpido
+     */
+    public static void acquireRecognizerPermit(CancellationToken token) throws InterruptedException {
+        logger.debug("Adquiriendo permiso para recognizer...");
+        PermitWaitEvent event = new PermitWaitEvent();
+        event.begin();
+        boolean acquired = false;
+        try {
+            while (!AVAILABLE.tryAcquire(PERMIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                token.throwIfCancelled();
+            }
+            acquired = true;
+        } finally {
+            commitWait(event, "recognizer", acquired, AVAILABLE);
+        }
+        logger.debug("Permiso adquirido. Disponibles: {}", AVAILABLE.availablePermits());
+    }
+
+    /**
+     * Toma un permiso de recognizer solo si hay uno libre ahora, sin esperar
+     * ni registrar la espera. Para trabajo de fondo que cede ante las sesiones.
+     *
+     * @return si lo obtuvo; hay que soltarlo con {@link #releaseRecognizerPermit()}
+     */
+    public static boolean tryAcquireRecognizerPermit() {
+        return AVAILABLE.tryAcquire();
+    }
+
+    /**
+     * Libera un permiso de recognizer.
+     * Debe llamarse en finally después de cerrar el recognizer.
+     */
+    public static void releaseRecognizerPermit() {
+        AVAILABLE.release();
+        logger.debug("Permiso liberado. Disponibles: {}", AVAILABLE.availablePermits());
+    }
+
+    /**
+     * Permisos de recognizer libres ahora (0 = sesiones saturando la CPU).
+     */
+    public static int availableRecognizerPermits() {
+        return AVAILABLE.availablePermits();
+    }
+
+    /**
+     * Crea un nuevo recognizer para el thread actual, o reutiliza uno ya
+     * calentado del caché.
+     * Si el modo de procesos worker está activo, la sesión se abre en un
+     * worker; en otro caso se usa el modelo de este proceso.
+     * IMPORTANTE: El recognizer debe cerrarse en finally.
+     * 
+     * @return un nuevo recognizer configurado
+     * @throws IllegalStateException si VoskService no está inicializado
+     * @throws MemoryBudgetExceededException si no cabe en el presupuesto de memoria
+     * @throws IOException si ocurre un error al crear el recognizer
+     */
+    public static SpeechRecognizer createRecognizer() throws IOException {
+        return createRecognizer(false);
+    }
+
+    /**
+     * Como {@link #createRecognizer()}, pero con {@code labelSpeakers} y
+     * {@code speaker.modelPath} configurado cada final trae el embedding del
+     * hablante ({@code spk}, {@code spk_frames}). Solo deben pedirlo las
+     * sesiones que pasan sus finales por
+     * {@link com.uts.asr.speaker.SpeakerStage}: el embedding encarece cada
+     * final en el hilo de decodificación.
+     *
+     * @param labelSpeakers si la sesión etiqueta hablantes
+     */
+    public static SpeechRecognizer createRecognizer(boolean labelSpeakers) throws IOException {
+        logger.debug("Creando recognizer en thread: {}", Thread.currentThread().getName());
+        
+        if (AppSettings.current().workerModeEnabled()) {
+            RecognizerCreateEvent event = new RecognizerCreateEvent();
+            event.begin();
+            SpeechRecognizer remote = WorkerProcessPool.get().openSession(labelSpeakers);
+            event.end();
+            if (event.shouldCommit()) {
+                event.source = "worker";
+                event.commit();
+            }
+            logger.debug("Sesión remota abierta en worker");
+            return remote;
+        }
+        
+        // Al cerrar, el recognizer vuelve reiniciado al caché (hasta warmup.recognizers)
+        RecognizerPool pool = labelSpeakers && VoskService.speakerModel() != null ? SPEAKER_POOL : MODEL_POOL;
+        EngineRecognizer recognizer = pool.borrow(null);
+        logger.debug("Recognizer creado exitosamente");
+        return new PooledRecognizer(pool, null, recognizer);
+    }
+
+    /**
+     * Caché de recognizers del modelo completo (lo llena {@link ModelWarmup}).
+     */
+    static RecognizerPool modelPool() {
+        return MODEL_POOL;
+    }
+
+    /**
+     * Recognizers del modelo de este proceso prestados ahora, con y sin gramática.
+     */
+    static int activeRecognizers() {
+        return MODEL_POOL.borrowedCount() + SPEAKER_POOL.borrowedCount() + GRAMMAR_POOL.borrowedCount();
+    }
+
+    /**
+     * Último préstamo o devolución de un recognizer, en {@link System#nanoTime()}.
+     */
+    static long lastRecognizerActivityNanos() {
+        long model = MODEL_POOL.lastActivityNanos();
+        long speaker = SPEAKER_POOL.lastActivityNanos();
+        long grammar = GRAMMAR_POOL.lastActivityNanos();
+        long latest = model - speaker > 0 ? model : speaker;
+        return latest - grammar > 0 ? latest : grammar;
+    }
+
+    /**
+     * Cierra los recognizers inactivos de todos los cachés (tras cambiar o descargar el modelo).
+     */
+    static void discardIdleRecognizers() {
+        MODEL_POOL.clear();
+        SPEAKER_POOL.clear();
+        GRAMMAR_POOL.clear();
+    }
+
+    /**
+     * Adquiere un permiso para un recognizer restringido por gramática.
+     * Estos permisos son independientes de los de dictado completo.
+     *
+     * @throws InterruptedException si el thread es interrumpido
+     */
+    public static void acquireGrammarPermit() throws InterruptedException {
+        PermitWaitEvent event = new PermitWaitEvent();
+        event.begin();
+        boolean acquired = false;
+        try {
+            GRAMMAR_AVAILABLE.acquire();
+            acquired = true;
+        } finally {
+            commitWait(event, "gramática", acquired, GRAMMAR_AVAILABLE);
+        }
+        logger.debug("Permiso de gramática adquirido. Disponibles: {}",
+            GRAMMAR_AVAILABLE.availablePermits());
+    }
+
+    /**
+     * Adquiere un permiso de gramática atendiendo la cancelación del trabajo
+     * mientras espera.
+     *
+     * @throws CancellationException si el token se cancela antes de obtenerlo
+     * @throws InterruptedException si el thread es interrumpido
+     */
+    public static void acquireGrammarPermit(CancellationToken token) throws InterruptedException {
+        PermitWaitEvent event = new PermitWaitEvent();
+        event.begin();
+        boolean acquired = false;
+        try {
+            while (!GRAMMAR_AVAILABLE.tryAcquire(PERMIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                token.throwIfCancelled();
+            }
+            acquired = true;
+        } finally {
+            commitWait(event, "gramática", acquired, GRAMMAR_AVAILABLE);
+        }
+        logger.debug("Permiso de gramática adquirido. Disponibles: {}",
+            GRAMMAR_AVAILABLE.availablePermits());
+    }
+
+    /**
+     * Libera un permiso de recognizer con gramática.
+     */
+    public static void releaseGrammarPermit() {
+        GRAMMAR_AVAILABLE.release();
+    }
+
+    /**
+     * Obtiene un recognizer restringido a una lista de frases (gramática Vosk).
+     * Reutiliza recognizers cacheados para la misma gramática; debe devolverse
+     * con {@link #recycleGrammarRecognizer(String, EngineRecognizer)}.
+     *
+     * @param grammar gramática en JSON, ver {@link #buildGrammar(Collection)}
+     * @return recognizer con timestamps por palabra habilitados
+     * @throws IOException si ocurre un error al crear el recognizer
+     */
+    public static EngineRecognizer createGrammarRecognizer(String grammar) throws IOException {
+        return GRAMMAR_POOL.borrow(grammar);
+    }
+
+    /**
+     * Devuelve un recognizer con gramática al caché para reutilizarlo.
+     */
+    public static void recycleGrammarRecognizer(String grammar, EngineRecognizer recognizer) {
+        GRAMMAR_POOL.giveBack(grammar, recognizer);
+    }
+
+    /**
+     * Cierra un recognizer con gramática cuyo estado no es de fiar (la sesión
+     * terminó con error) en vez de devolverlo al caché.
+     */
+    public static void discardGrammarRecognizer(EngineRecognizer recognizer) {
+        GRAMMAR_POOL.discard(recognizer);
+    }
+
+    private static void commitWait(PermitWaitEvent event, String permit, boolean acquired, Semaphore permits) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.permit = permit;
+            event.acquired = acquired;
+            event.available = permits.availablePermits();
+            event.commit();
+        }
+    }
+
+    /**
+     * Construye una gramática Vosk a partir de frases. Incluye "[unk]" para que
+     * el habla fuera de la lista no se fuerce a una frase conocida.
+     */
+    public static String buildGrammar(Collection<String> phrases) {
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String phrase : phrases) {
+            String p = phrase.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+            if (!p.isEmpty()) {
+                normalized.add(p);
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("La gramática requiere al menos una frase");
+        }
+        JSONArray array = new JSONArray(normalized);
+        array.put("[unk]");
+        return array.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.uts.asr.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Motor de reconocimiento (SPI).
+ * <p>
+ * Las implementaciones se registran en
+ * {@code META-INF/services/com.uts.asr.engine.AsrEngine} y se eligen con
+ * {@code engine.id} (ver {@link AsrEngines}). El resto de la aplicación solo
+ * ve {@link EngineModel} y {@link EngineRecognizer}: cachés, permisos,
+ * presupuesto de memoria y estrategias funcionan igual con cualquier motor.
+ * Los resultados siguen el JSON de Vosk ({@code text}, {@code partial},
+ * {@code result} con tiempos por palabra).
+ * </p>
+ */
+public interface AsrEngine {
+
+    /**
+     * Identificador para {@code engine.id} (p. ej. {@code vosk}).
+     */
+    String id();
+
+    /**
+     * Carga un modelo. Puede tardar segundos y ocupar cientos de MB.
+     *
+     * @param modelPath carpeta del modelo ({@code model.path} o {@code twopass.modelPath})
+     * @throws IOException si el modelo no se puede cargar
+     */
+    EngineModel loadModel(Path modelPath) throws IOException;
+
+    /**
+     * Si el modelo se lee de {@code modelPath}. Sin archivos no hay nada que
+     * precargar en la caché de páginas ni de donde estimar su memoria.
+     */
+    default boolean usesModelFiles() {
+        return true;
+    }
+
+    /**
+     * Carga un modelo de hablante ({@code speaker.modelPath}) para etiquetar
+     * los finales por hablante.
+     *
+     * @throws IOException si el modelo no se puede cargar
+     * @throws UnsupportedOperationException si el motor no calcula embeddings de hablante
+     */
+    default EngineSpeakerModel loadSpeakerModel(Path modelPath) throws IOException {
+        throw new UnsupportedOperationException("El motor " + id() + " no admite modelos de hablante");
+    }
+}
@@ -0,0 +1,57 @@
+package com.uts.asr.engine;
+
+import com.uts.asr.config.AppSettings;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+
+/**
+ * Motores de reconocimiento disponibles en el classpath.
+ */
+public final class AsrEngines {
+
+    private static Map<String, AsrEngine> engines;
+
+    private AsrEngines() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Motor elegido con {@code engine.id}.
+     *
+     * @throws IllegalArgumentException si no hay ningún motor con ese id
+     */
+    public static AsrEngine current() {
+        return get(AppSettings.current().engineId());
+    }
+
+    /**
+     * Motor con el id dado.
+     *
+     * @throws IllegalArgumentException si no hay ningún motor con ese id
+     */
+    public static AsrEngine get(String id) {
+        AsrEngine engine = available().get(id);
+        if (engine == null) {
+            throw new IllegalArgumentException("Motor de reconocimiento desconocido: " + id
+                + " (disponibles: " + String.join(", ", available().keySet()) + ")");
+        }
+        return engine;
+    }
+
+    /**
+     * Motores registrados, por id.
+     */
+    public static synchronized Map<String, AsrEngine> available() {
+        if (engines == null) {
+            Map<String, AsrEngine> found = new TreeMap<>();
+            for (AsrEngine engine : ServiceLoader.load(AsrEngine.class)) {
+                found.putIfAbsent(engine.id(), engine);
+            }
+            engines = Collections.unmodifiableMap(found);
+        }
+        return engines;
+    }
+}
@@ -0,0 +1,25 @@
+package com.uts.asr.engine;
+
+import java.io.IOException;
+
+/**
+ * Modelo cargado por un {@link AsrEngine}, compartido por todos los
+ * recognizers creados sobre él. Debe seguir abierto mientras quede alguno.
+ */
+public interface EngineModel extends AutoCloseable {
+
+    /**
+     * Crea un recognizer de streaming con tiempos por palabra en los finales.
+     *
+     * @param sampleRate tasa del PCM 16 bits mono de entrada
+     * @param grammar gramática en JSON (lista de frases), o null para el modelo completo
+     * @throws IOException si el recognizer no se puede crear
+     */
+    EngineRecognizer newRecognizer(float sampleRate, String grammar) throws IOException;
+
+    /**
+     * Libera el modelo.
+     */
+    @Override
+    void close();
+}
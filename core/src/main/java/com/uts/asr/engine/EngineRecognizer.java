@@ -0,0 +1,25 @@
+package com.uts.asr.engine;
+
+/**
+ * Recognizer creado directamente por un motor, sin caché ni permisos
+ * alrededor. Además de la API de {@link SpeechRecognizer} admite reiniciarse
+ * para que el caché lo preste a otra sesión.
+ */
+public interface EngineRecognizer extends SpeechRecognizer {
+
+    /**
+     * Descarta el segmento en curso y deja el recognizer como recién creado.
+     */
+    void reset();
+
+    /**
+     * Añade a cada final el embedding del hablante calculado con este modelo.
+     * Se llama al crear el recognizer y se mantiene tras {@link #reset()}.
+     *
+     * @param speakerModel modelo cargado por el mismo motor
+     * @throws UnsupportedOperationException si el motor no calcula embeddings de hablante
+     */
+    default void setSpeakerModel(EngineSpeakerModel speakerModel) {
+        throw new UnsupportedOperationException("Este recognizer no admite modelos de hablante");
+    }
+}
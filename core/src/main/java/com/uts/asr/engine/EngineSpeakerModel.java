@@ -0,0 +1,17 @@
+package com.uts.asr.engine;
+
+/**
+ * Modelo de hablante cargado por un {@link AsrEngine}. Se asocia a los
+ * recognizers con {@link EngineRecognizer#setSpeakerModel}; con él, cada
+ * final incluye el embedding del hablante ({@code spk}) y los frames de los
+ * que sale ({@code spk_frames}), como en Vosk. Debe seguir abierto mientras
+ * quede algún recognizer que lo use.
+ */
+public interface EngineSpeakerModel extends AutoCloseable {
+
+    /**
+     * Libera el modelo.
+     */
+    @Override
+    void close();
+}
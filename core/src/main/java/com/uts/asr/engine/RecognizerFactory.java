@@ -0,0 +1,17 @@
+package com.uts.asr.engine;
+
+import java.io.IOException;
+
+/**
+ * Origen de recognizers para las estrategias que abren uno por stream.
+ * La implementación habitual es {@code WorkerFactory::createRecognizer}; las
+ * pruebas pueden inyectar un recognizer sin modelo.
+ */
+@FunctionalInterface
+public interface RecognizerFactory {
+
+    /**
+     * Crea un recognizer nuevo. El llamador lo cierra en {@code finally}.
+     */
+    SpeechRecognizer create() throws IOException;
+}
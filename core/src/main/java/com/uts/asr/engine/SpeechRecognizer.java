@@ -0,0 +1,50 @@
+package com.uts.asr.engine;
+
+/**
+ * Recognizer de streaming usado por las estrategias.
+ * <p>
+ * Replica la API de {@code org.vosk.Recognizer} para que las estrategias no
+ * dependan de dónde se ejecuta el reconocimiento (en este proceso, con el
+ * motor de {@link AsrEngines}, o en un proceso worker) ni de qué motor lo
+ * hace. Igual que en Vosk, una instancia es exclusiva de un
+ * hilo a la vez y debe cerrarse en {@code finally}.
+ * </p>
+ */
+public interface SpeechRecognizer extends AutoCloseable {
+
+    /**
+     * Entrega un bloque de PCM 16 bits mono.
+     *
+     * @return true si hay un resultado final disponible en {@link #getResult()}
+     */
+    boolean acceptWaveForm(byte[] data, int length);
+
+    /**
+     * Resultado final del segmento recién cerrado (JSON de Vosk).
+     */
+    String getResult();
+
+    /**
+     * Resultado parcial del segmento en curso (JSON de Vosk).
+     */
+    String getPartialResult();
+
+    /**
+     * Fuerza el cierre del segmento en curso y devuelve su resultado (JSON de Vosk).
+     */
+    String getFinalResult();
+
+    /**
+     * Libera los recursos del recognizer.
+     */
+    @Override
+    void close();
+
+    /**
+     * Cierra el recognizer sin devolverlo a ningún caché: su estado no es de
+     * fiar (p. ej. una llamada que quedó colgada y volvió tarde).
+     */
+    default void discard() {
+        close();
+    }
+}
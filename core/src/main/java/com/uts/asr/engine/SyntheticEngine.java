@@ -0,0 +1,81 @@
+package com.uts.asr.engine;
+
+import com.uts.asr.config.AppSettings;
+import org.json.JSONArray;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Motor sintético, sin modelo: para medir cachés, permisos, colas y
+ * estrategias sin depender de un modelo en disco ni de su variabilidad.
+ * <p>
+ * Ignora {@code model.path}. Sus recognizers ({@link SyntheticRecognizer})
+ * son deterministas y cuestan la CPU configurada con
+ * {@code engine.synthetic.costPercent} y {@code engine.synthetic.callMicros}.
+ * También admite {@code speaker.modelPath} (cualquier ruta).
+ * </p>
+ */
+public final class SyntheticEngine implements AsrEngine {
+
+    public static final String ID = "synthetic";
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public EngineModel loadModel(Path modelPath) {
+        AppSettings settings = AppSettings.current();
+        double costRatio = settings.syntheticCostPercent() / 100.0;
+        long callNanos = settings.syntheticCallMicros() * 1000L;
+        return new EngineModel() {
+            @Override
+            public EngineRecognizer newRecognizer(float sampleRate, String grammar) {
+                return new SyntheticRecognizer((int) sampleRate, costRatio, callNanos, vocabulary(grammar));
+            }
+
+            @Override
+            public void close() {
+                // Sin recursos
+            }
+        };
+    }
+
+    /**
+     * Modelo de hablante sin archivos: los recognizers alternan
+     * {@link SyntheticRecognizer#SPEAKERS} hablantes por segmento.
+     */
+    @Override
+    public EngineSpeakerModel loadSpeakerModel(Path modelPath) {
+        return () -> {
+            // Sin recursos
+        };
+    }
+
+    @Override
+    public boolean usesModelFiles() {
+        return false;
+    }
+
+    /**
+     * Con gramática, las palabras salen de sus frases (sin {@code [unk]}), de
+     * modo que la detección de palabras clave también encuentra algo.
+     */
+    private static List<String> vocabulary(String grammar) {
+        if (grammar == null) {
+            return SyntheticRecognizer.DEFAULT_VOCABULARY;
+        }
+        List<String> words = new ArrayList<>();
+        JSONArray phrases = new JSONArray(grammar);
+        for (int i = 0; i < phrases.length(); i++) {
+            String phrase = phrases.optString(i).trim();
+            if (!phrase.isEmpty() && !phrase.equals("[unk]")) {
+                words.add(phrase);
+            }
+        }
+        return words.isEmpty() ? SyntheticRecognizer.DEFAULT_VOCABULARY : words;
+    }
+}
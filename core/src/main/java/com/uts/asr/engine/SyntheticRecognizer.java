@@ -0,0 +1,216 @@
+package com.uts.asr.engine;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Recognizer sintético y determinista.
+ * <p>
+ * El resultado solo depende de la cantidad de audio recibido: dos palabras
+ * por segundo, tomadas en orden del vocabulario, y un final cada tres
+ * segundos, con tiempos por palabra como Vosk. El coste es CPU real en el
+ * hilo llamador: {@code costRatio} segundos por segundo de audio más
+ * {@code callNanos} fijos por {@code acceptWaveForm}, de modo que los chunks
+ * pequeños pagan más por segundo de audio, igual que con un motor real.
+ * Con modelo de hablante, los segmentos se atribuyen por turnos a
+ * {@link #SPEAKERS} hablantes y cada final lleva un embedding ({@code spk})
+ * cercano al de su hablante.
+ * </p>
+ */
+public final class SyntheticRecognizer implements EngineRecognizer {
+
+    /** Palabras del modelo completo. */
+    static final List<String> DEFAULT_VOCABULARY = List.of(
+        "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve", "diez");
+
+    private static final double SECONDS_PER_FINAL = 3.0;
+    private static final double WORDS_PER_SECOND = 2.0;
+    private static final double WORD_SECONDS = 0.4;
+
+    /** Hablantes que se alternan cuando hay modelo de hablante. */
+    public static final int SPEAKERS = 2;
+    /** Dimensión de los embeddings, la de los x-vectors de Vosk. */
+    static final int SPEAKER_DIMENSION = 128;
+    private static final double SPEAKER_NOISE = 0.05;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static volatile double sink;
+
+    private final int bytesPerSecond;
+    private final double costRatio;
+    private final long callNanos;
+    private final List<String> vocabulary;
+    private long streamBytes;
+    private long segmentStartBytes;
+    // Segmento cerrado por acceptWaveForm pendiente de getResult (-1 = ninguno)
+    private long closedStartBytes = -1;
+    private long closedEndBytes;
+    private boolean speakers;
+    private long segments;
+
+    /**
+     * Recognizer del modelo completo sin coste fijo por llamada.
+     *
+     * @param sampleRate tasa del PCM 16 bits mono de entrada
+     * @param costRatio segundos de CPU por segundo de audio (0.1 = 10 % de un núcleo por stream)
+     */
+    public SyntheticRecognizer(int sampleRate, double costRatio) {
+        this(sampleRate, costRatio, 0, DEFAULT_VOCABULARY);
+    }
+
+    /**
+     * @param sampleRate tasa del PCM 16 bits mono de entrada
+     * @param costRatio segundos de CPU por segundo de audio
+     * @param callNanos CPU fija por {@code acceptWaveForm}, sea cual sea el chunk
+     * @param vocabulary palabras que se emiten, en orden cíclico
+     */
+    public SyntheticRecognizer(int sampleRate, double costRatio, long callNanos, List<String> vocabulary) {
+        this.bytesPerSecond = sampleRate * 2;
+        this.costRatio = costRatio;
+        this.callNanos = callNanos;
+        this.vocabulary = List.copyOf(vocabulary);
+    }
+
+    @Override
+    public boolean acceptWaveForm(byte[] data, int length) {
+        burn(callNanos + (long) ((double) length / bytesPerSecond * costRatio * 1e9));
+        streamBytes += length;
+        if (streamBytes - segmentStartBytes < SECONDS_PER_FINAL * bytesPerSecond) {
+            return false;
+        }
+        // Como Vosk: el segmento se cierra aquí aunque nadie pida el resultado
+        closedStartBytes = segmentStartBytes;
+        closedEndBytes = streamBytes;
+        segmentStartBytes = streamBytes;
+        return true;
+    }
+
+    @Override
+    public String getResult() {
+        if (closedStartBytes < 0) {
+            return finalResult(segmentStartBytes, streamBytes);
+        }
+        String result = finalResult(closedStartBytes, closedEndBytes);
+        closedStartBytes = -1;
+        return result;
+    }
+
+    @Override
+    public String getPartialResult() {
+        StringBuilder text = new StringBuilder();
+        for (long index = firstWord(segmentStartBytes); index < firstWord(streamBytes); index++) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary.get((int) (index % vocabulary.size())));
+        }
+        return new JSONObject().put("partial", text.toString()).toString();
+    }
+
+    @Override
+    public String getFinalResult() {
+        closedStartBytes = -1;
+        String result = finalResult(segmentStartBytes, streamBytes);
+        segmentStartBytes = streamBytes;
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        streamBytes = 0;
+        segmentStartBytes = 0;
+        closedStartBytes = -1;
+        segments = 0;
+    }
+
+    @Override
+    public void setSpeakerModel(EngineSpeakerModel speakerModel) {
+        speakers = true;
+    }
+
+    @Override
+    public void close() {
+        reset();
+    }
+
+    private String finalResult(long fromBytes, long toBytes) {
+        JSONArray words = new JSONArray();
+        StringBuilder text = new StringBuilder();
+        for (long index = firstWord(fromBytes); index < firstWord(toBytes); index++) {
+            String word = vocabulary.get((int) (index % vocabulary.size()));
+            double start = index / WORDS_PER_SECOND;
+            words.put(new JSONObject()
+                .put("word", word)
+                .put("start", start)
+                .put("end", start + WORD_SECONDS)
+                .put("conf", 1.0));
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(word);
+        }
+        JSONObject result = new JSONObject();
+        if (!words.isEmpty()) {
+            result.put("result", words);
+            if (speakers) {
+                long segment = segments++;
+                JSONArray spk = new JSONArray();
+                for (double value : speakerVector((int) (segment % SPEAKERS), segment)) {
+                    spk.put(value);
+                }
+                result.put("spk", spk);
+                // Como Vosk: frames de 10 ms
+                result.put("spk_frames", (toBytes - fromBytes) * 100 / bytesPerSecond);
+            }
+        }
+        return result.put("text", text.toString()).toString();
+    }
+
+    /**
+     * Embedding del hablante con un poco de ruido por segmento: los de un
+     * mismo hablante quedan muy cerca entre sí y lejos de los de otro.
+     */
+    static double[] speakerVector(int speaker, long segment) {
+        Random base = new Random(31L * (speaker + 1));
+        Random noise = new Random(segment * 7919L + speaker);
+        double[] vector = new double[SPEAKER_DIMENSION];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = base.nextGaussian() + SPEAKER_NOISE * noise.nextGaussian();
+        }
+        return vector;
+    }
+
+    /**
+     * Índice de la primera palabra que empieza en o después de esta posición.
+     */
+    private long firstWord(long bytes) {
+        return (long) Math.ceil(bytes * WORDS_PER_SECOND / bytesPerSecond);
+    }
+
+    /**
+     * Consume el tiempo de CPU indicado en este hilo (trabajo real, no una
+     * espera): si hay más streams que núcleos, tarda más en tiempo de reloj,
+     * igual que un decodificador de verdad.
+     */
+    private static void burn(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        boolean cpuClock = THREADS.isCurrentThreadCpuTimeSupported();
+        long start = cpuClock ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+        long end = start + nanos;
+        double x = 1;
+        while ((cpuClock ? THREADS.getCurrentThreadCpuTime() : System.nanoTime()) < end) {
+            for (int i = 0; i < 64; i++) {
+                x = Math.sqrt(x + i) * 1.0001;
+            }
+        }
+        sink = x;
+    }
+}
@@ -0,0 +1,55 @@
+package com.uts.asr.engine;
+
+import org.vosk.Model;
+import org.vosk.Recognizer;
+import org.vosk.SpeakerModel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Motor Vosk (Kaldi vía JNI, en este proceso). Es el motor por defecto.
+ */
+public final class VoskEngine implements AsrEngine {
+
+    public static final String ID = "vosk";
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public EngineModel loadModel(Path modelPath) throws IOException {
+        return new VoskModel(new Model(modelPath.toString()));
+    }
+
+    @Override
+    public EngineSpeakerModel loadSpeakerModel(Path modelPath) throws IOException {
+        return new VoskSpeakerModel(new SpeakerModel(modelPath.toString()));
+    }
+
+    /** Modelo Vosk cargado. */
+    private static final class VoskModel implements EngineModel {
+        private final Model model;
+
+        VoskModel(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public EngineRecognizer newRecognizer(float sampleRate, String grammar) throws IOException {
+            Recognizer recognizer = grammar == null
+                ? new Recognizer(model, sampleRate)
+                : new Recognizer(model, sampleRate, grammar);
+            // Tiempos por palabra en los finales: los usan el índice y las palabras clave
+            recognizer.setWords(true);
+            return new VoskSpeechRecognizer(recognizer);
+        }
+
+        @Override
+        public void close() {
+            model.close();
+        }
+    }
+}
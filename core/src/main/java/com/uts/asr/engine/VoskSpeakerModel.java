@@ -0,0 +1,24 @@
+package com.uts.asr.engine;
+
+import org.vosk.SpeakerModel;
+
+/**
+ * Modelo de hablante de Vosk (x-vectors, {@code vosk-model-spk}).
+ */
+final class VoskSpeakerModel implements EngineSpeakerModel {
+
+    private final SpeakerModel model;
+
+    VoskSpeakerModel(SpeakerModel model) {
+        this.model = model;
+    }
+
+    SpeakerModel model() {
+        return model;
+    }
+
+    @Override
+    public void close() {
+        model.close();
+    }
+}
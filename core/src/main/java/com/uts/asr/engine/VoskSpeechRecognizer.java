@@ -0,0 +1,50 @@
+package com.uts.asr.engine;
+
+import org.vosk.Recognizer;
+
+/**
+ * Adaptador de {@link Recognizer} de Vosk (JNI, en este proceso).
+ */
+final class VoskSpeechRecognizer implements EngineRecognizer {
+
+    private final Recognizer recognizer;
+
+    VoskSpeechRecognizer(Recognizer recognizer) {
+        this.recognizer = recognizer;
+    }
+
+    @Override
+    public boolean acceptWaveForm(byte[] data, int length) {
+        return recognizer.acceptWaveForm(data, length);
+    }
+
+    @Override
+    public String getResult() {
+        return recognizer.getResult();
+    }
+
+    @Override
+    public String getPartialResult() {
+        return recognizer.getPartialResult();
+    }
+
+    @Override
+    public String getFinalResult() {
+        return recognizer.getFinalResult();
+    }
+
+    @Override
+    public void reset() {
+        recognizer.reset();
+    }
+
+    @Override
+    public void setSpeakerModel(EngineSpeakerModel speakerModel) {
+        recognizer.setSpeakerModel(((VoskSpeakerModel) speakerModel).model());
+    }
+
+    @Override
+    public void close() {
+        recognizer.close();
+    }
+}
@@ -0,0 +1,275 @@
+package com.uts.asr.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Segmento inmutable del índice, leído con memoria mapeada.
+ * <p>
+ * Estructura del archivo:
+ * {@code [cabecera][postings][entradas de términos][tabla de offsets]}, donde
+ * los postings de cada término son su flujo de documentos seguido del de posiciones.
+ * Las entradas están ordenadas por término y la tabla de offsets permite
+ * búsqueda binaria directamente sobre el mapeo, sin cargar el diccionario.
+ * </p>
+ */
+final class IndexSegment {
+
+    private static final int MAGIC = 0x55545349; // "UTSI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8;
+    /** Entrada de término tras el texto: offset, bytes de docs, bytes de posiciones, docFreq. */
+    private static final int ENTRY_FIXED_BYTES = 8 + 4 + 4 + 4;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int termCount;
+    private final int docCount;
+    private final long offsetsTable;
+
+    /**
+     * Postings de un término. Los documentos se decodifican al buscar el término;
+     * las posiciones de cada documento, solo cuando se piden.
+     */
+    static final class Postings {
+        private final int[] docs;
+        private final int[] counts;
+        private final int[] positionOffsets;
+        private final ByteBuffer positionStream;
+        private final int[][] positions;
+        private final int[][] startMs;
+
+        private Postings(ByteBuffer docStream, ByteBuffer positionStream, int docFreq) {
+            this.docs = new int[docFreq];
+            this.counts = new int[docFreq];
+            this.positionOffsets = new int[docFreq];
+            this.positionStream = positionStream;
+            this.positions = new int[docFreq][];
+            this.startMs = new int[docFreq][];
+            int doc = 0;
+            int offset = 0;
+            for (int d = 0; d < docFreq; d++) {
+                doc += PostingsBuffer.readVarInt(docStream);
+                docs[d] = doc;
+                counts[d] = PostingsBuffer.readVarInt(docStream);
+                positionOffsets[d] = offset;
+                offset += PostingsBuffer.readVarInt(docStream);
+            }
+        }
+
+        /** Ids de documento en orden creciente. */
+        int[] docs() {
+            return docs;
+        }
+
+        /** Posiciones de palabra del término en el documento {@code d}-ésimo (orden creciente). */
+        int[] positions(int d) {
+            decode(d);
+            return positions[d];
+        }
+
+        /** Inicio en ms de cada ocurrencia en el documento {@code d}-ésimo (-1 sin tiempos). */
+        int[] startMs(int d) {
+            decode(d);
+            return startMs[d];
+        }
+
+        private void decode(int d) {
+            if (positions[d] != null) {
+                return;
+            }
+            ByteBuffer stream = positionStream.duplicate().position(positionOffsets[d]);
+            int[] pos = new int[counts[d]];
+            int[] times = new int[counts[d]];
+            int last = 0;
+            for (int i = 0; i < pos.length; i++) {
+                last += PostingsBuffer.readVarInt(stream);
+                pos[i] = last;
+                times[i] = PostingsBuffer.readVarInt(stream) - 1;
+            }
+            positions[d] = pos;
+            startMs[d] = times;
+        }
+    }
+
+    private IndexSegment(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Segmento de índice inválido: " + file);
+        }
+        this.termCount = buffer.getInt(8);
+        this.docCount = buffer.getInt(12);
+        this.offsetsTable = buffer.getLong(16);
+    }
+
+    /**
+     * Abre un segmento existente mapeándolo en memoria.
+     */
+    static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new IndexSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Escribe un segmento nuevo a partir de postings ordenados por término.
+     *
+     * @param terms postings por término (orden natural de String)
+     * @param docCount documentos cubiertos por el segmento
+     */
+    static IndexSegment write(Path file, SortedMap<String, PostingsBuffer> terms, int docCount) throws IOException {
+        long postingsBytes = 0;
+        for (PostingsBuffer postings : terms.values()) {
+            postingsBytes += postings.size();
+        }
+        // Los offsets de entradas son int: el segmento debe caber en 2 GB
+        if (postingsBytes > Integer.MAX_VALUE / 2) {
+            throw new IOException("Segmento demasiado grande: " + postingsBytes + " bytes");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.position(HEADER_BYTES);
+
+            // Postings
+            List<long[]> locations = new ArrayList<>(terms.size());
+            long position = HEADER_BYTES;
+            for (PostingsBuffer postings : terms.values()) {
+                byte[] docBytes = postings.docBytes();
+                byte[] positionBytes = postings.positionBytes();
+                writeFully(channel, ByteBuffer.wrap(docBytes));
+                writeFully(channel, ByteBuffer.wrap(positionBytes));
+                locations.add(new long[] {position, docBytes.length, positionBytes.length, postings.docFreq()});
+                position += docBytes.length + positionBytes.length;
+            }
+
+            // Entradas de términos
+            int[] entryOffsets = new int[terms.size()];
+            int index = 0;
+            for (Map.Entry<String, PostingsBuffer> entry : terms.entrySet()) {
+                byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                long[] location = locations.get(index);
+                ByteBuffer record = ByteBuffer.allocate(2 + term.length + ENTRY_FIXED_BYTES);
+                record.putShort((short) term.length).put(term).putLong(location[0])
+                    .putInt((int) location[1]).putInt((int) location[2]).putInt((int) location[3]);
+                record.flip();
+                entryOffsets[index++] = (int) position;
+                writeFully(channel, record);
+                position += record.limit();
+            }
+
+            // Tabla de offsets
+            long offsetsTable = position;
+            ByteBuffer table = ByteBuffer.allocate(4 * entryOffsets.length);
+            for (int offset : entryOffsets) {
+                table.putInt(offset);
+            }
+            table.flip();
+            writeFully(channel, table);
+
+            header.putInt(MAGIC).putInt(VERSION).putInt(terms.size()).putInt(docCount).putLong(offsetsTable);
+            header.flip();
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    /**
+     * Busca un término y decodifica sus postings.
+     *
+     * @return los postings o null si el término no está en el segmento
+     */
+    Postings lookup(String term) {
+        int entry = find(term);
+        if (entry < 0) {
+            return null;
+        }
+        int fixed = entry + 2 + (buffer.getShort(entry) & 0xFFFF);
+        return new Postings(docStream(fixed), positionStream(fixed), buffer.getInt(fixed + 16));
+    }
+
+    /**
+     * Copia los postings de cada término en {@code target} (para fusionar segmentos).
+     */
+    void appendTo(SortedMap<String, PostingsBuffer> target) {
+        for (int i = 0; i < termCount; i++) {
+            int entry = buffer.getInt((int) offsetsTable + 4 * i);
+            int fixed = entry + 2 + (buffer.getShort(entry) & 0xFFFF);
+            target.computeIfAbsent(termAt(entry), k -> new PostingsBuffer())
+                .append(docStream(fixed), positionStream(fixed), buffer.getInt(fixed + 16));
+        }
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    /**
+     * Búsqueda binaria sobre la tabla de offsets; devuelve la posición de la entrada o -1.
+     */
+    private int find(String term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = buffer.getInt((int) offsetsTable + 4 * mid);
+            int cmp = termAt(entry).compareTo(term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private String termAt(int entry) {
+        int length = buffer.getShort(entry) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(entry + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer docStream(int fixed) {
+        return buffer.slice((int) buffer.getLong(fixed), buffer.getInt(fixed + 8));
+    }
+
+    private ByteBuffer positionStream(int fixed) {
+        return buffer.slice((int) buffer.getLong(fixed) + buffer.getInt(fixed + 8), buffer.getInt(fixed + 12));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
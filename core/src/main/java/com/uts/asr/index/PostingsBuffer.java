@@ -0,0 +1,119 @@
+package com.uts.asr.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Lista de postings de un término codificada con varints, en dos flujos.
+ * <p>
+ * Flujo de documentos: {@code docDelta, ocurrencias, bytesDePosiciones} por
+ * documento. Flujo de posiciones: {@code (posDelta, inicioMs+1)*} por documento.
+ * Separarlos permite intersectar documentos sin decodificar posiciones, que
+ * solo se leen para los candidatos. Los documentos se añaden en orden creciente
+ * de id; un inicio 0 significa que no hay timestamp de palabra.
+ * </p>
+ */
+final class PostingsBuffer {
+
+    private final Bytes docs = new Bytes(16);
+    private final Bytes positions = new Bytes(32);
+    private int docFreq;
+    private int lastDoc;
+
+    /**
+     * Añade las ocurrencias del término en un documento.
+     */
+    void addDoc(int docId, int[] docPositions, int[] startMs, int count) {
+        int positionsStart = positions.size;
+        int lastPos = 0;
+        for (int i = 0; i < count; i++) {
+            positions.writeVarInt(docPositions[i] - lastPos);
+            positions.writeVarInt(startMs[i] + 1);
+            lastPos = docPositions[i];
+        }
+        addDocEntry(docId, count, positions.size - positionsStart);
+    }
+
+    /**
+     * Copia las entradas de otro segmento al final de esta lista. Las posiciones
+     * son relativas a cada documento, así que se copian sin decodificar.
+     */
+    void append(ByteBuffer docStream, ByteBuffer positionStream, int docCount) {
+        int doc = 0;
+        for (int d = 0; d < docCount; d++) {
+            doc += readVarInt(docStream);
+            int count = readVarInt(docStream);
+            int length = readVarInt(docStream);
+            positions.ensure(length);
+            positionStream.get(positions.data, positions.size, length);
+            positions.size += length;
+            addDocEntry(doc, count, length);
+        }
+    }
+
+    byte[] docBytes() {
+        return Arrays.copyOf(docs.data, docs.size);
+    }
+
+    byte[] positionBytes() {
+        return Arrays.copyOf(positions.data, positions.size);
+    }
+
+    long size() {
+        return (long) docs.size + positions.size;
+    }
+
+    int docFreq() {
+        return docFreq;
+    }
+
+    private void addDocEntry(int docId, int count, int positionBytes) {
+        if (docFreq > 0 && docId <= lastDoc) {
+            throw new IllegalArgumentException("Documentos fuera de orden: " + docId + " <= " + lastDoc);
+        }
+        docs.writeVarInt(docId - lastDoc);
+        docs.writeVarInt(count);
+        docs.writeVarInt(positionBytes);
+        lastDoc = docId;
+        docFreq++;
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Array de bytes creciente.
+     */
+    private static final class Bytes {
+        byte[] data;
+        int size;
+
+        Bytes(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.uts.asr.index;
+
+import java.time.Instant;
+
+/**
+ * Coincidencia de una consulta en una transcripción.
+ *
+ * @param session nombre de la sesión
+ * @param source archivo de la transcripción
+ * @param savedAt momento en que se guardó la sesión
+ * @param wordIndex posición de la primera palabra de la frase en el texto
+ * @param startSeconds inicio de la frase en el audio, o -1 si no hay timestamps
+ */
+public record SearchHit(String session, String source, Instant savedAt, int wordIndex, double startSeconds) {
+}
@@ -0,0 +1,41 @@
+package com.uts.asr.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza texto para el índice: minúsculas, sin tildes, separado por
+ * caracteres no alfanuméricos. Indexación y consultas usan la misma regla, así
+ * que "Sesión" y "sesion" coinciden.
+ */
+final class Tokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String word : SEPARATORS.split(text)) {
+            String token = normalize(word);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static String normalize(String word) {
+        String decomposed = Normalizer.normalize(word, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,748 @@
+package com.uts.asr.index;
+
+import com.uts.asr.config.AppSettings;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Índice invertido incremental sobre las transcripciones guardadas.
+ * <p>
+ * Cada guardado añade el documento a {@code docs.log} (append-only) y escribe
+ * un segmento inmutable con sus postings (posición de palabra y, si el JSON de
+ * Vosk trae {@code result}, el inicio de cada palabra en ms). Los segmentos se
+ * leen con memoria mapeada y se fusionan en segundo plano por niveles
+ * ({@code index.mergeFactor} segmentos del mismo tamaño forman uno mayor), así
+ * que una consulta toca O(log n) segmentos y nunca relee las transcripciones.
+ * </p>
+ * <p>
+ * El archivo {@code segments} es el punto de commit: lista los segmentos vivos y
+ * cuántos documentos de {@code docs.log} están confirmados. Se reescribe de forma
+ * atómica; lo que no figure en él se descarta al abrir.
+ * </p>
+ * <p>
+ * Un documento puede reemplazar a otro (segunda pasada de una sesión en vivo):
+ * el par (anterior, nuevo) se añade a {@code superseded.log} y las búsquedas
+ * omiten el anterior. Los pares cuyo documento nuevo no llegó a confirmarse se
+ * ignoran al abrir.
+ * </p>
+ */
+public final class TranscriptIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptIndex.class);
+
+    private static final String DOCS_FILE = "docs.log";
+    private static final String MANIFEST_FILE = "segments";
+    private static final String SUPERSEDED_FILE = "superseded.log";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final int MANIFEST_VERSION = 1;
+    private static final int REINDEX_BATCH = 5000;
+    private static final String TIMESTAMPED_NAME = ".+_\\d{4}-\\d{2}-\\d{2}_\\d{2}-\\d{2}-\\d{2}";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private static TranscriptIndex shared;
+
+    private final Path directory;
+    private final int mergeFactor;
+    private final ExecutorService merger;
+
+    /** Estado visible para las búsquedas; se reemplaza entero en cada commit. */
+    private volatile Snapshot snapshot;
+
+    // Estado de escritura (protegido por this)
+    private DocInfo[] docs;
+    private long docsBytes;
+    private BitSet superseded;
+    private int nextSegment;
+    private boolean mergeScheduled;
+
+    /**
+     * Metadatos de un documento indexado.
+     */
+    private record DocInfo(String session, String source, long savedAt) {
+    }
+
+    /**
+     * Vista inmutable: segmentos ordenados por rango de documentos, los
+     * documentos confirmados (solo se leen los primeros {@code docCount}) y los
+     * reemplazados por otro posterior (no se modifica tras publicarse).
+     */
+    private record Snapshot(List<IndexSegment> segments, DocInfo[] docs, int docCount, BitSet superseded) {
+    }
+
+    /**
+     * Palabra de una transcripción con su inicio en ms (-1 si no se conoce).
+     */
+    record Word(String text, int startMs) {
+    }
+
+    /**
+     * Transcripción a indexar en lote.
+     *
+     * @param replaces origen del documento al que reemplaza, o null
+     */
+    public record Document(String session, String source, Instant savedAt, String voskJson, String replaces) {
+
+        public Document(String session, String source, Instant savedAt, String voskJson) {
+            this(session, source, savedAt, voskJson, null);
+        }
+    }
+
+    /**
+     * Documento pendiente de escribir en un lote.
+     */
+    private record PendingDoc(DocInfo info, List<Word> words, String replaces) {
+
+        PendingDoc(DocInfo info, List<Word> words) {
+            this(info, words, null);
+        }
+    }
+
+    private TranscriptIndex(Path directory, int mergeFactor) throws IOException {
+        this.directory = directory;
+        this.mergeFactor = mergeFactor;
+        this.merger = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "index-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Abre (o crea) un índice en el directorio indicado.
+     */
+    public static TranscriptIndex open(Path directory, int mergeFactor) throws IOException {
+        return new TranscriptIndex(directory, mergeFactor);
+    }
+
+    /**
+     * Índice de la configuración activa ({@code dirs.index}), abierto al primer uso.
+     */
+    public static synchronized TranscriptIndex shared() throws IOException {
+        if (shared == null) {
+            AppSettings settings = AppSettings.current();
+            shared = open(settings.indexDir(), settings.indexMergeFactor());
+            logger.info("Índice de transcripciones abierto en {} ({} documentos)",
+                settings.indexDir(), shared.documentCount());
+        }
+        return shared;
+    }
+
+    /**
+     * Indexa una transcripción recién guardada.
+     *
+     * @param session nombre de la sesión
+     * @param source archivo de texto guardado o referencia al archivo ({@code archive:<id>})
+     * @param savedAt momento del guardado
+     * @param voskJson JSON de Vosk ({@code text} y opcionalmente {@code result} con tiempos)
+     */
+    public void add(String session, String source, Instant savedAt, String voskJson) throws IOException {
+        addDocument(session, source, savedAt, words(voskJson));
+    }
+
+    /**
+     * Indexa varias transcripciones en un único segmento (reindexado por lotes).
+     */
+    public void addAll(List<Document> documents) throws IOException {
+        List<PendingDoc> batch = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            batch.add(new PendingDoc(new DocInfo(document.session(), document.source(),
+                document.savedAt().toEpochMilli()), words(document.voskJson()), document.replaces()));
+        }
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+    }
+
+    void addDocument(String session, String source, Instant savedAt, List<Word> words) throws IOException {
+        addDocument(session, source, savedAt, words, null);
+    }
+
+    void addDocument(String session, String source, Instant savedAt, List<Word> words,
+                     String replaces) throws IOException {
+        commit(List.of(new PendingDoc(new DocInfo(session, source, savedAt.toEpochMilli()), words, replaces)));
+    }
+
+    /**
+     * Reconstruye el índice desde cero a partir de las transcripciones en disco.
+     * Usa el JSON de {@code dirs.temp} con el mismo nombre si existe (para
+     * conservar los tiempos de palabra); si no, el texto plano.
+     *
+     * @return documentos indexados
+     */
+    public synchronized int rebuild(Path transcriptionsDir, Path jsonDir) throws IOException {
+        clear();
+        if (!Files.isDirectory(transcriptionsDir)) {
+            return 0;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(transcriptionsDir, "*.txt")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+
+        List<PendingDoc> batch = new ArrayList<>();
+        int indexed = 0;
+        for (Path file : files) {
+            String base = file.getFileName().toString();
+            base = base.substring(0, base.length() - ".txt".length());
+            Path json = jsonDir.resolve(base + ".json");
+            try {
+                List<Word> words = Files.exists(json)
+                    ? words(Files.readString(json))
+                    : textWords(Files.readString(file));
+                Instant savedAt = savedAtFromName(base);
+                if (savedAt == null) {
+                    savedAt = Files.getLastModifiedTime(file).toInstant();
+                }
+                batch.add(new PendingDoc(
+                    new DocInfo(sessionFromName(base), file.toString(), savedAt.toEpochMilli()), words));
+            } catch (IOException e) {
+                logger.warn("No se pudo indexar {}: {}", file, e.getMessage());
+                continue;
+            }
+            if (batch.size() >= REINDEX_BATCH) {
+                commit(batch);
+                indexed += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            commit(batch);
+            indexed += batch.size();
+        }
+        logger.info("Índice reconstruido: {} transcripciones, {} segmentos",
+            indexed, snapshot.segments().size());
+        return indexed;
+    }
+
+    /**
+     * Busca una frase (palabras consecutivas) en las transcripciones.
+     *
+     * @param phrase texto a buscar; se normaliza igual que al indexar
+     * @param from inicio del rango de guardado (inclusive) o null
+     * @param to fin del rango de guardado (exclusivo) o null
+     * @param limit máximo de coincidencias
+     * @return coincidencias de la más reciente a la más antigua
+     */
+    public List<SearchHit> search(String phrase, Instant from, Instant to, int limit) {
+        List<String> terms = Tokenizer.tokenize(phrase);
+        List<SearchHit> hits = new ArrayList<>();
+        if (terms.isEmpty() || limit <= 0) {
+            return hits;
+        }
+        long fromMs = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMs = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+
+        Snapshot view = snapshot;
+        List<IndexSegment> segments = view.segments();
+        for (int s = segments.size() - 1; s >= 0 && hits.size() < limit; s--) {
+            searchSegment(segments.get(s), terms, view, fromMs, toMs, limit, hits);
+        }
+        return hits;
+    }
+
+    /**
+     * Documentos confirmados en el índice.
+     */
+    public int documentCount() {
+        return snapshot.docCount();
+    }
+
+    /**
+     * Segmentos vivos (para diagnóstico).
+     */
+    public int segmentCount() {
+        return snapshot.segments().size();
+    }
+
+    private void searchSegment(IndexSegment segment, List<String> terms, Snapshot view,
+                               long fromMs, long toMs, int limit, List<SearchHit> hits) {
+        IndexSegment.Postings[] postings = new IndexSegment.Postings[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            postings[t] = segment.lookup(terms.get(t));
+            if (postings[t] == null) {
+                return;
+            }
+        }
+
+        // Intersección guiada por el primer término, documentos de más nuevo a más viejo
+        IndexSegment.Postings first = postings[0];
+        for (int d = first.docs().length - 1; d >= 0 && hits.size() < limit; d--) {
+            int doc = first.docs()[d];
+            if (doc >= view.docCount()) {
+                continue;
+            }
+            DocInfo info = view.docs()[doc];
+            if (view.superseded().get(doc) || info.savedAt() < fromMs || info.savedAt() >= toMs) {
+                continue;
+            }
+
+            int[] matchDocs = new int[terms.size()];
+            matchDocs[0] = d;
+            boolean inAll = true;
+            for (int t = 1; t < terms.size() && inAll; t++) {
+                int found = Arrays.binarySearch(postings[t].docs(), doc);
+                inAll = found >= 0;
+                matchDocs[t] = found;
+            }
+            if (!inAll) {
+                continue;
+            }
+
+            int[] starts = first.positions(d);
+            for (int i = 0; i < starts.length && hits.size() < limit; i++) {
+                int start = starts[i];
+                boolean phrase = true;
+                for (int t = 1; t < terms.size() && phrase; t++) {
+                    phrase = Arrays.binarySearch(postings[t].positions(matchDocs[t]), start + t) >= 0;
+                }
+                if (phrase) {
+                    int startMs = first.startMs(d)[i];
+                    hits.add(new SearchHit(info.session(), info.source(),
+                        Instant.ofEpochMilli(info.savedAt()), start,
+                        startMs < 0 ? -1 : startMs / 1000.0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe un lote: documentos al log, un segmento nuevo y el manifest.
+     * Solo tras el manifest los documentos pasan a ser visibles.
+     */
+    private synchronized void commit(List<PendingDoc> batch) throws IOException {
+        Snapshot current = snapshot;
+        int firstDoc = current.docCount();
+
+        SortedMap<String, PostingsBuffer> terms = new TreeMap<>();
+        int docId = firstDoc;
+        for (PendingDoc pending : batch) {
+            invert(docId++, pending.words(), terms);
+        }
+
+        Path docsFile = directory.resolve(DOCS_FILE);
+        try (FileChannel channel = FileChannel.open(docsFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(docsBytes);
+            channel.position(docsBytes);
+            OutputStream out = Channels.newOutputStream(channel);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            for (PendingDoc pending : batch) {
+                data.writeUTF(pending.info().session());
+                data.writeUTF(pending.info().source());
+                data.writeLong(pending.info().savedAt());
+            }
+            data.flush();
+            channel.force(true);
+            docsBytes = channel.position();
+        }
+
+        List<IndexSegment> segments = new ArrayList<>(current.segments());
+        if (!terms.isEmpty()) {
+            segments.add(IndexSegment.write(segmentPath(nextSegment++), terms, batch.size()));
+        }
+
+        int docCount = firstDoc + batch.size();
+        if (docs.length < docCount) {
+            docs = Arrays.copyOf(docs, Math.max(docCount, docs.length * 2));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            docs[firstDoc + i] = batch.get(i).info();
+        }
+        BitSet visible = supersede(batch, firstDoc);
+
+        writeManifest(docCount, segments);
+        superseded = visible;
+        snapshot = new Snapshot(Collections.unmodifiableList(segments), docs, docCount, visible);
+        scheduleMerge();
+    }
+
+    /**
+     * Registra los reemplazos del lote en {@code superseded.log} antes del
+     * commit del manifest.
+     *
+     * @return el conjunto de reemplazados a publicar (una copia si cambió)
+     */
+    private BitSet supersede(List<PendingDoc> batch, int firstDoc) throws IOException {
+        BitSet updated = superseded;
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            String replaces = batch.get(i).replaces();
+            if (replaces == null) {
+                continue;
+            }
+            int newDoc = firstDoc + i;
+            for (int old = newDoc - 1; old >= 0; old--) {
+                if (!updated.get(old) && docs[old].source().equals(replaces)) {
+                    if (updated == superseded) {
+                        updated = (BitSet) superseded.clone();
+                    }
+                    updated.set(old);
+                    pairs.add(new int[] {old, newDoc});
+                    break;
+                }
+            }
+        }
+        if (pairs.isEmpty()) {
+            return updated;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(SUPERSEDED_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            for (int[] pair : pairs) {
+                data.writeInt(pair[0]);
+                data.writeInt(pair[1]);
+            }
+            data.flush();
+            channel.force(true);
+        }
+        return updated;
+    }
+
+    private void scheduleMerge() {
+        if (!mergeScheduled && findMergeRun(snapshot.segments()) != null) {
+            mergeScheduled = true;
+            merger.execute(this::mergePending);
+        }
+    }
+
+    /**
+     * Fusiona mientras haya {@code mergeFactor} segmentos consecutivos del mismo
+     * nivel. La escritura del segmento fusionado ocurre fuera del lock; solo el
+     * reemplazo en la lista es sincronizado.
+     */
+    private void mergePending() {
+        while (true) {
+            List<IndexSegment> run;
+            int segmentNumber;
+            synchronized (this) {
+                run = findMergeRun(snapshot.segments());
+                if (run == null) {
+                    mergeScheduled = false;
+                    return;
+                }
+                segmentNumber = nextSegment++;
+            }
+            try {
+                long start = System.nanoTime();
+                SortedMap<String, PostingsBuffer> terms = new TreeMap<>();
+                int docCount = 0;
+                for (IndexSegment segment : run) {
+                    segment.appendTo(terms);
+                    docCount += segment.docCount();
+                }
+                IndexSegment merged = IndexSegment.write(segmentPath(segmentNumber), terms, docCount);
+                synchronized (this) {
+                    List<IndexSegment> segments = new ArrayList<>(snapshot.segments());
+                    int at = segments.indexOf(run.get(0));
+                    if (at < 0) {
+                        // El índice se vació (reconstrucción) durante la fusión
+                        deleteQuietly(merged.file());
+                        mergeScheduled = false;
+                        return;
+                    }
+                    segments.subList(at, at + run.size()).clear();
+                    segments.add(at, merged);
+                    writeManifest(snapshot.docCount(), segments);
+                    snapshot = new Snapshot(Collections.unmodifiableList(segments),
+                        snapshot.docs(), snapshot.docCount(), snapshot.superseded());
+                }
+                for (IndexSegment segment : run) {
+                    deleteQuietly(segment.file());
+                }
+                logger.debug("Fusionados {} segmentos ({} documentos) en {} ms",
+                    run.size(), docCount, (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                logger.warn("Fusión de segmentos fallida, se reintentará en el próximo guardado", e);
+                synchronized (this) {
+                    mergeScheduled = false;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Busca, desde el final, una racha de {@code mergeFactor} segmentos
+     * consecutivos del mismo nivel (log base mergeFactor del número de documentos).
+     */
+    private List<IndexSegment> findMergeRun(List<IndexSegment> segments) {
+        int end = segments.size();
+        while (end >= mergeFactor) {
+            int level = level(segments.get(end - 1));
+            int start = end - 1;
+            while (start > 0 && level(segments.get(start - 1)) == level) {
+                start--;
+            }
+            if (end - start >= mergeFactor) {
+                return new ArrayList<>(segments.subList(end - mergeFactor, end));
+            }
+            end = start;
+        }
+        return null;
+    }
+
+    private int level(IndexSegment segment) {
+        int level = 0;
+        for (long size = segment.docCount(); size >= mergeFactor; size /= mergeFactor) {
+            level++;
+        }
+        return level;
+    }
+
+    private static void invert(int docId, List<Word> words, SortedMap<String, PostingsBuffer> terms) {
+        Map<String, int[][]> occurrences = new HashMap<>(); // término -> {posiciones, tiempos, [n]}
+        for (int position = 0; position < words.size(); position++) {
+            Word word = words.get(position);
+            int[][] entry = occurrences.computeIfAbsent(word.text(), k -> new int[][] {new int[4], new int[4], {0}});
+            int n = entry[2][0];
+            if (n == entry[0].length) {
+                entry[0] = Arrays.copyOf(entry[0], n * 2);
+                entry[1] = Arrays.copyOf(entry[1], n * 2);
+            }
+            entry[0][n] = position;
+            entry[1][n] = word.startMs();
+            entry[2][0] = n + 1;
+        }
+        for (Map.Entry<String, int[][]> entry : occurrences.entrySet()) {
+            int[][] value = entry.getValue();
+            terms.computeIfAbsent(entry.getKey(), k -> new PostingsBuffer())
+                .addDoc(docId, value[0], value[1], value[2][0]);
+        }
+    }
+
+    /**
+     * Palabras normalizadas de un resultado de Vosk, con tiempos si hay {@code result}.
+     */
+    static List<Word> words(String voskJson) {
+        JSONObject obj = new JSONObject(voskJson);
+        JSONArray result = obj.optJSONArray("result");
+        if (result == null || result.length() == 0) {
+            return textWords(obj.optString("text", ""));
+        }
+        List<Word> words = new ArrayList<>(result.length());
+        for (int i = 0; i < result.length(); i++) {
+            JSONObject word = result.getJSONObject(i);
+            int startMs = (int) Math.round(word.optDouble("start", -0.001) * 1000);
+            for (String token : Tokenizer.tokenize(word.optString("word", ""))) {
+                words.add(new Word(token, startMs));
+            }
+        }
+        return words;
+    }
+
+    static List<Word> textWords(String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        List<Word> words = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            words.add(new Word(token, -1));
+        }
+        return words;
+    }
+
+    /**
+     * Nombres de {@code Writer}: {@code <sesión>_yyyy-MM-dd_HH-mm-ss}.
+     */
+    private static String sessionFromName(String base) {
+        return base.matches(TIMESTAMPED_NAME)
+            ? base.substring(0, base.length() - 20)
+            : base;
+    }
+
+    private static Instant savedAtFromName(String base) {
+        if (!base.matches(TIMESTAMPED_NAME)) {
+            return null;
+        }
+        String stamp = base.substring(base.length() - 19);
+        try {
+            return LocalDateTime.parse(stamp, TIMESTAMP_FORMAT).atZone(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Carga el manifest y el log de documentos; descarta lo no confirmado.
+     */
+    private synchronized void recover() throws IOException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        int docCount = 0;
+        long committedBytes = 0;
+        int maxSegment = -1;
+        List<IndexSegment> segments = new ArrayList<>();
+
+        if (Files.exists(manifest)) {
+            List<String> lines = Files.readAllLines(manifest);
+            if (lines.isEmpty() || !lines.get(0).equals("version " + MANIFEST_VERSION)) {
+                throw new IOException("Manifest de índice no soportado: " + manifest);
+            }
+            String[] counts = lines.get(1).split(" ");
+            docCount = Integer.parseInt(counts[1]);
+            committedBytes = Long.parseLong(counts[2]);
+            for (String line : lines.subList(2, lines.size())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Path file = directory.resolve(line.trim());
+                segments.add(IndexSegment.open(file));
+                maxSegment = Math.max(maxSegment, segmentNumber(file));
+            }
+        }
+
+        DocInfo[] loaded = new DocInfo[Math.max(16, docCount)];
+        Path docsFile = directory.resolve(DOCS_FILE);
+        if (docCount > 0) {
+            try (InputStream in = Files.newInputStream(docsFile);
+                 DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+                for (int i = 0; i < docCount; i++) {
+                    loaded[i] = new DocInfo(data.readUTF(), data.readUTF(), data.readLong());
+                }
+            } catch (EOFException e) {
+                throw new IOException("docs.log truncado: se esperaban " + docCount + " documentos", e);
+            }
+        }
+        if (Files.exists(docsFile) && Files.size(docsFile) > committedBytes) {
+            logger.warn("Descartando documentos no confirmados en {}", docsFile);
+            try (FileChannel channel = FileChannel.open(docsFile, StandardOpenOption.WRITE)) {
+                channel.truncate(committedBytes);
+            }
+        }
+
+        // Segmentos huérfanos (fusiones o escrituras interrumpidas)
+        List<Path> live = segments.stream().map(IndexSegment::file).toList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : stream) {
+                if (!live.contains(file)) {
+                    maxSegment = Math.max(maxSegment, segmentNumber(file));
+                    deleteQuietly(file);
+                }
+            }
+        }
+
+        // Reemplazos: la cola cuyo documento nuevo no llegó a confirmarse se descarta,
+        // porque esos ids se reutilizarán
+        BitSet replaced = new BitSet();
+        Path supersededFile = directory.resolve(SUPERSEDED_FILE);
+        if (Files.exists(supersededFile)) {
+            long validBytes = 0;
+            try (InputStream in = Files.newInputStream(supersededFile);
+                 DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+                while (true) {
+                    int old = data.readInt();
+                    int newDoc = data.readInt();
+                    if (newDoc >= docCount) {
+                        break;
+                    }
+                    replaced.set(old);
+                    validBytes += 2 * Integer.BYTES;
+                }
+            } catch (EOFException e) {
+                // Fin del log (o par incompleto de una escritura interrumpida)
+            }
+            if (Files.size(supersededFile) > validBytes) {
+                try (FileChannel channel = FileChannel.open(supersededFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                }
+            }
+        }
+
+        this.docs = loaded;
+        this.docsBytes = committedBytes;
+        this.superseded = replaced;
+        this.nextSegment = maxSegment + 1;
+        this.snapshot = new Snapshot(Collections.unmodifiableList(segments), loaded, docCount, replaced);
+    }
+
+    /**
+     * Vacía el índice (para reconstruirlo).
+     */
+    private synchronized void clear() throws IOException {
+        List<IndexSegment> old = snapshot.segments();
+        docs = new DocInfo[16];
+        docsBytes = 0;
+        superseded = new BitSet();
+        writeManifest(0, List.of());
+        snapshot = new Snapshot(List.of(), docs, 0, superseded);
+        Files.deleteIfExists(directory.resolve(DOCS_FILE));
+        Files.deleteIfExists(directory.resolve(SUPERSEDED_FILE));
+        for (IndexSegment segment : old) {
+            deleteQuietly(segment.file());
+        }
+    }
+
+    private void writeManifest(int docCount, List<IndexSegment> segments) throws IOException {
+        StringBuilder content = new StringBuilder()
+            .append("version ").append(MANIFEST_VERSION).append('\n')
+            .append("docs ").append(docCount).append(' ').append(docsBytes).append('\n');
+        for (IndexSegment segment : segments) {
+            content.append(segment.file().getFileName()).append('\n');
+        }
+        Path temp = Files.createTempFile(directory, "segments_", ".tmp");
+        try {
+            Files.writeString(temp, content);
+            Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        String digits = name.substring(SEGMENT_PREFIX.length()).replaceAll("\\D.*$", "");
+        return digits.isEmpty() ? -1 : Integer.parseInt(digits);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // En Windows un segmento aún mapeado no se puede borrar; se limpia al abrir
+            logger.debug("No se pudo eliminar {}: {}", file, e.getMessage());
+        }
+    }
+}
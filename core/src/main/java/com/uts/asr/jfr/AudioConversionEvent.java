@@ -0,0 +1,31 @@
+package com.uts.asr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Conversión de un archivo a PCM con ffmpeg.
+ */
+@Name("com.uts.asr.AudioConversion")
+@Label("Conversión de audio")
+@Category({"UTS ASR", "Archivos"})
+@Threshold("0 ms")
+public class AudioConversionEvent extends Event {
+
+    @Label("Archivo de entrada")
+    public String inputFile;
+
+    @Label("PCM generado")
+    @DataAmount
+    public long outputBytes;
+
+    @Label("Código de salida de ffmpeg")
+    public int exitCode;
+
+    @Label("Resultado")
+    public String outcome;
+}
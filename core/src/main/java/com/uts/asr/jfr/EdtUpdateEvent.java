@@ -0,0 +1,40 @@
+package com.uts.asr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Actualización de la GUI desde el hilo de reconocimiento: empieza al
+ * encolarla con {@code invokeLater} y termina al aplicarla en el EDT, así que
+ * su duración incluye la espera en la cola de eventos.
+ */
+@Name("com.uts.asr.EdtUpdate")
+@Label("Actualización en el EDT")
+@Category({"UTS ASR", "Interfaz"})
+@Threshold("20 ms")
+@StackTrace(false)
+public class EdtUpdateEvent extends Event {
+
+    @Label("Actualización")
+    @Description("partial o final")
+    public String update;
+
+    @Label("Caracteres añadidos")
+    public int chars;
+
+    @Label("Tiempo en el EDT")
+    @Description("Parte de la duración dedicada a aplicar la actualización")
+    @Timespan(Timespan.NANOSECONDS)
+    public long runTime;
+
+    @Label("Latencia desde la captura")
+    @Description("Desde que se capturó el chunk hasta aplicar la actualización; 0 si no viene del micrófono")
+    @Timespan(Timespan.NANOSECONDS)
+    public long captureLatency;
+}
@@ -0,0 +1,88 @@
+package com.uts.asr.jfr;
+
+import com.uts.asr.config.AppSettings;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grabación JFR continua ({@code jfr.file}) con la configuración
+ * {@code default} del JDK más los eventos propios de {@code jfr/uts-asr.jfc}.
+ * Conserva los últimos {@code jfr.maxAgeMinutes} y los vuelca al archivo al
+ * salir; también se puede volcar antes con {@code jcmd <pid> JFR.dump}.
+ */
+public final class JfrRecording {
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecording.class);
+
+    /** Configuración de los eventos propios, en el classpath. */
+    public static final String SETTINGS_RESOURCE = "/jfr/uts-asr.jfc";
+
+    private static Recording recording;
+
+    private JfrRecording() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Arranca la grabación si {@code jfr.file} está configurado (idempotente).
+     *
+     * @return true si hay una grabación en curso
+     * @throws IOException si no se puede leer la configuración o arrancar la grabación
+     */
+    public static synchronized boolean startIfEnabled() throws IOException {
+        AppSettings settings = AppSettings.current();
+        if (recording != null) {
+            return true;
+        }
+        Path file = settings.jfrFile();
+        if (file == null) {
+            return false;
+        }
+        Map<String, String> merged;
+        try {
+            merged = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        } catch (ParseException e) {
+            throw new IOException("Configuración JFR default inválida", e);
+        }
+        merged.putAll(bundledSettings().getSettings());
+
+        Recording created = new Recording(merged);
+        created.setName("uts-asr");
+        created.setToDisk(true);
+        created.setMaxAge(Duration.ofMinutes(settings.jfrMaxAgeMinutes()));
+        created.setDestination(file);
+        created.setDumpOnExit(true);
+        created.start();
+        recording = created;
+        logger.info("Grabación JFR continua: últimos {} min, volcado en {} al salir",
+            settings.jfrMaxAgeMinutes(), file.toAbsolutePath());
+        return true;
+    }
+
+    /**
+     * Configuración de los eventos propios incluida en la aplicación.
+     */
+    public static Configuration bundledSettings() throws IOException {
+        InputStream in = JfrRecording.class.getResourceAsStream(SETTINGS_RESOURCE);
+        if (in == null) {
+            throw new IOException("No se encuentra " + SETTINGS_RESOURCE + " en el classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (ParseException e) {
+            throw new IOException("Configuración JFR inválida en " + SETTINGS_RESOURCE, e);
+        }
+    }
+}
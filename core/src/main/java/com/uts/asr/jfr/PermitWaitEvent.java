@@ -0,0 +1,31 @@
+package com.uts.asr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Espera por un permiso de recognizer en {@code WorkerFactory}: mide cuánto
+ * esperan las sesiones cuando la capacidad está saturada.
+ */
+@Name("com.uts.asr.PermitWait")
+@Label("Espera de permiso")
+@Category({"UTS ASR", "Capacidad"})
+@Threshold("10 ms")
+public class PermitWaitEvent extends Event {
+
+    @Label("Permiso")
+    @Description("recognizer o gramática")
+    public String permit;
+
+    @Label("Obtenido")
+    @Description("false si la espera terminó por cancelación o interrupción")
+    public boolean acquired;
+
+    @Label("Permisos libres")
+    @Description("Permisos libres tras la espera")
+    public int available;
+}
@@ -0,0 +1,42 @@
+package com.uts.asr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Una llamada al recognizer ({@code acceptWaveForm} o una de resultado) de
+ * una sesión. Es el evento más frecuente: solo se registran las que superan
+ * el umbral y sin pila.
+ */
+@Name("com.uts.asr.RecognizerCall")
+@Label("Llamada al recognizer")
+@Description("acceptWaveForm o lectura de resultado, con la sesión a la que pertenece")
+@Category({"UTS ASR", "Reconocimiento"})
+@Threshold("20 ms")
+@StackTrace(false)
+public class RecognizerCallEvent extends Event {
+
+    @Label("Sesión")
+    public String session;
+
+    @Label("Llamada")
+    public String call;
+
+    @Label("Audio entregado")
+    @DataAmount
+    public int bytes;
+
+    @Label("Resultado")
+    @Description("final, partial o error")
+    public String outcome;
+
+    @Label("Longitud del resultado")
+    @Description("Caracteres del JSON devuelto")
+    public int resultChars;
+}
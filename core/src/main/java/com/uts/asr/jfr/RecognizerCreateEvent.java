@@ -0,0 +1,30 @@
+package com.uts.asr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Obtención de un recognizer: del caché, creado sobre el modelo o abierto en
+ * un proceso worker.
+ */
+@Name("com.uts.asr.RecognizerCreate")
+@Label("Creación de recognizer")
+@Category({"UTS ASR", "Reconocimiento"})
+@Threshold("1 ms")
+public class RecognizerCreateEvent extends Event {
+
+    @Label("Origen")
+    @Description("caché, nuevo o worker")
+    public String source;
+
+    @Label("Con gramática")
+    public boolean grammar;
+
+    @Label("Generación del modelo")
+    @Description("0 si el recognizer vive en un proceso worker")
+    public long modelGeneration;
+}
@@ -0,0 +1,111 @@
+package com.uts.asr.jfr;
+
+import com.uts.asr.engine.SpeechRecognizer;
+
+/**
+ * Recognizer que emite un {@link RecognizerCallEvent} por llamada, con la
+ * sesión a la que pertenece. Sin una grabación JFR activa cada llamada solo
+ * paga la comprobación de {@code shouldCommit()}.
+ */
+public final class TracedRecognizer implements SpeechRecognizer {
+
+    private final String session;
+    private final SpeechRecognizer delegate;
+
+    private TracedRecognizer(String session, SpeechRecognizer delegate) {
+        this.session = session;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Envuelve el recognizer de una sesión (devuelve el mismo si ya está envuelto).
+     */
+    public static SpeechRecognizer trace(String session, SpeechRecognizer recognizer) {
+        if (recognizer instanceof TracedRecognizer) {
+            return recognizer;
+        }
+        return new TracedRecognizer(session, recognizer);
+    }
+
+    @Override
+    public boolean acceptWaveForm(byte[] data, int length) {
+        RecognizerCallEvent event = new RecognizerCallEvent();
+        event.begin();
+        boolean isFinal = false;
+        String outcome = "error";
+        try {
+            isFinal = delegate.acceptWaveForm(data, length);
+            outcome = isFinal ? "final" : "partial";
+            return isFinal;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.session = session;
+                event.call = "acceptWaveForm";
+                event.bytes = length;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public String getResult() {
+        RecognizerCallEvent event = new RecognizerCallEvent();
+        event.begin();
+        String result = null;
+        try {
+            result = delegate.getResult();
+            return result;
+        } finally {
+            commitResult(event, "getResult", result);
+        }
+    }
+
+    @Override
+    public String getPartialResult() {
+        RecognizerCallEvent event = new RecognizerCallEvent();
+        event.begin();
+        String result = null;
+        try {
+            result = delegate.getPartialResult();
+            return result;
+        } finally {
+            commitResult(event, "getPartialResult", result);
+        }
+    }
+
+    @Override
+    public String getFinalResult() {
+        RecognizerCallEvent event = new RecognizerCallEvent();
+        event.begin();
+        String result = null;
+        try {
+            result = delegate.getFinalResult();
+            return result;
+        } finally {
+            commitResult(event, "getFinalResult", result);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public void discard() {
+        delegate.discard();
+    }
+
+    private void commitResult(RecognizerCallEvent event, String call, String result) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.session = session;
+            event.call = call;
+            event.outcome = result == null ? "error" : "result";
+            event.resultChars = result == null ? 0 : result.length();
+            event.commit();
+        }
+    }
+}
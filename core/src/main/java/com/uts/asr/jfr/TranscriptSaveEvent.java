@@ -0,0 +1,29 @@
+package com.uts.asr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Escritura de un lote de la cola de transcripciones (guardado e índice).
+ */
+@Name("com.uts.asr.TranscriptSave")
+@Label("Guardado de transcripciones")
+@Category({"UTS ASR", "Almacenamiento"})
+@Threshold("0 ms")
+public class TranscriptSaveEvent extends Event {
+
+    @Label("Transcripciones")
+    public int transcripts;
+
+    @Label("Fallidas")
+    public int failed;
+
+    @Label("Formato")
+    public String format;
+
+    @Label("Caracteres de JSON")
+    public long characters;
+}
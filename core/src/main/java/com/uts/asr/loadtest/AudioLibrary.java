@@ -0,0 +1,112 @@
+package com.uts.asr.loadtest;
+
+import com.uts.asr.core.ModelWarmup;
+import com.uts.asr.util.PolyphaseResampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Clips de audio para la prueba de carga, ya en el formato del modelo
+ * (PCM 16 bits mono little endian a la tasa configurada).
+ */
+final class AudioLibrary {
+    private static final Logger logger = LoggerFactory.getLogger(AudioLibrary.class);
+
+    private static final int SYNTHETIC_MS = 20_000;
+
+    private final List<byte[]> clips;
+    private final int sampleRate;
+
+    private AudioLibrary(List<byte[]> clips, int sampleRate) {
+        this.clips = clips;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Carga los WAV de una carpeta (convirtiendo tasa y canales). Sin carpeta,
+     * o si no contiene WAV legibles, usa voz sintética.
+     *
+     * @param directory carpeta con archivos {@code .wav}, o null
+     */
+    static AudioLibrary load(Path directory, int sampleRate) throws IOException {
+        List<byte[]> clips = new ArrayList<>();
+        if (directory != null) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{wav,WAV}")) {
+                for (Path file : files) {
+                    try {
+                        clips.add(readWav(file, sampleRate));
+                    } catch (Exception e) {
+                        logger.warn("WAV ignorado {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        }
+        if (clips.isEmpty()) {
+            logger.info("Sin WAV en {}, se usa voz sintética", directory);
+            clips.add(ModelWarmup.syntheticSpeech(sampleRate, SYNTHETIC_MS));
+        }
+        return new AudioLibrary(clips, sampleRate);
+    }
+
+    int size() {
+        return clips.size();
+    }
+
+    double totalSeconds() {
+        long bytes = 0;
+        for (byte[] clip : clips) {
+            bytes += clip.length;
+        }
+        return bytes / (2.0 * sampleRate);
+    }
+
+    /**
+     * Audio de la duración pedida: clips al azar encadenados, el primero desde
+     * una posición aleatoria para que los streams no vayan sincronizados.
+     */
+    byte[] stream(int seconds, Random random) {
+        byte[] out = new byte[seconds * sampleRate * 2];
+        int filled = 0;
+        boolean first = true;
+        while (filled < out.length) {
+            byte[] clip = clips.get(random.nextInt(clips.size()));
+            int start = first ? 2 * random.nextInt(Math.max(1, clip.length / 2)) : 0;
+            int n = Math.min(clip.length - start, out.length - filled);
+            System.arraycopy(clip, start, out, filled, n);
+            filled += n;
+            first = false;
+        }
+        return out;
+    }
+
+    private static byte[] readWav(Path file, int sampleRate) throws Exception {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(file.toFile())) {
+            AudioFormat format = source.getFormat();
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), 2 * format.getChannels(), format.getSampleRate(), false);
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source)) {
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                decoded.transferTo(raw);
+                byte[] in = raw.toByteArray();
+                PolyphaseResampler resampler = new PolyphaseResampler((int) format.getSampleRate(),
+                    sampleRate, format.getChannels(), false);
+                byte[] out = new byte[resampler.maxOutputBytes(in.length)];
+                int written = resampler.process(in, in.length, out, 0);
+                return Arrays.copyOf(out, written);
+            }
+        }
+    }
+}
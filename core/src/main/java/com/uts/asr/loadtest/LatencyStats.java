@@ -0,0 +1,51 @@
+package com.uts.asr.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Muestras de latencia (ms) de un escalón, con percentiles exactos.
+ * Thread-safe: la alimentan los hilos de decodificación de todos los streams.
+ */
+final class LatencyStats {
+
+    private double[] samples = new double[1024];
+    private int count;
+
+    synchronized void add(double millis) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = millis;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Percentil por el método del rango más cercano (0 si no hay muestras).
+     *
+     * @param percentile entre 0 y 100
+     */
+    synchronized double percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        double[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    synchronized double max() {
+        double max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
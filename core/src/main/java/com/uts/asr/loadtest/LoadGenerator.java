@@ -0,0 +1,354 @@
+package com.uts.asr.loadtest;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.DecodeScheduler;
+import com.uts.asr.core.MemoryBudget;
+import com.uts.asr.engine.RecognizerFactory;
+import com.uts.asr.engine.SyntheticRecognizer;
+import com.uts.asr.network.LoopbackSender;
+import com.uts.asr.network.NetworkStreamConfig;
+import com.uts.asr.network.NetworkStreamListener;
+import com.uts.asr.network.StreamEncoding;
+import com.uts.asr.network.StreamFormat;
+import com.uts.asr.network.StreamStats;
+import com.uts.asr.strategy.NetworkStreamStrategy;
+import com.uts.asr.strategy.TranscriptionListener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de streams simultáneos con informe de capacidad.
+ * <p>
+ * Reproduce clips como N streams en tiempo real por TCP local a través de
+ * {@link NetworkStreamStrategy}, es decir, por el mismo camino de colas,
+ * permisos y recognizers que el uso real. N crece por escalones; en cada uno se
+ * mide la latencia de parciales y finales (desde que llega el último audio que
+ * cubren), el retraso de cada stream respecto al tiempo real al terminar, los
+ * chunks descartados, la CPU y la RSS. La capacidad es el mayor N cuyo escalón
+ * cumple el SLO de latencia en el percentil configurado sin perder audio.
+ * </p>
+ */
+public final class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final int SEND_CHUNK_MS = 20;
+    private static final long COMPLETION_GRACE_SECONDS = 30;
+    private static final long RANDOM_SEED = 42;
+
+    private final AppSettings settings;
+    private final AudioLibrary library;
+    private final RecognizerFactory recognizers;
+    private final String recognizerName;
+    private final int sampleRate;
+
+    /**
+     * @param audioDir carpeta con WAV a reproducir (null = voz sintética)
+     * @param recognizers recognizers reales ({@code WorkerFactory::createRecognizer});
+     *                    se ignora si {@code loadtest.standIn=true}
+     */
+    public LoadGenerator(AppSettings settings, Path audioDir, RecognizerFactory recognizers) throws Exception {
+        this.settings = settings;
+        this.sampleRate = (int) settings.sampleRate();
+        this.library = AudioLibrary.load(audioDir, sampleRate);
+        if (settings.loadTestStandIn()) {
+            double cost = settings.loadTestStandInCostPercent() / 100.0;
+            this.recognizers = () -> new SyntheticRecognizer(sampleRate, cost);
+            this.recognizerName = "stand-in (" + settings.loadTestStandInCostPercent() + "% CPU/stream)";
+        } else {
+            this.recognizers = recognizers;
+            this.recognizerName = settings.workerModeEnabled()
+                ? settings.engineId() + ":" + settings.modelPath() + " (" + settings.workerProcesses() + " workers)"
+                : settings.engineId() + ":" + settings.modelPath();
+        }
+    }
+
+    /**
+     * Resultado de un escalón.
+     */
+    public record Step(int streams, int completed, long overruns, LatencyStatsView partial,
+                       LatencyStatsView finals, LatencyStatsView endLag, double cpuAveragePercent,
+                       double cpuMaxPercent, long rssMaxBytes, boolean passed, String reason) {
+    }
+
+    /**
+     * Percentiles de una serie de latencias (ms).
+     */
+    public record LatencyStatsView(int count, double p50, double pSlo, double p99, double max) {
+    }
+
+    /**
+     * Informe completo: escalones y capacidad máxima (0 si ni el primero cumple).
+     */
+    public record Report(List<Step> steps, int maxStreams, JSONObject json) {
+    }
+
+    /**
+     * Ejecuta la rampa hasta {@code loadtest.maxStreams} o hasta el primer
+     * escalón que no cumple el SLO.
+     */
+    public Report run() throws Exception {
+        logger.info("Prueba de carga: {} clip(s), {} s de audio, recognizer {}, SLO p{} <= {} ms",
+            library.size(), String.format("%.1f", library.totalSeconds()), recognizerName,
+            settings.loadTestPercentile(), settings.loadTestSloMs());
+        List<Step> steps = new ArrayList<>();
+        int maxStreams = 0;
+        for (int streams = settings.loadTestStartStreams(); streams <= settings.loadTestMaxStreams();
+             streams += settings.loadTestStep()) {
+            Step step = runStep(streams);
+            steps.add(step);
+            logger.info("Escalón {} streams: {} (parciales p{} {} ms, finales p{} {} ms, retraso final p{} {} ms, "
+                    + "CPU {}%, RSS {} MB){}", streams, step.passed() ? "OK" : "FALLA",
+                settings.loadTestPercentile(), step.partial().pSlo(), settings.loadTestPercentile(),
+                step.finals().pSlo(), settings.loadTestPercentile(), step.endLag().pSlo(),
+                Math.round(step.cpuAveragePercent()), step.rssMaxBytes() >> 20,
+                step.passed() ? "" : ": " + step.reason());
+            if (!step.passed()) {
+                break;
+            }
+            maxStreams = streams;
+        }
+        return new Report(steps, maxStreams, toJson(steps, maxStreams));
+    }
+
+    /**
+     * Escribe el informe de forma atómica (archivo temporal + rename).
+     */
+    public static void write(Report report, Path file) throws Exception {
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), "loadtest_", ".json.tmp");
+        try {
+            Files.writeString(temp, report.json().toString(2));
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private Step runStep(int streams) throws Exception {
+        int seconds = settings.loadTestStepSeconds();
+        LatencyStats partial = new LatencyStats();
+        LatencyStats finals = new LatencyStats();
+        LatencyStats endLag = new LatencyStats();
+        AtomicLong overruns = new AtomicLong();
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(streams);
+
+        NetworkStreamConfig config = new NetworkStreamConfig("127.0.0.1", 0, NetworkStreamConfig.DISABLED,
+            NetworkStreamConfig.DISABLED, new StreamFormat(StreamEncoding.PCM_S16LE, sampleRate, 1),
+            false, 0, settings.networkIdleTimeoutMs());
+        NetworkStreamStrategy strategy = new NetworkStreamStrategy(config,
+            info -> new StreamProbe(partial, finals, endLag, overruns, completed, done),
+            () -> new MeasuringRecognizer(recognizers.create(), sampleRate));
+
+        ExecutorService threads = Executors.newFixedThreadPool(streams + 1, runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ProcessSampler sampler = new ProcessSampler();
+        try {
+            Future<?> server = threads.submit(() -> {
+                strategy.execute(null, new TranscriptionListener() {
+                    @Override
+                    public void onPartial(String json) {
+                        // Cada stream reporta a su sonda
+                    }
+
+                    @Override
+                    public void onFinal(String json) {
+                        // Cada stream reporta a su sonda
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        logger.error("Error en la ingesta de la prueba de carga", error);
+                    }
+                });
+                return null;
+            });
+            if (!strategy.awaitReady(10, TimeUnit.SECONDS)) {
+                server.get();
+                throw new IllegalStateException("La ingesta de la prueba de carga no arrancó");
+            }
+
+            int port = strategy.tcpPort();
+            int bytesPerSecond = sampleRate * 2;
+            int chunkBytes = bytesPerSecond * SEND_CHUNK_MS / 1000;
+            Random random = new Random(RANDOM_SEED + streams);
+            List<Future<?>> senders = new ArrayList<>();
+            for (int i = 0; i < streams; i++) {
+                byte[] audio = library.stream(seconds, random);
+                long staggerMs = 1000L * i / streams;
+                senders.add(threads.submit(() -> {
+                    Thread.sleep(staggerMs);
+                    LoopbackSender.sendTcp("127.0.0.1", port, audio, chunkBytes, bytesPerSecond);
+                    return null;
+                }));
+            }
+            for (Future<?> sender : senders) {
+                sender.get();
+            }
+            boolean allDone = done.await(Math.max(COMPLETION_GRACE_SECONDS, seconds), TimeUnit.SECONDS);
+            strategy.cancel();
+            server.get(COMPLETION_GRACE_SECONDS, TimeUnit.SECONDS);
+            sampler.stop();
+
+            return evaluate(streams, completed.get(), overruns.get(), partial, finals, endLag, sampler, allDone);
+        } finally {
+            sampler.stop();
+            strategy.cancel();
+            threads.shutdownNow();
+        }
+    }
+
+    private Step evaluate(int streams, int completed, long overruns, LatencyStats partial, LatencyStats finals,
+                          LatencyStats endLag, ProcessSampler sampler, boolean allDone) {
+        int percentile = settings.loadTestPercentile();
+        int slo = settings.loadTestSloMs();
+        String reason = "";
+        if (!allDone || completed < streams) {
+            reason = (streams - completed) + " stream(s) sin terminar";
+        } else if (overruns > 0) {
+            reason = overruns + " chunk(s) descartados por saturación";
+        } else if (finals.percentile(percentile) > slo) {
+            reason = "finales p" + percentile + " por encima del SLO";
+        } else if (partial.percentile(percentile) > slo) {
+            reason = "parciales p" + percentile + " por encima del SLO";
+        } else if (endLag.percentile(percentile) > slo) {
+            reason = "retraso al terminar p" + percentile + " por encima del SLO";
+        }
+        return new Step(streams, completed, overruns, view(partial), view(finals), view(endLag),
+            sampler.cpuAveragePercent(), sampler.cpuMaxPercent(), sampler.rssMaxBytes(), reason.isEmpty(),
+            reason);
+    }
+
+    private LatencyStatsView view(LatencyStats stats) {
+        return new LatencyStatsView(stats.count(), LatencyStats.round(stats.percentile(50)),
+            LatencyStats.round(stats.percentile(settings.loadTestPercentile())),
+            LatencyStats.round(stats.percentile(99)), LatencyStats.round(stats.max()));
+    }
+
+    private JSONObject toJson(List<Step> steps, int maxStreams) {
+        int percentile = settings.loadTestPercentile();
+        JSONArray stepsJson = new JSONArray();
+        for (Step step : steps) {
+            stepsJson.put(new JSONObject()
+                .put("streams", step.streams())
+                .put("passed", step.passed())
+                .put("reason", step.reason())
+                .put("completed", step.completed())
+                .put("overruns", step.overruns())
+                .put("partialLatencyMs", toJson(step.partial(), percentile))
+                .put("finalLatencyMs", toJson(step.finals(), percentile))
+                .put("endLagMs", toJson(step.endLag(), percentile))
+                .put("cpuAveragePercent", LatencyStats.round(step.cpuAveragePercent()))
+                .put("cpuMaxPercent", LatencyStats.round(step.cpuMaxPercent()))
+                .put("rssMaxMb", step.rssMaxBytes() >> 20));
+        }
+        return new JSONObject()
+            .put("generatedAt", Instant.now().toString())
+            .put("recognizer", recognizerName)
+            .put("cpus", Runtime.getRuntime().availableProcessors())
+            .put("maxRecognizers", settings.maxRecognizers())
+            .put("memory", MemoryBudget.shared().usage().toString())
+            .put("decoder", settings.decoderSchedulerEnabled()
+                ? DecodeScheduler.shared().metrics().toString() : "un hilo por stream")
+            .put("chunkLiveBytes", settings.chunkSizeLive())
+            .put("sampleRate", sampleRate)
+            .put("stepSeconds", settings.loadTestStepSeconds())
+            .put("percentile", percentile)
+            .put("sloMs", settings.loadTestSloMs())
+            .put("audioClips", library.size())
+            .put("steps", stepsJson)
+            .put("maxStreams", maxStreams);
+    }
+
+    private static JSONObject toJson(LatencyStatsView view, int percentile) {
+        return new JSONObject()
+            .put("count", view.count())
+            .put("p50", view.p50())
+            .put("p" + percentile, view.pSlo())
+            .put("p99", view.p99())
+            .put("max", view.max());
+    }
+
+    /**
+     * Listener de un stream: convierte cada resultado en una latencia desde
+     * que llegó el último audio que cubre. El audio se envía en tiempo real,
+     * así que el instante t del audio llega en {@code apertura + t}.
+     */
+    private static final class StreamProbe implements NetworkStreamListener {
+        private final long openNanos = System.nanoTime();
+        private final LatencyStats partial;
+        private final LatencyStats finals;
+        private final LatencyStats endLag;
+        private final AtomicLong overruns;
+        private final AtomicInteger completed;
+        private final CountDownLatch done;
+
+        StreamProbe(LatencyStats partial, LatencyStats finals, LatencyStats endLag, AtomicLong overruns,
+                    AtomicInteger completed, CountDownLatch done) {
+            this.partial = partial;
+            this.finals = finals;
+            this.endLag = endLag;
+            this.overruns = overruns;
+            this.completed = completed;
+            this.done = done;
+        }
+
+        @Override
+        public void onPartial(String json) {
+            record(partial);
+        }
+
+        @Override
+        public void onFinal(String json) {
+            record(finals);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            logger.warn("Stream de la prueba de carga con error: {}", error.getMessage());
+            done.countDown();
+        }
+
+        @Override
+        public void onStats(StreamStats stats) {
+            overruns.addAndGet(stats.overruns());
+        }
+
+        @Override
+        public void onComplete() {
+            record(endLag);
+            completed.incrementAndGet();
+            done.countDown();
+        }
+
+        private void record(LatencyStats stats) {
+            MeasuringRecognizer recognizer = MeasuringRecognizer.current();
+            if (recognizer != null) {
+                long latency = System.nanoTime() - openNanos - recognizer.audioNanos();
+                stats.add(Math.max(0, latency) / 1e6);
+            }
+        }
+    }
+}
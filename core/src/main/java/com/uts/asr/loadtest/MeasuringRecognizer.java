@@ -0,0 +1,65 @@
+package com.uts.asr.loadtest;
+
+import com.uts.asr.engine.SpeechRecognizer;
+
+/**
+ * Decorador que cuenta el audio entregado al recognizer. Se publica en el hilo
+ * de decodificación para que el listener del stream, llamado en ese mismo hilo
+ * justo después de {@code acceptWaveForm}, sepa hasta qué instante del audio
+ * corresponde cada resultado.
+ */
+final class MeasuringRecognizer implements SpeechRecognizer {
+
+    private static final ThreadLocal<MeasuringRecognizer> CURRENT = new ThreadLocal<>();
+
+    private final SpeechRecognizer delegate;
+    private final int bytesPerSecond;
+    private long bytes;
+
+    MeasuringRecognizer(SpeechRecognizer delegate, int sampleRate) {
+        this.delegate = delegate;
+        this.bytesPerSecond = sampleRate * 2;
+        CURRENT.set(this);
+    }
+
+    /**
+     * Recognizer del stream que se decodifica en el hilo actual, o null.
+     */
+    static MeasuringRecognizer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Audio entregado hasta ahora, en nanosegundos.
+     */
+    long audioNanos() {
+        return bytes * 1_000_000_000L / bytesPerSecond;
+    }
+
+    @Override
+    public boolean acceptWaveForm(byte[] data, int length) {
+        bytes += length;
+        return delegate.acceptWaveForm(data, length);
+    }
+
+    @Override
+    public String getResult() {
+        return delegate.getResult();
+    }
+
+    @Override
+    public String getPartialResult() {
+        return delegate.getPartialResult();
+    }
+
+    @Override
+    public String getFinalResult() {
+        return delegate.getFinalResult();
+    }
+
+    @Override
+    public void close() {
+        CURRENT.remove();
+        delegate.close();
+    }
+}
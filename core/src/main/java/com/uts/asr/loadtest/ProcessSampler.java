@@ -0,0 +1,111 @@
+package com.uts.asr.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Muestrea CPU y memoria residente de este proceso mientras dura un escalón.
+ * La CPU se expresa en % de la máquina completa (100 = todos los núcleos).
+ * La RSS sale de {@code /proc/self/status}; donde no existe se usa el heap ocupado.
+ */
+final class ProcessSampler {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessSampler.class);
+
+    private static final long INTERVAL_MS = 500;
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    private final Thread thread;
+    private final int cpus = Runtime.getRuntime().availableProcessors();
+    private volatile boolean running = true;
+    private double cpuSum;
+    private double cpuMax;
+    private int samples;
+    private long rssMaxBytes;
+
+    ProcessSampler() {
+        thread = new Thread(this::loop, "loadtest-sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized double cpuAveragePercent() {
+        return samples == 0 ? 0 : cpuSum / samples;
+    }
+
+    synchronized double cpuMaxPercent() {
+        return cpuMax;
+    }
+
+    synchronized long rssMaxBytes() {
+        return rssMaxBytes;
+    }
+
+    /**
+     * Detiene el muestreo; los valores quedan fijos.
+     */
+    void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        long lastCpu = processCpuNanos();
+        long lastWall = System.nanoTime();
+        while (running) {
+            try {
+                Thread.sleep(INTERVAL_MS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            long cpu = processCpuNanos();
+            long wall = System.nanoTime();
+            long rss = rssBytes();
+            synchronized (this) {
+                if (cpu >= 0 && lastCpu >= 0 && wall > lastWall) {
+                    double percent = 100.0 * (cpu - lastCpu) / ((double) (wall - lastWall) * cpus);
+                    cpuSum += percent;
+                    cpuMax = Math.max(cpuMax, percent);
+                    samples++;
+                }
+                rssMaxBytes = Math.max(rssMaxBytes, rss);
+            }
+            lastCpu = cpu;
+            lastWall = wall;
+        }
+    }
+
+    private static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static long rssBytes() {
+        if (Files.isReadable(PROC_STATUS)) {
+            try {
+                for (String line : Files.readAllLines(PROC_STATUS)) {
+                    if (line.startsWith("VmRSS:")) {
+                        return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                logger.debug("No se pudo leer la RSS: {}", e.getMessage());
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
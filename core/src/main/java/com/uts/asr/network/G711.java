@@ -0,0 +1,55 @@
+package com.uts.asr.network;
+
+/**
+ * Expansión G.711 (µ-law y A-law) a PCM lineal de 16 bits con tablas.
+ */
+final class G711 {
+
+    private static final short[] MULAW = new short[256];
+    private static final short[] ALAW = new short[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            MULAW[i] = mulawToLinear(i);
+            ALAW[i] = alawToLinear(i);
+        }
+    }
+
+    private G711() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Expande {@code length} bytes G.711 a PCM 16 bits little endian.
+     *
+     * @param out destino, al menos {@code 2 * length} bytes desde {@code outOffset}
+     */
+    static void expand(StreamEncoding encoding, byte[] in, int offset, int length, byte[] out, int outOffset) {
+        short[] table = encoding == StreamEncoding.MULAW ? MULAW : ALAW;
+        for (int i = 0; i < length; i++) {
+            short sample = table[in[offset + i] & 0xFF];
+            out[outOffset++] = (byte) sample;
+            out[outOffset++] = (byte) (sample >> 8);
+        }
+    }
+
+    static short mulawToLinear(int value) {
+        int u = ~value & 0xFF;
+        int t = ((u & 0x0F) << 3) + 0x84;
+        t <<= (u & 0x70) >> 4;
+        return (short) ((u & 0x80) != 0 ? 0x84 - t : t - 0x84);
+    }
+
+    static short alawToLinear(int value) {
+        int a = (value ^ 0x55) & 0xFF;
+        int t = (a & 0x0F) << 4;
+        int segment = (a & 0x70) >> 4;
+        if (segment == 0) {
+            t += 8;
+        } else {
+            t += 0x108;
+            t <<= segment - 1;
+        }
+        return (short) ((a & 0x80) != 0 ? t : -t);
+    }
+}
@@ -0,0 +1,218 @@
+package com.uts.asr.network;
+
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parser incremental (sin bloqueo) de una petición HTTP/1.1 cuyo cuerpo es audio.
+ * <p>
+ * Admite {@code Transfer-Encoding: chunked}, {@code Content-Length} o cuerpo
+ * hasta el cierre de la conexión. El formato se puede indicar en la query:
+ * {@code POST /stream?encoding=mulaw&rate=8000&channels=1}.
+ * </p>
+ */
+final class HttpStreamParser {
+
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int MAX_LINE_BYTES = 1024;
+
+    enum State { HEADERS, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, BODY_LENGTH, BODY_UNTIL_CLOSE, DONE }
+
+    /**
+     * Recibe los bytes del cuerpo ya sin el framing chunked.
+     */
+    interface BodySink {
+        void body(byte[] data, int offset, int length);
+    }
+
+    private State state = State.HEADERS;
+    private final StringBuilder line = new StringBuilder();
+    private int headerBytes;
+    private String method;
+    private String target;
+    private final Map<String, String> headers = new HashMap<>();
+    private final Map<String, String> query = new HashMap<>();
+    private long remaining;
+
+    /**
+     * Consume los bytes disponibles.
+     *
+     * @return el estado tras consumir
+     * @throws IllegalArgumentException si la petición está mal formada
+     */
+    State feed(ByteBuffer in, BodySink sink) {
+        while (in.hasRemaining() && state != State.DONE) {
+            switch (state) {
+                case HEADERS -> {
+                    String header = readLine(in, MAX_HEADER_BYTES);
+                    if (header != null) {
+                        onHeaderLine(header);
+                    }
+                }
+                case CHUNK_SIZE -> {
+                    String sizeLine = readLine(in, MAX_LINE_BYTES);
+                    if (sizeLine != null) {
+                        int extension = sizeLine.indexOf(';');
+                        String hex = (extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim();
+                        try {
+                            remaining = Long.parseLong(hex, 16);
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Tamaño de chunk inválido: " + sizeLine);
+                        }
+                        if (remaining < 0) {
+                            throw new IllegalArgumentException("Tamaño de chunk negativo: " + sizeLine);
+                        }
+                        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+                    }
+                }
+                case CHUNK_DATA -> {
+                    copyBody(in, sink);
+                    if (remaining == 0) {
+                        state = State.CHUNK_END;
+                    }
+                }
+                case CHUNK_END -> {
+                    if (readLine(in, MAX_LINE_BYTES) != null) {
+                        state = State.CHUNK_SIZE;
+                    }
+                }
+                case TRAILERS -> {
+                    String trailer = readLine(in, MAX_HEADER_BYTES);
+                    if (trailer != null && trailer.isEmpty()) {
+                        state = State.DONE;
+                    }
+                }
+                case BODY_LENGTH -> {
+                    copyBody(in, sink);
+                    if (remaining == 0) {
+                        state = State.DONE;
+                    }
+                }
+                case BODY_UNTIL_CLOSE -> {
+                    sink.body(in.array(), in.arrayOffset() + in.position(), in.remaining());
+                    in.position(in.limit());
+                }
+                default -> throw new IllegalStateException(state.name());
+            }
+        }
+        return state;
+    }
+
+    State state() {
+        return state;
+    }
+
+    /**
+     * Indica si ya se leyeron las cabeceras (método, destino y query disponibles).
+     */
+    boolean headersComplete() {
+        return state != State.HEADERS;
+    }
+
+    String method() {
+        return method;
+    }
+
+    String target() {
+        return target;
+    }
+
+    /**
+     * Parámetro de la query o null.
+     */
+    String queryParameter(String name) {
+        return query.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    private void onHeaderLine(String header) {
+        if (method == null) {
+            String[] parts = header.split(" ");
+            if (parts.length != 3 || !parts[2].startsWith("HTTP/1.")) {
+                throw new IllegalArgumentException("Línea de petición inválida: " + header);
+            }
+            method = parts[0];
+            target = parts[1];
+            parseQuery(target);
+            return;
+        }
+        if (!header.isEmpty()) {
+            headerBytes += header.length();
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("Cabeceras demasiado grandes");
+            }
+            int colon = header.indexOf(':');
+            if (colon > 0) {
+                headers.put(header.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                    header.substring(colon + 1).trim());
+            }
+            return;
+        }
+
+        // Fin de cabeceras: decidir el framing del cuerpo
+        String transferEncoding = headers.getOrDefault("transfer-encoding", "");
+        String contentLength = headers.get("content-length");
+        if (transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength != null) {
+            try {
+                remaining = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Content-Length inválido: " + contentLength);
+            }
+            if (remaining < 0) {
+                throw new IllegalArgumentException("Content-Length negativo: " + contentLength);
+            }
+            state = remaining == 0 ? State.DONE : State.BODY_LENGTH;
+        } else {
+            state = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    private void parseQuery(String requestTarget) {
+        int question = requestTarget.indexOf('?');
+        if (question < 0) {
+            return;
+        }
+        for (String pair : requestTarget.substring(question + 1).split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8).toLowerCase(Locale.ROOT),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void copyBody(ByteBuffer in, BodySink sink) {
+        int length = (int) Math.min(remaining, in.remaining());
+        sink.body(in.array(), in.arrayOffset() + in.position(), length);
+        in.position(in.position() + length);
+        remaining -= length;
+    }
+
+    /**
+     * Lee una línea terminada en CRLF (o LF); devuelve null si aún no está completa.
+     */
+    private String readLine(ByteBuffer in, int maxBytes) {
+        while (in.hasRemaining()) {
+            char c = (char) (in.get() & 0xFF);
+            if (c == '\n') {
+                int end = line.length();
+                if (end > 0 && line.charAt(end - 1) == '\r') {
+                    end--;
+                }
+                String result = line.substring(0, end);
+                line.setLength(0);
+                return result;
+            }
+            line.append(c);
+            if (line.length() > maxBytes) {
+                throw new IllegalArgumentException("Línea HTTP demasiado larga");
+            }
+        }
+        return null;
+    }
+}
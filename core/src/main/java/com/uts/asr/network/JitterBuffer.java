@@ -0,0 +1,183 @@
+package com.uts.asr.network;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Jitter buffer para paquetes RTP de un stream.
+ * <p>
+ * Reordena por número de secuencia extendido (con vuelta de los 16 bits). Un
+ * paquete en orden sale de inmediato; ante un hueco se espera hasta
+ * {@code delayMs} desde la llegada del primer paquete posterior y, vencido ese
+ * plazo, los que faltan se declaran perdidos y se ocultan con silencio para
+ * conservar la línea de tiempo. Los paquetes que llegan después de su turno se
+ * descartan como tardíos.
+ * </p>
+ * <p>
+ * Calcula el jitter entre llegadas de RFC 3550 (6.4.1) y las pérdidas como
+ * paquetes esperados menos recibidos. No es thread-safe: lo usa solo el hilo
+ * del selector.
+ * </p>
+ */
+final class JitterBuffer {
+
+    /** Límite de paquetes retenidos: por encima se fuerza la salida aunque haya huecos. */
+    private static final int MAX_PACKETS = 500;
+
+    /**
+     * Recibe los paquetes en orden de reproducción.
+     */
+    interface Sink {
+        /**
+         * @param payload datos del paquete, o null si es un paquete perdido
+         * @param length bytes del payload (para un perdido, los del paquete siguiente)
+         */
+        void play(byte[] payload, int length);
+    }
+
+    private record Packet(byte[] payload, long arrivalNanos) {
+    }
+
+    private final int clockRate;
+    private final long delayNanos;
+    private final TreeMap<Long, Packet> queue = new TreeMap<>();
+
+    private boolean started;
+    private long baseSeq;
+    private long maxSeq;       // secuencia extendida más alta recibida
+    private long nextSeq;      // siguiente secuencia a reproducir
+    private long received;
+    private long late;
+    private long duplicates;
+    private long concealed;
+
+    // RFC 3550: jitter en unidades de timestamp
+    private double jitter;
+    private long lastTransit;
+    private boolean hasTransit;
+
+    JitterBuffer(int clockRate, int delayMs) {
+        this.clockRate = clockRate;
+        this.delayNanos = delayMs * 1_000_000L;
+    }
+
+    /**
+     * Añade un paquete recibido.
+     *
+     * @param sequence número de secuencia RTP (16 bits)
+     * @param timestamp timestamp RTP (32 bits)
+     * @param payload datos (se conserva la referencia)
+     * @param arrivalNanos instante de llegada ({@link System#nanoTime()})
+     */
+    void offer(int sequence, long timestamp, byte[] payload, long arrivalNanos) {
+        long extended = extend(sequence & 0xFFFF);
+        received++;
+        updateJitter(timestamp & 0xFFFFFFFFL, arrivalNanos);
+
+        if (extended < nextSeq) {
+            late++;
+            return;
+        }
+        if (queue.putIfAbsent(extended, new Packet(payload, arrivalNanos)) != null) {
+            duplicates++;
+            received--;
+            return;
+        }
+        maxSeq = Math.max(maxSeq, extended);
+    }
+
+    /**
+     * Entrega los paquetes que ya pueden reproducirse.
+     */
+    void drain(long nowNanos, Sink sink) {
+        while (!queue.isEmpty()) {
+            Map.Entry<Long, Packet> head = queue.firstEntry();
+            if (head.getKey() != nextSeq) {
+                boolean expired = nowNanos - head.getValue().arrivalNanos() >= delayNanos;
+                if (!expired && queue.size() < MAX_PACKETS) {
+                    return;
+                }
+                concealGap(head.getKey(), head.getValue().payload().length, sink);
+            }
+            queue.pollFirstEntry();
+            sink.play(head.getValue().payload(), head.getValue().payload().length);
+            nextSeq = head.getKey() + 1;
+        }
+    }
+
+    /**
+     * Entrega todo lo pendiente al cerrar el stream, ocultando los huecos.
+     */
+    void flush(Sink sink) {
+        drain(Long.MAX_VALUE / 2, sink);
+    }
+
+    long received() {
+        return received;
+    }
+
+    /**
+     * Perdidos según RFC 3550: esperados (rango de secuencias) menos recibidos.
+     */
+    long lost() {
+        return started ? (maxSeq - baseSeq + 1) - received : 0;
+    }
+
+    long late() {
+        return late;
+    }
+
+    long duplicates() {
+        return duplicates;
+    }
+
+    long concealed() {
+        return concealed;
+    }
+
+    double jitterMs() {
+        return jitter * 1000.0 / clockRate;
+    }
+
+    private void concealGap(long until, int length, Sink sink) {
+        for (long seq = nextSeq; seq < until; seq++) {
+            sink.play(null, length);
+            concealed++;
+        }
+    }
+
+    /**
+     * Extiende la secuencia de 16 bits eligiendo el ciclo más cercano al máximo visto.
+     */
+    private long extend(int sequence) {
+        if (!started) {
+            started = true;
+            baseSeq = sequence;
+            maxSeq = sequence;
+            nextSeq = sequence;
+            return sequence;
+        }
+        long cycle = maxSeq & ~0xFFFFL;
+        long candidate = cycle | sequence;
+        if (candidate - maxSeq > 0x8000) {
+            candidate -= 0x10000;
+        } else if (maxSeq - candidate > 0x8000) {
+            candidate += 0x10000;
+        }
+        return candidate;
+    }
+
+    private void updateJitter(long timestamp, long arrivalNanos) {
+        long arrival = arrivalNanos / 1000 * clockRate / 1_000_000; // en unidades de timestamp
+        long transit = arrival - timestamp;
+        if (hasTransit) {
+            long d = Math.abs(transit - lastTransit);
+            // Un salto de timestamp de 32 bits no es jitter
+            if (d < (1L << 31)) {
+                jitter += (d - jitter) / 16.0;
+            }
+        }
+        lastTransit = transit;
+        hasTransit = true;
+    }
+}
@@ -0,0 +1,183 @@
+package com.uts.asr.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Emisor de audio para probar la ingesta de red sin hardware: envía PCM por
+ * TCP, RTP por UDP (con pérdidas y reordenación simuladas) o un cuerpo HTTP
+ * chunked, opcionalmente al ritmo del audio real.
+ */
+public final class LoopbackSender {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private LoopbackSender() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Resultado de un envío RTP.
+     *
+     * @param packets paquetes generados
+     * @param dropped paquetes no enviados (pérdida simulada)
+     * @param reordered paquetes enviados fuera de orden
+     */
+    public record RtpResult(int packets, int dropped, int reordered) {
+    }
+
+    /**
+     * Envía audio por una conexión TCP y la cierra.
+     *
+     * @param bytesPerSecond ritmo de envío; 0 o negativo = lo más rápido posible
+     */
+    public static void sendTcp(String host, int port, byte[] audio, int chunkBytes,
+                               double bytesPerSecond) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            long start = System.nanoTime();
+            for (int offset = 0; offset < audio.length; offset += chunkBytes) {
+                int n = Math.min(chunkBytes, audio.length - offset);
+                out.write(audio, offset, n);
+                pace(start, offset + n, bytesPerSecond);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Envía audio como cuerpo HTTP chunked ({@code POST /stream?<query>}) y
+     * devuelve la respuesta completa (línea de estado, cabeceras y cuerpo).
+     *
+     * @param query parámetros de formato, p. ej. {@code encoding=mulaw&rate=8000}; puede ser null
+     */
+    public static String sendHttpChunked(String host, int port, String query, byte[] audio,
+                                         int chunkBytes, double bytesPerSecond) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            String target = query == null || query.isEmpty() ? "/stream" : "/stream?" + query;
+            out.write(("POST " + target + " HTTP/1.1\r\n"
+                + "Host: " + host + ":" + port + "\r\n"
+                + "Content-Type: application/octet-stream\r\n"
+                + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            long start = System.nanoTime();
+            for (int offset = 0; offset < audio.length; offset += chunkBytes) {
+                int n = Math.min(chunkBytes, audio.length - offset);
+                out.write((Integer.toHexString(n) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(audio, offset, n);
+                out.write(new byte[] {'\r', '\n'});
+                pace(start, offset + n, bytesPerSecond);
+            }
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            in.transferTo(response);
+            return response.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Envía audio como paquetes RTP.
+     *
+     * @param payloadType tipo de payload RTP (0 = µ-law, 8 = A-law, 11 = L16 44.1 kHz,
+     *                    otro = formato configurado en el servidor)
+     * @param clockRate reloj RTP (muestras por segundo)
+     * @param frameBytes bytes por muestra (todos los canales)
+     * @param packetMillis duración de cada paquete
+     * @param lossRatio probabilidad de no enviar un paquete
+     * @param reorderRatio probabilidad de intercambiar un paquete con el siguiente
+     * @param seed semilla de la simulación (reproducible)
+     * @param paced si true, envía al ritmo del audio
+     */
+    public static RtpResult sendRtp(String host, int port, byte[] audio, int payloadType, int clockRate,
+                                    int frameBytes, int packetMillis, double lossRatio, double reorderRatio,
+                                    long seed, boolean paced) throws IOException {
+        Random random = new Random(seed);
+        int samplesPerPacket = clockRate * packetMillis / 1000;
+        int packetBytes = samplesPerPacket * frameBytes;
+        long ssrc = random.nextInt() & 0xFFFFFFFFL;
+        int firstSequence = random.nextInt(0x10000);
+        long firstTimestamp = random.nextInt() & 0xFFFFFFFFL;
+
+        List<byte[]> packets = new ArrayList<>();
+        for (int offset = 0, index = 0; offset < audio.length; offset += packetBytes, index++) {
+            int n = Math.min(packetBytes, audio.length - offset);
+            packets.add(rtpPacket(payloadType, (firstSequence + index) & 0xFFFF,
+                (firstTimestamp + (long) index * samplesPerPacket) & 0xFFFFFFFFL, ssrc, audio, offset, n));
+        }
+
+        int reordered = 0;
+        for (int i = 0; i + 1 < packets.size(); i++) {
+            if (random.nextDouble() < reorderRatio) {
+                byte[] swap = packets.get(i);
+                packets.set(i, packets.get(i + 1));
+                packets.set(i + 1, swap);
+                reordered += 2;
+                i++;
+            }
+        }
+
+        int dropped = 0;
+        double bytesPerSecond = paced ? 1000.0 * packetBytes / packetMillis : 0;
+        try (DatagramSocket socket = new DatagramSocket()) {
+            InetSocketAddress target = new InetSocketAddress(host, port);
+            long start = System.nanoTime();
+            for (int i = 0; i < packets.size(); i++) {
+                byte[] packet = packets.get(i);
+                if (random.nextDouble() < lossRatio) {
+                    dropped++;
+                } else {
+                    socket.send(new DatagramPacket(packet, packet.length, target));
+                }
+                pace(start, (long) (i + 1) * packetBytes, bytesPerSecond);
+            }
+        }
+        return new RtpResult(packets.size(), dropped, reordered);
+    }
+
+    private static byte[] rtpPacket(int payloadType, int sequence, long timestamp, long ssrc,
+                                    byte[] audio, int offset, int length) {
+        byte[] packet = new byte[12 + length];
+        packet[0] = (byte) 0x80;
+        packet[1] = (byte) (payloadType & 0x7F);
+        packet[2] = (byte) (sequence >> 8);
+        packet[3] = (byte) sequence;
+        for (int i = 0; i < 4; i++) {
+            packet[4 + i] = (byte) (timestamp >> (24 - 8 * i));
+            packet[8 + i] = (byte) (ssrc >> (24 - 8 * i));
+        }
+        System.arraycopy(audio, offset, packet, 12, length);
+        return packet;
+    }
+
+    /**
+     * Espera hasta que {@code sent} bytes correspondan al tiempo transcurrido.
+     */
+    private static void pace(long startNanos, long sent, double bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        long due = startNanos + (long) (sent / bytesPerSecond * 1e9);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.uts.asr.network;
+
+import com.uts.asr.config.AppSettings;
+
+/**
+ * Parámetros del servidor de ingesta de red.
+ *
+ * @param bind dirección local de escucha
+ * @param tcpPort puerto TCP de PCM crudo (-1 desactivado, 0 efímero)
+ * @param udpPort puerto UDP/RTP (-1 desactivado, 0 efímero)
+ * @param httpPort puerto HTTP (-1 desactivado, 0 efímero)
+ * @param format formato por defecto de los streams (RTP y la query HTTP pueden cambiarlo)
+ * @param udpRtp true si los datagramas UDP llevan cabecera RTP
+ * @param jitterMs espera máxima por un paquete que falta antes de ocultarlo
+ * @param idleTimeoutMs inactividad tras la que se cierra un stream UDP
+ */
+public record NetworkStreamConfig(String bind, int tcpPort, int udpPort, int httpPort,
+                                  StreamFormat format, boolean udpRtp, int jitterMs, int idleTimeoutMs) {
+
+    public static final int DISABLED = -1;
+
+    /**
+     * Configuración a partir de las claves {@code network.*} de la configuración activa.
+     */
+    public static NetworkStreamConfig fromSettings() {
+        AppSettings settings = AppSettings.current();
+        return new NetworkStreamConfig(
+            settings.networkBind(),
+            settings.networkTcpPort(),
+            settings.networkUdpPort(),
+            settings.networkHttpPort(),
+            new StreamFormat(StreamEncoding.fromId(settings.networkEncoding()),
+                settings.networkSampleRate(), settings.networkChannels()),
+            settings.networkUdpRtp(),
+            settings.networkJitterMs(),
+            settings.networkIdleTimeoutMs()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.uts.asr.network;
+
+import com.uts.asr.strategy.TranscriptionListener;
+
+/**
+ * Listener de un stream de red. Además de los eventos normales recibe las
+ * estadísticas de recepción (pérdidas, jitter, overruns).
+ */
+public interface NetworkStreamListener extends TranscriptionListener {
+
+    /**
+     * Llamado periódicamente mientras el stream está activo y una vez al
+     * cerrarse, antes de {@link #onComplete()}.
+     *
+     * @param stats estadísticas acumuladas del stream
+     */
+    default void onStats(StreamStats stats) {
+        // Por defecto no hace nada
+    }
+}
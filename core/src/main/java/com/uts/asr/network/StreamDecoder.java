@@ -0,0 +1,83 @@
+package com.uts.asr.network;
+
+import com.uts.asr.util.PolyphaseResampler;
+
+import java.util.Arrays;
+
+/**
+ * Convierte el payload de un stream al formato del modelo (PCM 16 bits mono
+ * little endian a la tasa del modelo): expande G.711, mezcla canales y
+ * remuestrea. Conserva los bytes de un frame incompleto entre llamadas, así que
+ * acepta lecturas TCP de cualquier tamaño. Una instancia por stream.
+ */
+final class StreamDecoder {
+
+    private final StreamFormat format;
+    private final PolyphaseResampler resampler; // null si ya está en el formato del modelo
+    private final byte[] pending;               // frame incompleto de la llamada anterior
+    private int pendingLength;
+    private byte[] linear = new byte[0];        // PCM 16 bits antes de remuestrear
+
+    StreamDecoder(StreamFormat format, int targetRate) {
+        this.format = format;
+        boolean passthrough = format.encoding() == StreamEncoding.PCM_S16LE
+            && format.channels() == 1 && format.sampleRate() == targetRate;
+        this.resampler = passthrough ? null : new PolyphaseResampler(format.sampleRate(), targetRate,
+            format.channels(), format.encoding() == StreamEncoding.PCM_S16BE);
+        this.pending = new byte[format.frameBytes()];
+    }
+
+    /**
+     * Decodifica un bloque de payload.
+     *
+     * @return PCM en el formato del modelo (posiblemente vacío)
+     */
+    byte[] decode(byte[] data, int offset, int length) {
+        int frameBytes = format.frameBytes();
+        int total = pendingLength + length;
+        int usable = total - total % frameBytes;
+        if (usable == 0) {
+            System.arraycopy(data, offset, pending, pendingLength, length);
+            pendingLength = total;
+            return new byte[0];
+        }
+
+        // pendingLength < frameBytes <= usable: el frame pendiente va primero
+        byte[] frames = new byte[usable];
+        System.arraycopy(pending, 0, frames, 0, pendingLength);
+        int fromData = usable - pendingLength;
+        System.arraycopy(data, offset, frames, pendingLength, fromData);
+        pendingLength = length - fromData;
+        System.arraycopy(data, offset + fromData, pending, 0, pendingLength);
+
+        return convert(frames, usable);
+    }
+
+    /**
+     * Silencio equivalente a {@code encodedLength} bytes de payload perdido.
+     */
+    byte[] silence(int encodedLength) {
+        int frames = encodedLength / format.frameBytes();
+        return convert16(new byte[frames * 2 * format.channels()], frames * 2 * format.channels());
+    }
+
+    private byte[] convert(byte[] frames, int length) {
+        if (format.encoding() == StreamEncoding.MULAW || format.encoding() == StreamEncoding.ALAW) {
+            if (linear.length < length * 2) {
+                linear = new byte[length * 2];
+            }
+            G711.expand(format.encoding(), frames, 0, length, linear, 0);
+            return convert16(linear, length * 2);
+        }
+        return convert16(frames, length);
+    }
+
+    private byte[] convert16(byte[] pcm, int length) {
+        if (resampler == null) {
+            return pcm.length == length ? pcm : Arrays.copyOf(pcm, length);
+        }
+        byte[] out = new byte[resampler.maxOutputBytes(length)];
+        int written = resampler.process(pcm, length, out, 0);
+        return written == out.length ? out : Arrays.copyOf(out, written);
+    }
+}
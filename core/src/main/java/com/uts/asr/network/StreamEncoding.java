@@ -0,0 +1,51 @@
+package com.uts.asr.network;
+
+/**
+ * Codificación de las muestras recibidas por red.
+ */
+public enum StreamEncoding {
+
+    /** PCM lineal de 16 bits little endian. */
+    PCM_S16LE("pcm_s16le", 2),
+
+    /** PCM lineal de 16 bits big endian (orden de red, p. ej. RTP L16). */
+    PCM_S16BE("pcm_s16be", 2),
+
+    /** G.711 µ-law (8 bits por muestra). */
+    MULAW("mulaw", 1),
+
+    /** G.711 A-law (8 bits por muestra). */
+    ALAW("alaw", 1);
+
+    private final String id;
+    private final int bytesPerSample;
+
+    StreamEncoding(String id, int bytesPerSample) {
+        this.id = id;
+        this.bytesPerSample = bytesPerSample;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public int bytesPerSample() {
+        return bytesPerSample;
+    }
+
+    /**
+     * Busca una codificación por su identificador.
+     *
+     * @throws IllegalArgumentException si no existe
+     */
+    public static StreamEncoding fromId(String id) {
+        String normalized = id == null ? "" : id.trim();
+        for (StreamEncoding encoding : values()) {
+            if (encoding.id.equalsIgnoreCase(normalized) || encoding.name().equalsIgnoreCase(normalized)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Codificación desconocida: " + id
+            + " (pcm_s16le, pcm_s16be, mulaw, alaw)");
+    }
+}
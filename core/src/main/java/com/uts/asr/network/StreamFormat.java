@@ -0,0 +1,30 @@
+package com.uts.asr.network;
+
+/**
+ * Formato de un stream de red.
+ *
+ * @param encoding codificación de las muestras
+ * @param sampleRate tasa de muestreo (Hz)
+ * @param channels canales intercalados (se mezclan a mono)
+ */
+public record StreamFormat(StreamEncoding encoding, int sampleRate, int channels) {
+
+    public StreamFormat {
+        if (encoding == null || sampleRate <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("Formato de stream inválido: "
+                + encoding + " " + sampleRate + " Hz " + channels + " canales");
+        }
+    }
+
+    /**
+     * Bytes de un frame (una muestra por canal).
+     */
+    public int frameBytes() {
+        return encoding.bytesPerSample() * channels;
+    }
+
+    @Override
+    public String toString() {
+        return encoding.id() + "/" + sampleRate + "/" + channels;
+    }
+}
@@ -0,0 +1,19 @@
+package com.uts.asr.network;
+
+/**
+ * Identificación de un stream aceptado.
+ *
+ * @param id identificador secuencial dentro del servidor
+ * @param protocol transporte
+ * @param remote dirección del emisor
+ * @param format formato de las muestras recibidas
+ */
+public record StreamInfo(long id, StreamProtocol protocol, String remote, StreamFormat format) {
+
+    /**
+     * Nombre corto para logs y nombres de sesión, p. ej. {@code udp-3}.
+     */
+    public String name() {
+        return protocol.name().toLowerCase() + "-" + id;
+    }
+}
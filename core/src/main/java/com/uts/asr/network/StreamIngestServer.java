@@ -0,0 +1,573 @@
+package com.uts.asr.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de ingesta de audio por red con un único hilo selector.
+ * <p>
+ * Atiende a la vez PCM crudo por TCP, datagramas UDP (RTP con jitter buffer o
+ * PCM crudo) y cuerpos HTTP (chunked o no), todos con canales no bloqueantes.
+ * Cada conexión, o cada par emisor/SSRC en UDP, es un stream independiente: el
+ * servidor decodifica su payload al formato del modelo y lo entrega a un
+ * {@link StreamConsumer}. El consumidor no debe bloquear (el reconocimiento
+ * corre en otros hilos).
+ * </p>
+ */
+public final class StreamIngestServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StreamIngestServer.class);
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final long POLL_MS = 10;
+    private static final long STATS_INTERVAL_NANOS = 10_000_000_000L;
+
+    /**
+     * Crea el consumidor de cada stream nuevo.
+     */
+    public interface StreamHandler {
+        StreamConsumer open(StreamInfo info);
+    }
+
+    /**
+     * Destino del PCM de un stream (ya en el formato del modelo).
+     */
+    public interface StreamConsumer {
+        /** PCM 16 bits mono LE; llamado desde el hilo selector, no debe bloquear. */
+        void accept(byte[] pcm);
+
+        /** Fin del stream, con las estadísticas finales. */
+        void close(StreamStats stats);
+
+        /** Chunks descartados por el consumidor (para las estadísticas). */
+        default long overruns() {
+            return 0;
+        }
+
+        /** Estadísticas periódicas mientras el stream está activo. */
+        default void stats(StreamStats stats) {
+            // Por defecto no hace nada
+        }
+    }
+
+    private final NetworkStreamConfig config;
+    private final int targetRate;
+    private final StreamHandler handler;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, Stream> active = new ConcurrentHashMap<>();
+    private final Map<String, UdpStream> udpStreams = new HashMap<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+
+    private Selector selector;
+    private ServerSocketChannel tcpServer;
+    private ServerSocketChannel httpServer;
+    private DatagramChannel udpChannel;
+    private volatile boolean running;
+    private long lastStatsNanos;
+
+    public StreamIngestServer(NetworkStreamConfig config, int targetRate, StreamHandler handler) {
+        this.config = config;
+        this.targetRate = targetRate;
+        this.handler = handler;
+    }
+
+    /**
+     * Abre los puertos configurados. Después de esta llamada los puertos
+     * efímeros ya son conocidos.
+     */
+    public void bind() throws IOException {
+        selector = Selector.open();
+        try {
+            if (config.tcpPort() != NetworkStreamConfig.DISABLED) {
+                tcpServer = openServer(config.tcpPort(), StreamProtocol.TCP);
+            }
+            if (config.httpPort() != NetworkStreamConfig.DISABLED) {
+                httpServer = openServer(config.httpPort(), StreamProtocol.HTTP);
+            }
+            if (config.udpPort() != NetworkStreamConfig.DISABLED) {
+                udpChannel = DatagramChannel.open();
+                udpChannel.bind(new InetSocketAddress(config.bind(), config.udpPort()));
+                udpChannel.configureBlocking(false);
+                udpChannel.register(selector, SelectionKey.OP_READ, StreamProtocol.UDP);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        if (tcpServer == null && httpServer == null && udpChannel == null) {
+            close();
+            throw new IllegalStateException("Ningún puerto de red habilitado (network.tcpPort/udpPort/httpPort)");
+        }
+        running = true;
+        logger.info("Ingesta de red escuchando en {} (TCP {}, UDP {}, HTTP {}), formato {}",
+            config.bind(), tcpPort(), udpPort(), httpPort(), config.format());
+    }
+
+    /**
+     * Bucle del selector; vuelve tras {@link #stop()}. Al salir cierra todos los streams.
+     */
+    public void run() throws IOException {
+        lastStatsNanos = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(POLL_MS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                long now = System.nanoTime();
+                serviceUdp(now);
+                if (now - lastStatsNanos >= STATS_INTERVAL_NANOS) {
+                    lastStatsNanos = now;
+                    for (Stream stream : active.values()) {
+                        stream.consumer.stats(stream.stats());
+                    }
+                }
+            }
+        } finally {
+            for (Stream stream : new ArrayList<>(active.values())) {
+                stream.finish();
+            }
+            close();
+        }
+    }
+
+    /**
+     * Detiene el bucle (desde cualquier hilo).
+     */
+    public void stop() {
+        running = false;
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    /**
+     * Estadísticas de los streams activos.
+     */
+    public List<StreamStats> stats() {
+        List<StreamStats> stats = new ArrayList<>();
+        for (Stream stream : active.values()) {
+            stats.add(stream.stats());
+        }
+        return stats;
+    }
+
+    public int tcpPort() {
+        return localPort(tcpServer);
+    }
+
+    public int udpPort() {
+        try {
+            return udpChannel == null ? NetworkStreamConfig.DISABLED
+                : ((InetSocketAddress) udpChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return NetworkStreamConfig.DISABLED;
+        }
+    }
+
+    public int httpPort() {
+        return localPort(httpServer);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(tcpServer);
+        closeQuietly(httpServer);
+        closeQuietly(udpChannel);
+        closeQuietly(selector);
+    }
+
+    private ServerSocketChannel openServer(int port, StreamProtocol protocol) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(config.bind(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT, protocol);
+        return server;
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept((ServerSocketChannel) key.channel(), (StreamProtocol) key.attachment());
+            } else if (key.attachment() == StreamProtocol.UDP) {
+                receiveDatagrams();
+            } else if (key.isReadable()) {
+                ((Connection) key.attachment()).read();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (key.attachment() instanceof Connection connection) {
+                logger.warn("Conexión {} cerrada por error: {}", connection.remote, e.getMessage());
+                connection.fail(e);
+            } else {
+                logger.error("Error en el selector de red", e);
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel server, StreamProtocol protocol) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            Connection connection = protocol == StreamProtocol.TCP
+                ? new TcpConnection(channel)
+                : new HttpConnection(channel);
+            channel.register(selector, SelectionKey.OP_READ, connection);
+            logger.debug("Conexión {} aceptada desde {}", protocol, connection.remote);
+        }
+    }
+
+    // ---------------------------------------------------------------- UDP
+
+    private void receiveDatagrams() throws IOException {
+        SocketAddress from;
+        readBuffer.clear();
+        while ((from = udpChannel.receive(readBuffer)) != null) {
+            readBuffer.flip();
+            onDatagram(from, readBuffer.array(), readBuffer.limit(), System.nanoTime());
+            readBuffer.clear();
+        }
+    }
+
+    private void onDatagram(SocketAddress from, byte[] data, int length, long now) {
+        if (!config.udpRtp()) {
+            UdpStream stream = udpStreams.computeIfAbsent(from.toString(),
+                k -> new UdpStream(k, from, config.format(), false));
+            stream.onPayload(data, 0, length, now);
+            return;
+        }
+
+        if (length < 12 || ((data[0] >> 6) & 0x03) != 2) {
+            logger.trace("Datagrama no RTP descartado de {}", from);
+            return;
+        }
+        int csrcCount = data[0] & 0x0F;
+        boolean extension = (data[0] & 0x10) != 0;
+        boolean padding = (data[0] & 0x20) != 0;
+        int payloadType = data[1] & 0x7F;
+        int sequence = ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+        long timestamp = ((long) (data[4] & 0xFF) << 24) | ((data[5] & 0xFF) << 16)
+            | ((data[6] & 0xFF) << 8) | (data[7] & 0xFF);
+        long ssrc = ((long) (data[8] & 0xFF) << 24) | ((data[9] & 0xFF) << 16)
+            | ((data[10] & 0xFF) << 8) | (data[11] & 0xFF);
+
+        int offset = 12 + 4 * csrcCount;
+        if (extension && offset + 4 <= length) {
+            int words = ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+            offset += 4 + 4 * words;
+        }
+        int end = padding ? length - (data[length - 1] & 0xFF) : length;
+        if (offset > end) {
+            logger.trace("Paquete RTP mal formado de {}", from);
+            return;
+        }
+
+        String streamKey = from + "/" + Long.toHexString(ssrc);
+        UdpStream stream = udpStreams.computeIfAbsent(streamKey,
+            k -> new UdpStream(k, from, rtpFormat(payloadType), true));
+        byte[] payload = new byte[end - offset];
+        System.arraycopy(data, offset, payload, 0, payload.length);
+        stream.onRtp(sequence, timestamp, payload, now);
+    }
+
+    /**
+     * Formato de los tipos de payload estáticos de RFC 3551; los dinámicos usan
+     * el formato configurado.
+     */
+    private StreamFormat rtpFormat(int payloadType) {
+        return switch (payloadType) {
+            case 0 -> new StreamFormat(StreamEncoding.MULAW, 8000, 1);
+            case 8 -> new StreamFormat(StreamEncoding.ALAW, 8000, 1);
+            case 10 -> new StreamFormat(StreamEncoding.PCM_S16BE, 44100, 2);
+            case 11 -> new StreamFormat(StreamEncoding.PCM_S16BE, 44100, 1);
+            default -> config.format();
+        };
+    }
+
+    private void serviceUdp(long now) {
+        if (udpStreams.isEmpty()) {
+            return;
+        }
+        long idleNanos = config.idleTimeoutMs() * 1_000_000L;
+        Iterator<UdpStream> streams = udpStreams.values().iterator();
+        while (streams.hasNext()) {
+            UdpStream stream = streams.next();
+            stream.drain(now);
+            if (now - stream.lastActivityNanos >= idleNanos) {
+                streams.remove();
+                stream.finish();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- streams
+
+    /**
+     * Estado común de un stream: decodificación, entrega y contadores. Los
+     * contadores solo los escribe el hilo selector.
+     */
+    private abstract class Stream {
+        StreamInfo info;
+        StreamDecoder decoder;
+        StreamConsumer consumer;
+        volatile long packets;
+        volatile long bytes;
+        volatile long deliveredBytes;
+        long lastActivityNanos = System.nanoTime();
+        boolean finished;
+
+        void open(StreamProtocol protocol, String remote, StreamFormat format) {
+            info = new StreamInfo(ids.incrementAndGet(), protocol, remote, format);
+            decoder = new StreamDecoder(format, targetRate);
+            consumer = handler.open(info);
+            active.put(info.id(), this);
+            logger.info("Stream {} abierto desde {} ({})", info.name(), remote, format);
+        }
+
+        void deliver(byte[] pcm) {
+            if (pcm.length > 0) {
+                deliveredBytes += pcm.length;
+                consumer.accept(pcm);
+            }
+        }
+
+        void onPayload(byte[] data, int offset, int length, long now) {
+            packets++;
+            bytes += length;
+            lastActivityNanos = now;
+            deliver(decoder.decode(data, offset, length));
+        }
+
+        StreamStats stats() {
+            return new StreamStats(info, packets, bytes, 0, 0, 0, 0, 0,
+                consumer.overruns(), deliveredBytes / (2.0 * targetRate));
+        }
+
+        void finish() {
+            if (finished || info == null) {
+                return;
+            }
+            finished = true;
+            active.remove(info.id());
+            StreamStats stats = stats();
+            logger.info("Stream cerrado: {}", stats);
+            consumer.close(stats);
+        }
+    }
+
+    private final class UdpStream extends Stream {
+        private final String key;
+        private final JitterBuffer jitter;
+
+        UdpStream(String key, SocketAddress from, StreamFormat format, boolean rtp) {
+            this.key = key;
+            this.jitter = rtp ? new JitterBuffer(format.sampleRate(), config.jitterMs()) : null;
+            open(StreamProtocol.UDP, from.toString(), format);
+        }
+
+        void onRtp(int sequence, long timestamp, byte[] payload, long now) {
+            lastActivityNanos = now;
+            bytes += payload.length;
+            jitter.offer(sequence, timestamp, payload, now);
+            packets = jitter.received();
+            drain(now);
+        }
+
+        void drain(long now) {
+            if (jitter != null) {
+                jitter.drain(now, this::play);
+            }
+        }
+
+        private void play(byte[] payload, int length) {
+            deliver(payload == null ? decoder.silence(length) : decoder.decode(payload, 0, length));
+        }
+
+        @Override
+        StreamStats stats() {
+            if (jitter == null) {
+                return super.stats();
+            }
+            return new StreamStats(info, jitter.received(), bytes, jitter.lost(), jitter.late(),
+                jitter.duplicates(), jitter.concealed(), jitter.jitterMs(), consumer.overruns(),
+                deliveredBytes / (2.0 * targetRate));
+        }
+
+        @Override
+        void finish() {
+            if (jitter != null && !finished) {
+                jitter.flush(this::play);
+            }
+            udpStreams.remove(key);
+            super.finish();
+        }
+    }
+
+    /**
+     * Conexión TCP (cruda o HTTP) registrada en el selector.
+     */
+    private abstract class Connection extends Stream {
+        final SocketChannel channel;
+        final String remote;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            String address;
+            try {
+                address = String.valueOf(channel.getRemoteAddress());
+            } catch (IOException e) {
+                address = "?";
+            }
+            this.remote = address;
+        }
+
+        void read() throws IOException {
+            readBuffer.clear();
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                onEnd();
+                return;
+            }
+            readBuffer.flip();
+            onData(readBuffer);
+        }
+
+        abstract void onData(ByteBuffer data) throws IOException;
+
+        void onEnd() {
+            closeQuietly(channel);
+            finish();
+        }
+
+        void fail(Exception error) {
+            onEnd();
+        }
+    }
+
+    private final class TcpConnection extends Connection {
+        TcpConnection(SocketChannel channel) {
+            super(channel);
+            open(StreamProtocol.TCP, remote, config.format());
+        }
+
+        @Override
+        void onData(ByteBuffer data) {
+            onPayload(data.array(), data.position(), data.remaining(), System.nanoTime());
+        }
+    }
+
+    private final class HttpConnection extends Connection {
+        private final HttpStreamParser parser = new HttpStreamParser();
+
+        HttpConnection(SocketChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void onData(ByteBuffer data) throws IOException {
+            long now = System.nanoTime();
+            HttpStreamParser.State state;
+            try {
+                state = parser.feed(data, (bytes, offset, length) -> {
+                    if (info == null) {
+                        openFromHeaders();
+                    }
+                    onPayload(bytes, offset, length, now);
+                });
+            } catch (IllegalArgumentException e) {
+                respond(400, "Bad Request", "{\"error\":\"" + e.getMessage().replace("\"", "'") + "\"}");
+                return;
+            }
+            if (parser.headersComplete() && info == null) {
+                if (!"POST".equals(parser.method()) && !"PUT".equals(parser.method())) {
+                    respond(405, "Method Not Allowed", "{\"error\":\"use POST o PUT\"}");
+                    return;
+                }
+                openFromHeaders();
+            }
+            if (state == HttpStreamParser.State.DONE) {
+                StreamStats stats = stats();
+                respond(200, "OK", String.format(java.util.Locale.ROOT,
+                    "{\"stream\":\"%s\",\"bytes\":%d,\"seconds\":%.3f}", info.name(), stats.bytes(), stats.seconds()));
+            }
+        }
+
+        @Override
+        void onEnd() {
+            if (info != null && parser.state() != HttpStreamParser.State.BODY_UNTIL_CLOSE
+                    && parser.state() != HttpStreamParser.State.DONE) {
+                logger.warn("Stream {}: cuerpo HTTP incompleto al cerrar la conexión", info.name());
+            }
+            super.onEnd();
+        }
+
+        private void openFromHeaders() {
+            StreamFormat format = config.format();
+            String encoding = parser.queryParameter("encoding");
+            String rate = parser.queryParameter("rate");
+            String channels = parser.queryParameter("channels");
+            format = new StreamFormat(
+                encoding != null ? StreamEncoding.fromId(encoding) : format.encoding(),
+                rate != null ? Integer.parseInt(rate) : format.sampleRate(),
+                channels != null ? Integer.parseInt(channels) : format.channels());
+            open(StreamProtocol.HTTP, remote, format);
+        }
+
+        private void respond(int status, String reason, String body) throws IOException {
+            byte[] content = body.getBytes(StandardCharsets.UTF_8);
+            String head = "HTTP/1.1 " + status + " " + reason + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + content.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+            ByteBuffer response = ByteBuffer.allocate(head.length() + content.length);
+            response.put(head.getBytes(StandardCharsets.US_ASCII)).put(content).flip();
+            // Respuesta pequeña: si el buffer del socket no la admite entera se descarta el resto
+            for (int attempt = 0; attempt < 100 && response.hasRemaining(); attempt++) {
+                if (channel.write(response) == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+            onEnd();
+        }
+    }
+
+    private static int localPort(ServerSocketChannel server) {
+        return server == null ? NetworkStreamConfig.DISABLED : server.socket().getLocalPort();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Error al cerrar {}: {}", closeable, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.uts.asr.network;
+
+/**
+ * Transporte por el que llega un stream.
+ */
+public enum StreamProtocol {
+    /** PCM crudo sobre una conexión TCP. */
+    TCP,
+    /** Datagramas UDP, con o sin cabecera RTP. */
+    UDP,
+    /** Cuerpo de una petición HTTP (chunked, Content-Length o hasta cerrar). */
+    HTTP
+}
@@ -0,0 +1,36 @@
+package com.uts.asr.network;
+
+/**
+ * Estadísticas de recepción de un stream.
+ *
+ * @param info stream al que corresponden
+ * @param packets paquetes (UDP) o lecturas (TCP/HTTP) recibidos
+ * @param bytes bytes de payload recibidos
+ * @param lost paquetes perdidos según RFC 3550 (esperados - recibidos)
+ * @param late paquetes llegados después de su turno de reproducción (descartados)
+ * @param duplicates paquetes duplicados
+ * @param concealed paquetes sustituidos por silencio al vencer el jitter buffer
+ * @param jitterMs jitter entre llegadas según RFC 3550, en ms (0 sin RTP)
+ * @param overruns chunks descartados porque el reconocimiento iba retrasado
+ * @param seconds segundos de audio entregados al reconocimiento
+ */
+public record StreamStats(StreamInfo info, long packets, long bytes, long lost, long late,
+                          long duplicates, long concealed, double jitterMs, long overruns,
+                          double seconds) {
+
+    /**
+     * Fracción de paquetes perdidos sobre los esperados.
+     */
+    public double lossRatio() {
+        long expected = packets + Math.max(0, lost);
+        return expected == 0 ? 0 : (double) Math.max(0, lost) / expected;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: %d paquetes, %d bytes, %.1f s, perdidos %d (%.2f%%), "
+                + "tardíos %d, duplicados %d, ocultados %d, jitter %.2f ms, overruns %d",
+            info.name(), info.remote(), packets, bytes, seconds, lost, 100 * lossRatio(),
+            late, duplicates, concealed, jitterMs, overruns);
+    }
+}
@@ -0,0 +1,70 @@
+package com.uts.asr.network;
+
+import com.uts.asr.strategy.SingleFileStrategy;
+import com.uts.asr.util.Writer;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener que acumula los finales de un stream de red y guarda la
+ * transcripción con {@link Writer} al terminar (sesión = nombre del stream).
+ */
+public class StreamTranscriptCollector implements NetworkStreamListener {
+    private static final Logger logger = LoggerFactory.getLogger(StreamTranscriptCollector.class);
+
+    private final StreamInfo info;
+    private final List<String> finals = new ArrayList<>();
+    private boolean hasText;
+
+    public StreamTranscriptCollector(StreamInfo info) {
+        this.info = info;
+    }
+
+    @Override
+    public void onPartial(String json) {
+        // Solo se guardan los finales
+    }
+
+    @Override
+    public synchronized void onFinal(String json) {
+        finals.add(json);
+        try {
+            String text = new JSONObject(json).optString("text", "").trim();
+            if (!text.isEmpty()) {
+                hasText = true;
+                logger.info("[{}] {}", info.name(), text);
+            }
+        } catch (Exception e) {
+            logger.warn("Final con JSON inválido en {}: {}", info.name(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        logger.error("Error en stream {}", info.name(), error);
+    }
+
+    @Override
+    public void onStats(StreamStats stats) {
+        logger.info("Estadísticas: {}", stats);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        if (!hasText) {
+            logger.info("Stream {} sin texto reconocido, no se guarda", info.name());
+            return;
+        }
+        // Sin esperar al disco: el hilo de decodificación queda libre para otro stream
+        Writer.saveTranscriptionAsync(info.name(), SingleFileStrategy.mergeFinals(finals))
+            .whenComplete((source, error) -> {
+                if (error != null) {
+                    logger.error("No se pudo guardar la transcripción de {}", info.name(), error);
+                }
+            });
+    }
+}
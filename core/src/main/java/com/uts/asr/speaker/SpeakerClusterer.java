@@ -0,0 +1,115 @@
+package com.uts.asr.speaker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Agrupamiento en línea de los embeddings de hablante de una sesión.
+ * <p>
+ * Cada hablante es la suma de los embeddings normalizados que se le han
+ * atribuido (su dirección es el centroide). Un segmento va al hablante con
+ * mayor similitud coseno si llega al umbral; si no, abre uno nuevo hasta el
+ * máximo. Los segmentos cortos dan embeddings poco fiables: se atribuyen al
+ * más parecido sin mover su centroide, y nunca abren un hablante (si aún no
+ * hay ninguno quedan sin etiquetar). No es thread-safe: lo usa el turno de
+ * su sesión en {@link SpeakerStage}.
+ * </p>
+ */
+final class SpeakerClusterer {
+
+    /** Frames (10 ms) por debajo de los cuales el embedding no mueve centroides. */
+    static final int MIN_RELIABLE_FRAMES = 100;
+
+    private final double threshold;
+    private final int maxSpeakers;
+    private final List<double[]> centroids = new ArrayList<>();
+
+    /**
+     * @param threshold similitud coseno mínima (0..1) para atribuir un hablante conocido
+     * @param maxSpeakers hablantes distintos como máximo
+     */
+    SpeakerClusterer(double threshold, int maxSpeakers) {
+        this.threshold = threshold;
+        this.maxSpeakers = maxSpeakers;
+    }
+
+    /**
+     * Atribuye un segmento a un hablante.
+     *
+     * @param embedding embedding del segmento (se normaliza en el sitio)
+     * @param frames frames de los que sale el embedding
+     * @return etiqueta del hablante, desde 1; 0 si el embedding es nulo, o
+     *         si el segmento es corto y aún no hay hablantes
+     */
+    int assign(double[] embedding, int frames) {
+        if (!normalize(embedding)) {
+            return 0;
+        }
+        boolean reliable = frames >= MIN_RELIABLE_FRAMES;
+        int best = -1;
+        double bestSimilarity = -1;
+        for (int i = 0; i < centroids.size(); i++) {
+            double similarity = cosine(embedding, centroids.get(i));
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = i;
+            }
+        }
+
+        if (best < 0) {
+            // Un embedding poco fiable no debe sembrar el primer centroide
+            return reliable ? open(embedding) : 0;
+        }
+        if (reliable && bestSimilarity < threshold && centroids.size() < maxSpeakers) {
+            return open(embedding);
+        }
+        if (reliable) {
+            double[] centroid = centroids.get(best);
+            for (int i = 0; i < centroid.length && i < embedding.length; i++) {
+                centroid[i] += embedding[i];
+            }
+        }
+        return best + 1;
+    }
+
+    /**
+     * Hablantes distintos vistos hasta ahora.
+     */
+    int speakers() {
+        return centroids.size();
+    }
+
+    private int open(double[] embedding) {
+        centroids.add(embedding.clone());
+        return centroids.size();
+    }
+
+    private static boolean normalize(double[] vector) {
+        double norm = 0;
+        for (double value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return false;
+        }
+        double scale = 1 / Math.sqrt(norm);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return true;
+    }
+
+    /**
+     * Similitud coseno con un centroide (el embedding ya está normalizado).
+     */
+    private static double cosine(double[] unit, double[] centroid) {
+        double dot = 0;
+        double norm = 0;
+        int length = Math.min(unit.length, centroid.length);
+        for (int i = 0; i < length; i++) {
+            dot += unit[i] * centroid[i];
+            norm += centroid[i] * centroid[i];
+        }
+        return norm == 0 ? 0 : dot / Math.sqrt(norm);
+    }
+}
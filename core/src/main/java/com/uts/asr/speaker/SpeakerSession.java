@@ -0,0 +1,142 @@
+package com.uts.asr.speaker;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Etiquetado de hablantes de una sesión en {@link SpeakerStage}.
+ * <p>
+ * El hilo de decodificación solo encola finales con {@link #submit(String)};
+ * no espera a que se etiqueten. Cada final sale sin {@code spk} ni
+ * {@code spk_frames} y con {@code speaker} si traía embedding: 1, 2, ..., o 0
+ * si no se pudo atribuir (p. ej. un segmento corto antes del primer hablante). Un
+ * turno lo ejecuta un único hilo a la vez, así que el agrupamiento y la
+ * entrega siguen el orden de llegada.
+ * </p>
+ */
+public final class SpeakerSession {
+    private static final Logger logger = LoggerFactory.getLogger(SpeakerSession.class);
+
+    private final String sessionName;
+    private final SpeakerStage stage;
+    private final SpeakerClusterer clusterer;
+    private final Consumer<String> consumer;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final CompletableFuture<List<String>> done = new CompletableFuture<>();
+    // Solo los toca el turno en curso
+    private final List<String> labeled = new ArrayList<>();
+    private long busyNanos;
+    private volatile boolean finished;
+
+    SpeakerSession(String sessionName, SpeakerStage stage, SpeakerClusterer clusterer, Consumer<String> consumer) {
+        this.sessionName = sessionName;
+        this.stage = stage;
+        this.clusterer = clusterer;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Encola un final para etiquetarlo.
+     *
+     * @throws IllegalStateException si ya se llamó a {@link #finish()}
+     */
+    public void submit(String finalJson) {
+        if (finished) {
+            throw new IllegalStateException("Etiquetado de hablantes ya cerrado: " + sessionName);
+        }
+        pending.add(finalJson);
+        schedule();
+    }
+
+    /**
+     * Cierra la sesión: no admite más finales.
+     *
+     * @return futuro con todos los finales etiquetados, en orden, cuando se
+     *         haya entregado el último
+     */
+    public CompletableFuture<List<String>> finish() {
+        finished = true;
+        schedule();
+        return done;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            stage.schedule(this::turn);
+        }
+    }
+
+    /**
+     * Un turno: etiqueta y entrega hasta {@code speaker.batchSize} finales y
+     * devuelve el hilo; si quedan más, la sesión vuelve a la cola.
+     */
+    private void turn() {
+        long start = System.nanoTime();
+        String json;
+        int count = 0;
+        while (count < stage.batchSize() && (json = pending.poll()) != null) {
+            String result = label(json);
+            labeled.add(result);
+            count++;
+            try {
+                consumer.accept(result);
+            } catch (RuntimeException e) {
+                logger.warn("Error entregando final etiquetado de {}: {}", sessionName, e.getMessage());
+            }
+        }
+        busyNanos += System.nanoTime() - start;
+
+        scheduled.set(false);
+        if (!pending.isEmpty()) {
+            schedule();
+        } else if (finished && scheduled.compareAndSet(false, true)) {
+            // Cerrada y sin pendientes: este turno la completa y no la suelta
+            if (!pending.isEmpty()) {
+                scheduled.set(false);
+                schedule();
+            } else if (!done.isDone()) {
+                logger.info("Hablantes de {}: {} en {} finales ({} ms etiquetando)", sessionName,
+                    clusterer.speakers(), labeled.size(), busyNanos / 1_000_000);
+                done.complete(List.copyOf(labeled));
+            }
+        }
+    }
+
+    /**
+     * Sustituye el embedding del final por la etiqueta de su hablante. Los
+     * finales sin embedding (sin palabras) salen tal cual.
+     */
+    private String label(String json) {
+        try {
+            JSONObject obj = new JSONObject(json);
+            JSONArray spk = obj.optJSONArray("spk");
+            if (spk == null) {
+                return json;
+            }
+            double[] embedding = new double[spk.length()];
+            for (int i = 0; i < embedding.length; i++) {
+                embedding[i] = spk.optDouble(i, 0);
+            }
+            int speaker = clusterer.assign(embedding, obj.optInt("spk_frames", 0));
+            obj.remove("spk");
+            obj.remove("spk_frames");
+            // 0 se conserva: el final sigue en los segmentos aunque no tenga hablante
+            obj.put("speaker", speaker);
+            return obj.toString();
+        } catch (Exception e) {
+            logger.warn("Final con JSON inválido, sin hablante: {}", e.getMessage());
+            return json;
+        }
+    }
+}
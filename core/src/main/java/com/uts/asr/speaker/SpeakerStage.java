@@ -0,0 +1,71 @@
+package com.uts.asr.speaker;
+
+import com.uts.asr.config.AppSettings;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Etapa de etiquetado de hablantes, fuera de los hilos de decodificación.
+ * <p>
+ * El recognizer solo añade el embedding a cada final ({@code spk}); leerlo,
+ * agruparlo con los anteriores de la sesión y reescribir el final con su
+ * {@code speaker} se hace aquí, en {@code speaker.threads} hilos compartidos.
+ * Cada {@link SpeakerSession} se atiende por turnos de hasta
+ * {@code speaker.batchSize} finales: distintas sesiones avanzan en paralelo y
+ * los finales de una misma sesión se etiquetan y entregan en orden.
+ * </p>
+ */
+public final class SpeakerStage {
+
+    private static SpeakerStage shared;
+
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final double threshold;
+    private final int maxSpeakers;
+
+    SpeakerStage(int threads, int batchSize, double threshold, int maxSpeakers) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "speaker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = batchSize;
+        this.threshold = threshold;
+        this.maxSpeakers = maxSpeakers;
+    }
+
+    /**
+     * Etapa compartida, creada con la configuración actual al primer uso.
+     */
+    public static synchronized SpeakerStage shared() {
+        if (shared == null) {
+            AppSettings settings = AppSettings.current();
+            shared = new SpeakerStage(settings.speakerThreads(), settings.speakerBatchSize(),
+                settings.speakerSimilarityPercent() / 100.0, settings.speakerMaxSpeakers());
+        }
+        return shared;
+    }
+
+    /**
+     * Abre el etiquetado de una sesión.
+     *
+     * @param sessionName nombre para el log
+     * @param labeled recibe cada final ya etiquetado, en orden, desde un hilo de la etapa
+     */
+    public SpeakerSession open(String sessionName, Consumer<String> labeled) {
+        return new SpeakerSession(sessionName, this, new SpeakerClusterer(threshold, maxSpeakers), labeled);
+    }
+
+    int batchSize() {
+        return batchSize;
+    }
+
+    void schedule(Runnable turn) {
+        executor.execute(turn);
+    }
+}
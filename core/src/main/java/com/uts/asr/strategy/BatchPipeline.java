@@ -0,0 +1,355 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.util.CancellationToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Transcripción por lotes en tres etapas encadenadas: conversión (ffmpeg),
+ * decodificación y guardado.
+ * <p>
+ * Cada etapa tiene su propio pool de hilos ({@code batch.convertThreads},
+ * {@code batch.decodeThreads}, {@code batch.persistThreads}) y entre etapas
+ * hay colas acotadas de {@code batch.queueDepth} archivos. Mientras un
+ * archivo se decodifica, los siguientes ya se están convirtiendo, así que los
+ * permisos de recognizer no esperan a ffmpeg ni al disco; si una etapa va más
+ * rápida que la siguiente, se bloquea al llenar la cola en vez de acumular
+ * PCM convertido en disco.
+ * </p>
+ * <p>
+ * Cada archivo pasa por las tres etapas aunque falle en una: las siguientes
+ * lo dejan pasar sin trabajo, de modo que cada etapa sabe cuándo ha visto
+ * todos. Al terminar se informa de la utilización de cada etapa.
+ * </p>
+ * <p>
+ * Los hilos de las etapas no terminan por una interrupción: la tratan como
+ * {@link #cancel()} y siguen pasando archivos (ya cancelados) a la etapa
+ * siguiente, que de otro modo se quedaría esperándolos.
+ * </p>
+ */
+public final class BatchPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(BatchPipeline.class);
+
+    private static final String CANCELLED = "lote cancelado";
+
+    // Espera máxima entre comprobaciones de si quedan archivos por llegar a una etapa
+    private static final long POLL_MILLIS = 100;
+
+    private final int convertThreads;
+    private final int decodeThreads;
+    private final int persistThreads;
+    private final int queueDepth;
+    private final CancellationToken batchToken = CancellationToken.create();
+
+    /**
+     * Utilización de una etapa durante el lote.
+     *
+     * @param stage nombre de la etapa
+     * @param threads hilos de la etapa
+     * @param files archivos que la etapa procesó (sin contar los que dejó pasar por un fallo anterior)
+     * @param failed archivos que fallaron en esta etapa
+     * @param busyMs tiempo trabajando, sumado entre hilos
+     * @param blockedMs tiempo esperando sitio en la cola siguiente o un permiso de recognizer
+     * @param utilization fracción de la capacidad de la etapa ({@code threads} × duración) ocupada trabajando
+     */
+    public record StageReport(String stage, int threads, int files, int failed, long busyMs, long blockedMs,
+                              double utilization) {
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %d hilo(s), %d archivo(s), %d fallido(s), ocupada %.0f %% "
+                    + "(%d ms trabajando, %d ms bloqueada)", stage, threads, files, failed,
+                utilization * 100, busyMs, blockedMs);
+        }
+    }
+
+    /**
+     * Resultado del lote.
+     *
+     * @param files archivos del lote
+     * @param completed transcritos y guardados
+     * @param failed con error o cancelados
+     * @param wallMs duración del lote
+     * @param stages utilización de cada etapa, en orden
+     */
+    public record Report(int files, int completed, int failed, long wallMs, List<StageReport> stages) {
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format(
+                "%d archivo(s) en %d ms: %d completado(s), %d fallido(s)", files, wallMs, completed, failed));
+            for (StageReport stage : stages) {
+                text.append(System.lineSeparator()).append("  ").append(stage);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * @param convertThreads conversiones simultáneas
+     * @param decodeThreads decodificaciones simultáneas (cada una con su permiso de recognizer)
+     * @param persistThreads guardados simultáneos
+     * @param queueDepth archivos en espera entre dos etapas
+     */
+    BatchPipeline(int convertThreads, int decodeThreads, int persistThreads, int queueDepth) {
+        this.convertThreads = convertThreads;
+        this.decodeThreads = decodeThreads;
+        this.persistThreads = persistThreads;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Pipeline con los hilos y colas de {@code batch.*}. Con
+     * {@code batch.decodeThreads=0} hay un hilo de decodificación por permiso
+     * de recognizer ({@code workers.maxRecognizers}).
+     */
+    public static BatchPipeline fromSettings() {
+        AppSettings settings = AppSettings.current();
+        int decode = settings.batchDecodeThreads() > 0 ? settings.batchDecodeThreads() : settings.maxRecognizers();
+        return new BatchPipeline(settings.batchConvertThreads(), decode, settings.batchPersistThreads(),
+            settings.batchQueueDepth());
+    }
+
+    /**
+     * Transcribe los archivos y bloquea hasta terminar. Cada archivo se guarda
+     * con su nombre como sesión y tiene su propio plazo
+     * ({@code file.deadlineSeconds}) y checkpoint.
+     *
+     * @param listeners listener de cada archivo (recibe sus finales, errores y {@code onComplete})
+     * @throws InterruptedException si se interrumpe la espera; el lote se
+     *         cancela y los archivos ya encolados terminan en segundo plano
+     */
+    public Report run(List<Path> files, Function<Path, TranscriptionListener> listeners)
+        throws InterruptedException {
+        int total = files.size();
+        AtomicInteger completed = new AtomicInteger();
+
+        Stage persist = new Stage("persist", persistThreads, total, null, job -> {
+            job.persist();
+            completed.incrementAndGet();
+        });
+        Stage decode = new Stage("decode", decodeThreads, total, persist, FileJob::decode);
+        Stage convert = new Stage("convert", convertThreads, total, decode, FileJob::convert);
+        List<Stage> stages = List.of(convert, decode, persist);
+
+        logger.info("Lote de {} archivo(s): {} conversión(es), {} decodificación(es), {} guardado(s) "
+            + "simultáneos, colas de {}", total, convertThreads, decodeThreads, persistThreads, queueDepth);
+        long start = System.nanoTime();
+        for (Stage stage : stages) {
+            stage.start();
+        }
+        int submitted = 0;
+        try {
+            for (Path file : files) {
+                CancellationToken token = CancellationToken.withDeadline(AppSettings.current().fileDeadlineSeconds());
+                TranscriptionListener listener = listeners.apply(file);
+                FileJob job = new FileJob(sessionName(file), file, token, listener);
+                try {
+                    convert.input.put(job);
+                } catch (InterruptedException e) {
+                    token.close();
+                    throw e;
+                }
+                submitted++;
+            }
+            for (Stage stage : stages) {
+                stage.join();
+            }
+        } catch (InterruptedException e) {
+            // Las etapas no esperan a los archivos que no se llegaron a encolar
+            cancel();
+            convert.skip(total - submitted);
+            throw e;
+        }
+
+        long wallNanos = System.nanoTime() - start;
+        List<StageReport> reports = new ArrayList<>();
+        for (Stage stage : stages) {
+            reports.add(stage.report(wallNanos));
+        }
+        Report report = new Report(total, completed.get(), total - completed.get(), wallNanos / 1_000_000,
+            List.copyOf(reports));
+        logger.info("Lote terminado: {}", report);
+        return report;
+    }
+
+    /**
+     * Cancela los archivos en curso (en su siguiente límite de chunk, o
+     * matando ffmpeg) y los que quedan por empezar. Sus checkpoints se
+     * conservan para reanudar.
+     */
+    public void cancel() {
+        batchToken.cancel(CANCELLED);
+    }
+
+    private static String sessionName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /** Trabajo de una etapa sobre un archivo. */
+    @FunctionalInterface
+    private interface StageWork {
+        void run(FileJob job) throws Exception;
+    }
+
+    /** Pool de hilos de una etapa, con sus contadores. */
+    private final class Stage {
+        private final String name;
+        private final int threads;
+        private final BlockingQueue<FileJob> input;
+        private final Stage next;
+        private final StageWork work;
+        private final List<Thread> workers = new ArrayList<>();
+        // Archivos que aún tienen que llegar a esta etapa
+        private final AtomicInteger remaining;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+
+        /**
+         * @param next etapa a la que pasan los archivos, o null en la última
+         */
+        Stage(String name, int threads, int total, Stage next, StageWork work) {
+            this.name = name;
+            this.threads = threads;
+            this.input = new ArrayBlockingQueue<>(queueDepth);
+            this.next = next;
+            this.work = work;
+            this.remaining = new AtomicInteger(total);
+        }
+
+        void start() {
+            for (int i = 1; i <= threads; i++) {
+                Thread worker = new Thread(this::loop, "batch-" + name + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        void join() throws InterruptedException {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        /**
+         * Descuenta archivos que no llegarán a esta etapa ni a las siguientes.
+         */
+        void skip(int files) {
+            for (Stage stage = this; stage != null; stage = stage.next) {
+                stage.remaining.addAndGet(-files);
+            }
+        }
+
+        StageReport report(long wallNanos) {
+            double capacity = (double) threads * wallNanos;
+            return new StageReport(name, threads, processed.get(), failed.get(), busyNanos.get() / 1_000_000,
+                blockedNanos.get() / 1_000_000, capacity > 0 ? busyNanos.get() / capacity : 0);
+        }
+
+        /**
+         * Cada hilo toma archivos hasta que han llegado todos los que esperaba
+         * la etapa; los hilos sobrantes terminan entonces.
+         */
+        private void loop() {
+            FileJob job;
+            while ((job = take()) != null) {
+                process(job);
+                if (next != null) {
+                    forward(job);
+                }
+            }
+        }
+
+        /**
+         * Siguiente archivo de la cola, o null si ya no queda ninguno por
+         * llegar. Espera a plazos porque {@link #skip(int)} puede rebajar la
+         * cuenta mientras tanto.
+         */
+        private FileJob take() {
+            while (remaining.get() > 0) {
+                try {
+                    FileJob job = input.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (job != null) {
+                        remaining.decrementAndGet();
+                        return job;
+                    }
+                } catch (InterruptedException e) {
+                    cancel();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Pasa el archivo a la etapa siguiente. Interrumpido esperando sitio,
+         * cancela el lote y lo vuelve a intentar: la etapa siguiente cuenta con
+         * él y sigue vaciando su cola.
+         */
+        private void forward(FileJob job) {
+            long waitStart = System.nanoTime();
+            try {
+                while (true) {
+                    try {
+                        next.input.put(job);
+                        return;
+                    } catch (InterruptedException e) {
+                        cancel();
+                    }
+                }
+            } finally {
+                blockedNanos.addAndGet(System.nanoTime() - waitStart);
+            }
+        }
+
+        private void process(FileJob job) {
+            if (job.failed()) {
+                return;
+            }
+            CancellationToken.Registration cancelOnBatch = batchToken.onCancel(() -> job.token().cancel(CANCELLED));
+            long start = System.nanoTime();
+            long permitWait = job.permitWaitNanos();
+            try {
+                work.run(job);
+                processed.incrementAndGet();
+                if (next == null) {
+                    job.listener().onComplete();
+                }
+            } catch (Exception e) {
+                processed.incrementAndGet();
+                failed.incrementAndGet();
+                job.fail(e);
+                if (e instanceof InterruptedException) {
+                    // La interrupción no detiene el hilo: el resto del lote se cancela
+                    cancel();
+                }
+            } finally {
+                cancelOnBatch.close();
+                // La espera del permiso no es trabajo de la etapa
+                long waited = job.permitWaitNanos() - permitWait;
+                busyNanos.addAndGet(System.nanoTime() - start - waited);
+                blockedNanos.addAndGet(waited);
+                // Un archivo se limpia en la etapa donde falla, o al guardarse
+                if (next == null || job.failed()) {
+                    job.cleanup();
+                    job.token().close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.uts.asr.strategy;
+
+/**
+ * Marcas de tiempo del chunk que produjo un parcial o un final en vivo.
+ * Los instantes son de {@link System#nanoTime()}; con el momento en que el
+ * listener recibe el evento y el de pintarlo se obtiene el desglose de
+ * {@link LiveLatency}.
+ *
+ * @param captureNanos instante en que se capturó el final del chunk: la lectura
+ *                     menos el audio que seguía en el buffer de captura
+ * @param streamOffsetMs posición del final del chunk en el audio de la sesión, en ms
+ * @param decodedNanos instante en que el recognizer devolvió el resultado
+ */
+public record ChunkStamp(long captureNanos, long streamOffsetMs, long decodedNanos) {
+}
@@ -0,0 +1,339 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.NativeCallWatchdog;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.jfr.TracedRecognizer;
+import com.uts.asr.speaker.SpeakerSession;
+import com.uts.asr.speaker.SpeakerStage;
+import com.uts.asr.util.CancellationToken;
+import com.uts.asr.util.CheckpointStore;
+import com.uts.asr.util.CheckpointStore.Checkpoint;
+import com.uts.asr.util.SoundConverter;
+import com.uts.asr.util.Writer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transcripción de un archivo dividida en etapas: conversión, decodificación
+ * y guardado.
+ * <p>
+ * {@link SingleFileStrategy} ejecuta las tres seguidas en su hilo;
+ * {@link BatchPipeline} las reparte entre pools distintos para que la
+ * conversión del archivo siguiente se solape con la decodificación del
+ * actual. Solo la decodificación ocupa un permiso de recognizer. Cada etapa
+ * se ejecuta en un único hilo a la vez; {@link #cleanup()} va siempre al
+ * final, haya ido bien o no.
+ * </p>
+ * <p>
+ * Con {@code speaker.modelPath} los finales pasan por {@link SpeakerStage}
+ * antes de llegar al listener: la decodificación solo los encola y el
+ * guardado espera a que estén todos etiquetados.
+ * </p>
+ */
+final class FileJob {
+    private static final Logger logger = LoggerFactory.getLogger(FileJob.class);
+
+    private final String sessionName;
+    private final Path audioFile;
+    private final CancellationToken token;
+    private final TranscriptionListener listener;
+    // El permiso lo suelta una sola vez quien llegue antes: el hilo de la etapa o la cuarentena
+    private final AtomicBoolean permitHeld = new AtomicBoolean();
+    private final AtomicBoolean quarantined = new AtomicBoolean();
+
+    private Checkpoint checkpoint;
+    private Path convertedFile;
+    private String transcript;
+    private SpeakerSession speakers;
+    private CompletableFuture<List<String>> labeledFinals;
+    private boolean completed;
+    private boolean failed;
+    private long permitWaitNanos;
+
+    FileJob(String sessionName, Path audioFile, CancellationToken token, TranscriptionListener listener) {
+        this.sessionName = sessionName;
+        this.audioFile = audioFile;
+        this.token = token;
+        this.listener = listener;
+    }
+
+    /**
+     * Etapa 1: reanuda desde el checkpoint si existe (reentregando sus
+     * finales al listener) o convierte el audio a PCM. No ocupa permiso: un
+     * ffmpeg lento no retiene capacidad de reconocimiento.
+     */
+    void convert() throws IOException {
+        token.throwIfCancelled();
+        if (!Files.exists(audioFile)) {
+            throw new IllegalArgumentException("Archivo de audio no existe: " + audioFile);
+        }
+        checkpoint = CheckpointStore.load(audioFile);
+        if (AppSettings.current().speakerEnabled()) {
+            speakers = SpeakerStage.shared().open(sessionName, listener::onFinal);
+        }
+        if (checkpoint != null) {
+            convertedFile = checkpoint.convertedFile();
+            logger.info("Reanudando desde offset {} (conversión reutilizada)", checkpoint.offset());
+            // Con hablantes se reetiquetan: los de después se agrupan con ellos
+            for (String restored : checkpoint.finals()) {
+                deliverFinal(restored, restored);
+            }
+        } else {
+            convertedFile = SoundConverter.convertToPCM(audioFile, token);
+            logger.info("Audio convertido: {}", convertedFile);
+            checkpoint = CheckpointStore.save(CheckpointStore.begin(audioFile, convertedFile));
+        }
+    }
+
+    /**
+     * Etapa 2: decodifica el PCM con un recognizer nuevo (también al
+     * reanudar). El recognizer y el permiso se liberan al terminar, sin
+     * esperar al guardado.
+     */
+    void decode() throws Exception {
+        long waitStart = System.nanoTime();
+        WorkerFactory.acquireRecognizerPermit(token);
+        permitHeld.set(true);
+        permitWaitNanos = System.nanoTime() - waitStart;
+        SpeechRecognizer recognizer = null;
+        try {
+            token.throwIfCancelled();
+            Path converted = convertedFile;
+            recognizer = NativeCallWatchdog.shared().watch(sessionName,
+                TracedRecognizer.trace(sessionName, WorkerFactory.createRecognizer(speakers != null)),
+                () -> quarantine(converted));
+
+            List<String> finals = new ArrayList<>(checkpoint.finals());
+            // Un recognizer nuevo cuenta el tiempo desde el offset reanudado
+            double resumeSeconds = checkpoint.offset() / (2.0 * AppSettings.current().sampleRate());
+
+            // Procesar archivo en chunks
+            try (FileInputStream fis = new FileInputStream(convertedFile.toFile())) {
+                fis.getChannel().position(checkpoint.offset());
+                InputStream ais = new BufferedInputStream(fis);
+                byte[] buffer = new byte[AppSettings.current().chunkSizeFile()];
+                int bytesRead;
+                long offset = checkpoint.offset();
+                long lastCheckpoint = offset;
+                int checkpointInterval = AppSettings.current().checkpointIntervalBytes();
+                PartialResultPolicy partials = PartialResultPolicy.forFile();
+
+                while ((bytesRead = ais.read(buffer)) != -1) {
+                    offset += bytesRead;
+
+                    boolean isFinal = recognizer.acceptWaveForm(buffer, bytesRead);
+                    // Límite de chunk: cancelación, plazo o cuarentena
+                    token.throwIfCancelled();
+                    if (isFinal) {
+                        String result = recognizer.getResult();
+                        partials.segmentClosed();
+                        String shifted = shiftTimes(result, resumeSeconds);
+                        finals.add(shifted);
+                        deliverFinal(result, shifted);
+                        logger.debug("Final chunk: {}", result);
+
+                        // Checkpoint periódico tras un final (estado consistente)
+                        if (offset - lastCheckpoint >= checkpointInterval) {
+                            // Solo los finales nuevos van al log del checkpoint
+                            checkpoint = CheckpointStore.save(checkpoint.advance(offset, finals));
+                            lastCheckpoint = offset;
+                        }
+                    } else {
+                        String partial = partials.poll(recognizer);
+                        if (partial != null) {
+                            listener.onPartial(partial);
+                            logger.trace("Partial chunk: {}", partial);
+                        }
+                    }
+                }
+
+                logger.info("Procesados {} bytes de audio", offset);
+            }
+
+            // Obtener resultado final
+            String finalResult = recognizer.getFinalResult();
+            token.throwIfCancelled();
+            String shifted = shiftTimes(finalResult, resumeSeconds);
+            finals.add(shifted);
+            deliverFinal(finalResult, shifted);
+            if (speakers != null) {
+                // El etiquetado termina en su etapa; el permiso se suelta ya
+                labeledFinals = speakers.finish();
+            } else {
+                transcript = SingleFileStrategy.mergeFinals(finals);
+            }
+            logger.info("Transcripción completada");
+        } finally {
+            if (recognizer != null) {
+                try {
+                    recognizer.close();
+                } catch (Exception e) {
+                    logger.error("Error al cerrar recognizer", e);
+                }
+            }
+            releasePermit();
+        }
+    }
+
+    /**
+     * Etapa 3: guarda la transcripción (todos los finales, incluidos los
+     * reanudados) y borra el checkpoint. Con hablantes espera antes a que la
+     * etapa de etiquetado entregue el último final.
+     */
+    void persist() throws IOException {
+        if (labeledFinals != null) {
+            transcript = SingleFileStrategy.mergeFinals(labeledFinals.join());
+        }
+        Writer.saveTranscription(sessionName, transcript);
+        completed = true;
+        CheckpointStore.delete(audioFile);
+    }
+
+    /**
+     * Avisa al listener de un fallo en cualquier etapa, salvo que la
+     * cuarentena ya lo hiciera cuando la llamada se colgó.
+     */
+    void fail(Exception e) {
+        failed = true;
+        if (e instanceof CancellationException) {
+            if (quarantined.get()) {
+                logger.warn("Llamada colgada de {} volvió tras la cuarentena; sesión descartada", audioFile);
+            } else {
+                logger.info("Transcripción de {} cancelada: {}", audioFile, e.getMessage());
+                listener.onError(e);
+            }
+            return;
+        }
+        logger.error("Error durante transcripción de archivo {}", audioFile, e);
+        if (!quarantined.get()) {
+            listener.onError(e);
+        }
+    }
+
+    /**
+     * Elimina el archivo convertido, salvo que un checkpoint lo necesite para
+     * reanudar, y suelta el permiso si algo quedó a medias.
+     */
+    void cleanup() {
+        boolean resumable = !completed && !quarantined.get() && CheckpointStore.exists(audioFile);
+        if (convertedFile != null && !convertedFile.equals(audioFile) && !resumable) {
+            deleteConverted(convertedFile);
+        }
+        releasePermit();
+    }
+
+    Path audioFile() {
+        return audioFile;
+    }
+
+    CancellationToken token() {
+        return token;
+    }
+
+    TranscriptionListener listener() {
+        return listener;
+    }
+
+    /**
+     * Si alguna etapa falló (las siguientes no deben hacer nada).
+     */
+    boolean failed() {
+        return failed;
+    }
+
+    /**
+     * Tiempo esperando el permiso de recognizer en la etapa de decodificación.
+     */
+    long permitWaitNanos() {
+        return permitWaitNanos;
+    }
+
+    /**
+     * Entrega un final al listener o, con hablantes, lo encola para etiquetarlo.
+     *
+     * @param raw final tal como lo devolvió el recognizer
+     * @param shifted el mismo con los tiempos relativos al inicio del archivo
+     */
+    private void deliverFinal(String raw, String shifted) {
+        if (speakers != null) {
+            speakers.submit(shifted);
+        } else {
+            listener.onFinal(raw);
+        }
+    }
+
+    private void releasePermit() {
+        if (permitHeld.compareAndSet(true, false)) {
+            WorkerFactory.releaseRecognizerPermit();
+        }
+    }
+
+    /**
+     * Cuarentena de una sesión cuya llamada al recognizer no vuelve (hilo del
+     * watchdog). Libera lo que el hilo colgado no puede liberar y descarta el
+     * checkpoint: reanudar volvería a colgarse en el mismo audio.
+     */
+    private void quarantine(Path converted) {
+        quarantined.set(true);
+        token.cancel("recognizer colgado en " + audioFile);
+        releasePermit();
+        CheckpointStore.delete(audioFile);
+        if (!converted.equals(audioFile)) {
+            deleteConverted(converted);
+        }
+        listener.onError(new TimeoutException("El recognizer no responde; transcripción de "
+            + audioFile + " abandonada"));
+    }
+
+    private static void deleteConverted(Path convertedFile) {
+        try {
+            Files.deleteIfExists(convertedFile);
+            logger.debug("Archivo temporal eliminado: {}", convertedFile);
+        } catch (Exception e) {
+            logger.warn("No se pudo eliminar archivo temporal", e);
+        }
+    }
+
+    /**
+     * Desplaza los tiempos de palabra de un final para que sean relativos al
+     * inicio del archivo y no al recognizer creado al reanudar.
+     */
+    private static String shiftTimes(String json, double offsetSeconds) {
+        if (offsetSeconds <= 0) {
+            return json;
+        }
+        try {
+            JSONObject obj = new JSONObject(json);
+            JSONArray result = obj.optJSONArray("result");
+            if (result == null) {
+                return json;
+            }
+            for (int i = 0; i < result.length(); i++) {
+                JSONObject word = result.getJSONObject(i);
+                word.put("start", word.optDouble("start", 0) + offsetSeconds);
+                word.put("end", word.optDouble("end", 0) + offsetSeconds);
+            }
+            return obj.toString();
+        } catch (Exception e) {
+            logger.warn("Final con JSON inválido, tiempos sin ajustar: {}", e.getMessage());
+            return json;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppConfig;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.WriterFormat;
+import com.uts.asr.core.NativeCallWatchdog;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.jfr.TracedRecognizer;
+import com.uts.asr.util.CancellationToken;
+import com.uts.asr.util.Writer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Estrategia para transcribir una grabación mientras se sigue escribiendo
+ * (modo seguimiento, como {@code tail -f}).
+ * <p>
+ * Un único recognizer recibe el audio a medida que se añade al archivo (ver
+ * {@link GrowingAudioFile}), así que los finales llegan al listener con unos
+ * segundos de retraso sobre la grabación. Termina cuando aparece el centinela
+ * (el nombre del archivo más {@code follow.sentinelSuffix}, p. ej.
+ * {@code grabacion.wav.done}), cuando el archivo pasa
+ * {@code follow.idleSeconds} sin crecer o al cancelarla; en los tres casos se
+ * guarda lo transcrito. Cada {@code follow.saveIntervalSeconds} se guarda
+ * además la transcripción en curso, sustituyendo a la anterior; con
+ * {@code writer.format=archive} no, porque cada sustitución añadiría una
+ * entrada con una copia más larga.
+ * </p>
+ * <p>
+ * Ocupa un permiso de recognizer mientras dura. No usa checkpoints: al
+ * reiniciarla vuelve a transcribir desde el principio, al ritmo de la CPU
+ * hasta alcanzar la grabación.
+ * </p>
+ */
+public class FollowFileStrategy implements TranscriptionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(FollowFileStrategy.class);
+
+    private static final String CANCELLED_BY_USER = "cancelada por el usuario";
+
+    private final String sessionName;
+    private final CancellationToken token = CancellationToken.create();
+    private final AtomicBoolean permitHeld = new AtomicBoolean();
+    private final AtomicBoolean quarantined = new AtomicBoolean();
+
+    public FollowFileStrategy(String sessionName) {
+        this.sessionName = sessionName != null ? sessionName : AppConfig.DEFAULT_SESSION_NAME;
+    }
+
+    @Override
+    public void execute(Path audioFile, TranscriptionListener listener) throws Exception {
+        if (audioFile == null || !Files.exists(audioFile)) {
+            throw new IllegalArgumentException("Archivo de audio no existe: " + audioFile);
+        }
+        AppSettings settings = AppSettings.current();
+        Path sentinel = audioFile.resolveSibling(audioFile.getFileName() + settings.followSentinelSuffix());
+        logger.info("Siguiendo {} (termina con {} o tras {} s sin crecer)", audioFile,
+            sentinel.getFileName(), settings.followIdleSeconds());
+
+        int sampleRate = Math.round(settings.sampleRate());
+        SpeechRecognizer recognizer = null;
+        try (GrowingAudioFile source = new GrowingAudioFile(audioFile, sentinel, sampleRate,
+                TimeUnit.SECONDS.toMillis(settings.followIdleSeconds()), settings.followPollMs(), token)) {
+            WorkerFactory.acquireRecognizerPermit(token);
+            permitHeld.set(true);
+            recognizer = NativeCallWatchdog.shared().watch(sessionName,
+                TracedRecognizer.trace(sessionName, WorkerFactory.createRecognizer()),
+                () -> quarantine(audioFile, listener));
+
+            List<String> finals = new ArrayList<>();
+            PartialResultPolicy partials = PartialResultPolicy.forLive();
+            byte[] buffer = new byte[settings.chunkSizeFile()];
+            long saveIntervalNanos = settings.writerFormat() == WriterFormat.ARCHIVE
+                ? 0 : TimeUnit.SECONDS.toNanos(settings.followSaveIntervalSeconds());
+            long lastSave = System.nanoTime();
+            long audioBytes = 0;
+            int savedFinals = 0;
+            CompletableFuture<String> saved = null;
+            int bytesRead;
+
+            while ((bytesRead = source.read(buffer)) >= 0) {
+                if (bytesRead == 0) {
+                    continue;
+                }
+                audioBytes += bytesRead;
+                if (recognizer.acceptWaveForm(buffer, bytesRead)) {
+                    String result = recognizer.getResult();
+                    partials.segmentClosed();
+                    finals.add(result);
+                    listener.onFinal(result);
+                    logger.debug("Final: {}", result);
+
+                    if (saveIntervalNanos > 0 && System.nanoTime() - lastSave >= saveIntervalNanos
+                            && finals.size() > savedFinals) {
+                        saved = save(saved, finals);
+                        savedFinals = finals.size();
+                        lastSave = System.nanoTime();
+                        logger.info("Seguimiento de {}: {} s transcritos, {} KB por leer", audioFile.getFileName(),
+                            audioBytes / (2L * sampleRate), source.pendingBytes() / 1024);
+                    }
+                } else {
+                    String partial = partials.poll(recognizer);
+                    if (partial != null) {
+                        listener.onPartial(partial);
+                    }
+                }
+            }
+            if (quarantined.get()) {
+                throw new CancellationException(token.reason());
+            }
+
+            String finalResult = recognizer.getFinalResult();
+            finals.add(finalResult);
+            listener.onFinal(finalResult);
+            // El guardado no necesita el recognizer ni su permiso
+            closeRecognizer(recognizer);
+            recognizer = null;
+            releasePermit();
+
+            Writer.await(save(saved, finals));
+            logger.info("Seguimiento de {} terminado ({}): {} s de audio transcritos", audioFile,
+                source.end(), audioBytes / (2L * sampleRate));
+            listener.onComplete();
+
+        } catch (Exception e) {
+            if (!quarantined.get()) {
+                logger.error("Error siguiendo {}", audioFile, e);
+                listener.onError(e);
+            }
+            throw e;
+
+        } finally {
+            if (recognizer != null) {
+                closeRecognizer(recognizer);
+            }
+            releasePermit();
+            token.close();
+        }
+    }
+
+    /**
+     * Guarda la transcripción en curso; a partir del segundo guardado
+     * sustituye al anterior en vez de crear otro.
+     */
+    private CompletableFuture<String> save(CompletableFuture<String> previous, List<String> finals) {
+        String transcript = SingleFileStrategy.mergeFinals(finals);
+        if (previous == null) {
+            return Writer.saveTranscriptionAsync(sessionName, transcript);
+        }
+        return previous.handle((source, error) -> source == null
+                ? Writer.saveTranscriptionAsync(sessionName, transcript)
+                : Writer.replaceTranscriptionAsync(source, sessionName, transcript))
+            .thenCompose(next -> next);
+    }
+
+    @Override
+    public boolean isCancellable() {
+        return true;
+    }
+
+    /**
+     * Deja de seguir el archivo en la siguiente comprobación y guarda lo
+     * transcrito hasta ese momento.
+     */
+    @Override
+    public void cancel() {
+        token.cancel(CANCELLED_BY_USER);
+    }
+
+    private static void closeRecognizer(SpeechRecognizer recognizer) {
+        try {
+            recognizer.close();
+        } catch (Exception e) {
+            logger.error("Error al cerrar recognizer", e);
+        }
+    }
+
+    private void releasePermit() {
+        if (permitHeld.compareAndSet(true, false)) {
+            WorkerFactory.releaseRecognizerPermit();
+        }
+    }
+
+    /**
+     * El recognizer no responde (hilo del watchdog): se suelta el permiso y se
+     * abandona el seguimiento sin guardar.
+     */
+    private void quarantine(Path audioFile, TranscriptionListener listener) {
+        quarantined.set(true);
+        token.cancel("recognizer colgado siguiendo " + audioFile);
+        releasePermit();
+        listener.onError(new TimeoutException("El recognizer no responde; seguimiento de "
+            + audioFile + " abandonado"));
+    }
+}
@@ -0,0 +1,289 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.util.CancellationToken;
+import com.uts.asr.util.PolyphaseResampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de un WAV o PCM que otro proceso sigue escribiendo.
+ * <p>
+ * Lee con un {@link FileChannel} desde la última posición hasta el tamaño
+ * actual y, cuando no hay nada nuevo, espera un evento de
+ * {@link WatchService} en la carpeta o, como mucho, {@code pollMillis} (hay
+ * sistemas de archivos que no avisan). La grabación termina cuando aparece el
+ * centinela, cuando el archivo pasa {@code idleMillis} sin crecer, cuando se
+ * trunca o cuando se cancela el token.
+ * </p>
+ * <p>
+ * Un WAV debe ser PCM de 16 bits; del encabezado solo se usan el formato y el
+ * inicio de los datos (los grabadores suelen dejar los tamaños a 0 hasta
+ * cerrar). Si la tasa o los canales no son los del modelo se convierte con
+ * {@link PolyphaseResampler}. Cualquier otro archivo se toma como PCM crudo
+ * en el formato del modelo.
+ * </p>
+ */
+final class GrowingAudioFile implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GrowingAudioFile.class);
+
+    /** Cómo terminó la grabación. */
+    enum End { SENTINEL, IDLE, TRUNCATED, CANCELLED }
+
+    /** Encabezado WAV más largo que se espera a tener completo. */
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private final Path file;
+    private final Path sentinel;
+    private final int targetRate;
+    private final long idleNanos;
+    private final long pollMillis;
+    private final CancellationToken token;
+    private final FileChannel channel;
+    private final WatchService watcher;
+
+    private PolyphaseResampler resampler; // null = formato del modelo
+    private int frameBytes = 2;
+    private long position = -1;           // -1 = encabezado pendiente
+    private long lastGrowthNanos;
+    private byte[] nativeBuffer = new byte[0];
+    private End end;
+
+    /**
+     * @param file archivo que se está grabando
+     * @param sentinel archivo cuya aparición marca el fin de la grabación
+     * @param targetRate tasa del modelo (salida PCM 16 bits mono)
+     * @param idleMillis tiempo sin crecer que da la grabación por terminada
+     * @param pollMillis espera máxima entre comprobaciones del tamaño
+     */
+    GrowingAudioFile(Path file, Path sentinel, int targetRate, long idleMillis, long pollMillis,
+                     CancellationToken token) throws IOException {
+        this.file = file;
+        this.sentinel = sentinel;
+        this.targetRate = targetRate;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.pollMillis = pollMillis;
+        this.token = token;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.watcher = watch(file.toAbsolutePath().getParent());
+        this.lastGrowthNanos = System.nanoTime();
+    }
+
+    /**
+     * Lee el audio nuevo, convertido al formato del modelo. Bloquea hasta que
+     * el archivo crece o la grabación termina.
+     *
+     * @param out destino (PCM 16 bits mono)
+     * @return bytes escritos en {@code out}, o -1 si la grabación terminó (ver {@link #end()})
+     */
+    int read(byte[] out) throws IOException, InterruptedException {
+        while (true) {
+            if (token.isCancelled()) {
+                return finish(End.CANCELLED);
+            }
+            long size = channel.size();
+            if (position < 0 && !readHeader(size)) {
+                if (ended(size)) {
+                    throw new IOException("Encabezado WAV incompleto en " + file);
+                }
+                awaitChange();
+                continue;
+            }
+            if (size < position) {
+                logger.warn("{} se truncó ({} < {} bytes); fin del seguimiento", file, size, position);
+                return finish(End.TRUNCATED);
+            }
+            long available = (size - position) / frameBytes * frameBytes;
+            if (available > 0) {
+                lastGrowthNanos = System.nanoTime();
+                return convert(available, out);
+            }
+            if (ended(size)) {
+                return -1;
+            }
+            awaitChange();
+        }
+    }
+
+    /**
+     * Cómo terminó la grabación, o null si sigue.
+     */
+    End end() {
+        return end;
+    }
+
+    /**
+     * Bytes de audio (en el formato del archivo) escritos y aún sin leer.
+     */
+    long pendingBytes() throws IOException {
+        return position < 0 ? 0 : Math.max(0, channel.size() - position);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error al cerrar {}: {}", file, e.getMessage());
+        }
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                logger.debug("Error al cerrar el WatchService: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sin audio nuevo: termina si ya está el centinela o si lleva demasiado
+     * sin crecer. El centinela se comprueba antes de volver a mirar el tamaño,
+     * así que lo escrito antes de crearlo se lee entero.
+     */
+    private boolean ended(long sizeBefore) throws IOException {
+        if (Files.exists(sentinel)) {
+            if (channel.size() != sizeBefore) {
+                return false;
+            }
+            logger.info("Centinela {} encontrado; fin del seguimiento", sentinel.getFileName());
+            finish(End.SENTINEL);
+            return true;
+        }
+        if (System.nanoTime() - lastGrowthNanos >= idleNanos) {
+            logger.info("{} lleva {} s sin crecer; fin del seguimiento", file.getFileName(),
+                TimeUnit.NANOSECONDS.toSeconds(idleNanos));
+            finish(End.IDLE);
+            return true;
+        }
+        return false;
+    }
+
+    private int finish(End reason) {
+        end = reason;
+        return -1;
+    }
+
+    private int convert(long available, byte[] out) throws IOException {
+        int wanted = resampler == null ? out.length : resampler.inputBytesFor(out.length);
+        int length = (int) Math.min(available, wanted / frameBytes * frameBytes);
+        byte[] target = resampler == null ? out : nativeBuffer(length);
+        ByteBuffer buffer = ByteBuffer.wrap(target, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        int read = buffer.position() / frameBytes * frameBytes;
+        position += read;
+        return resampler == null ? read : resampler.process(target, read, out, 0);
+    }
+
+    private byte[] nativeBuffer(int length) {
+        if (nativeBuffer.length < length) {
+            nativeBuffer = new byte[length];
+        }
+        return nativeBuffer;
+    }
+
+    /**
+     * Lee el encabezado si ya está escrito.
+     *
+     * @return false si aún faltan bytes del encabezado
+     */
+    private boolean readHeader(long size) throws IOException {
+        if (size < 12) {
+            return false;
+        }
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(size, MAX_HEADER_BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(head, 0);
+        head.flip();
+        if (head.getInt(0) != 0x46464952 || head.getInt(8) != 0x45564157) { // "RIFF" ... "WAVE"
+            position = 0;
+            logger.info("Siguiendo {} como PCM crudo a {} Hz mono", file.getFileName(), targetRate);
+            return true;
+        }
+
+        int channels = 0;
+        int rate = 0;
+        int offset = 12;
+        while (offset + 8 <= head.limit()) {
+            int id = head.getInt(offset);
+            long chunkSize = head.getInt(offset + 4) & 0xFFFFFFFFL;
+            if (id == 0x20746d66) { // "fmt "
+                if (offset + 24 > head.limit()) {
+                    return false;
+                }
+                int format = head.getShort(offset + 8) & 0xFFFF;
+                channels = head.getShort(offset + 10);
+                rate = head.getInt(offset + 12);
+                int bits = head.getShort(offset + 22);
+                if ((format != 1 && format != 0xFFFE) || bits != 16 || channels < 1) {
+                    throw new IOException(file + ": solo se siguen WAV PCM de 16 bits (formato "
+                        + format + ", " + bits + " bits)");
+                }
+            } else if (id == 0x61746164) { // "data"
+                if (channels == 0) {
+                    throw new IOException(file + ": bloque data antes que fmt");
+                }
+                position = offset + 8;
+                frameBytes = 2 * channels;
+                if (rate != targetRate || channels != 1) {
+                    resampler = new PolyphaseResampler(rate, targetRate, channels, false);
+                }
+                logger.info("Siguiendo {}: WAV {} Hz, {} canal(es)", file.getFileName(), rate, channels);
+                return true;
+            }
+            offset += 8 + (int) (chunkSize + (chunkSize & 1));
+        }
+        if (head.limit() >= MAX_HEADER_BYTES) {
+            throw new IOException(file + ": encabezado WAV sin bloque data");
+        }
+        return false;
+    }
+
+    /**
+     * Espera un cambio en la carpeta o, como mucho, el intervalo de sondeo.
+     */
+    private void awaitChange() throws InterruptedException {
+        if (watcher == null) {
+            Thread.sleep(pollMillis);
+            return;
+        }
+        WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+        if (key != null) {
+            // Cualquier cambio en la carpeta basta para volver a mirar el tamaño
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    private static WatchService watch(Path directory) {
+        WatchService watcher = null;
+        try {
+            watcher = directory.getFileSystem().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.info("Sin WatchService en {} ({}); solo sondeo", directory, e.getMessage());
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException ignored) {
+                    // No llegó a vigilar nada
+                }
+            }
+            return null;
+        }
+    }
+}
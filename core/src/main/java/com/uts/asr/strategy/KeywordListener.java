@@ -0,0 +1,23 @@
+package com.uts.asr.strategy;
+
+/**
+ * Listener para el modo de comandos/palabras clave.
+ * Además de los eventos normales recibe coincidencias estructuradas.
+ */
+public interface KeywordListener extends TranscriptionListener {
+
+    /**
+     * Llamado por cada frase de la lista detectada con confianza suficiente.
+     *
+     * @param match la coincidencia detectada
+     */
+    void onMatch(KeywordMatch match);
+
+    /**
+     * Los parciales no se calculan en modo palabras clave.
+     */
+    @Override
+    default void onPartial(String json) {
+        // Por defecto no hace nada
+    }
+}
@@ -0,0 +1,12 @@
+package com.uts.asr.strategy;
+
+/**
+ * Coincidencia de una frase de comando o palabra clave.
+ *
+ * @param phrase frase reconocida (tal como aparece en la gramática)
+ * @param confidence confianza media de las palabras (0..1)
+ * @param startSeconds inicio en el audio, en segundos
+ * @param endSeconds fin en el audio, en segundos
+ */
+public record KeywordMatch(String phrase, double confidence, double startSeconds, double endSeconds) {
+}
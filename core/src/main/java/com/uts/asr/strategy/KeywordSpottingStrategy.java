@@ -0,0 +1,215 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.AudioCapture;
+import com.uts.asr.core.AudioDeviceManager;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.EngineRecognizer;
+import com.uts.asr.util.CancellationToken;
+import com.uts.asr.util.SoundConverter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Estrategia de comandos y detección de palabras clave.
+ * <p>
+ * Usa recognizers restringidos a una gramática (lista de frases), mucho más
+ * baratos que el dictado completo, por lo que un mismo host puede mantener
+ * muchos más streams siempre activos. Con {@code audioFile == null} escucha el
+ * micrófono; en otro caso procesa el archivo.
+ * </p>
+ */
+public class KeywordSpottingStrategy implements TranscriptionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(KeywordSpottingStrategy.class);
+
+    private final String grammar;
+    private final List<String[]> phrases = new ArrayList<>();
+    private final double minConfidence;
+
+    // Se crea con la estrategia: una cancelación previa a execute() no se pierde
+    private final CancellationToken token = CancellationToken.create();
+    private final AtomicBoolean permitHeld = new AtomicBoolean();
+    private volatile AudioCapture line;
+
+    /**
+     * @param phrases frases de comando o palabras clave a detectar
+     * @param minConfidence confianza mínima (0..1) para emitir una coincidencia
+     */
+    public KeywordSpottingStrategy(Collection<String> phrases, double minConfidence) {
+        this.grammar = WorkerFactory.buildGrammar(phrases);
+        this.minConfidence = minConfidence;
+        JSONArray normalized = new JSONArray(grammar);
+        for (int i = 0; i < normalized.length(); i++) {
+            String phrase = normalized.getString(i);
+            if (!"[unk]".equals(phrase)) {
+                this.phrases.add(phrase.split(" "));
+            }
+        }
+    }
+
+    @Override
+    public void execute(Path audioFile, TranscriptionListener listener) throws Exception {
+        EngineRecognizer recognizer = null;
+        Path convertedFile = null;
+        boolean failed = true;
+
+        try {
+            WorkerFactory.acquireGrammarPermit(token);
+            permitHeld.set(true);
+            recognizer = WorkerFactory.createGrammarRecognizer(grammar);
+
+            if (audioFile == null) {
+                line = AudioDeviceManager.openCapture(AppSettings.current().sampleRate());
+                logger.info("Detección de palabras clave en micrófono ({} frases)", phrases.size());
+                byte[] buffer = new byte[AppSettings.current().chunkSizeLive()];
+                // Una cancelación anterior a abrir la captura se ve aquí, en el token
+                while (!token.isCancelled() && !Thread.currentThread().isInterrupted()) {
+                    int bytesRead = line.read(buffer, 0, buffer.length);
+                    if (bytesRead > 0 && recognizer.acceptWaveForm(buffer, bytesRead)) {
+                        emit(recognizer.getResult(), listener);
+                    }
+                }
+            } else {
+                if (!Files.exists(audioFile)) {
+                    throw new IllegalArgumentException("Archivo de audio no existe: " + audioFile);
+                }
+                convertedFile = SoundConverter.convertToPCM(audioFile, token);
+                logger.info("Detección de palabras clave en archivo: {}", audioFile);
+                try (InputStream in = new BufferedInputStream(new FileInputStream(convertedFile.toFile()))) {
+                    byte[] buffer = new byte[AppSettings.current().chunkSizeFile()];
+                    int bytesRead;
+                    while (!token.isCancelled() && (bytesRead = in.read(buffer)) != -1) {
+                        if (recognizer.acceptWaveForm(buffer, bytesRead)) {
+                            emit(recognizer.getResult(), listener);
+                        }
+                    }
+                }
+            }
+
+            emit(recognizer.getFinalResult(), listener);
+            failed = false;
+            listener.onComplete();
+
+        } catch (CancellationException e) {
+            // Cancelada antes de empezar a escuchar (esperando permiso o convirtiendo)
+            logger.info("Detección de palabras clave cancelada: {}", e.getMessage());
+            failed = false;
+            listener.onComplete();
+
+        } catch (Exception e) {
+            logger.error("Error en detección de palabras clave", e);
+            listener.onError(e);
+            throw e;
+
+        } finally {
+            if (recognizer != null) {
+                if (failed) {
+                    // A medio segmento: no se devuelve al caché
+                    WorkerFactory.discardGrammarRecognizer(recognizer);
+                } else {
+                    WorkerFactory.recycleGrammarRecognizer(grammar, recognizer);
+                }
+            }
+            if (line != null) {
+                line.close();
+            }
+            if (convertedFile != null && !convertedFile.equals(audioFile)) {
+                try {
+                    Files.deleteIfExists(convertedFile);
+                } catch (Exception e) {
+                    logger.warn("No se pudo eliminar archivo temporal", e);
+                }
+            }
+            if (permitHeld.compareAndSet(true, false)) {
+                WorkerFactory.releaseGrammarPermit();
+            }
+            token.close();
+        }
+    }
+
+    /**
+     * Envía el final al listener y extrae las coincidencias de frases.
+     */
+    private void emit(String json, TranscriptionListener listener) {
+        listener.onFinal(json);
+        List<KeywordMatch> matches = findMatches(json);
+        if (listener instanceof KeywordListener keywordListener) {
+            for (KeywordMatch match : matches) {
+                logger.debug("Coincidencia: {}", match);
+                keywordListener.onMatch(match);
+            }
+        }
+    }
+
+    /**
+     * Busca secuencias de palabras del resultado que coincidan con alguna frase.
+     */
+    List<KeywordMatch> findMatches(String json) {
+        List<KeywordMatch> matches = new ArrayList<>();
+        JSONArray words;
+        try {
+            words = new JSONObject(json).optJSONArray("result");
+        } catch (Exception e) {
+            logger.warn("Resultado JSON inválido en modo palabras clave: {}", e.getMessage());
+            return matches;
+        }
+        if (words == null) {
+            return matches;
+        }
+
+        int count = words.length();
+        for (int i = 0; i < count; i++) {
+            for (String[] phrase : phrases) {
+                if (i + phrase.length > count) {
+                    continue;
+                }
+                double confidence = 0;
+                boolean match = true;
+                for (int j = 0; j < phrase.length && match; j++) {
+                    JSONObject word = words.getJSONObject(i + j);
+                    match = phrase[j].equals(word.optString("word", "").toLowerCase(Locale.ROOT));
+                    confidence += word.optDouble("conf", 0.0);
+                }
+                confidence /= phrase.length;
+                if (match && confidence >= minConfidence) {
+                    matches.add(new KeywordMatch(
+                        String.join(" ", phrase),
+                        confidence,
+                        words.getJSONObject(i).optDouble("start", 0.0),
+                        words.getJSONObject(i + phrase.length - 1).optDouble("end", 0.0)
+                    ));
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean isCancellable() {
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        logger.info("Cancelando detección de palabras clave...");
+        token.cancel("cancelada por el usuario");
+        AudioCapture capture = line;
+        if (capture != null) {
+            capture.stop();
+        }
+    }
+}
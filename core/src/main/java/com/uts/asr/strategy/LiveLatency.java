@@ -0,0 +1,138 @@
+package com.uts.asr.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Desglose de la latencia en vivo desde la captura hasta el texto en pantalla,
+ * por etapas y con percentiles sobre las últimas {@link #WINDOW} muestras
+ * (una sesión larga no acumula memoria y los percentiles reflejan el
+ * momento actual). Thread-safe: registra el EDT y lo consulta el overlay.
+ */
+public final class LiveLatency {
+
+    /** Muestras que se conservan por etapa. */
+    public static final int WINDOW = 1024;
+
+    /**
+     * Etapas entre la captura del chunk y el pintado de su texto.
+     */
+    public enum Stage {
+        /** Captura → resultado del recognizer (incluye la espera en el buffer de captura). */
+        DECODE("captura→decodificación"),
+        /** Resultado → evento recibido por el listener. */
+        DISPATCH("decodificación→evento"),
+        /** Evento → texto pintado (cola del EDT, actualización y repintado). */
+        PAINT("evento→pintado");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Percentiles de una etapa, en ms.
+     */
+    public record StageStats(Stage stage, double p50, double p95, double p99, double max) {
+        @Override
+        public String toString() {
+            return String.format("%s p50 %.0f ms, p95 %.0f ms, p99 %.0f ms, máx %.0f ms",
+                stage.label(), p50, p95, p99, max);
+        }
+    }
+
+    /**
+     * Estado de la ventana en un instante.
+     *
+     * @param samples eventos registrados en total
+     * @param lastLagMs captura → pintado del último evento (0 si no hay)
+     * @param lastOffsetMs posición en el audio del último evento pintado
+     * @param stages percentiles por etapa (vacía si no hay muestras)
+     */
+    public record Snapshot(long samples, double lastLagMs, long lastOffsetMs, List<StageStats> stages) {
+        @Override
+        public String toString() {
+            if (samples == 0) {
+                return "sin muestras";
+            }
+            StringBuilder text = new StringBuilder()
+                .append(samples).append(" eventos, último ")
+                .append(Math.round(lastLagMs)).append(" ms");
+            for (StageStats stats : stages) {
+                text.append("; ").append(stats);
+            }
+            return text.toString();
+        }
+    }
+
+    private final double[][] windows = new double[Stage.values().length][WINDOW];
+    private long samples;
+    private double lastLagMs;
+    private long lastOffsetMs;
+
+    /**
+     * Registra un evento pintado.
+     *
+     * @param stamp marcas del chunk que lo produjo
+     * @param eventNanos instante en que el listener recibió el evento
+     * @param paintedNanos instante en que el texto quedó pintado
+     */
+    public synchronized void record(ChunkStamp stamp, long eventNanos, long paintedNanos) {
+        int slot = (int) (samples % WINDOW);
+        windows[Stage.DECODE.ordinal()][slot] = millis(stamp.decodedNanos() - stamp.captureNanos());
+        windows[Stage.DISPATCH.ordinal()][slot] = millis(eventNanos - stamp.decodedNanos());
+        windows[Stage.PAINT.ordinal()][slot] = millis(paintedNanos - eventNanos);
+        samples++;
+        lastLagMs = millis(paintedNanos - stamp.captureNanos());
+        lastOffsetMs = stamp.streamOffsetMs();
+    }
+
+    /**
+     * Percentiles actuales; ordena una copia de la ventana, así que está
+     * pensado para consultas periódicas, no por evento.
+     */
+    public synchronized Snapshot snapshot() {
+        if (samples == 0) {
+            return new Snapshot(0, 0, 0, List.of());
+        }
+        int count = (int) Math.min(samples, WINDOW);
+        List<StageStats> stages = new ArrayList<>(Stage.values().length);
+        for (Stage stage : Stage.values()) {
+            double[] sorted = Arrays.copyOf(windows[stage.ordinal()], count);
+            Arrays.sort(sorted);
+            stages.add(new StageStats(stage,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                sorted[count - 1]));
+        }
+        return new Snapshot(samples, lastLagMs, lastOffsetMs, List.copyOf(stages));
+    }
+
+    /**
+     * Vacía la ventana (al empezar otra sesión).
+     */
+    public synchronized void reset() {
+        samples = 0;
+        lastLagMs = 0;
+        lastOffsetMs = 0;
+    }
+
+    /**
+     * Percentil por el método del rango más cercano.
+     */
+    private static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.max(0, nanos) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,258 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.AudioCapture;
+import com.uts.asr.core.AudioDeviceManager;
+import com.uts.asr.core.SessionRecorder;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.jfr.TracedRecognizer;
+import com.uts.asr.speaker.SpeakerSession;
+import com.uts.asr.speaker.SpeakerStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Estrategia para transcribir audio en tiempo real desde el micrófono.
+ * Con {@code twopass.modelPath} además graba el audio capturado; si la
+ * transcripción se guarda, {@link #secondPass()} la redecodifica en segundo
+ * plano con el modelo preciso ({@link SecondPassDecoder}). Con {@code speaker.modelPath} y
+ * {@code speaker.live} los finales pasan por {@link SpeakerStage} y llegan
+ * etiquetados con {@code speaker}, algo después de decodificarse.
+ * <p>
+ * Cada parcial y final llega con un {@link ChunkStamp}: cuándo se capturó el
+ * chunk, su posición en el audio y cuándo respondió el recognizer.
+ * </p>
+ */
+public class LiveMicStrategy implements TranscriptionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(LiveMicStrategy.class);
+    
+    private final String sessionName;
+    private volatile boolean running = false;
+    private AudioCapture line;
+    // Grabación cerrada de la última sesión, pendiente de segunda pasada
+    private Path recording;
+    private CompletableFuture<String> secondPass;
+    private SpeakerSession speakers;
+    // Marcas de los finales encolados para etiquetar, en el mismo orden
+    private final Queue<ChunkStamp> speakerStamps = new ConcurrentLinkedQueue<>();
+
+    public LiveMicStrategy() {
+        this(null);
+    }
+
+    /**
+     * @param sessionName nombre de la sesión (da nombre a la grabación de la segunda pasada)
+     */
+    public LiveMicStrategy(String sessionName) {
+        this.sessionName = sessionName;
+    }
+
+    /**
+     * Segunda pasada de la última sesión. Se encola en la primera llamada:
+     * solo la pide quien va a sustituir una transcripción guardada, así que
+     * las sesiones que no se guardan no cuestan una redecodificación.
+     *
+     * @return futuro con el resultado, o null si no hay grabación (desactivada,
+     *         sesión fallida, descartada o todavía en curso la captura)
+     */
+    public synchronized CompletableFuture<String> secondPass() {
+        if (secondPass == null && recording != null) {
+            secondPass = SecondPassDecoder.submit(recording);
+            logger.info("Segunda pasada encolada para {}", recording.getFileName());
+        }
+        return secondPass;
+    }
+
+    /**
+     * Borra la grabación de la última sesión si nadie pidió su segunda pasada
+     * (se conserva con {@code twopass.keepRecordings}).
+     */
+    public synchronized void discardRecording() {
+        if (secondPass != null || recording == null) {
+            return;
+        }
+        if (!AppSettings.current().twoPassKeepRecordings()) {
+            try {
+                Files.deleteIfExists(recording);
+            } catch (IOException e) {
+                logger.warn("No se pudo borrar la grabación {}", recording, e);
+            }
+        }
+        recording = null;
+    }
+
+    @Override
+    public void execute(Path audioFile, TranscriptionListener listener) throws Exception {
+        SpeechRecognizer recognizer = null;
+        SessionRecorder recorder = null;
+        boolean recorded = false;
+        
+        try {
+            // Adquirir permiso para usar recognizer
+            WorkerFactory.acquireRecognizerPermit();
+            
+            // Abrir micrófono
+            line = AudioDeviceManager.openCapture(AppSettings.current().sampleRate());
+            logger.info("Micrófono abierto, iniciando captura...");
+            
+            if (AppSettings.current().speakerEnabled() && AppSettings.current().speakerLive()) {
+                speakers = SpeakerStage.shared().open(sessionName,
+                    labeled -> listener.onFinal(labeled, speakerStamps.poll()));
+            }
+            
+            // Crear recognizer para este thread
+            recognizer = TracedRecognizer.trace(sessionName, WorkerFactory.createRecognizer(speakers != null));
+            recorder = openRecorder();
+            
+            running = true;
+            byte[] buffer = new byte[AppSettings.current().chunkSizeLive()];
+            PartialResultPolicy partials = PartialResultPolicy.forLive();
+            // PCM 16 bits mono: bytes por milisegundo de audio
+            double bytesPerMs = AppSettings.current().sampleRate() * 2 / 1000.0;
+            long streamBytes = 0;
+            long capturedAt = System.nanoTime();
+            
+            while (running && !Thread.currentThread().isInterrupted()) {
+                int bytesRead = line.read(buffer, 0, buffer.length);
+                
+                if (bytesRead > 0) {
+                    // Si había audio esperando en el buffer, el final del chunk se capturó antes
+                    capturedAt = System.nanoTime() - line.bufferedNanos();
+                    streamBytes += bytesRead;
+                    long offsetMs = Math.round(streamBytes / bytesPerMs);
+                    if (recorder != null) {
+                        try {
+                            recorder.write(buffer, bytesRead);
+                        } catch (IOException e) {
+                            // La sesión en vivo no depende de la grabación
+                            logger.warn("Grabación interrumpida, sin segunda pasada: {}", e.getMessage());
+                            recorder.discard();
+                            recorder = null;
+                        }
+                    }
+                    if (recognizer.acceptWaveForm(buffer, bytesRead)) {
+                        // Resultado final disponible
+                        String result = recognizer.getResult();
+                        partials.segmentClosed();
+                        deliverFinal(listener, result, new ChunkStamp(capturedAt, offsetMs, System.nanoTime()));
+                        logger.debug("Final: {}", result);
+                    } else {
+                        // Resultado parcial, si la política lo pide
+                        String partial = partials.poll(recognizer);
+                        if (partial != null) {
+                            listener.onPartial(partial, new ChunkStamp(capturedAt, offsetMs, System.nanoTime()));
+                            logger.trace("Partial: {}", partial);
+                        }
+                    }
+                }
+            }
+            
+            // Al detener, generar último resultado final
+            if (recognizer != null) {
+                String finalResult = recognizer.getFinalResult();
+                if (!finalResult.isEmpty()) {
+                    // Cierra con lo que quedaba del último chunk capturado
+                    deliverFinal(listener, finalResult, new ChunkStamp(capturedAt,
+                        Math.round(streamBytes / bytesPerMs), System.nanoTime()));
+                    logger.info("Resultado final al detener: {}", finalResult);
+                }
+            }
+            if (speakers != null) {
+                // onComplete va detrás del último final etiquetado
+                speakers.finish().join();
+            }
+            
+            if (recorder != null && recorder.bytes() > 0) {
+                try {
+                    recorder.close();
+                    synchronized (this) {
+                        recording = recorder.file();
+                    }
+                    recorded = true;
+                } catch (IOException e) {
+                    logger.warn("No se pudo cerrar la grabación, sin segunda pasada: {}", e.getMessage());
+                }
+            }
+
+            listener.onComplete();
+            logger.info("Captura de audio finalizada");
+            
+        } catch (Exception e) {
+            logger.error("Error en captura de audio", e);
+            listener.onError(e);
+            throw e;
+            
+        } finally {
+            // Liberar recursos
+            if (recognizer != null) {
+                try {
+                    recognizer.close();
+                } catch (Exception e) {
+                    logger.error("Error al cerrar recognizer", e);
+                }
+            }
+            
+            if (line != null) {
+                line.close();
+            }
+            if (recorder != null && !recorded) {
+                recorder.discard();
+            }
+            WorkerFactory.releaseRecognizerPermit();
+            running = false;
+        }
+    }
+
+    /**
+     * Entrega un final al listener o, con hablantes, lo encola para etiquetarlo.
+     */
+    private void deliverFinal(TranscriptionListener listener, String json, ChunkStamp stamp) {
+        if (speakers != null) {
+            speakerStamps.add(stamp);
+            speakers.submit(json);
+        } else {
+            listener.onFinal(json, stamp);
+        }
+    }
+
+    /**
+     * Abre la grabación si la segunda pasada está activa. Si falla, la sesión
+     * sigue solo con la primera pasada.
+     */
+    private SessionRecorder openRecorder() {
+        if (!AppSettings.current().twoPassEnabled()) {
+            return null;
+        }
+        try {
+            return SessionRecorder.create(sessionName);
+        } catch (Exception e) {
+            logger.warn("No se pudo abrir la grabación para la segunda pasada: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isCancellable() {
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        logger.info("Cancelando captura de audio...");
+        running = false;
+        
+        // Cerrar línea para interrumpir read() bloqueante
+        AudioCapture capture = line;
+        if (capture != null) {
+            capture.stop();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,395 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.DecodeScheduler;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.RecognizerFactory;
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.jfr.TracedRecognizer;
+import com.uts.asr.network.NetworkStreamConfig;
+import com.uts.asr.network.NetworkStreamListener;
+import com.uts.asr.network.StreamIngestServer;
+import com.uts.asr.network.StreamInfo;
+import com.uts.asr.network.StreamStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Estrategia para transcribir audio recibido por red (PCM por TCP, RTP o PCM
+ * por UDP y cuerpos HTTP chunked).
+ * <p>
+ * Un único hilo (el que llama a {@link #execute}) atiende todas las conexiones
+ * con un selector NIO; cada stream tiene su propio recognizer en el executor
+ * compartido, limitado por los mismos permisos que el resto de estrategias. Entre
+ * ambos hay una cola acotada: si el reconocimiento no da abasto se descartan los
+ * chunks más antiguos y se cuentan como overruns en las estadísticas del stream.
+ * </p>
+ * <p>
+ * Con {@code decoder.threads} &gt; 0 los streams no tienen hilo propio: los
+ * decodifica el {@link DecodeScheduler} compartido, y el número de streams
+ * simultáneos solo lo limita el presupuesto de memoria de los recognizers.
+ * </p>
+ */
+public class NetworkStreamStrategy implements TranscriptionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkStreamStrategy.class);
+
+    /** Chunks de red pendientes por stream antes de descartar (varios segundos de audio). */
+    private static final int QUEUE_CHUNKS = 256;
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final NetworkStreamConfig config;
+    private final Function<StreamInfo, TranscriptionListener> listenerFactory;
+    private final RecognizerFactory recognizers;
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final Set<Future<?>> decoders = ConcurrentHashMap.newKeySet();
+    private volatile StreamIngestServer server;
+
+    /**
+     * Estrategia con la configuración {@code network.*} activa; todos los
+     * streams se reportan al listener de {@link #execute}.
+     */
+    public NetworkStreamStrategy() {
+        this(NetworkStreamConfig.fromSettings(), null, WorkerFactory::createRecognizer);
+    }
+
+    /**
+     * @param config puertos y formato por defecto
+     * @param listenerFactory listener por stream; si es null, los resultados de
+     *                        todos los streams se reenvían al listener de {@link #execute}
+     * @param recognizers origen de los recognizers (uno por stream)
+     */
+    public NetworkStreamStrategy(NetworkStreamConfig config,
+                                 Function<StreamInfo, TranscriptionListener> listenerFactory,
+                                 RecognizerFactory recognizers) {
+        this.config = config;
+        this.listenerFactory = listenerFactory;
+        this.recognizers = recognizers;
+    }
+
+    @Override
+    public void execute(Path audioFile, TranscriptionListener listener) throws Exception {
+        StreamIngestServer ingest = new StreamIngestServer(config, (int) AppSettings.current().sampleRate(),
+            info -> openStream(info, listener));
+        try {
+            ingest.bind();
+            server = ingest;
+            ready.countDown();
+            ingest.run();
+
+            // El servidor ya cerró todos los streams: esperar a que terminen de decodificar
+            for (Future<?> decoder : new ArrayList<>(decoders)) {
+                try {
+                    decoder.get();
+                } catch (ExecutionException e) {
+                    logger.debug("Decodificador terminado con error: {}", e.getCause().getMessage());
+                }
+            }
+            listener.onComplete();
+            logger.info("Ingesta de red finalizada");
+
+        } catch (Exception e) {
+            logger.error("Error en la ingesta de red", e);
+            listener.onError(e);
+            throw e;
+
+        } finally {
+            ingest.close();
+            ready.countDown();
+        }
+    }
+
+    /**
+     * Espera a que los puertos estén abiertos.
+     *
+     * @return true si el servidor escucha; false si venció el plazo o falló al abrir
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        return ready.await(timeout, unit) && server != null;
+    }
+
+    public int tcpPort() {
+        return requireServer().tcpPort();
+    }
+
+    public int udpPort() {
+        return requireServer().udpPort();
+    }
+
+    public int httpPort() {
+        return requireServer().httpPort();
+    }
+
+    /**
+     * Estadísticas de los streams activos.
+     */
+    public List<StreamStats> stats() {
+        StreamIngestServer current = server;
+        return current == null ? List.of() : current.stats();
+    }
+
+    @Override
+    public boolean isCancellable() {
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        logger.info("Deteniendo ingesta de red...");
+        StreamIngestServer current = server;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    private StreamIngestServer requireServer() {
+        StreamIngestServer current = server;
+        if (current == null) {
+            throw new IllegalStateException("La ingesta de red no está escuchando");
+        }
+        return current;
+    }
+
+    private StreamIngestServer.StreamConsumer openStream(StreamInfo info, TranscriptionListener mainListener) {
+        TranscriptionListener listener = listenerFactory != null
+            ? listenerFactory.apply(info)
+            : new ForwardingListener(info, mainListener);
+        if (AppSettings.current().decoderSchedulerEnabled()) {
+            return new ScheduledStream(info, listener);
+        }
+        StreamSession session = new StreamSession(info, listener);
+        Future<?> decoder = WorkerFactory.getExecutor().submit(session::decode);
+        decoders.add(decoder);
+        session.decoder = decoder;
+        return session;
+    }
+
+    /**
+     * Cola y decodificación de un stream. {@link #accept} y {@link #close} los
+     * llama el hilo selector; {@link #decode} corre en el executor.
+     */
+    private final class StreamSession implements StreamIngestServer.StreamConsumer {
+        private final StreamInfo info;
+        private final TranscriptionListener listener;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        private final AtomicLong overruns = new AtomicLong();
+        private volatile StreamStats finalStats;
+        private volatile Future<?> decoder;
+
+        StreamSession(StreamInfo info, TranscriptionListener listener) {
+            this.info = info;
+            this.listener = listener;
+        }
+
+        @Override
+        public void accept(byte[] pcm) {
+            enqueue(pcm);
+        }
+
+        @Override
+        public void close(StreamStats stats) {
+            finalStats = stats;
+            enqueue(END_OF_STREAM);
+        }
+
+        @Override
+        public long overruns() {
+            return overruns.get();
+        }
+
+        @Override
+        public void stats(StreamStats stats) {
+            if (listener instanceof NetworkStreamListener networkListener) {
+                networkListener.onStats(stats);
+            }
+        }
+
+        private void enqueue(byte[] chunk) {
+            while (!queue.offer(chunk)) {
+                if (queue.poll() != null) {
+                    long dropped = overruns.incrementAndGet();
+                    if (dropped == 1 || dropped % 100 == 0) {
+                        logger.warn("Stream {}: reconocimiento saturado, {} chunk(s) descartados",
+                            info.name(), dropped);
+                    }
+                }
+            }
+        }
+
+        void decode() {
+            SpeechRecognizer recognizer = null;
+            boolean permit = false;
+            try {
+                WorkerFactory.acquireRecognizerPermit();
+                permit = true;
+                recognizer = TracedRecognizer.trace(info.name(), recognizers.create());
+                PartialResultPolicy partials = PartialResultPolicy.forNetwork();
+
+                byte[] buffer = new byte[AppSettings.current().chunkSizeLive()];
+                int filled = 0;
+                while (true) {
+                    byte[] chunk = queue.take();
+                    if (chunk == END_OF_STREAM) {
+                        break;
+                    }
+                    int offset = 0;
+                    while (offset < chunk.length) {
+                        int n = Math.min(buffer.length - filled, chunk.length - offset);
+                        System.arraycopy(chunk, offset, buffer, filled, n);
+                        filled += n;
+                        offset += n;
+                        if (filled == buffer.length) {
+                            feed(recognizer, partials, buffer, filled);
+                            filled = 0;
+                        }
+                    }
+                }
+                if (filled > 0) {
+                    feed(recognizer, partials, buffer, filled);
+                }
+
+                String finalResult = recognizer.getFinalResult();
+                if (!finalResult.isEmpty()) {
+                    listener.onFinal(finalResult);
+                }
+                StreamStats stats = finalStats;
+                if (stats != null) {
+                    stats(stats);
+                }
+                listener.onComplete();
+                logger.debug("Stream {} transcrito", info.name());
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.info("Stream {} interrumpido", info.name());
+            } catch (Exception e) {
+                logger.error("Error transcribiendo stream {}", info.name(), e);
+                listener.onError(e);
+            } finally {
+                if (recognizer != null) {
+                    try {
+                        recognizer.close();
+                    } catch (Exception e) {
+                        logger.error("Error al cerrar recognizer", e);
+                    }
+                }
+                if (permit) {
+                    WorkerFactory.releaseRecognizerPermit();
+                }
+                queue.clear();
+                Future<?> self = decoder;
+                if (self != null) {
+                    decoders.remove(self);
+                }
+            }
+        }
+
+        private void feed(SpeechRecognizer recognizer, PartialResultPolicy partials, byte[] buffer, int length) {
+            if (recognizer.acceptWaveForm(buffer, length)) {
+                String result = recognizer.getResult();
+                partials.segmentClosed();
+                listener.onFinal(result);
+                logger.debug("Final [{}]: {}", info.name(), result);
+            } else {
+                String partial = partials.poll(recognizer);
+                if (partial != null) {
+                    listener.onPartial(partial);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stream decodificado por el {@link DecodeScheduler}: no ocupa un hilo ni
+     * un permiso de recognizer mientras espera audio. Todos los métodos los
+     * llama el hilo selector y ninguno bloquea.
+     */
+    private final class ScheduledStream implements StreamIngestServer.StreamConsumer {
+        private final TranscriptionListener listener;
+        private final DecodeScheduler.Session session;
+        private volatile StreamStats finalStats;
+
+        ScheduledStream(StreamInfo info, TranscriptionListener listener) {
+            this.listener = listener;
+            this.session = DecodeScheduler.shared().open(info.name(), recognizers, listener);
+            CompletableFuture<Void> completion = session.done().whenComplete((ignored, error) -> {
+                if (error == null) {
+                    StreamStats stats = finalStats;
+                    if (stats != null) {
+                        stats(stats);
+                    }
+                    listener.onComplete();
+                    logger.debug("Stream {} transcrito", info.name());
+                }
+            });
+            decoders.add(completion);
+            completion.whenComplete((ignored, error) -> decoders.remove(completion));
+        }
+
+        @Override
+        public void accept(byte[] pcm) {
+            session.offer(pcm);
+        }
+
+        @Override
+        public void close(StreamStats stats) {
+            finalStats = stats;
+            session.finish();
+        }
+
+        @Override
+        public long overruns() {
+            return session.overruns();
+        }
+
+        @Override
+        public void stats(StreamStats stats) {
+            if (listener instanceof NetworkStreamListener networkListener) {
+                networkListener.onStats(stats);
+            }
+        }
+    }
+
+    /**
+     * Reenvía los resultados de un stream al listener principal. El fin de
+     * cada stream no completa la estrategia y sus errores no la detienen.
+     */
+    private static final class ForwardingListener implements TranscriptionListener {
+        private final StreamInfo info;
+        private final TranscriptionListener target;
+
+        ForwardingListener(StreamInfo info, TranscriptionListener target) {
+            this.info = info;
+            this.target = target;
+        }
+
+        @Override
+        public void onPartial(String json) {
+            target.onPartial(json);
+        }
+
+        @Override
+        public void onFinal(String json) {
+            target.onFinal(json);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            logger.warn("Stream {} terminado con error: {}", info.name(), error.getMessage());
+        }
+    }
+}
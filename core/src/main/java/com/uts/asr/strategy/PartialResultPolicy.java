@@ -0,0 +1,96 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.PartialResultMode;
+import com.uts.asr.engine.SpeechRecognizer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decide tras cada chunk sin final si se pide el resultado parcial.
+ * <p>
+ * {@code getPartialResult()} es una llamada nativa que serializa JSON (o un
+ * viaje al proceso worker): en lotes no lo mira nadie y en vivo no sirve
+ * pedirlo más rápido de lo que se lee. Guarda estado de la sesión: una
+ * instancia por recognizer, usada desde su mismo hilo.
+ * </p>
+ */
+public final class PartialResultPolicy {
+
+    private final PartialResultMode mode;
+    private final long intervalNanos;
+    private long lastFetchNanos;
+    private boolean fetched;
+    private String lastDelivered;
+
+    PartialResultPolicy(PartialResultMode mode, long intervalMillis) {
+        this.mode = mode;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    /**
+     * Política para archivos ({@code partials.file}).
+     */
+    public static PartialResultPolicy forFile() {
+        AppSettings settings = AppSettings.current();
+        return new PartialResultPolicy(settings.partialsFile(), settings.partialsIntervalMs());
+    }
+
+    /**
+     * Política para micrófono ({@code partials.live}).
+     */
+    public static PartialResultPolicy forLive() {
+        AppSettings settings = AppSettings.current();
+        return new PartialResultPolicy(settings.partialsLive(), settings.partialsIntervalMs());
+    }
+
+    /**
+     * Política para la ingesta de red ({@code partials.network}).
+     */
+    public static PartialResultPolicy forNetwork() {
+        AppSettings settings = AppSettings.current();
+        return new PartialResultPolicy(settings.partialsNetwork(), settings.partialsIntervalMs());
+    }
+
+    /**
+     * Tras un chunk sin final: pide el parcial si toca.
+     *
+     * @return el parcial a entregar al listener, o null si no toca o no cambió
+     */
+    public String poll(SpeechRecognizer recognizer) {
+        switch (mode) {
+            case OFF:
+                return null;
+            case ALL:
+                return recognizer.getPartialResult();
+            default:
+                break;
+        }
+        long now = System.nanoTime();
+        if (fetched && now - lastFetchNanos < intervalNanos) {
+            return null;
+        }
+        fetched = true;
+        lastFetchNanos = now;
+        String partial = recognizer.getPartialResult();
+        if (mode == PartialResultMode.CHANGED) {
+            if (partial.equals(lastDelivered)) {
+                return null;
+            }
+            lastDelivered = partial;
+        }
+        return partial;
+    }
+
+    /**
+     * Tras un final: el segmento siguiente empieza de cero, su primer parcial
+     * se entrega aunque repita el texto del anterior.
+     */
+    public void segmentClosed() {
+        lastDelivered = null;
+    }
+
+    public PartialResultMode mode() {
+        return mode;
+    }
+}
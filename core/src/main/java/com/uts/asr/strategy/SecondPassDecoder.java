@@ -0,0 +1,130 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.MemoryBudget;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.EngineRecognizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Segunda pasada: redecodifica en segundo plano la grabación de una sesión en
+ * vivo con el modelo preciso ({@code twopass.modelPath}).
+ * <p>
+ * Un único hilo de prioridad mínima procesa las grabaciones en orden. Cada
+ * chunk se decodifica con un permiso de recognizer, que se suelta entre
+ * chunks y solo se toma si hay uno libre: cuenta en
+ * {@code workers.maxRecognizers} como cualquier sesión, pero las sesiones en
+ * vivo siempre van primero (Linux ignora la prioridad de los hilos de Java por
+ * defecto).
+ * </p>
+ */
+public final class SecondPassDecoder {
+    private static final Logger logger = LoggerFactory.getLogger(SecondPassDecoder.class);
+
+    private static final long BACKOFF_MILLIS = 100;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "second-pass");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private SecondPassDecoder() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Encola la redecodificación de una grabación. Al terminar, la grabación
+     * se borra salvo {@code twopass.keepRecordings}.
+     *
+     * @param recording PCM 16 bits mono a {@code audio.sampleRate}
+     * @return futuro con el resultado (mismo formato que los finales combinados)
+     */
+    public static CompletableFuture<String> submit(Path recording) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return decode(recording);
+            } catch (IOException e) {
+                throw new IllegalStateException("Segunda pasada fallida para " + recording
+                    + ": " + e.getMessage(), e);
+            } finally {
+                if (!AppSettings.current().twoPassKeepRecordings()) {
+                    try {
+                        Files.deleteIfExists(recording);
+                    } catch (IOException e) {
+                        logger.warn("No se pudo borrar la grabación {}", recording, e);
+                    }
+                }
+            }
+        }, EXECUTOR);
+    }
+
+    private static String decode(Path recording) throws IOException {
+        AppSettings settings = AppSettings.current();
+        long start = System.nanoTime();
+        List<String> finals = new ArrayList<>();
+
+        MemoryBudget.Reservation reservation;
+        try {
+            reservation = MemoryBudget.shared().reserve(MemoryBudget.Kind.RECOGNIZER);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando memoria para la segunda pasada");
+        }
+        try (reservation;
+             EngineRecognizer recognizer = VoskService.getSecondPassModel().newRecognizer(settings.sampleRate(), null);
+             InputStream in = new BufferedInputStream(Files.newInputStream(recording))) {
+            byte[] buffer = new byte[settings.chunkSizeFile()];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                acquireIdlePermit();
+                try {
+                    if (recognizer.acceptWaveForm(buffer, bytesRead)) {
+                        finals.add(recognizer.getResult());
+                    }
+                } finally {
+                    WorkerFactory.releaseRecognizerPermit();
+                }
+            }
+            acquireIdlePermit();
+            try {
+                finals.add(recognizer.getFinalResult());
+            } finally {
+                WorkerFactory.releaseRecognizerPermit();
+            }
+        }
+
+        logger.info("Segunda pasada de {} completada en {} ms ({} KB de audio)", recording.getFileName(),
+            (System.nanoTime() - start) / 1_000_000, Files.size(recording) / 1024);
+        return SingleFileStrategy.mergeFinals(finals);
+    }
+
+    /**
+     * Espera a que haya un permiso de recognizer libre y lo toma.
+     */
+    private static void acquireIdlePermit() throws InterruptedIOException {
+        try {
+            while (!WorkerFactory.tryAcquireRecognizerPermit()) {
+                Thread.sleep(BACKOFF_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Segunda pasada interrumpida");
+        }
+    }
+}
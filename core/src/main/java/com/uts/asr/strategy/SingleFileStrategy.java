@@ -0,0 +1,132 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppConfig;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.NativeCallWatchdog;
+import com.uts.asr.util.CancellationToken;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Estrategia para transcribir archivos de audio pregrabados.
+ * Guarda checkpoints periódicos para poder reanudar grabaciones largas.
+ * Se cancela entre chunks (o matando ffmpeg si aún convierte), tiene un plazo
+ * opcional ({@code file.deadlineSeconds}) y el {@link NativeCallWatchdog}
+ * abandona la sesión si el recognizer se cuelga. Las etapas están en
+ * {@link FileJob}; para muchos archivos, {@link BatchPipeline} las solapa.
+ */
+public class SingleFileStrategy implements TranscriptionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFileStrategy.class);
+    
+    private static final String CANCELLED_BY_USER = "cancelada por el usuario";
+
+    private final String sessionName;
+    private volatile CancellationToken token;
+    private volatile boolean cancelRequested;
+
+    public SingleFileStrategy(String sessionName) {
+        this.sessionName = sessionName != null ? sessionName : AppConfig.DEFAULT_SESSION_NAME;
+    }
+
+    @Override
+    public void execute(Path audioFile, TranscriptionListener listener) throws Exception {
+        if (audioFile == null || !Files.exists(audioFile)) {
+            throw new IllegalArgumentException("Archivo de audio no existe: " + audioFile);
+        }
+
+        logger.info("Iniciando transcripción de archivo: {}", audioFile);
+        
+        CancellationToken token = CancellationToken.withDeadline(AppSettings.current().fileDeadlineSeconds());
+        this.token = token;
+        if (cancelRequested) {
+            token.cancel(CANCELLED_BY_USER);
+        }
+        
+        FileJob job = new FileJob(sessionName, audioFile, token, listener);
+        try {
+            job.convert();
+            job.decode();
+            job.persist();
+            listener.onComplete();
+            
+        } catch (Exception e) {
+            job.fail(e);
+            throw e;
+            
+        } finally {
+            job.cleanup();
+            token.close();
+            this.token = null;
+        }
+    }
+
+    @Override
+    public boolean isCancellable() {
+        return true;
+    }
+
+    /**
+     * Cancela la transcripción en el siguiente límite de chunk; si aún está
+     * convirtiendo, mata ffmpeg. El checkpoint se conserva para reanudar.
+     */
+    @Override
+    public void cancel() {
+        cancelRequested = true;
+        CancellationToken current = token;
+        if (current != null) {
+            current.cancel(CANCELLED_BY_USER);
+        }
+    }
+
+    /**
+     * Combina los resultados finales en un único JSON con el texto completo
+     * y las palabras con tiempos ({@code result}) si el recognizer las emite.
+     * Si los finales llevan hablante, añade {@code segments}: hablante,
+     * inicio, fin y texto de cada uno. También la usa la ingesta de red al
+     * guardar cada stream.
+     */
+    public static String mergeFinals(List<String> finals) {
+        StringBuilder text = new StringBuilder();
+        JSONArray words = new JSONArray();
+        JSONArray segments = new JSONArray();
+        for (String json : finals) {
+            try {
+                JSONObject obj = new JSONObject(json);
+                String part = obj.optString("text", "").trim();
+                if (!part.isEmpty()) {
+                    text.append(part).append(' ');
+                }
+                JSONArray result = obj.optJSONArray("result");
+                if (result != null) {
+                    for (int i = 0; i < result.length(); i++) {
+                        words.put(result.get(i));
+                    }
+                }
+                if (obj.has("speaker") && !part.isEmpty()) {
+                    JSONObject segment = new JSONObject().put("speaker", obj.optInt("speaker", 0));
+                    if (result != null && result.length() > 0) {
+                        segment.put("start", result.getJSONObject(0).optDouble("start", 0));
+                        segment.put("end", result.getJSONObject(result.length() - 1).optDouble("end", 0));
+                    }
+                    segments.put(segment.put("text", part));
+                }
+            } catch (Exception e) {
+                logger.warn("Final con JSON inválido ignorado: {}", e.getMessage());
+            }
+        }
+        JSONObject merged = new JSONObject().put("text", text.toString().trim());
+        if (words.length() > 0) {
+            merged.put("result", words);
+        }
+        if (segments.length() > 0) {
+            merged.put("segments", segments);
+        }
+        return merged.toString();
+    }
+}
\ No newline at end of file
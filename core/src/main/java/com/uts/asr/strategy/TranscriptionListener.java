@@ -18,6 +18,28 @@ public interface TranscriptionListener {
      * @param json resultado final en formato JSON de Vosk
      */
     void onFinal(String json);
+
+    /**
+     * Parcial con las marcas de tiempo del chunk que lo produjo (solo en
+     * micrófono). Por defecto las descarta.
+     *
+     * @param json resultado parcial en formato JSON de Vosk
+     * @param stamp marcas de captura y decodificación
+     */
+    default void onPartial(String json, ChunkStamp stamp) {
+        onPartial(json);
+    }
+
+    /**
+     * Final con las marcas de tiempo del chunk que lo cerró (solo en
+     * micrófono). Por defecto las descarta.
+     *
+     * @param json resultado final en formato JSON de Vosk
+     * @param stamp marcas de captura y decodificación
+     */
+    default void onFinal(String json, ChunkStamp stamp) {
+        onFinal(json);
+    }
     
     /**
      * Llamado cuando ocurre un error.
@@ -0,0 +1,153 @@
+package com.uts.asr.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancelación cooperativa de un trabajo, con plazo opcional.
+ * <p>
+ * El trabajo consulta {@link #throwIfCancelled()} en puntos seguros (entre
+ * chunks); lo que bloquea fuera de esos puntos (un proceso ffmpeg, una
+ * espera) registra con {@link #onCancel(Runnable)} cómo abortarlo. Al vencer
+ * el plazo el token se cancela solo, con el mismo efecto que una cancelación
+ * del usuario.
+ * </p>
+ */
+public final class CancellationToken implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CancellationToken.class);
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "job-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Runnable> actions = new CopyOnWriteArrayList<>();
+    private final long deadlineNanos;
+    private final ScheduledFuture<?> timer;
+    private volatile String reason;
+
+    /** Registro de una acción de cancelación; cerrarlo la retira. */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private CancellationToken(long deadlineSeconds) {
+        if (deadlineSeconds > 0) {
+            this.deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(deadlineSeconds);
+            this.timer = DEADLINES.schedule(
+                () -> cancel("plazo de " + deadlineSeconds + " s agotado"), deadlineSeconds, TimeUnit.SECONDS);
+        } else {
+            this.deadlineNanos = 0;
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Token sin plazo, cancelable solo explícitamente.
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(0);
+    }
+
+    /**
+     * Token que se cancela solo al pasar el plazo.
+     *
+     * @param deadlineSeconds plazo desde ahora; 0 = sin plazo
+     */
+    public static CancellationToken withDeadline(long deadlineSeconds) {
+        return new CancellationToken(deadlineSeconds);
+    }
+
+    /**
+     * Cancela el trabajo y ejecuta las acciones registradas (idempotente: solo
+     * cuenta el primer motivo).
+     */
+    public void cancel(String why) {
+        synchronized (this) {
+            if (reason != null) {
+                return;
+            }
+            reason = why;
+        }
+        logger.info("Trabajo cancelado: {}", why);
+        for (Runnable action : actions) {
+            // Quitarla antes de ejecutarla: cada acción corre una sola vez
+            if (actions.remove(action)) {
+                runQuietly(action);
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return reason != null;
+    }
+
+    /**
+     * Motivo de la cancelación, o null si no se ha cancelado.
+     */
+    public String reason() {
+        return reason;
+    }
+
+    /**
+     * @throws CancellationException con el motivo si el trabajo está cancelado
+     */
+    public void throwIfCancelled() {
+        String why = reason;
+        if (why != null) {
+            throw new CancellationException(why);
+        }
+    }
+
+    /**
+     * Milisegundos hasta el plazo ({@link Long#MAX_VALUE} sin plazo, 0 si ya venció).
+     */
+    public long remainingMillis() {
+        if (deadlineNanos == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Registra cómo abortar una operación bloqueante mientras dura. Si el
+     * token ya está cancelado, la acción se ejecuta en el acto.
+     */
+    public Registration onCancel(Runnable action) {
+        actions.add(action);
+        // Una cancelación concurrente pudo recorrer la lista antes de añadirla
+        if (isCancelled() && actions.remove(action)) {
+            runQuietly(action);
+        }
+        return () -> actions.remove(action);
+    }
+
+    /**
+     * Anula el temporizador del plazo al terminar el trabajo.
+     */
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        actions.clear();
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.warn("Error abortando operación cancelada", e);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.uts.asr.util;
+
+import com.uts.asr.config.AppSettings;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistencia de checkpoints para transcripciones largas de archivos.
+ * <p>
+ * Un checkpoint registra el offset en bytes del PCM convertido tras el último
+ * resultado final y los finales emitidos hasta ese punto. Si la JVM muere, el
+ * siguiente intento reanuda desde ese offset con un recognizer nuevo y sin
+ * repetir la conversión FFmpeg.
+ * </p>
+ * <p>
+ * Los finales van a un log por trabajo ({@code .ckpt.log}, uno por línea) al
+ * que cada guardado solo añade los nuevos; el registro que se reemplaza de
+ * forma atómica ({@code .ckpt.json}) guarda el offset y hasta qué byte del
+ * log llegan sus finales. Lo escrito en el log tras el último registro
+ * (una caída entre ambos pasos) se ignora y se trunca al reanudar.
+ * </p>
+ */
+public final class CheckpointStore {
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointStore.class);
+
+    private CheckpointStore() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Estado guardado de una transcripción en curso.
+     *
+     * @param source archivo original (ruta absoluta)
+     * @param sourceSize tamaño del original al iniciar el trabajo
+     * @param sourceModified fecha de modificación del original (epoch ms)
+     * @param convertedFile PCM convertido por FFmpeg
+     * @param convertedSize tamaño esperado del PCM convertido
+     * @param offset bytes del PCM ya procesados hasta el último final
+     * @param finals resultados finales (JSON de Vosk) emitidos hasta el offset
+     * @param loggedFinals cuántos de {@code finals} están ya en el log
+     * @param logBytes longitud del log que cubren esos finales
+     */
+    public record Checkpoint(Path source, long sourceSize, long sourceModified,
+                             Path convertedFile, long convertedSize,
+                             long offset, List<String> finals,
+                             int loggedFinals, long logBytes) {
+
+        public Checkpoint {
+            finals = Collections.unmodifiableList(new ArrayList<>(finals));
+        }
+
+        /**
+         * Devuelve una copia avanzada hasta un nuevo offset. {@code newFinals}
+         * debe empezar por los finales ya guardados.
+         */
+        public Checkpoint advance(long newOffset, List<String> newFinals) {
+            return new Checkpoint(source, sourceSize, sourceModified,
+                convertedFile, convertedSize, newOffset, newFinals, loggedFinals, logBytes);
+        }
+    }
+
+    /**
+     * Carga el checkpoint de un archivo de audio si sigue siendo válido.
+     * Un checkpoint es válido si el original no cambió y el PCM convertido
+     * todavía existe con el tamaño registrado; si no, se descarta.
+     *
+     * @param audioFile archivo original
+     * @return el checkpoint o null si no hay uno reutilizable
+     */
+    public static Checkpoint load(Path audioFile) {
+        Path file = checkpointFile(audioFile);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            JSONObject obj = new JSONObject(Files.readString(file));
+            Path converted = Path.of(obj.getString("converted"));
+            long logBytes = obj.getLong("logBytes");
+            List<String> finals = readLog(logFile(audioFile), logBytes, obj.getInt("finals"));
+
+            Checkpoint checkpoint = new Checkpoint(
+                Path.of(obj.getString("source")),
+                obj.getLong("sourceSize"),
+                obj.getLong("sourceModified"),
+                converted,
+                obj.getLong("convertedSize"),
+                obj.getLong("offset"),
+                finals,
+                finals.size(),
+                logBytes
+            );
+
+            if (checkpoint.sourceSize() != Files.size(audioFile)
+                    || checkpoint.sourceModified() != Files.getLastModifiedTime(audioFile).toMillis()
+                    || !Files.exists(converted)
+                    || Files.size(converted) != checkpoint.convertedSize()
+                    || checkpoint.offset() > checkpoint.convertedSize()) {
+                logger.info("Checkpoint obsoleto para {}, se descarta", audioFile);
+                delete(audioFile);
+                return null;
+            }
+
+            logger.info("Checkpoint encontrado para {}: offset {} de {} bytes, {} finales",
+                audioFile, checkpoint.offset(), checkpoint.convertedSize(), finals.size());
+            return checkpoint;
+
+        } catch (Exception e) {
+            logger.warn("Checkpoint ilegible {}, se descarta: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(logFile(audioFile));
+            } catch (IOException ignored) {
+                // Se sobrescribirá en el próximo guardado
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Crea el checkpoint inicial tras la conversión (offset 0).
+     */
+    public static Checkpoint begin(Path audioFile, Path convertedFile) throws IOException {
+        return new Checkpoint(
+            audioFile.toAbsolutePath(),
+            Files.size(audioFile),
+            Files.getLastModifiedTime(audioFile).toMillis(),
+            convertedFile.toAbsolutePath(),
+            Files.size(convertedFile),
+            0L,
+            List.of(),
+            0,
+            0L
+        );
+    }
+
+    /**
+     * Guarda un checkpoint: añade al log los finales que aún no estaban y
+     * reemplaza el registro de forma atómica (archivo temporal + rename),
+     * igual que {@link Writer}.
+     *
+     * @return el checkpoint con todos sus finales ya en el log (el que hay
+     *         que avanzar en el siguiente guardado)
+     */
+    public static Checkpoint save(Checkpoint checkpoint) throws IOException {
+        Path checkpointDir = AppSettings.current().checkpointDir();
+        Files.createDirectories(checkpointDir);
+
+        long logBytes = appendLog(logFile(checkpoint.source()), checkpoint.logBytes(),
+            checkpoint.finals().subList(checkpoint.loggedFinals(), checkpoint.finals().size()));
+        JSONObject obj = new JSONObject()
+            .put("source", checkpoint.source().toString())
+            .put("sourceSize", checkpoint.sourceSize())
+            .put("sourceModified", checkpoint.sourceModified())
+            .put("converted", checkpoint.convertedFile().toString())
+            .put("convertedSize", checkpoint.convertedSize())
+            .put("offset", checkpoint.offset())
+            .put("finals", checkpoint.finals().size())
+            .put("logBytes", logBytes)
+            .put("updated", System.currentTimeMillis());
+
+        Path destination = checkpointFile(checkpoint.source());
+        Path temp = Files.createTempFile(checkpointDir, "ckpt_", ".json.tmp");
+        try {
+            Files.writeString(temp, obj.toString());
+            Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING,
+                      StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        logger.debug("Checkpoint guardado: offset {}", checkpoint.offset());
+        return new Checkpoint(checkpoint.source(), checkpoint.sourceSize(), checkpoint.sourceModified(),
+            checkpoint.convertedFile(), checkpoint.convertedSize(), checkpoint.offset(), checkpoint.finals(),
+            checkpoint.finals().size(), logBytes);
+    }
+
+    /**
+     * Elimina el checkpoint de un archivo (al completar la transcripción).
+     */
+    public static void delete(Path audioFile) {
+        try {
+            Files.deleteIfExists(checkpointFile(audioFile));
+            Files.deleteIfExists(logFile(audioFile));
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar checkpoint de {}", audioFile, e);
+        }
+    }
+
+    /**
+     * Indica si existe un checkpoint en disco para el archivo.
+     */
+    public static boolean exists(Path audioFile) {
+        return Files.exists(checkpointFile(audioFile));
+    }
+
+    /**
+     * PCM convertidos que algún checkpoint necesita para reanudar (rutas
+     * absolutas normalizadas). La retención de temporales no los borra.
+     */
+    public static Set<Path> convertedFilesInUse() {
+        Set<Path> inUse = new HashSet<>();
+        Path checkpointDir = AppSettings.current().checkpointDir();
+        if (!Files.isDirectory(checkpointDir)) {
+            return inUse;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(checkpointDir, "*.ckpt.json")) {
+            for (Path file : stream) {
+                try {
+                    JSONObject obj = new JSONObject(Files.readString(file));
+                    inUse.add(Path.of(obj.getString("converted")).toAbsolutePath().normalize());
+                } catch (Exception e) {
+                    logger.debug("Checkpoint ilegible {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo listar checkpoints en {}", checkpointDir, e);
+        }
+        return inUse;
+    }
+
+    /**
+     * Escribe los finales nuevos a partir de {@code validBytes}, descartando
+     * lo que quedara detrás de una escritura anterior sin registro.
+     *
+     * @return longitud del log tras escribirlos
+     */
+    private static long appendLog(Path log, long validBytes, List<String> newFinals) throws IOException {
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() > validBytes) {
+                channel.truncate(validBytes);
+            }
+            channel.position(validBytes);
+            if (!newFinals.isEmpty()) {
+                StringBuilder lines = new StringBuilder();
+                for (String json : newFinals) {
+                    // Como string JSON: el final de Vosk puede traer saltos de línea
+                    lines.append(new JSONArray().put(json)).append('\n');
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+            return channel.position();
+        }
+    }
+
+    /**
+     * Lee los finales de los primeros {@code logBytes} bytes del log.
+     *
+     * @throws IOException si el log es más corto o no tiene {@code count} finales
+     */
+    private static List<String> readLog(Path log, long logBytes, int count) throws IOException {
+        if (logBytes == 0 && count == 0) {
+            return new ArrayList<>();
+        }
+        if (!Files.exists(log) || Files.size(log) < logBytes) {
+            throw new IOException("log de finales incompleto");
+        }
+        byte[] data;
+        try (InputStream in = Files.newInputStream(log)) {
+            data = in.readNBytes(Math.toIntExact(logBytes));
+        }
+        List<String> finals = new ArrayList<>(count);
+        for (String line : new String(data, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                finals.add(new JSONArray(line).getString(0));
+            }
+        }
+        if (finals.size() != count) {
+            throw new IOException("el log tiene " + finals.size() + " finales, se esperaban " + count);
+        }
+        return finals;
+    }
+
+    /**
+     * Nombre estable del checkpoint derivado de la ruta absoluta del original.
+     */
+    private static Path checkpointFile(Path audioFile) {
+        return AppSettings.current().checkpointDir().resolve(baseName(audioFile) + ".ckpt.json");
+    }
+
+    /**
+     * Log de finales del checkpoint, junto a él.
+     */
+    private static Path logFile(Path audioFile) {
+        return AppSettings.current().checkpointDir().resolve(baseName(audioFile) + ".ckpt.log");
+    }
+
+    private static String baseName(Path audioFile) {
+        Path absolute = audioFile.toAbsolutePath().normalize();
+        String name = absolute.getFileName().toString().replaceAll("[^a-zA-Z0-9._-]", "_");
+        String hash = Integer.toHexString(absolute.toString().hashCode());
+        return name + "_" + hash;
+    }
+}
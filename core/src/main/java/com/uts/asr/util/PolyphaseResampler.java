@@ -0,0 +1,225 @@
+package com.uts.asr.util;
+
+import java.util.Arrays;
+
+/**
+ * Remuestreador polifásico racional para PCM de 16 bits con mezcla a mono.
+ * <p>
+ * Convierte audio capturado a la tasa nativa del dispositivo (p. ej. 44.1 o
+ * 48 kHz, estéreo) a la tasa del modelo (16 kHz mono) dentro de la JVM. El
+ * filtro paso bajo (sinc con ventana Kaiser) se descompone en L fases, de modo
+ * que cada muestra de salida cuesta solo {@code taps} multiplicaciones.
+ * </p>
+ * <p>
+ * No reserva memoria en {@link #process}: el historial y los coeficientes se
+ * crean en el constructor. Una instancia mantiene estado entre llamadas y no es
+ * thread-safe (una por stream, igual que los recognizers).
+ * </p>
+ */
+public final class PolyphaseResampler {
+
+    /** Taps por fase (a razón 1:1) por defecto: ~80 dB de rechazo de aliasing. */
+    public static final int DEFAULT_TAPS_PER_PHASE = 48;
+
+    private static final double KAISER_BETA = 8.0;
+    private static final double ROLLOFF = 0.90;
+
+    private final int inputRate;
+    private final int outputRate;
+    private final int channels;
+    private final boolean bigEndian;
+    private final int up;       // L
+    private final int down;     // M
+    private final int taps;
+    private final float[] coefficients; // [fase * taps + k]
+    private final float[] history;      // doble longitud para evitar aritmética modular
+    private int historyPos;
+    private int phase;
+
+    public PolyphaseResampler(int inputRate, int outputRate, int channels, boolean bigEndian) {
+        this(inputRate, outputRate, channels, bigEndian, DEFAULT_TAPS_PER_PHASE);
+    }
+
+    /**
+     * @param inputRate tasa de la entrada (Hz)
+     * @param outputRate tasa deseada (Hz)
+     * @param channels canales intercalados de la entrada (se mezclan a mono)
+     * @param bigEndian orden de bytes de la entrada; la salida es siempre little endian
+     * @param tapsPerPhase longitud del filtro por fase a razón 1:1 (calidad vs CPU);
+     *                     al diezmar se escala por M/L para conservar la banda de transición
+     */
+    public PolyphaseResampler(int inputRate, int outputRate, int channels,
+                              boolean bigEndian, int tapsPerPhase) {
+        if (inputRate <= 0 || outputRate <= 0 || channels <= 0 || tapsPerPhase <= 0) {
+            throw new IllegalArgumentException("Parámetros de remuestreo inválidos: "
+                + inputRate + " -> " + outputRate + " Hz, " + channels + " canales");
+        }
+        int gcd = gcd(inputRate, outputRate);
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+        this.channels = channels;
+        this.bigEndian = bigEndian;
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+        this.taps = tapsPerPhase * (int) Math.ceil(Math.max(1.0, (double) down / up));
+        this.coefficients = designFilter(up, down, taps);
+        this.history = new float[2 * taps];
+    }
+
+    /**
+     * Convierte un bloque de PCM de entrada.
+     *
+     * @param in bytes de entrada (frames completos de 16 bits por canal)
+     * @param inLength bytes válidos en {@code in}
+     * @param out destino (PCM 16 bits mono little endian)
+     * @param outOffset posición inicial en {@code out}
+     * @return bytes escritos en {@code out}
+     * @throws IllegalArgumentException si {@code out} no tiene espacio, ver {@link #maxOutputBytes(int)}
+     */
+    public int process(byte[] in, int inLength, byte[] out, int outOffset) {
+        int frameBytes = 2 * channels;
+        int frames = inLength / frameBytes;
+        if (out.length - outOffset < maxOutputBytes(inLength)) {
+            throw new IllegalArgumentException("Buffer de salida insuficiente");
+        }
+
+        int written = outOffset;
+        int pos = 0;
+        for (int f = 0; f < frames; f++) {
+            // Mezcla a mono
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += sample(in, pos);
+                pos += 2;
+            }
+            float x = (float) sum / channels;
+
+            historyPos = historyPos == 0 ? taps - 1 : historyPos - 1;
+            history[historyPos] = x;
+            history[historyPos + taps] = x;
+
+            while (phase < up) {
+                float acc = 0f;
+                int base = phase * taps;
+                for (int k = 0; k < taps; k++) {
+                    acc += coefficients[base + k] * history[historyPos + k];
+                }
+                int value = Math.round(acc);
+                if (value > Short.MAX_VALUE) {
+                    value = Short.MAX_VALUE;
+                } else if (value < Short.MIN_VALUE) {
+                    value = Short.MIN_VALUE;
+                }
+                out[written++] = (byte) value;
+                out[written++] = (byte) (value >> 8);
+                phase += down;
+            }
+            phase -= up;
+        }
+        return written - outOffset;
+    }
+
+    /**
+     * Cota superior de bytes de salida para {@code inLength} bytes de entrada.
+     */
+    public int maxOutputBytes(int inLength) {
+        long frames = inLength / (2L * channels);
+        return (int) (2 * ((frames * up + down - 1) / down));
+    }
+
+    /**
+     * Mayor bloque de entrada (en frames completos) cuya salida cabe en
+     * {@code outBytes} bytes.
+     */
+    public int inputBytesFor(int outBytes) {
+        long outSamples = outBytes / 2;
+        long frames = Math.max(1, outSamples * down / up);
+        return (int) (frames * 2 * channels);
+    }
+
+    /**
+     * Retardo de grupo del filtro en muestras de salida.
+     */
+    public double delayOutputSamples() {
+        return (taps * up - 1) / 2.0 / down;
+    }
+
+    /**
+     * Reinicia el estado (historial y fase) para un stream nuevo.
+     */
+    public void reset() {
+        Arrays.fill(history, 0f);
+        historyPos = 0;
+        phase = 0;
+    }
+
+    public int inputRate() {
+        return inputRate;
+    }
+
+    public int outputRate() {
+        return outputRate;
+    }
+
+    public int channels() {
+        return channels;
+    }
+
+    private int sample(byte[] in, int pos) {
+        return bigEndian
+            ? (short) ((in[pos] << 8) | (in[pos + 1] & 0xFF))
+            : (short) ((in[pos + 1] << 8) | (in[pos] & 0xFF));
+    }
+
+    /**
+     * Diseña el prototipo sinc con ventana Kaiser a la tasa sobremuestreada
+     * (entrada × L) y lo reparte en L fases, compensando la ganancia L.
+     */
+    private static float[] designFilter(int up, int down, int tapsPerPhase) {
+        int length = up * tapsPerPhase;
+        // Corte relativo a la tasa sobremuestreada: mitad de la menor de las dos tasas
+        double cutoff = ROLLOFF * 0.5 / Math.max(up, down);
+        double center = (length - 1) / 2.0;
+        double i0Beta = besselI0(KAISER_BETA);
+
+        double[] prototype = new double[length];
+        for (int n = 0; n < length; n++) {
+            double t = n - center;
+            double sinc = t == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * t) / (Math.PI * t);
+            double ratio = 2.0 * n / (length - 1) - 1.0;
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - ratio * ratio))) / i0Beta;
+            prototype[n] = sinc * window * up;
+        }
+
+        float[] coefficients = new float[length];
+        for (int p = 0; p < up; p++) {
+            for (int k = 0; k < tapsPerPhase; k++) {
+                coefficients[p * tapsPerPhase + k] = (float) prototype[p + k * up];
+            }
+        }
+        return coefficients;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1.0;
+        double term = 1.0;
+        double half = x / 2.0;
+        for (int k = 1; k < 50; k++) {
+            term *= (half / k) * (half / k);
+            sum += term;
+            if (term < 1e-12 * sum) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,199 @@
+package com.uts.asr.util;
+
+import com.uts.asr.config.AppConfig;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.jfr.AudioConversionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Convierte archivos de audio a formato PCM compatible con Vosk usando FFmpeg.
+ */
+public final class SoundConverter {
+    private static final Logger logger = LoggerFactory.getLogger(SoundConverter.class);
+
+    private static final int LOG_TAIL_LINES = 20;
+
+    private SoundConverter() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Convierte un archivo de audio a PCM 16kHz, 16 bits, mono.
+     * 
+     * @param inputFile archivo de entrada (puede ser WAV, MP3, etc.)
+     * @return archivo convertido en formato PCM
+     * @throws IOException si la conversión falla
+     */
+    public static Path convertToPCM(Path inputFile) throws IOException {
+        try (CancellationToken token = CancellationToken.create()) {
+            return convertToPCM(inputFile, token);
+        }
+    }
+
+    /**
+     * Convierte un archivo de audio a PCM 16kHz, 16 bits, mono. Cancelar el
+     * token (o que venza su plazo) mata ffmpeg en el acto.
+     * 
+     * @param inputFile archivo de entrada (puede ser WAV, MP3, etc.)
+     * @param token cancelación y plazo del trabajo que pide la conversión
+     * @return archivo convertido en formato PCM
+     * @throws IOException si la conversión falla o excede {@code ffmpeg.timeoutSeconds}
+     * @throws CancellationException si se cancela el token
+     */
+    public static Path convertToPCM(Path inputFile, CancellationToken token) throws IOException {
+        if (!Files.exists(inputFile)) {
+            throw new IOException("Archivo no existe: " + inputFile);
+        }
+        token.throwIfCancelled();
+
+        AppSettings settings = AppSettings.current();
+        int timeoutSeconds = settings.ffmpegTimeoutSeconds();
+
+        // Crear directorio temporal si no existe
+        Files.createDirectories(settings.tempDir());
+
+        // Archivo de salida temporal
+        String outputName = sanitizeFileName(inputFile.getFileName().toString());
+        Path outputFile = settings.tempDir().resolve(outputName + "_converted.wav");
+        // La salida de ffmpeg va a un archivo: leerla por el pipe bloqueaba
+        // hasta que ffmpeg terminaba, y el timeout nunca llegaba a aplicarse
+        Path logFile = settings.tempDir().resolve(outputName + "_ffmpeg.log");
+
+        logger.info("Convirtiendo {} a {}", inputFile, outputFile);
+
+        // Comando FFmpeg
+        ProcessBuilder pb = new ProcessBuilder(
+            "ffmpeg",
+            "-nostdin",
+            "-i", inputFile.toAbsolutePath().toString(),
+            "-ar", String.valueOf((int) settings.sampleRate()),
+            "-ac", String.valueOf(AppConfig.CHANNELS),
+            "-sample_fmt", "s16",
+            "-f", "wav",
+            "-y", // sobrescribir
+            outputFile.toAbsolutePath().toString()
+        );
+
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(logFile.toFile());
+        
+        Process process = null;
+        boolean converted = false;
+        AudioConversionEvent event = new AudioConversionEvent();
+        event.begin();
+        String outcome = "error";
+        int exitCode = -1;
+        long outputBytes = 0;
+        try {
+            process = pb.start();
+            
+            // Esperar con timeout, o hasta que la cancelación mate el proceso
+            long timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+            long remainingMillis = token.remainingMillis();
+            boolean finished;
+            CancellationToken.Registration kill = token.onCancel(process::destroyForcibly);
+            try {
+                finished = process.waitFor(Math.min(timeoutMillis, remainingMillis), TimeUnit.MILLISECONDS);
+            } finally {
+                kill.close();
+            }
+            if (token.isCancelled()) {
+                outcome = "cancelada";
+                token.throwIfCancelled();
+            }
+            
+            if (!finished) {
+                process.destroyForcibly();
+                outcome = "timeout";
+                if (remainingMillis < timeoutMillis) {
+                    // Venció el plazo del trabajo antes que el de ffmpeg
+                    throw new CancellationException("plazo del trabajo agotado durante la conversión");
+                }
+                throw new IOException("FFmpeg timeout después de " + timeoutSeconds + " segundos");
+            }
+
+            exitCode = process.exitValue();
+            if (exitCode != 0) {
+                logger.error("FFmpeg falló con código {}: {}", exitCode, readLog(logFile));
+                throw new IOException("FFmpeg falló con código " + exitCode);
+            }
+
+            if (!Files.exists(outputFile) || Files.size(outputFile) == 0) {
+                throw new IOException("Archivo convertido está vacío o no existe");
+            }
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("FFmpeg: {}", readLog(logFile));
+            }
+            outputBytes = Files.size(outputFile);
+            logger.info("Conversión exitosa: {} ({} bytes)", outputFile, outputBytes);
+            converted = true;
+            outcome = "ok";
+            return outputFile;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Conversión interrumpida", e);
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            // Sin conversión completa no queda nada que reanudar: no dejar salida parcial
+            if (!converted) {
+                deleteQuietly(outputFile);
+            }
+            deleteQuietly(logFile);
+            event.end();
+            if (event.shouldCommit()) {
+                event.inputFile = inputFile.toString();
+                event.outputBytes = outputBytes;
+                event.exitCode = exitCode;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Últimas líneas de la salida de ffmpeg (el error suele estar al final).
+     */
+    private static String readLog(Path logFile) {
+        try {
+            List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+            return String.join("\n", lines.subList(Math.max(0, lines.size() - LOG_TAIL_LINES), lines.size()));
+        } catch (IOException e) {
+            return "(salida de ffmpeg no disponible: " + e.getMessage() + ")";
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar archivo temporal {}", file, e);
+        }
+    }
+
+    /**
+     * Sanitiza un nombre de archivo eliminando caracteres problemáticos.
+     */
+    private static String sanitizeFileName(String fileName) {
+        // Remover extensión
+        int dotIndex = fileName.lastIndexOf('.');
+        if (dotIndex > 0) {
+            fileName = fileName.substring(0, dotIndex);
+        }
+        
+        // Reemplazar caracteres inválidos
+        return fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.uts.asr.util;
+
+import com.uts.asr.archive.TranscriptArchive;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.WriterFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Política de retención de los archivos sueltos de {@code dirs.temp}.
+ * <p>
+ * Pasado {@code temp.retentionHours} se eliminan los JSON crudos de
+ * {@link Writer}, los temporales huérfanos de escrituras atómicas y los PCM
+ * convertidos que ningún checkpoint necesita. Con {@code writer.format=archive}
+ * los JSON se importan al archivo antes de borrarse, lo que migra el histórico.
+ * También se borran las grabaciones de segunda pasada que quedaron huérfanas
+ * (la JVM terminó antes de redecodificarlas).
+ * </p>
+ */
+public final class TempRetention {
+    private static final Logger logger = LoggerFactory.getLogger(TempRetention.class);
+
+    /** JSON de Writer: {@code <sesión>_yyyy-MM-dd_HH-mm-ss.json}. */
+    private static final Pattern WRITER_JSON =
+        Pattern.compile("(.+)_(\\d{4}-\\d{2}-\\d{2}_\\d{2}-\\d{2}-\\d{2})\\.json");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private TempRetention() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Aplica la política una vez.
+     *
+     * @return archivos eliminados
+     */
+    public static int sweep() throws IOException {
+        AppSettings settings = AppSettings.current();
+        if (settings.tempRetentionHours() == 0 || !Files.isDirectory(settings.tempDir())) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minusSeconds(3600L * settings.tempRetentionHours());
+        boolean archive = settings.writerFormat() == WriterFormat.ARCHIVE;
+        Set<Path> inUse = CheckpointStore.convertedFilesInUse();
+
+        int deleted = 0;
+        int imported = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(settings.tempDir())) {
+            for (Path file : stream) {
+                if (!Files.isRegularFile(file)
+                        || Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                Matcher json = WRITER_JSON.matcher(name);
+                try {
+                    if (json.matches()) {
+                        if (archive) {
+                            TranscriptArchive.shared().append(json.group(1),
+                                savedAt(json.group(2), file), Files.readString(file));
+                            imported++;
+                        }
+                    } else if (name.endsWith("_converted.wav")) {
+                        if (inUse.contains(file.toAbsolutePath().normalize())) {
+                            continue;
+                        }
+                    } else if (!name.endsWith(".tmp")) {
+                        continue;
+                    }
+                    Files.deleteIfExists(file);
+                    deleted++;
+                } catch (Exception e) {
+                    logger.warn("Retención: no se pudo procesar {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        deleted += sweepRecordings(settings.recordingsDir(), cutoff);
+        if (deleted > 0) {
+            logger.info("Retención de {}: {} archivos eliminados ({} importados al archivo)",
+                settings.tempDir(), deleted, imported);
+        }
+        return deleted;
+    }
+
+    private static int sweepRecordings(Path directory, Instant cutoff) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.pcm")) {
+            for (Path file : stream) {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(file);
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    logger.warn("Retención: no se pudo procesar {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static Instant savedAt(String stamp, Path file) throws IOException {
+        try {
+            return LocalDateTime.parse(stamp, TIMESTAMP_FORMAT).atZone(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            return Files.getLastModifiedTime(file).toInstant();
+        }
+    }
+}
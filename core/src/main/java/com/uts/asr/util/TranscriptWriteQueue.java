@@ -0,0 +1,277 @@
+package com.uts.asr.util;
+
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Cola de escritura de transcripciones con un único hilo de E/S.
+ * <p>
+ * Los hilos de decodificación y la interfaz encolan el guardado y siguen; el
+ * hilo {@code transcript-writer} toma todo lo pendiente (hasta
+ * {@code writer.batchMax}) y lo confirma junto: un bloque y un fsync en el
+ * archivo de segmentos, un commit del índice y los directorios creados una
+ * sola vez. Con la cola llena ({@code writer.queueCapacity}) quien guarda
+ * espera hasta {@code writer.submitTimeoutMs}; así la carga por lotes no
+ * acumula memoria sin límite si el disco no da abasto.
+ * </p>
+ * <p>
+ * Tras {@link #close()} los guardados nuevos se rechazan: nunca se escriben
+ * en el hilo de quien llama, que no espera más de {@code writer.submitTimeoutMs}.
+ * </p>
+ */
+public final class TranscriptWriteQueue {
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptWriteQueue.class);
+
+    private static final long POLL_MILLIS = 200;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private static TranscriptWriteQueue shared;
+
+    /**
+     * Guardado pendiente. {@link Writer#commitBatch} rellena {@code source} o
+     * {@code error}; la cola completa después el futuro.
+     */
+    static final class Job {
+        final String session;
+        final LocalDateTime at;
+        final String voskJson;
+        /** Origen al que reemplaza (segunda pasada), o null. */
+        final String replaces;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        String source;
+        Exception error;
+
+        Job(String session, LocalDateTime at, String voskJson, String replaces) {
+            this.session = session;
+            this.at = at;
+            this.voskJson = voskJson;
+            this.replaces = replaces;
+        }
+    }
+
+    /**
+     * Métricas acumuladas desde el arranque.
+     *
+     * @param submitted guardados encolados
+     * @param written guardados confirmados en disco
+     * @param failed guardados fallidos (incluye rechazos por cola llena)
+     * @param batches lotes confirmados
+     * @param queued guardados en cola ahora
+     * @param maxQueued máximo observado en cola
+     * @param averageBatch guardados por lote en promedio
+     * @param averageLatencyMs media desde el encolado hasta la confirmación
+     * @param maxLatencyMs máximo desde el encolado hasta la confirmación
+     */
+    public record Metrics(long submitted, long written, long failed, long batches, int queued,
+                          int maxQueued, double averageBatch, double averageLatencyMs, double maxLatencyMs) {
+
+        @Override
+        public String toString() {
+            return String.format("%d escritos, %d fallidos, %d en cola (máx %d), %.1f por lote, "
+                    + "latencia media %.1f ms (máx %.1f ms)", written, failed, queued, maxQueued,
+                averageBatch, averageLatencyMs, maxLatencyMs);
+        }
+    }
+
+    private final BlockingQueue<Job> queue;
+    private final BiConsumer<List<Job>, Set<Path>> committer;
+    private final int batchMax;
+    private final long submitTimeoutMs;
+    private final Thread thread;
+    /** Directorios ya creados; solo lo usa el hilo de escritura. */
+    private final Set<Path> knownDirectories = new HashSet<>();
+    private volatile boolean closed;
+
+    // Métricas protegidas por this
+    private long submitted;
+    private long written;
+    private long failed;
+    private long batches;
+    private int maxQueued;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    TranscriptWriteQueue(int capacity, int batchMax, long submitTimeoutMs) {
+        this(capacity, batchMax, submitTimeoutMs, Writer::commitBatch);
+    }
+
+    /**
+     * @param committer escribe un lote y rellena {@code source} o {@code error}
+     *                  de cada guardado ({@link Writer#commitBatch} fuera de los tests)
+     */
+    TranscriptWriteQueue(int capacity, int batchMax, long submitTimeoutMs,
+                         BiConsumer<List<Job>, Set<Path>> committer) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.committer = committer;
+        this.batchMax = batchMax;
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.thread = new Thread(this::run, "transcript-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Cola de la configuración activa, creada al primer guardado. Al cerrar
+     * la JVM se vacía antes de salir.
+     */
+    public static synchronized TranscriptWriteQueue shared() {
+        if (shared == null) {
+            AppSettings settings = AppSettings.current();
+            TranscriptWriteQueue created = new TranscriptWriteQueue(settings.writerQueueCapacity(),
+                settings.writerBatchMax(), settings.writerSubmitTimeoutMs());
+            Runtime.getRuntime().addShutdownHook(new Thread(created::close, "transcript-writer-shutdown"));
+            shared = created;
+        }
+        return shared;
+    }
+
+    /**
+     * Encola un guardado. Bloquea mientras la cola esté llena, hasta
+     * {@code writer.submitTimeoutMs}.
+     *
+     * @param replaces origen guardado antes al que sustituye, o null
+     * @return futuro con el origen guardado (archivo de texto o {@code archive:<id>})
+     */
+    CompletableFuture<String> submit(String session, LocalDateTime at, String voskJson, String replaces) {
+        Job job = new Job(session, at, voskJson, replaces);
+        boolean accepted;
+        try {
+            accepted = !closed && queue.offer(job, submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, new InterruptedIOException("Interrumpido esperando sitio en la cola de escritura"));
+            return job.result;
+        }
+
+        synchronized (this) {
+            submitted++;
+            maxQueued = Math.max(maxQueued, queue.size());
+        }
+        if (closed) {
+            // Cerrada mientras se encolaba: el hilo pudo terminar sin verlo
+            if (accepted) {
+                awaitWriterThread(submitTimeoutMs);
+            }
+            if (!accepted || (!thread.isAlive() && queue.remove(job))) {
+                fail(job, new IOException("Cola de escritura cerrada: guardado de " + session + " descartado"));
+            }
+        } else if (!accepted) {
+            fail(job, new IOException("Cola de escritura llena tras " + submitTimeoutMs
+                + " ms: el disco no da abasto (" + metrics() + ")"));
+        }
+        return job.result;
+    }
+
+    /**
+     * Métricas actuales.
+     */
+    public synchronized Metrics metrics() {
+        long completed = written + failed;
+        return new Metrics(submitted, written, failed, batches, queue.size(), maxQueued,
+            batches == 0 ? 0 : (double) completed / batches,
+            completed == 0 ? 0 : totalLatencyNanos / 1e6 / completed,
+            maxLatencyNanos / 1e6);
+    }
+
+    /**
+     * Deja de aceptar guardados en la cola y espera a que se escriba lo pendiente.
+     */
+    public void close() {
+        closed = true;
+        awaitWriterThread(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        logger.info("Cola de escritura cerrada: {}", metrics());
+    }
+
+    private void awaitWriterThread(long millis) {
+        try {
+            thread.join(Math.max(1, millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Job> batch = new ArrayList<>(batchMax);
+        while (true) {
+            Job first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Solo se interrumpe al cerrar: vaciar lo pendiente y salir
+                closed = true;
+                first = queue.poll();
+            }
+            if (first == null) {
+                if (closed && queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchMax - 1);
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Job> batch) {
+        long start = System.nanoTime();
+        try {
+            committer.accept(batch, knownDirectories);
+        } catch (RuntimeException e) {
+            for (Job job : batch) {
+                if (job.source == null && job.error == null) {
+                    job.error = e;
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            batches++;
+            for (Job job : batch) {
+                long latency = now - job.enqueuedNanos;
+                totalLatencyNanos += latency;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                if (job.error == null) {
+                    written++;
+                } else {
+                    failed++;
+                }
+            }
+        }
+        for (Job job : batch) {
+            if (job.error == null) {
+                job.result.complete(job.source);
+            } else {
+                job.result.completeExceptionally(job.error);
+            }
+        }
+        logger.debug("Lote de {} guardado(s) confirmado en {} ms", batch.size(),
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void fail(Job job, Exception error) {
+        synchronized (this) {
+            failed++;
+        }
+        logger.warn("Guardado de {} rechazado: {}", job.session, error.getMessage());
+        job.result.completeExceptionally(error);
+    }
+}
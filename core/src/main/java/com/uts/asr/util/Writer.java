@@ -0,0 +1,318 @@
+package com.uts.asr.util;
+
+import com.uts.asr.archive.ArchivedTranscript;
+import com.uts.asr.archive.TranscriptArchive;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.WriterFormat;
+import com.uts.asr.index.TranscriptIndex;
+import com.uts.asr.jfr.TranscriptSaveEvent;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utilidad para guardar transcripciones en formato JSON y texto o en el
+ * archivo de segmentos ({@code writer.format}). La escritura la hace el hilo
+ * de {@link TranscriptWriteQueue}, por lotes.
+ */
+public final class Writer {
+    private static final Logger logger = LoggerFactory.getLogger(Writer.class);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = 
+        DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private Writer() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Guarda una transcripción según {@code writer.format}: JSON (temp) y texto
+     * (transcriptions), o una entrada en el archivo de segmentos. Espera a que
+     * la cola de escritura la confirme en disco.
+     * 
+     * @param sessionName nombre de la sesión
+     * @param voskJson resultado JSON de Vosk
+     * @throws IOException si hay error al escribir
+     */
+    public static void saveTranscription(String sessionName, String voskJson) throws IOException {
+        await(saveTranscriptionAsync(sessionName, voskJson));
+    }
+
+    /**
+     * Encola el guardado en {@link TranscriptWriteQueue} y vuelve sin esperar
+     * al disco (salvo que la cola esté llena).
+     *
+     * @return futuro con el origen guardado: archivo de texto o {@code archive:<id>}
+     */
+    public static CompletableFuture<String> saveTranscriptionAsync(String sessionName, String voskJson) {
+        return TranscriptWriteQueue.shared().submit(sanitizeSessionName(sessionName),
+            LocalDateTime.now(), voskJson, null);
+    }
+
+    /**
+     * Sustituye una transcripción ya guardada (p. ej. por la de la segunda
+     * pasada). Con archivos sueltos se reescriben los mismos {@code .txt} y
+     * {@code .json}; en el archivo de segmentos se añade una entrada nueva. En
+     * ambos casos el índice deja de devolver la versión anterior.
+     *
+     * @param source origen devuelto al guardar la versión anterior
+     * @return futuro con el origen de la nueva versión
+     */
+    public static CompletableFuture<String> replaceTranscriptionAsync(String source, String sessionName,
+                                                                      String voskJson) {
+        return TranscriptWriteQueue.shared().submit(sanitizeSessionName(sessionName),
+            LocalDateTime.now(), voskJson, source);
+    }
+
+    /**
+     * Espera un guardado asíncrono.
+     *
+     * @return el origen guardado
+     * @throws IOException el error de escritura original
+     */
+    public static String await(CompletableFuture<String> saved) throws IOException {
+        try {
+            return saved.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando el guardado");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Escribe un lote de la cola: en modo archivo, un único bloque; en modo
+     * archivos sueltos, cada guardado por separado (un fallo no arrastra al
+     * resto). Después indexa todo el lote en un solo commit.
+     *
+     * @param knownDirectories directorios ya creados (se vacía tras un fallo)
+     */
+    static void commitBatch(List<TranscriptWriteQueue.Job> batch, Set<Path> knownDirectories) {
+        AppSettings settings = AppSettings.current();
+        TranscriptSaveEvent event = new TranscriptSaveEvent();
+        event.begin();
+
+        if (settings.writerFormat() == WriterFormat.ARCHIVE) {
+            List<TranscriptArchive.Pending> pending = new ArrayList<>(batch.size());
+            for (TranscriptWriteQueue.Job job : batch) {
+                pending.add(new TranscriptArchive.Pending(job.session, savedAt(job), job.voskJson));
+            }
+            try {
+                List<ArchivedTranscript> archived = TranscriptArchive.shared().appendAll(pending);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).source = archived.get(i).reference();
+                    logger.info("Transcripción archivada: {}", batch.get(i).source);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error al archivar {} transcripción(es)", batch.size(), e);
+                for (TranscriptWriteQueue.Job job : batch) {
+                    job.error = e;
+                }
+            }
+        } else {
+            for (TranscriptWriteQueue.Job job : batch) {
+                try {
+                    job.source = saveFiles(settings, job, knownDirectories).toString();
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Error al guardar la transcripción de {}", job.session, e);
+                    job.error = e;
+                    // Alguien pudo borrar un directorio: se vuelve a comprobar en el próximo lote
+                    knownDirectories.clear();
+                }
+            }
+        }
+
+        // Actualizar el índice de búsqueda (un fallo no invalida el guardado)
+        if (settings.indexEnabled()) {
+            indexTranscriptions(batch);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.transcripts = batch.size();
+            event.format = settings.writerFormat().name();
+            for (TranscriptWriteQueue.Job job : batch) {
+                event.characters += job.voskJson.length();
+                if (job.error != null) {
+                    event.failed++;
+                }
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * JSON crudo en temp/ y texto en transcriptions/. Un reemplazo de un
+     * archivo de texto reutiliza sus nombres.
+     *
+     * @return el archivo de texto
+     */
+    private static Path saveFiles(AppSettings settings, TranscriptWriteQueue.Job job,
+                                  Set<Path> knownDirectories) throws IOException {
+        createDirectory(settings.tempDir(), knownDirectories);
+        createDirectory(settings.transcriptionsDir(), knownDirectories);
+
+        String baseName = job.session + "_" + job.at.format(TIMESTAMP_FORMAT);
+        Path textFile = settings.transcriptionsDir().resolve(baseName + ".txt");
+        if (job.replaces != null && !TranscriptArchive.isReference(job.replaces)
+                && job.replaces.endsWith(".txt")) {
+            textFile = Path.of(job.replaces);
+            String name = textFile.getFileName().toString();
+            baseName = name.substring(0, name.length() - ".txt".length());
+        }
+
+        // 1. Guardar JSON crudo en temp/
+        Path jsonFile = settings.tempDir().resolve(baseName + ".json");
+        saveJsonFile(jsonFile, job.voskJson);
+        logger.info("JSON guardado en: {}", jsonFile);
+
+        // 2. Extraer texto y guardar en transcriptions/
+        String text = extractTextFromJson(job.voskJson);
+        saveTextFile(textFile, text);
+        logger.info("Transcripción guardada en: {}", textFile);
+        return textFile;
+    }
+
+    private static void createDirectory(Path directory, Set<Path> knownDirectories) throws IOException {
+        if (!knownDirectories.contains(directory)) {
+            Files.createDirectories(directory);
+            knownDirectories.add(directory);
+        }
+    }
+
+    private static void indexTranscriptions(List<TranscriptWriteQueue.Job> batch) {
+        List<TranscriptIndex.Document> documents = new ArrayList<>(batch.size());
+        for (TranscriptWriteQueue.Job job : batch) {
+            if (job.error == null) {
+                documents.add(new TranscriptIndex.Document(job.session, job.source, savedAt(job),
+                    job.voskJson, job.replaces));
+            }
+        }
+        try {
+            TranscriptIndex.shared().addAll(documents);
+        } catch (Exception e) {
+            logger.warn("No se pudieron indexar {} transcripción(es) (use 'reindex' para reconstruir el índice)",
+                documents.size(), e);
+        }
+    }
+
+    private static Instant savedAt(TranscriptWriteQueue.Job job) {
+        return job.at.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * Guarda el JSON crudo de forma atómica.
+     */
+    private static void saveJsonFile(Path destination, String json) throws IOException {
+        Path temp = Files.createTempFile(destination.getParent(), "vosk_", ".json.tmp");
+        try {
+            Files.writeString(temp, json);
+            Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING, 
+                      StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Guarda el texto legible de forma atómica.
+     */
+    private static void saveTextFile(Path destination, String text) throws IOException {
+        Path temp = Files.createTempFile(destination.getParent(), "trans_", ".txt.tmp");
+        try {
+            Files.writeString(temp, text);
+            Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING,
+                      StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Extrae el texto de un resultado JSON de Vosk. Con segmentos etiquetados
+     * por hablante, una línea por turno de palabra ("Hablante 1: ...").
+     */
+    public static String extractTextFromJson(String json) {
+        try {
+            JSONObject obj = new JSONObject(json);
+            JSONArray segments = obj.optJSONArray("segments");
+            if (segments != null && segments.length() > 0) {
+                return speakerTurns(segments);
+            }
+            if (obj.has("text")) {
+                return obj.getString("text").trim();
+            }
+            return "";
+        } catch (Exception e) {
+            logger.warn("No se pudo parsear JSON de Vosk: {}", e.getMessage());
+            return json; // Fallback: devolver JSON completo
+        }
+    }
+
+    /**
+     * Une los segmentos seguidos del mismo hablante en un solo turno.
+     */
+    private static String speakerTurns(JSONArray segments) {
+        StringBuilder text = new StringBuilder();
+        int previous = -1;
+        for (int i = 0; i < segments.length(); i++) {
+            JSONObject segment = segments.getJSONObject(i);
+            int speaker = segment.optInt("speaker", 0);
+            if (speaker != previous) {
+                if (text.length() > 0) {
+                    text.append('\n');
+                }
+                text.append("Hablante ").append(speaker > 0 ? String.valueOf(speaker) : "?").append(':');
+                previous = speaker;
+            }
+            text.append(' ').append(segment.optString("text", "").trim());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Sanitiza el nombre de sesión para uso como nombre de archivo.
+     */
+    private static String sanitizeSessionName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return "session";
+        }
+        
+        // Reemplazar caracteres inválidos por guion bajo
+        String sanitized = name.trim()
+            .replaceAll("[<>:\"/\\\\|?*]", "_")
+            .replaceAll("\\s+", "_");
+        
+        // Limitar longitud
+        if (sanitized.length() > 50) {
+            sanitized = sanitized.substring(0, 50);
+        }
+        
+        return sanitized;
+    }
+}
\ No newline at end of file
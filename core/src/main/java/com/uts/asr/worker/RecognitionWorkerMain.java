@@ -0,0 +1,134 @@
+package com.uts.asr.worker;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.SettingsLoader;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.engine.SpeechRecognizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Punto de entrada de un proceso worker de reconocimiento.
+ * <p>
+ * Carga su propio modelo con {@link VoskService}, escucha en
+ * {@code worker.bind:worker.port} y atiende cada conexión como una sesión con
+ * su propio recognizer. Un fallo nativo aquí solo tumba este proceso; el
+ * coordinador lo relanza y reintenta las sesiones afectadas.
+ * </p>
+ * <p>
+ * Puede lanzarse a mano en otros hosts para escalar horizontalmente:
+ * {@code java -cp ... com.uts.asr.worker.RecognitionWorkerMain --worker.bind=0.0.0.0 --worker.port=7700}
+ * y registrarse en el coordinador con {@code workers.endpoints}.
+ * </p>
+ */
+public final class RecognitionWorkerMain {
+    private static final Logger logger = LoggerFactory.getLogger(RecognitionWorkerMain.class);
+
+    private RecognitionWorkerMain() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    public static void main(String[] args) throws Exception {
+        AppSettings settings = SettingsLoader.load(args);
+        if (settings.workerModeEnabled()) {
+            throw new IllegalStateException("Un worker no puede delegar en otros workers");
+        }
+        VoskService.init();
+
+        try (ServerSocket server = new ServerSocket(settings.workerPort(), 50,
+                InetAddress.getByName(settings.workerBind()))) {
+            // El coordinador espera esta línea para conocer el puerto
+            System.out.println(WorkerProtocol.READY_PREFIX + server.getLocalPort());
+            System.out.flush();
+            logger.info("Worker escuchando en {}:{}", settings.workerBind(), server.getLocalPort());
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                WorkerFactory.getExecutor().submit(() -> serve(socket));
+            }
+        }
+    }
+
+    /**
+     * Atiende una sesión: un recognizer durante toda la conexión.
+     */
+    private static void serve(Socket socket) {
+        SpeechRecognizer recognizer = null;
+        boolean permit = false;
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            WorkerFactory.acquireRecognizerPermit();
+            permit = true;
+
+            byte[] buffer = new byte[64 * 1024];
+            byte[] accepted = new byte[1];
+            while (true) {
+                WorkerProtocol.Frame frame = WorkerProtocol.read(in, buffer);
+                buffer = frame.payload();
+                if (recognizer == null) {
+                    // La primera trama indica si la sesión etiqueta hablantes
+                    boolean speakers = frame.type() == WorkerProtocol.SPEAKERS;
+                    recognizer = WorkerFactory.createRecognizer(speakers);
+                    logger.debug("Sesión abierta desde {}{}", socket.getRemoteSocketAddress(),
+                        speakers ? " (con hablantes)" : "");
+                    if (speakers) {
+                        continue;
+                    }
+                }
+                switch (frame.type()) {
+                    case WorkerProtocol.AUDIO -> {
+                        if (recognizer.acceptWaveForm(frame.payload(), frame.length())) {
+                            byte[] json = recognizer.getResult().getBytes(StandardCharsets.UTF_8);
+                            byte[] reply = new byte[json.length + 1];
+                            reply[0] = 1;
+                            System.arraycopy(json, 0, reply, 1, json.length);
+                            WorkerProtocol.write(out, WorkerProtocol.ACCEPTED, reply, reply.length);
+                        } else {
+                            accepted[0] = 0;
+                            WorkerProtocol.write(out, WorkerProtocol.ACCEPTED, accepted, 1);
+                        }
+                    }
+                    case WorkerProtocol.PARTIAL ->
+                        WorkerProtocol.writeText(out, WorkerProtocol.RESULT, recognizer.getPartialResult());
+                    case WorkerProtocol.FINAL ->
+                        WorkerProtocol.writeText(out, WorkerProtocol.RESULT, recognizer.getFinalResult());
+                    case WorkerProtocol.CLOSE -> {
+                        return;
+                    }
+                    default -> {
+                        WorkerProtocol.writeText(out, WorkerProtocol.ERROR, "Tipo de trama desconocido: " + frame.type());
+                        return;
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            logger.debug("Coordinador cerró la sesión");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Sesión terminada por error de E/S: {}", e.getMessage());
+        } finally {
+            if (recognizer != null) {
+                recognizer.close();
+            }
+            if (permit) {
+                WorkerFactory.releaseRecognizerPermit();
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.uts.asr.worker;
+
+import com.uts.asr.engine.SpeechRecognizer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Recognizer que delega en un proceso worker por socket local.
+ * <p>
+ * Guarda el audio enviado desde el último resultado final. Si el worker cae a
+ * mitad de sesión, se conecta a otro (o al relanzado) y reenvía ese audio a un
+ * recognizer nuevo, de modo que la estrategia no ve el fallo salvo que se
+ * agoten los reintentos. Los finales que salgan al reenviar se entregan
+ * enteros y de uno en uno por {@link #acceptWaveForm}/{@link #getResult()}, y
+ * el audio reenviado hasta el último de ellos deja de guardarse: una segunda
+ * caída no lo vuelve a decodificar.
+ * </p>
+ */
+public final class RemoteSpeechRecognizer implements SpeechRecognizer {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteSpeechRecognizer.class);
+
+    /** Máximo de audio pendiente de reenviar (~2 min a 16 kHz). */
+    private static final int MAX_REPLAY_BYTES = 32000 * 120;
+
+    private final WorkerProcessPool pool;
+    private final int maxRetries;
+    private final boolean labelSpeakers;
+    private final Deque<byte[]> replay = new ArrayDeque<>();
+    private final Deque<String> pendingFinals = new ArrayDeque<>();
+    private int replayBytes;
+    private byte[] readBuffer = new byte[4096];
+
+    private WorkerProcessPool.Connection connection;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    RemoteSpeechRecognizer(WorkerProcessPool pool, int maxRetries, boolean labelSpeakers) throws IOException {
+        this.pool = pool;
+        this.maxRetries = maxRetries;
+        this.labelSpeakers = labelSpeakers;
+        open();
+    }
+
+    @Override
+    public boolean acceptWaveForm(byte[] data, int length) {
+        byte[] chunk = Arrays.copyOf(data, length);
+        // Se guarda para reenviar solo cuando el worker lo aceptó: si el envío
+        // falla, call() reenvía lo guardado y después vuelve a enviar este trozo
+        String result = call(() -> sendAudio(chunk));
+        if (result != null) {
+            pendingFinals.addLast(result);
+            clearReplay();
+        } else {
+            remember(chunk);
+        }
+        return !pendingFinals.isEmpty();
+    }
+
+    @Override
+    public String getResult() {
+        String result = pendingFinals.pollFirst();
+        return result != null ? result : "{\"text\": \"\"}";
+    }
+
+    @Override
+    public String getPartialResult() {
+        return call(() -> request(WorkerProtocol.PARTIAL));
+    }
+
+    @Override
+    public String getFinalResult() {
+        String result = call(() -> request(WorkerProtocol.FINAL));
+        clearReplay();
+        if (pendingFinals.isEmpty()) {
+            return result;
+        }
+        // Finales surgidos durante un reenvío que la estrategia ya no va a
+        // recoger: salen junto al del worker, sin perder palabras ni hablante
+        pendingFinals.addLast(result);
+        String merged = merge(pendingFinals);
+        pendingFinals.clear();
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            WorkerProtocol.writeEmpty(out, WorkerProtocol.CLOSE);
+        } catch (IOException ignored) {
+            // El worker ya no está
+        }
+        connection.release();
+        connection = null;
+    }
+
+    private interface Call {
+        String run() throws IOException;
+    }
+
+    /**
+     * Ejecuta una llamada reintentando en otro worker si la conexión cae.
+     */
+    private String call(Call call) {
+        int attempt = 0;
+        while (true) {
+            try {
+                return call.run();
+            } catch (IOException e) {
+                if (attempt++ >= maxRetries) {
+                    throw new UncheckedIOException("Worker de reconocimiento no disponible tras "
+                        + maxRetries + " reintentos", e);
+                }
+                logger.warn("Worker {} falló ({}), reintentando sesión ({}/{})",
+                    connection != null ? connection.worker() : "?", e.getMessage(), attempt, maxRetries);
+                reconnect();
+            }
+        }
+    }
+
+    private void reconnect() {
+        if (connection != null) {
+            connection.release();
+            connection = null;
+        }
+        try {
+            open();
+            // Reenviar el audio del segmento en curso al recognizer nuevo
+            for (byte[] chunk : replay.toArray(new byte[0][])) {
+                String result = sendAudio(chunk);
+                if (result != null) {
+                    pendingFinals.addLast(result);
+                    // Ese audio ya tiene final: no se reenvía si vuelve a caer
+                    forgetThrough(chunk);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Reconexión fallida: {}", e.getMessage());
+            // Se reintentará en la siguiente vuelta de call()
+        }
+    }
+
+    private void open() throws IOException {
+        connection = pool.connect();
+        in = new DataInputStream(new BufferedInputStream(connection.socket().getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(connection.socket().getOutputStream()));
+        if (labelSpeakers) {
+            WorkerProtocol.writeEmpty(out, WorkerProtocol.SPEAKERS);
+        }
+    }
+
+    /**
+     * Envía audio; devuelve el JSON final si el worker cerró un segmento.
+     */
+    private String sendAudio(byte[] chunk) throws IOException {
+        if (connection == null) {
+            throw new IOException("Sin conexión con worker");
+        }
+        WorkerProtocol.write(out, WorkerProtocol.AUDIO, chunk, chunk.length);
+        WorkerProtocol.Frame frame = expect(WorkerProtocol.ACCEPTED);
+        if (frame.length() > 0 && frame.payload()[0] == 1) {
+            return new String(frame.payload(), 1, frame.length() - 1, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private String request(byte type) throws IOException {
+        if (connection == null) {
+            throw new IOException("Sin conexión con worker");
+        }
+        WorkerProtocol.writeEmpty(out, type);
+        return expect(WorkerProtocol.RESULT).text();
+    }
+
+    private WorkerProtocol.Frame expect(byte type) throws IOException {
+        WorkerProtocol.Frame frame = WorkerProtocol.read(in, readBuffer);
+        readBuffer = frame.payload();
+        if (frame.type() == WorkerProtocol.ERROR) {
+            throw new IllegalStateException("Error en worker: " + frame.text());
+        }
+        if (frame.type() != type) {
+            throw new IOException("Respuesta inesperada del worker: " + frame.type());
+        }
+        return frame;
+    }
+
+    private void remember(byte[] chunk) {
+        replay.addLast(chunk);
+        replayBytes += chunk.length;
+        while (replayBytes > MAX_REPLAY_BYTES && replay.size() > 1) {
+            replayBytes -= replay.removeFirst().length;
+        }
+    }
+
+    private void forgetThrough(byte[] chunk) {
+        byte[] removed;
+        do {
+            removed = replay.removeFirst();
+            replayBytes -= removed.length;
+        } while (removed != chunk);
+    }
+
+    private void clearReplay() {
+        replay.clear();
+        replayBytes = 0;
+    }
+
+    /**
+     * Une varios finales en uno: texto y palabras en orden, y el embedding de
+     * hablante como media ponderada por frames.
+     */
+    static String merge(Iterable<String> finals) {
+        JSONObject merged = new JSONObject();
+        StringBuilder text = new StringBuilder();
+        JSONArray words = new JSONArray();
+        double[] spk = null;
+        int spkFrames = 0;
+        for (String json : finals) {
+            JSONObject part = new JSONObject(json);
+            String partText = part.optString("text", "").trim();
+            if (!partText.isEmpty()) {
+                text.append(text.length() > 0 ? " " : "").append(partText);
+            }
+            JSONArray partWords = part.optJSONArray("result");
+            if (partWords != null) {
+                for (int i = 0; i < partWords.length(); i++) {
+                    words.put(partWords.get(i));
+                }
+            }
+            JSONArray partSpk = part.optJSONArray("spk");
+            int frames = part.optInt("spk_frames", 0);
+            if (partSpk != null && frames > 0) {
+                if (spk == null) {
+                    spk = new double[partSpk.length()];
+                }
+                for (int i = 0; i < spk.length; i++) {
+                    spk[i] += partSpk.optDouble(i, 0) * frames;
+                }
+                spkFrames += frames;
+            }
+        }
+        if (!words.isEmpty()) {
+            merged.put("result", words);
+        }
+        if (spk != null) {
+            JSONArray vector = new JSONArray();
+            for (double value : spk) {
+                vector.put(value / spkFrames);
+            }
+            merged.put("spk", vector);
+            merged.put("spk_frames", spkFrames);
+        }
+        merged.put("text", text.toString());
+        return merged.toString();
+    }
+}
@@ -0,0 +1,366 @@
+package com.uts.asr.worker;
+
+import com.uts.asr.config.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinador de procesos worker de reconocimiento.
+ * <p>
+ * Lanza {@code workers.processes} JVMs hijas (cada una con su modelo) y/o se
+ * conecta a los workers de {@code workers.endpoints}. Las sesiones se reparten
+ * al worker con menos sesiones activas. Si un worker local muere se relanza
+ * automáticamente, con esperas que se duplican entre intentos; tras
+ * {@link #MAX_RESTART_ATTEMPTS} relanzamientos seguidos (fallidos, o que
+ * vuelven a morir antes de {@link #STABLE_UPTIME_MS}) se da por perdido. Las
+ * esperas y los relanzamientos corren en hilos propios, no en el que avisa de
+ * la salida del proceso (el del JDK que recoge los procesos hijos). Las
+ * sesiones en curso se reintentan desde {@link RemoteSpeechRecognizer}.
+ * </p>
+ */
+public final class WorkerProcessPool {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerProcessPool.class);
+    private static final int STARTUP_TIMEOUT_SECONDS = 120;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final long RESTART_BACKOFF_MS = 1000;
+    private static final long MAX_RESTART_BACKOFF_MS = 30_000;
+    /** Relanzamientos seguidos antes de abandonar un worker. */
+    static final int MAX_RESTART_ATTEMPTS = 5;
+    /** Tiempo vivo tras el que un worker vuelve a tener todos los relanzamientos. */
+    private static final long STABLE_UPTIME_MS = 5 * 60_000;
+    private static final long RECONNECT_WAIT_MS = 30_000;
+
+    private static volatile WorkerProcessPool instance;
+
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger workerIds = new AtomicInteger(0);
+    // Un hilo por worker local: el arranque de uno no retrasa el relanzamiento de otro
+    private final ScheduledThreadPoolExecutor restarter = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "worker-restarts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger localWorkers = new AtomicInteger(0);
+    private volatile boolean shuttingDown = false;
+
+    /**
+     * Worker conocido por el coordinador (local o remoto).
+     */
+    static final class Worker {
+        final int id;
+        final String host;
+        volatile int port;
+        volatile Process process;           // null para workers remotos
+        volatile boolean alive;
+        volatile boolean failed;            // no se relanza más
+        volatile long readyAtMillis;
+        int restarts;                       // seguidos; solo desde los hilos de relanzamiento
+        final AtomicInteger sessions = new AtomicInteger(0);
+
+        Worker(int id, String host, int port) {
+            this.id = id;
+            this.host = host;
+            this.port = port;
+        }
+
+        @Override
+        public String toString() {
+            return "worker-" + id + "@" + host + ":" + port;
+        }
+    }
+
+    WorkerProcessPool() {
+    }
+
+    /**
+     * Obtiene el pool, lanzando los workers configurados la primera vez.
+     *
+     * @throws IOException si algún worker local no llega a estar listo
+     */
+    public static WorkerProcessPool get() throws IOException {
+        WorkerProcessPool pool = instance;
+        if (pool == null) {
+            synchronized (WorkerProcessPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new WorkerProcessPool();
+                    pool.start(AppSettings.current());
+                    instance = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private void start(AppSettings settings) throws IOException {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "worker-pool-shutdown"));
+
+        for (String endpoint : settings.workerEndpoints()) {
+            addRemoteWorker(endpoint);
+        }
+        for (int i = 0; i < settings.workerProcesses(); i++) {
+            addLocalWorker();
+        }
+    }
+
+    /**
+     * Registra un worker ya en marcha en {@code host:puerto}.
+     */
+    void addRemoteWorker(String endpoint) {
+        int colon = endpoint.lastIndexOf(':');
+        Worker worker = new Worker(workerIds.incrementAndGet(),
+            endpoint.substring(0, colon), Integer.parseInt(endpoint.substring(colon + 1)));
+        worker.alive = true;
+        workers.add(worker);
+        logger.info("Worker remoto registrado: {}", worker);
+    }
+
+    /**
+     * Lanza un worker local más (para escalar en caliente en este host).
+     */
+    public void addLocalWorker() throws IOException {
+        Worker worker = new Worker(workerIds.incrementAndGet(), "127.0.0.1", 0);
+        launch(worker);
+        workers.add(worker);
+        restarter.setCorePoolSize(localWorkers.incrementAndGet());
+    }
+
+    /**
+     * Abre una sesión de reconocimiento en el worker menos cargado.
+     *
+     * @param labelSpeakers si los finales deben traer el embedding del hablante
+     */
+    public RemoteSpeechRecognizer openSession(boolean labelSpeakers) throws IOException {
+        return new RemoteSpeechRecognizer(this, AppSettings.current().workerMaxRetries(), labelSpeakers);
+    }
+
+    /**
+     * Conecta con el worker vivo con menos sesiones activas. Si ninguno está
+     * disponible (p. ej. se están relanzando), espera hasta {@link #RECONNECT_WAIT_MS}.
+     */
+    Connection connect() throws IOException {
+        long deadline = System.currentTimeMillis() + RECONNECT_WAIT_MS;
+        IOException last = null;
+        do {
+            List<Worker> candidates = new ArrayList<>(workers);
+            if (!candidates.isEmpty() && candidates.stream().allMatch(worker -> worker.failed)) {
+                throw new IOException("Todos los workers de reconocimiento fallaron al relanzarse", last);
+            }
+            candidates.sort((a, b) -> Integer.compare(a.sessions.get(), b.sessions.get()));
+            for (Worker worker : candidates) {
+                if (!worker.alive) {
+                    continue;
+                }
+                try {
+                    Socket socket = new Socket();
+                    socket.connect(new InetSocketAddress(worker.host, worker.port), CONNECT_TIMEOUT_MS);
+                    socket.setTcpNoDelay(true);
+                    worker.sessions.incrementAndGet();
+                    return new Connection(worker, socket);
+                } catch (IOException e) {
+                    logger.warn("No se pudo conectar con {}: {}", worker, e.getMessage());
+                    last = e;
+                }
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Conexión con worker interrumpida", e);
+            }
+        } while (System.currentTimeMillis() < deadline && !shuttingDown);
+        throw new IOException("No hay workers de reconocimiento disponibles", last);
+    }
+
+    /**
+     * Conexión abierta con un worker.
+     */
+    record Connection(Worker worker, Socket socket) {
+
+        void release() {
+            worker.sessions.decrementAndGet();
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Ya estaba cerrada
+            }
+        }
+    }
+
+    /**
+     * Número de workers vivos.
+     */
+    public int aliveWorkers() {
+        int alive = 0;
+        for (Worker worker : workers) {
+            if (worker.alive) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Número de workers abandonados tras agotar los relanzamientos.
+     */
+    public int failedWorkers() {
+        int failed = 0;
+        for (Worker worker : workers) {
+            if (worker.failed) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private void launch(Worker worker) throws IOException {
+        AppSettings settings = AppSettings.current();
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        command.addAll(settings.workerJvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(RecognitionWorkerMain.class.getName());
+        for (Map.Entry<String, String> entry : settings.asMap().entrySet()) {
+            command.add("--" + entry.getKey() + "=" + entry.getValue());
+        }
+        // El worker reconoce en su propio proceso, en un puerto efímero local
+        command.add("--" + AppSettings.WORKER_PROCESSES + "=0");
+        command.add("--" + AppSettings.WORKER_ENDPOINTS + "=");
+        command.add("--" + AppSettings.WORKER_BIND + "=127.0.0.1");
+        command.add("--" + AppSettings.WORKER_PORT + "=0");
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = pb.start();
+        logger.info("Lanzando {} (pid {})", worker, process.pid());
+
+        int port = awaitReady(process);
+        worker.process = process;
+        worker.port = port;
+        worker.alive = true;
+        worker.readyAtMillis = System.currentTimeMillis();
+        logger.info("{} listo", worker);
+
+        process.onExit().thenAccept(p -> onWorkerExit(worker, p));
+    }
+
+    /**
+     * Espera la línea de puerto en stdout del worker y drena el resto.
+     */
+    private static int awaitReady(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        CompletableFuture<Integer> ready = new CompletableFuture<>();
+
+        Thread drain = new Thread(() -> {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!ready.isDone() && line.startsWith(WorkerProtocol.READY_PREFIX)) {
+                        ready.complete(Integer.parseInt(line.substring(WorkerProtocol.READY_PREFIX.length()).trim()));
+                    } else {
+                        logger.debug("[worker {}] {}", process.pid(), line);
+                    }
+                }
+            } catch (Exception e) {
+                ready.completeExceptionally(e);
+            }
+            ready.completeExceptionally(new IOException("El worker terminó antes de estar listo"));
+        }, "worker-stdout-" + process.pid());
+        drain.setDaemon(true);
+        drain.start();
+
+        try {
+            return ready.get(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            process.destroyForcibly();
+            throw new IOException("El worker no arrancó: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Salida de un worker local (hilo del JDK que recoge procesos): solo
+     * marca el worker y deja el relanzamiento a {@link #restarter}.
+     */
+    private void onWorkerExit(Worker worker, Process process) {
+        worker.alive = false;
+        if (shuttingDown) {
+            return;
+        }
+        logger.error("{} terminó inesperadamente (código {}), relanzando...", worker, process.exitValue());
+        restarter.execute(() -> {
+            if (System.currentTimeMillis() - worker.readyAtMillis >= STABLE_UPTIME_MS) {
+                worker.restarts = 0;
+            }
+            scheduleRestart(worker);
+        });
+    }
+
+    /**
+     * Programa el siguiente relanzamiento tras su espera, o abandona el
+     * worker si ya agotó los intentos.
+     */
+    private void scheduleRestart(Worker worker) {
+        if (shuttingDown) {
+            return;
+        }
+        if (worker.restarts >= MAX_RESTART_ATTEMPTS) {
+            worker.failed = true;
+            logger.error("{} abandonado tras {} relanzamientos seguidos; quedan {} workers vivos",
+                worker, MAX_RESTART_ATTEMPTS, aliveWorkers());
+            return;
+        }
+        int attempt = ++worker.restarts;
+        restarter.schedule(() -> {
+            if (shuttingDown) {
+                return;
+            }
+            try {
+                launch(worker);
+            } catch (IOException e) {
+                logger.error("No se pudo relanzar {} (intento {}/{})", worker, attempt, MAX_RESTART_ATTEMPTS, e);
+                scheduleRestart(worker);
+            }
+        }, restartBackoffMs(attempt), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Espera antes del relanzamiento {@code attempt} (1, 2, ...): se duplica
+     * en cada intento hasta {@link #MAX_RESTART_BACKOFF_MS}.
+     */
+    static long restartBackoffMs(int attempt) {
+        return Math.min(MAX_RESTART_BACKOFF_MS, RESTART_BACKOFF_MS << Math.min(attempt - 1, 20));
+    }
+
+    private void shutdown() {
+        shuttingDown = true;
+        restarter.shutdownNow();
+        for (Worker worker : workers) {
+            Process process = worker.process;
+            if (process != null && process.isAlive()) {
+                logger.info("Deteniendo {}", worker);
+                process.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.uts.asr.worker;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Protocolo binario entre el coordinador y los procesos worker.
+ * <p>
+ * Cada conexión TCP es una sesión de reconocimiento. Los mensajes son tramas
+ * {@code [tipo:1][longitud:4][payload]}; el coordinador envía una petición y
+ * espera exactamente una respuesta, reflejando la API de {@code Recognizer}.
+ * </p>
+ */
+final class WorkerProtocol {
+
+    // Coordinador -> worker
+    static final byte AUDIO = 1;          // payload: PCM; respuesta ACCEPTED
+    static final byte PARTIAL = 2;        // respuesta RESULT
+    static final byte FINAL = 3;          // respuesta RESULT
+    static final byte CLOSE = 4;          // sin respuesta
+    static final byte SPEAKERS = 5;       // primera trama si la sesión etiqueta hablantes; sin respuesta
+
+    // Worker -> coordinador
+    static final byte ACCEPTED = 10;      // payload: [final:1][json si final]
+    static final byte RESULT = 11;        // payload: json
+    static final byte ERROR = 12;         // payload: mensaje
+
+    /** Línea que el worker imprime en stdout al quedar escuchando. */
+    static final String READY_PREFIX = "UTS_ASR_WORKER_PORT ";
+
+    private static final int MAX_FRAME = 16 * 1024 * 1024;
+
+    private WorkerProtocol() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Trama recibida.
+     */
+    record Frame(byte type, byte[] payload, int length) {
+
+        String text() {
+            return new String(payload, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    static void write(DataOutputStream out, byte type, byte[] data, int length) throws IOException {
+        out.writeByte(type);
+        out.writeInt(length);
+        out.write(data, 0, length);
+        out.flush();
+    }
+
+    static void writeText(DataOutputStream out, byte type, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        write(out, type, bytes, bytes.length);
+    }
+
+    static void writeEmpty(DataOutputStream out, byte type) throws IOException {
+        out.writeByte(type);
+        out.writeInt(0);
+        out.flush();
+    }
+
+    /**
+     * Lee una trama reutilizando {@code buffer} si tiene capacidad suficiente.
+     */
+    static Frame read(DataInputStream in, byte[] buffer) throws IOException {
+        byte type = in.readByte();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME) {
+            throw new IOException("Trama inválida de " + length + " bytes");
+        }
+        byte[] payload = buffer != null && buffer.length >= length ? buffer : new byte[length];
+        in.readFully(payload, 0, length);
+        return new Frame(type, payload, length);
+    }
+}
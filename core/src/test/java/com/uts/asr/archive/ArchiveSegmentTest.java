@@ -0,0 +1,95 @@
+package com.uts.asr.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Segmentos: índice del footer al sellar y recuperación tras una escritura cortada.
+ */
+class ArchiveSegmentTest {
+
+    private static ArchivedTranscript transcript(long id, String text) {
+        return new ArchivedTranscript(id, "sesión", Instant.ofEpochMilli(1_000L * id), text,
+            List.of(new ArchivedTranscript.Word(text.split(" ")[0], 0.1, 0.4, 0.8)));
+    }
+
+    @Test
+    void sealedSegmentIsReadFromItsFooter() throws Exception {
+        Path file = Files.createTempDirectory("archive-test").resolve("arch-000001.seg");
+        ArchiveSegment segment = ArchiveSegment.create(file, 1);
+        segment.appendBlock(List.of(transcript(0, "hola"), transcript(1, "buenas tardes")));
+        segment.appendBlock(List.of(transcript(2, "adiós")));
+        List<ArchiveSegment.Location> written = List.copyOf(segment.entries());
+        segment.seal(true, List.of(4, 7));
+        assertThrows(IllegalStateException.class, () -> segment.appendBlock(List.of(transcript(3, "x"))));
+        long size = segment.size();
+        segment.close();
+
+        ArchiveSegment reopened = ArchiveSegment.open(file, 1);
+        try {
+            assertTrue(reopened.isSealed());
+            assertTrue(reopened.isPacked());
+            assertEquals(List.of(4, 7), reopened.replaced());
+            assertEquals(written, reopened.entries());
+            assertEquals(size, reopened.size());
+            assertEquals(2, reopened.blockOffsets().size());
+            assertEquals("buenas tardes", reopened.read(reopened.entries().get(1)).text());
+            assertEquals("adiós", reopened.read(reopened.entries().get(2)).text());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void truncatedTailIsCutOnReopen() throws Exception {
+        Path file = Files.createTempDirectory("archive-test").resolve("arch-000000.seg");
+        ArchiveSegment segment = ArchiveSegment.create(file, 0);
+        segment.appendBlock(List.of(transcript(0, "uno")));
+        segment.appendBlock(List.of(transcript(1, "dos"), transcript(2, "tres")));
+        long intact = segment.size();
+        segment.appendBlock(List.of(transcript(3, "cuatro cinco seis")));
+        long full = segment.size();
+        segment.close();
+
+        // Caída a mitad del tercer bloque
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(full - 5);
+        }
+
+        ArchiveSegment reopened = ArchiveSegment.open(file, 0);
+        try {
+            assertFalse(reopened.isSealed());
+            assertEquals(List.of(0L, 1L, 2L), reopened.entries().stream().map(ArchiveSegment.Location::id).toList());
+            assertEquals(intact, reopened.size());
+            assertEquals(intact, Files.size(file));
+
+            // Se sigue escribiendo donde acabó el último bloque íntegro
+            reopened.appendBlock(List.of(transcript(3, "cuatro")));
+        } finally {
+            reopened.close();
+        }
+        ArchiveSegment again = ArchiveSegment.open(file, 0);
+        try {
+            assertEquals(4, again.entries().size());
+            assertEquals("cuatro", again.read(again.entries().get(3)).text());
+        } finally {
+            again.close();
+        }
+    }
+
+    @Test
+    void foreignFileIsRejected() throws Exception {
+        Path file = Files.createTempDirectory("archive-test").resolve("arch-000002.seg");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThrows(IOException.class, () -> ArchiveSegment.open(file, 2));
+    }
+}
@@ -0,0 +1,88 @@
+package com.uts.asr.archive;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Conversión entre el JSON de Vosk y las entradas del archivo, con y sin hablantes.
+ */
+class ArchivedTranscriptTest {
+
+    private static final Instant SAVED_AT = Instant.ofEpochMilli(1_700_000_000_000L);
+
+    private static JSONObject word(String word, double start, double end) {
+        return new JSONObject().put("word", word).put("start", start).put("end", end).put("conf", 1.0);
+    }
+
+    private static JSONObject segment(int speaker, double start, double end, String text) {
+        return new JSONObject().put("speaker", speaker).put("start", start).put("end", end).put("text", text);
+    }
+
+    /** Como lo deja {@code mergeFinals} con tres finales: hablantes 1, 1 y 2. */
+    private static String labeledJson() {
+        return new JSONObject()
+            .put("text", "hola buenas qué tal bien gracias")
+            .put("result", new JSONArray()
+                .put(word("hola", 0.0, 0.4)).put(word("buenas", 0.5, 0.9))
+                .put(word("qué", 1.5, 1.7)).put(word("tal", 1.8, 2.0))
+                .put(word("bien", 3.0, 3.3)).put(word("gracias", 3.4, 3.9)))
+            .put("segments", new JSONArray()
+                .put(segment(1, 0.0, 0.9, "hola buenas"))
+                .put(segment(1, 1.5, 2.0, "qué tal"))
+                .put(segment(2, 3.0, 3.9, "bien gracias")))
+            .toString();
+    }
+
+    private static ArchivedTranscript roundTrip(ArchivedTranscript transcript) {
+        EntryCodec.Sink sink = new EntryCodec.Sink();
+        EntryCodec.encode(transcript, sink);
+        return EntryCodec.decode(ByteBuffer.wrap(sink.toByteArray()));
+    }
+
+    @Test
+    void speakerLabelsSurviveTheArchive() {
+        ArchivedTranscript parsed = ArchivedTranscript.fromVoskJson(7, "reunión", SAVED_AT, labeledJson());
+        assertEquals(List.of(1, 1, 1, 1, 2, 2),
+            parsed.words().stream().map(ArchivedTranscript.Word::speaker).toList());
+
+        ArchivedTranscript decoded = roundTrip(parsed);
+        assertEquals(parsed.words().stream().map(ArchivedTranscript.Word::speaker).toList(),
+            decoded.words().stream().map(ArchivedTranscript.Word::speaker).toList());
+
+        // Los tramos seguidos del mismo hablante quedan en un segmento
+        JSONArray segments = new JSONObject(decoded.toVoskJson()).getJSONArray("segments");
+        assertEquals(2, segments.length());
+        assertEquals(1, segments.getJSONObject(0).getInt("speaker"));
+        assertEquals("hola buenas qué tal", segments.getJSONObject(0).getString("text"));
+        assertEquals(2, segments.getJSONObject(1).getInt("speaker"));
+        assertEquals("bien gracias", segments.getJSONObject(1).getString("text"));
+        assertEquals(3.0, segments.getJSONObject(1).getDouble("start"), 1e-9);
+        assertEquals(3.9, segments.getJSONObject(1).getDouble("end"), 1e-9);
+    }
+
+    @Test
+    void unlabeledEntriesKeepTheirFormat() {
+        String json = new JSONObject()
+            .put("text", "hola buenas")
+            .put("result", new JSONArray().put(word("hola", 0.0, 0.4)).put(word("buenas", 0.5, 0.9)))
+            .toString();
+        ArchivedTranscript parsed = ArchivedTranscript.fromVoskJson(1, "s", SAVED_AT, json);
+
+        EntryCodec.Sink sink = new EntryCodec.Sink();
+        EntryCodec.encode(parsed, sink);
+        ByteBuffer entry = ByteBuffer.wrap(sink.toByteArray());
+        ArchivedTranscript decoded = EntryCodec.decode(entry);
+
+        // Sin hablantes no se escribe la sección final: es el formato anterior
+        assertFalse(entry.hasRemaining());
+        assertTrue(decoded.words().stream().allMatch(word -> word.speaker() == 0));
+        assertFalse(new JSONObject(decoded.toVoskJson()).has("segments"));
+    }
+}
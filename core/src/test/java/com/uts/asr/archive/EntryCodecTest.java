@@ -0,0 +1,121 @@
+package com.uts.asr.archive;
+
+import com.uts.asr.archive.ArchivedTranscript.Word;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Codificación binaria de entradas: varints, deltas de tiempo y diccionario.
+ */
+class EntryCodecTest {
+
+    private static ArchivedTranscript roundTrip(ArchivedTranscript transcript) {
+        EntryCodec.Sink sink = new EntryCodec.Sink();
+        EntryCodec.encode(transcript, sink);
+        ByteBuffer entry = ByteBuffer.wrap(sink.toByteArray());
+        ArchivedTranscript decoded = EntryCodec.decode(entry);
+        assertFalse(entry.hasRemaining(), "bytes sin leer");
+        return decoded;
+    }
+
+    private static int occurrences(byte[] data, String term) {
+        byte[] needle = term.getBytes(StandardCharsets.UTF_8);
+        int count = 0;
+        for (int i = 0; i + needle.length <= data.length; i++) {
+            int j = 0;
+            while (j < needle.length && data[i + j] == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void varintsRoundTripAtEveryWidth() {
+        long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, 1L << 35, Long.MAX_VALUE, -1};
+        EntryCodec.Sink sink = new EntryCodec.Sink();
+        for (long value : values) {
+            sink.writeVarLong(value);
+        }
+        ByteBuffer in = ByteBuffer.wrap(sink.toByteArray());
+        for (long value : values) {
+            assertEquals(value, EntryCodec.readVarLong(in));
+        }
+        assertFalse(in.hasRemaining());
+
+        // Un byte hasta 127, dos a partir de 128; un negativo ocupa los 10
+        sink.reset();
+        sink.writeVarLong(127);
+        assertEquals(1, sink.size());
+        sink.writeVarLong(128);
+        assertEquals(3, sink.size());
+        sink.reset();
+        sink.writeVarLong(-1);
+        assertEquals(10, sink.size());
+    }
+
+    @Test
+    void overlappingWordsKeepTheirTimes() {
+        // La segunda palabra empieza antes del final de la primera: delta negativo (zigzag)
+        List<Word> words = List.of(
+            new Word("sí", 1.25, 1.9, 1.0),
+            new Word("no", 1.1, 1.4, 0.2),
+            new Word("vale", 7200.5, 7201.0, 0.0));
+        ArchivedTranscript transcript = new ArchivedTranscript(5_000_000_000L, "sesión ñ",
+            Instant.ofEpochMilli(1_700_000_000_123L), "sí no vale", words);
+
+        ArchivedTranscript decoded = roundTrip(transcript);
+        assertEquals(transcript.id(), decoded.id());
+        assertEquals(transcript.session(), decoded.session());
+        assertEquals(transcript.savedAt(), decoded.savedAt());
+        assertEquals(transcript.text(), decoded.text());
+        for (int i = 0; i < words.size(); i++) {
+            Word expected = words.get(i);
+            Word actual = decoded.words().get(i);
+            assertEquals(expected.word(), actual.word());
+            assertEquals(expected.start(), actual.start(), 1e-9);
+            assertEquals(expected.end(), actual.end(), 1e-9);
+            assertEquals(expected.conf(), actual.conf(), 1.0 / 510);
+        }
+    }
+
+    @Test
+    void textIsRebuiltExactlyWithoutWords() {
+        for (String text : new String[]{"", "hola", "  dos  espacios ", "a b a b"}) {
+            ArchivedTranscript decoded = roundTrip(new ArchivedTranscript(0, "s", Instant.EPOCH, text, List.of()));
+            assertEquals(text, decoded.text());
+            assertTrue(decoded.words().isEmpty());
+        }
+    }
+
+    @Test
+    void repeatedTermsAreStoredOnce() {
+        List<Word> words = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            String term = i % 2 == 0 ? "transcripción" : "archivo";
+            words.add(new Word(term, i, i + 0.5, 1.0));
+            text.append(i == 0 ? "" : " ").append(term);
+        }
+        ArchivedTranscript transcript = new ArchivedTranscript(1, "s", Instant.EPOCH, text.toString(), words);
+        EntryCodec.Sink sink = new EntryCodec.Sink();
+        EntryCodec.encode(transcript, sink);
+        byte[] encoded = sink.toByteArray();
+
+        // El texto y el result comparten diccionario: cada término aparece una vez
+        assertEquals(1, occurrences(encoded, "transcripción"));
+        assertEquals(1, occurrences(encoded, "archivo"));
+        assertTrue(encoded.length < text.length(), "entrada de " + encoded.length + " bytes");
+        assertEquals(transcript.text(), EntryCodec.decode(ByteBuffer.wrap(encoded)).text());
+    }
+}
@@ -0,0 +1,121 @@
+package com.uts.asr.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ids estables, compactación y recuperación del archivo de transcripciones.
+ */
+class TranscriptArchiveTest {
+
+    private static String json(int n) {
+        return "{\"text\": \"frase número " + n + "\", \"result\": [{\"word\": \"frase\", \"start\": " + n
+            + ", \"end\": " + (n + 0.5) + ", \"conf\": 1.0}]}";
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws Exception {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.sorted().toList();
+        }
+    }
+
+    private static long totalBytes(Path directory) throws Exception {
+        long total = 0;
+        for (Path file : segmentFiles(directory)) {
+            total += Files.size(file);
+        }
+        return total;
+    }
+
+    private static List<Long> ids(TranscriptArchive archive) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        archive.forEach(transcript -> ids.add(transcript.id()));
+        return ids;
+    }
+
+    @Test
+    void entriesKeepTheirIdsAcrossReopen() throws Exception {
+        Path directory = Files.createTempDirectory("archive-test");
+        TranscriptArchive archive = TranscriptArchive.open(directory, 1 << 20, 4096);
+        assertEquals(0, archive.append("uno", Instant.EPOCH, json(0)).id());
+        List<ArchivedTranscript> batch = archive.appendAll(List.of(
+            new TranscriptArchive.Pending("dos", Instant.EPOCH, json(1)),
+            new TranscriptArchive.Pending("tres", Instant.EPOCH, json(2))));
+        assertEquals(List.of(1L, 2L), batch.stream().map(ArchivedTranscript::id).toList());
+
+        TranscriptArchive reopened = TranscriptArchive.open(directory, 1 << 20, 4096);
+        assertEquals(3, reopened.size());
+        assertEquals("frase número 1", reopened.read("archive:1").text());
+        assertEquals("tres", reopened.read(2).session());
+        assertNull(reopened.read(3));
+        assertThrows(IllegalArgumentException.class, () -> reopened.read("archive:x"));
+
+        // El siguiente id continúa tras los recuperados
+        assertEquals(3, reopened.append("cuatro", Instant.EPOCH, json(3)).id());
+    }
+
+    @Test
+    void compactionRewritesEveryEntryOnce() throws Exception {
+        Path directory = Files.createTempDirectory("archive-test");
+        // Segmentos pequeños: el archivo rota varias veces
+        TranscriptArchive archive = TranscriptArchive.open(directory, 512, 4096);
+        for (int n = 0; n < 40; n++) {
+            archive.append("s" + n, Instant.ofEpochSecond(n), json(n));
+        }
+        int segments = segmentFiles(directory).size();
+        assertTrue(segments > 2, segments + " segmentos");
+        long before = totalBytes(directory);
+
+        // Se reescriben los sellados, con un bloque por segmento en vez de uno por entrada
+        assertEquals(segments - 1, archive.compact());
+        assertTrue(totalBytes(directory) < before, totalBytes(directory) + " >= " + before);
+        assertEquals(0, archive.compact());
+        assertEquals(40, archive.size());
+        for (int n = 0; n < 40; n++) {
+            assertEquals("frase número " + n, archive.read(n).text());
+            assertEquals(n, archive.read(n).words().get(0).start(), 1e-9);
+        }
+
+        TranscriptArchive reopened = TranscriptArchive.open(directory, 512, 4096);
+        List<Long> expected = new ArrayList<>();
+        for (long n = 0; n < 40; n++) {
+            expected.add(n);
+        }
+        // Los compactados llevan números nuevos: el orden de recorrido puede cambiar
+        assertEquals(expected, ids(reopened).stream().sorted().toList());
+    }
+
+    @Test
+    void segmentsLeftByAnInterruptedCompactionAreDropped() throws Exception {
+        Path directory = Files.createTempDirectory("archive-test");
+        TranscriptArchive archive = TranscriptArchive.open(directory, 1 << 20, 4096);
+        for (int n = 0; n < 70; n++) {
+            archive.append("s", Instant.EPOCH, json(n));
+        }
+        Path original = segmentFiles(directory).get(0);
+        byte[] copy = Files.readAllBytes(original);
+
+        // Con 64 entradas o más el segmento activo se sella y se compacta
+        assertEquals(1, archive.compact());
+        assertFalse(Files.exists(original));
+
+        // Caída antes de borrar el segmento reemplazado, y un temporal a medias
+        Files.write(original, copy);
+        Files.write(directory.resolve("arch-000009.seg.tmp"), new byte[]{1, 2, 3});
+
+        TranscriptArchive reopened = TranscriptArchive.open(directory, 1 << 20, 4096);
+        assertFalse(Files.exists(original));
+        assertFalse(Files.exists(directory.resolve("arch-000009.seg.tmp")));
+        assertEquals(70, reopened.size());
+        assertEquals(70, ids(reopened).size());
+        assertEquals("frase número 69", reopened.read(69).text());
+    }
+}
@@ -0,0 +1,105 @@
+package com.uts.asr.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prioridad de las fuentes de configuración, YAML simple y validación.
+ */
+class SettingsLoaderTest {
+
+    /** Carga con un entorno controlado y deja instalada la configuración anterior. */
+    private static AppSettings load(Map<String, String> environment, String... args) throws IOException {
+        AppSettings previous = AppSettings.current();
+        try {
+            return SettingsLoader.load(args, environment);
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    private static Path configFile(String name, String... lines) throws IOException {
+        Path file = Files.createTempDirectory("settings-test").resolve(name);
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    @Test
+    void laterSourcesWin() throws Exception {
+        Path file = configFile("uts.properties",
+            "profile=max-throughput-batch",
+            "batch.convertThreads=3",
+            "batch.queueDepth=5",
+            "audio.chunkFile=16000");
+        AppSettings settings = load(Map.of(
+                "UTS_ASR_BATCH_QUEUE_DEPTH", "6",
+                "UTS_ASR_AUDIO_CHUNK_FILE", "32000"),
+            "--config=" + file, "--audio.chunkFile=48000", "search", "hola");
+
+        assertEquals(PerformanceProfile.MAX_THROUGHPUT_BATCH, settings.profile());
+        assertEquals("model", settings.modelPath());                 // defecto
+        assertEquals(9_600_000, settings.checkpointIntervalBytes()); // perfil
+        assertEquals(3, settings.batchConvertThreads());             // archivo sobre perfil
+        assertEquals(6, settings.batchQueueDepth());                 // entorno sobre archivo
+        assertEquals(48_000, settings.chunkSizeFile());              // flag sobre todo
+    }
+
+    @Test
+    void environmentNamesFollowTheKeys() {
+        assertEquals("UTS_ASR_AUDIO_CHUNK_LIVE", SettingsLoader.envName("audio.chunkLive"));
+        assertEquals("UTS_ASR_MODEL_PATH", SettingsLoader.envName("model.path"));
+        assertEquals(List.of("search", "hola mundo"),
+            SettingsLoader.positionalArgs(new String[]{"--profile=balanced", "search", "hola mundo"}));
+    }
+
+    @Test
+    void yamlNestsKeysAndKeepsHashesInsideQuotes() throws Exception {
+        Map<String, String> values = SettingsLoader.readYaml(List.of(
+            "---",
+            "# modelo de español",
+            "model:",
+            "  path: \"/models/es #2\"   # segundo modelo",
+            "  idleUnloadSeconds: 600 # 10 min",
+            "audio:",
+            "  chunkLive: '3200'",
+            "writer:",
+            "  format: files#sin-espacio",
+            "session: it's #7"));
+
+        assertEquals(Map.of(
+            "model.path", "/models/es #2",
+            "model.idleUnloadSeconds", "600",
+            "audio.chunkLive", "3200",
+            "writer.format", "files#sin-espacio",
+            "session", "it's"), values);
+
+        Path file = configFile("uts.yaml", "model:", "  path: \"/models/es #2\"", "audio:", "  chunkLive: 3200");
+        AppSettings settings = load(Map.of(), "--config=" + file);
+        assertEquals("/models/es #2", settings.modelPath());
+        assertEquals(3200, settings.chunkSizeLive());
+
+        assertThrows(IllegalArgumentException.class, () -> SettingsLoader.readYaml(List.of("- lista")));
+    }
+
+    @Test
+    void invalidValuesAreReportedTogether() throws Exception {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> load(Map.of(), "--model.patth=/x", "--audio.sampleRate=100", "--audio.chunkLive=abc"));
+        assertTrue(error.getMessage().contains("model.patth"), error.getMessage());
+        assertTrue(error.getMessage().contains("audio.sampleRate"), error.getMessage());
+        assertTrue(error.getMessage().contains("audio.chunkLive"), error.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> load(Map.of(), "--profile=turbo"));
+        assertThrows(IllegalArgumentException.class, () -> load(Map.of(), "--audio.chunkLive"));
+        assertThrows(IOException.class, () -> load(Map.of(), "--config=/no/existe/uts.properties"));
+        // Las variables de entorno ajenas a las claves se ignoran
+        assertEquals("model", load(Map.of("UTS_ASR_NADA", "x")).modelPath());
+    }
+}
@@ -0,0 +1,58 @@
+package com.uts.asr.core;
+
+import com.uts.asr.strategy.ChunkStamp;
+import com.uts.asr.strategy.LiveLatency;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.TargetDataLine;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retraso del audio que espera en el buffer de captura.
+ */
+class AudioCaptureTest {
+
+    /** Línea falsa con {@code availableBytes} capturados y sin leer. */
+    private static TargetDataLine line(AudioFormat format, int availableBytes) {
+        return (TargetDataLine) Proxy.newProxyInstance(TargetDataLine.class.getClassLoader(),
+            new Class<?>[]{TargetDataLine.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getFormat" -> format;
+                case "available" -> availableBytes;
+                case "read" -> args[2];
+                case "isOpen" -> true;
+                default -> method.getReturnType() == boolean.class ? false
+                    : method.getReturnType() == int.class ? 0
+                    : method.getReturnType() == long.class ? 0L : null;
+            });
+    }
+
+    @Test
+    void bufferedAudioIsMeasuredInTheNativeFormat() {
+        AudioFormat model = new AudioFormat(16000f, 16, 1, true, false);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500),
+            new AudioCapture(line(model, 16000), 16000f).bufferedNanos());
+
+        AudioFormat stereo = new AudioFormat(48000f, 16, 2, true, false);
+        AudioCapture resampling = new AudioCapture(line(stereo, 48000 * 4 * 2), 16000f);
+        assertTrue(resampling.isResampling());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), resampling.bufferedNanos());
+    }
+
+    @Test
+    void captureBacklogShowsUpInDecodeLatency() {
+        AudioFormat model = new AudioFormat(16000f, 16, 1, true, false);
+        // La decodificación va 3 s por detrás: el chunk sale del buffer al instante
+        AudioCapture capture = new AudioCapture(line(model, 3 * 32000), 16000f);
+        long readAt = TimeUnit.SECONDS.toNanos(100);
+        long decodedAt = readAt + TimeUnit.MILLISECONDS.toNanos(20);
+
+        LiveLatency latency = new LiveLatency();
+        latency.record(new ChunkStamp(readAt - capture.bufferedNanos(), 0, decodedAt), decodedAt, decodedAt);
+
+        assertEquals(3020, latency.snapshot().stages().get(LiveLatency.Stage.DECODE.ordinal()).p50(), 1e-6);
+    }
+}
@@ -0,0 +1,187 @@
+package com.uts.asr.core;
+
+import com.uts.asr.engine.SpeechRecognizer;
+import com.uts.asr.strategy.TranscriptionListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reparto de muchas sesiones sobre pocos hilos y plazo de los chunks incompletos.
+ */
+class DecodeSchedulerTest {
+
+    private static final int CHUNK = 3200;
+
+    /** Cuenta bytes y comprueba que nunca lo usan dos hilos a la vez. */
+    private static final class CountingRecognizer implements SpeechRecognizer {
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicInteger inside = new AtomicInteger();
+        volatile boolean overlapped;
+        volatile boolean closed;
+
+        @Override
+        public boolean acceptWaveForm(byte[] data, int length) {
+            if (inside.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            bytes.addAndGet(length);
+            inside.decrementAndGet();
+            return false;
+        }
+
+        @Override
+        public String getResult() {
+            return "{\"text\":\"\"}";
+        }
+
+        @Override
+        public String getPartialResult() {
+            return "{\"partial\":\"\"}";
+        }
+
+        @Override
+        public String getFinalResult() {
+            return "{\"text\":\"fin\"}";
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static final class CountingListener implements TranscriptionListener {
+        final AtomicInteger finals = new AtomicInteger();
+        volatile Throwable error;
+
+        @Override
+        public void onPartial(String json) {
+        }
+
+        @Override
+        public void onFinal(String json) {
+            finals.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    /** Crea los recognizers como lo haría el executor de WorkerFactory. */
+    private static final ExecutorService OPENER = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "test-opener");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Test void manySessionsShareFewThreads() throws Exception {
+        DecodeScheduler scheduler = new DecodeScheduler(2, CHUNK, 2, 200, 64 * CHUNK, OPENER);
+        List<CountingRecognizer> recognizers = new ArrayList<>();
+        List<CountingListener> listeners = new ArrayList<>();
+        List<DecodeScheduler.Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            CountingRecognizer recognizer = new CountingRecognizer();
+            CountingListener listener = new CountingListener();
+            recognizers.add(recognizer);
+            listeners.add(listener);
+            sessions.add(scheduler.open("s" + i, () -> recognizer, listener));
+        }
+        // Chunks de red más pequeños que el de decodificación, intercalados entre sesiones
+        for (int round = 0; round < 20; round++) {
+            for (DecodeScheduler.Session session : sessions) {
+                session.offer(new byte[1000]);
+            }
+        }
+        for (DecodeScheduler.Session session : sessions) {
+            session.finish();
+        }
+        for (DecodeScheduler.Session session : sessions) {
+            session.done().get(10, TimeUnit.SECONDS);
+        }
+
+        for (int i = 0; i < sessions.size(); i++) {
+            assertEquals(20_000, recognizers.get(i).bytes.get());
+            assertFalse(recognizers.get(i).overlapped);
+            assertTrue(recognizers.get(i).closed);
+            assertEquals(1, listeners.get(i).finals.get());
+            assertNull(listeners.get(i).error);
+        }
+        DecodeScheduler.Metrics metrics = scheduler.metrics();
+        assertEquals(0, metrics.sessions());
+        assertEquals(0, metrics.overruns());
+    }
+
+    @Test void incompleteChunkIsDecodedWhenItsDeadlineExpires() throws Exception {
+        DecodeScheduler scheduler = new DecodeScheduler(1, CHUNK, 1, 50, 16 * CHUNK, OPENER);
+        CountingRecognizer recognizer = new CountingRecognizer();
+        DecodeScheduler.Session session = scheduler.open("lento", () -> recognizer, new CountingListener());
+
+        session.offer(new byte[CHUNK / 4]);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recognizer.bytes.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(CHUNK / 4, recognizer.bytes.get());
+        assertEquals(1, scheduler.metrics().deadlineFlushes());
+
+        session.finish();
+        session.done().get(5, TimeUnit.SECONDS);
+        assertTrue(recognizer.closed);
+    }
+
+    @Test void slowRecognizerCreationDoesNotStallOtherSessions() throws Exception {
+        DecodeScheduler scheduler = new DecodeScheduler(1, CHUNK, 1, 50, 16 * CHUNK, OPENER);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingRecognizer slow = new CountingRecognizer();
+        DecodeScheduler.Session waiting = scheduler.open("espera-memoria", () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return slow;
+        }, new CountingListener());
+        waiting.offer(new byte[CHUNK]);
+
+        // Con un solo hilo decodificador, otra sesión termina mientras la primera espera
+        CountingRecognizer fast = new CountingRecognizer();
+        DecodeScheduler.Session other = scheduler.open("rapida", () -> fast, new CountingListener());
+        other.offer(new byte[CHUNK]);
+        other.finish();
+        other.done().get(5, TimeUnit.SECONDS);
+        assertEquals(CHUNK, fast.bytes.get());
+        assertEquals(0, slow.bytes.get());
+
+        // El audio acumulado mientras tanto se decodifica al tener recognizer
+        release.countDown();
+        waiting.finish();
+        waiting.done().get(5, TimeUnit.SECONDS);
+        assertEquals(CHUNK, slow.bytes.get());
+        assertTrue(slow.closed);
+    }
+
+    @Test void failedCreationEndsOnlyThatSession() throws Exception {
+        DecodeScheduler scheduler = new DecodeScheduler(1, CHUNK, 1, 50, 16 * CHUNK, OPENER);
+        CountingListener listener = new CountingListener();
+        DecodeScheduler.Session session = scheduler.open("sin-memoria", () -> {
+            throw new IOException("sin memoria");
+        }, listener);
+        session.offer(new byte[CHUNK]);
+        assertThrows(Exception.class, () -> session.done().get(5, TimeUnit.SECONDS));
+        assertNotNull(listener.error);
+        assertEquals(0, scheduler.metrics().sessions());
+    }
+}
@@ -0,0 +1,74 @@
+package com.uts.asr.core;
+
+import com.uts.asr.config.AdmissionPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Admisión, liberación y calibración del presupuesto de memoria.
+ */
+class MemoryBudgetTest {
+
+    private static final long MB = 1024L * 1024;
+
+    private static MemoryBudget budget(long budgetMb, AdmissionPolicy policy, long timeoutMs) {
+        return new MemoryBudget(budgetMb * MB, Map.of(
+            MemoryBudget.Kind.MODEL, 60 * MB,
+            MemoryBudget.Kind.RECOGNIZER, 15 * MB,
+            MemoryBudget.Kind.GRAMMAR_RECOGNIZER, 5 * MB), policy, timeoutMs);
+    }
+
+    @Test void rejectsWhenFullAndAdmitsAfterRelease() throws Exception {
+        MemoryBudget budget = budget(100, AdmissionPolicy.REJECT, 0);
+        MemoryBudget.Reservation model = budget.reserve(MemoryBudget.Kind.MODEL);
+        MemoryBudget.Reservation first = budget.reserve(MemoryBudget.Kind.RECOGNIZER);
+        MemoryBudget.Reservation second = budget.reserve(MemoryBudget.Kind.RECOGNIZER);
+        assertThrows(MemoryBudgetExceededException.class, () -> budget.reserve(MemoryBudget.Kind.RECOGNIZER));
+
+        first.close();
+        first.close();
+        assertEquals(75 * MB, budget.usage().reservedBytes());
+        budget.reserve(MemoryBudget.Kind.RECOGNIZER).close();
+        second.close();
+        model.close();
+        assertEquals(0, budget.usage().reservedBytes());
+        assertEquals(1, budget.usage().rejected());
+    }
+
+    @Test void reclaimsIdleBeforeQueueingAndTimesOut() throws Exception {
+        MemoryBudget budget = budget(80, AdmissionPolicy.QUEUE, 50);
+        budget.reserve(MemoryBudget.Kind.MODEL);
+        MemoryBudget.Reservation idle = budget.reserve(MemoryBudget.Kind.RECOGNIZER);
+        AtomicBoolean reclaimed = new AtomicBoolean();
+        budget.addReclaimer(() -> {
+            reclaimed.set(true);
+            idle.close();
+        });
+        MemoryBudget.Reservation active = budget.reserve(MemoryBudget.Kind.RECOGNIZER);
+        assertTrue(reclaimed.get());
+
+        long start = System.nanoTime();
+        assertThrows(MemoryBudgetExceededException.class, () -> budget.reserve(MemoryBudget.Kind.RECOGNIZER));
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+        active.close();
+    }
+
+    @Test void calibrationMovesEstimateAndReservations() throws Exception {
+        MemoryBudget budget = budget(0, AdmissionPolicy.QUEUE, 0);
+        MemoryBudget.Reservation reservation = budget.reserve(MemoryBudget.Kind.RECOGNIZER);
+        budget.calibrate(MemoryBudget.Kind.RECOGNIZER, 40 * MB);
+        assertEquals(40 * MB, budget.estimate(MemoryBudget.Kind.RECOGNIZER));
+        budget.calibrate(MemoryBudget.Kind.RECOGNIZER, 30 * MB);
+        assertEquals(37 * MB, budget.estimate(MemoryBudget.Kind.RECOGNIZER));
+        budget.calibrate(MemoryBudget.Kind.RECOGNIZER, -5 * MB);
+        assertEquals(37 * MB, budget.estimate(MemoryBudget.Kind.RECOGNIZER));
+
+        reservation.adjustToEstimate();
+        assertEquals(37 * MB, reservation.bytes());
+        assertEquals(37 * MB, budget.usage().reservedBytes());
+    }
+}
@@ -0,0 +1,108 @@
+package com.uts.asr.core;
+
+import com.uts.asr.engine.SpeechRecognizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuarentena de sesiones cuya llamada al recognizer no vuelve.
+ */
+class NativeCallWatchdogTest {
+
+    /** Se bloquea en acceptWaveForm hasta que se abre la compuerta. */
+    private static final class BlockingRecognizer implements SpeechRecognizer {
+        final CountDownLatch gate = new CountDownLatch(1);
+        volatile boolean closed;
+        volatile boolean discarded;
+
+        @Override
+        public boolean acceptWaveForm(byte[] data, int length) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        @Override
+        public String getResult() {
+            return "{\"text\":\"\"}";
+        }
+
+        @Override
+        public String getPartialResult() {
+            return "{\"partial\":\"\"}";
+        }
+
+        @Override
+        public String getFinalResult() {
+            return "{\"text\":\"\"}";
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public void discard() {
+            discarded = true;
+        }
+    }
+
+    @Test void stuckCallIsQuarantinedOnceAndDiscarded() throws Exception {
+        NativeCallWatchdog watchdog = new NativeCallWatchdog(50);
+        BlockingRecognizer blocking = new BlockingRecognizer();
+        AtomicInteger stuck = new AtomicInteger();
+        CountDownLatch quarantined = new CountDownLatch(1);
+        SpeechRecognizer watched = watchdog.watch("colgada", blocking, () -> {
+            stuck.incrementAndGet();
+            quarantined.countDown();
+        });
+
+        Thread caller = new Thread(() -> watched.acceptWaveForm(new byte[3200], 3200));
+        caller.setDaemon(true);
+        caller.start();
+        assertTrue(quarantined.await(5, TimeUnit.SECONDS));
+
+        // La llamada vuelve tarde: el recognizer se descarta, no vuelve al caché
+        Thread.sleep(100);
+        blocking.gate.countDown();
+        caller.join(5000);
+        watched.close();
+
+        assertEquals(1, stuck.get());
+        assertEquals(1, watchdog.quarantined());
+        assertTrue(blocking.discarded);
+        assertFalse(blocking.closed);
+        assertEquals(0, watchdog.watching());
+    }
+
+    @Test void fastCallsAreNeverQuarantined() throws Exception {
+        NativeCallWatchdog watchdog = new NativeCallWatchdog(50);
+        BlockingRecognizer open = new BlockingRecognizer();
+        open.gate.countDown();
+        SpeechRecognizer watched = watchdog.watch("normal", open, () -> fail("no debe ponerse en cuarentena"));
+
+        for (int i = 0; i < 20; i++) {
+            watched.acceptWaveForm(new byte[3200], 3200);
+            Thread.sleep(10);
+        }
+        watched.close();
+
+        assertEquals(0, watchdog.quarantined());
+        assertTrue(open.closed);
+        assertFalse(open.discarded);
+    }
+
+    @Test void disabledWatchdogReturnsTheSameRecognizer() {
+        BlockingRecognizer recognizer = new BlockingRecognizer();
+        assertSame(recognizer, new NativeCallWatchdog(0).watch("sin vigilancia", recognizer, () -> { }));
+    }
+}
@@ -0,0 +1,59 @@
+package com.uts.asr.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * El motor sintético debe dar siempre lo mismo y costar lo configurado.
+ */
+class SyntheticRecognizerTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int CHUNK = 3200; // 100 ms
+
+    private static List<Integer> finalChunks(SpeechRecognizer recognizer, int chunks) {
+        List<Integer> finals = new ArrayList<>();
+        byte[] audio = new byte[CHUNK];
+        for (int i = 0; i < chunks; i++) {
+            if (recognizer.acceptWaveForm(audio, CHUNK)) {
+                recognizer.getResult();
+                finals.add(i);
+            }
+        }
+        return finals;
+    }
+
+    @Test void finalsDependOnlyOnTheAmountOfAudio() {
+        List<Integer> first = finalChunks(new SyntheticRecognizer(SAMPLE_RATE, 0), 100);
+        List<Integer> second = finalChunks(new SyntheticRecognizer(SAMPLE_RATE, 0), 100);
+
+        // Un final cada 3 s de audio: chunks 29, 59 y 89
+        assertEquals(List.of(29, 59, 89), first);
+        assertEquals(first, second);
+    }
+
+    @Test void resetStartsTheStreamAgain() {
+        SyntheticRecognizer recognizer = new SyntheticRecognizer(SAMPLE_RATE, 0);
+        finalChunks(recognizer, 45);
+        recognizer.reset();
+        assertEquals(List.of(29), finalChunks(recognizer, 45));
+    }
+
+    @Test void fixedCallCostIsPaidPerChunk() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isCurrentThreadCpuTimeSupported()) {
+            return;
+        }
+        SyntheticRecognizer recognizer = new SyntheticRecognizer(SAMPLE_RATE, 0, 2_000_000,
+            SyntheticRecognizer.DEFAULT_VOCABULARY);
+        long start = threads.getCurrentThreadCpuTime();
+        finalChunks(recognizer, 10);
+        assertTrue(threads.getCurrentThreadCpuTime() - start >= 20_000_000);
+    }
+}
@@ -0,0 +1,78 @@
+package com.uts.asr.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Postings de un segmento mapeado: escritura, reapertura y fusión.
+ */
+class IndexSegmentTest {
+
+    private static void add(SortedMap<String, PostingsBuffer> terms, String term, int doc, int[] positions,
+                            int[] startMs) {
+        terms.computeIfAbsent(term, k -> new PostingsBuffer()).addDoc(doc, positions, startMs, positions.length);
+    }
+
+    @Test
+    void reopenedSegmentServesTheSamePostings() throws Exception {
+        Path directory = Files.createTempDirectory("index-test");
+        SortedMap<String, PostingsBuffer> terms = new TreeMap<>();
+        add(terms, "hola", 0, new int[]{0, 5}, new int[]{0, 2500});
+        add(terms, "hola", 3, new int[]{200}, new int[]{-1});
+        add(terms, "mundo", 0, new int[]{1}, new int[]{400});
+        IndexSegment.write(directory.resolve("seg-000000.idx"), terms, 4);
+
+        IndexSegment segment = IndexSegment.open(directory.resolve("seg-000000.idx"));
+        assertEquals(4, segment.docCount());
+        assertEquals(2, segment.termCount());
+        assertNull(segment.lookup("adios"));
+        assertNull(segment.lookup(""));
+
+        IndexSegment.Postings hola = segment.lookup("hola");
+        assertArrayEquals(new int[]{0, 3}, hola.docs());
+        assertArrayEquals(new int[]{0, 5}, hola.positions(0));
+        assertArrayEquals(new int[]{0, 2500}, hola.startMs(0));
+        assertArrayEquals(new int[]{200}, hola.positions(1));
+        // Sin timestamp de palabra
+        assertArrayEquals(new int[]{-1}, hola.startMs(1));
+        assertArrayEquals(new int[]{400}, segment.lookup("mundo").startMs(0));
+    }
+
+    @Test
+    void mergedSegmentKeepsDocumentsInOrder() throws Exception {
+        Path directory = Files.createTempDirectory("index-test");
+        SortedMap<String, PostingsBuffer> first = new TreeMap<>();
+        add(first, "hola", 0, new int[]{0}, new int[]{0});
+        add(first, "sol", 1, new int[]{3}, new int[]{900});
+        SortedMap<String, PostingsBuffer> second = new TreeMap<>();
+        add(second, "hola", 2, new int[]{1, 4}, new int[]{100, 700});
+        add(second, "luna", 3, new int[]{0}, new int[]{-1});
+        IndexSegment a = IndexSegment.write(directory.resolve("seg-000000.idx"), first, 2);
+        IndexSegment b = IndexSegment.write(directory.resolve("seg-000001.idx"), second, 2);
+
+        SortedMap<String, PostingsBuffer> merged = new TreeMap<>();
+        a.appendTo(merged);
+        b.appendTo(merged);
+        IndexSegment.write(directory.resolve("seg-000002.idx"), merged, 4);
+        IndexSegment segment = IndexSegment.open(directory.resolve("seg-000002.idx"));
+
+        assertEquals(3, segment.termCount());
+        IndexSegment.Postings hola = segment.lookup("hola");
+        assertArrayEquals(new int[]{0, 2}, hola.docs());
+        assertArrayEquals(new int[]{1, 4}, hola.positions(1));
+        assertArrayEquals(new int[]{100, 700}, hola.startMs(1));
+        assertArrayEquals(new int[]{1}, segment.lookup("sol").docs());
+        assertArrayEquals(new int[]{3}, segment.lookup("luna").docs());
+
+        // Fusionar en el orden equivocado se rechaza
+        SortedMap<String, PostingsBuffer> reversed = new TreeMap<>();
+        b.appendTo(reversed);
+        assertThrows(IllegalArgumentException.class, () -> a.appendTo(reversed));
+    }
+}
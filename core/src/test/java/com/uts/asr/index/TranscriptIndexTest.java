@@ -0,0 +1,128 @@
+package com.uts.asr.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Búsqueda de frases, filtros de fecha, fusión de segmentos y reemplazo de
+ * documentos (segunda pasada) en el índice.
+ */
+class TranscriptIndexTest {
+
+    @Test void replacedDocumentIsHiddenAndSurvivesReopen() throws Exception {
+        Path directory = Files.createTempDirectory("index-test");
+        TranscriptIndex index = TranscriptIndex.open(directory, 10);
+        Instant now = Instant.now();
+        index.addDocument("vivo", "/t/vivo.txt", now, TranscriptIndex.textWords("hola mundo rapido"));
+        index.addDocument("otra", "/t/otra.txt", now, TranscriptIndex.textWords("hola mundo"));
+        index.addDocument("vivo", "/t/vivo.txt", now, TranscriptIndex.textWords("hola mundo preciso"),
+            "/t/vivo.txt");
+
+        assertTrue(index.search("rapido", null, null, 10).isEmpty());
+        assertEquals(1, index.search("preciso", null, null, 10).size());
+        assertEquals(2, index.search("hola mundo", null, null, 10).size());
+
+        TranscriptIndex reopened = TranscriptIndex.open(directory, 10);
+        List<SearchHit> hits = reopened.search("hola mundo", null, null, 10);
+        assertEquals(2, hits.size());
+        assertTrue(reopened.search("rapido", null, null, 10).isEmpty());
+    }
+
+    @Test void replacingAnUnknownSourceKeepsEverything() throws Exception {
+        TranscriptIndex index = TranscriptIndex.open(Files.createTempDirectory("index-test"), 10);
+        Instant now = Instant.now();
+        index.addDocument("a", "archive:1", now, TranscriptIndex.textWords("uno dos"));
+        index.addDocument("a", "archive:2", now, TranscriptIndex.textWords("uno dos tres"), "archive:9");
+
+        assertEquals(2, index.search("uno dos", null, null, 10).size());
+    }
+
+    @Test void phraseMatchesOnlyAdjacentWordsInOrder() throws Exception {
+        TranscriptIndex index = TranscriptIndex.open(Files.createTempDirectory("index-test"), 10);
+        Instant now = Instant.now();
+        index.addDocument("a", "/t/a.txt", now, TranscriptIndex.textWords("Hola, buenos Días"));
+        index.addDocument("b", "/t/b.txt", now, TranscriptIndex.textWords("días buenos hola"));
+        index.addDocument("c", "/t/c.txt", now, TranscriptIndex.textWords("hola y buenos días"));
+
+        List<SearchHit> hits = index.search("hola buenos", null, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals("a", hits.get(0).session());
+        assertEquals(0, hits.get(0).wordIndex());
+        assertEquals(-1, hits.get(0).startSeconds(), 0);
+
+        assertEquals(List.of("b"), index.search("buenos HOLA", null, null, 10).stream().map(SearchHit::session).toList());
+        // Sin tildes ni mayúsculas; de la más reciente a la más antigua
+        assertEquals(List.of("c", "a"), index.search("buenos dias", null, null, 10).stream().map(SearchHit::session).toList());
+        assertEquals(2, index.search("buenos días", null, null, 10).get(1).wordIndex() + 1);
+        assertTrue(index.search("hola días", null, null, 10).isEmpty());
+        assertTrue(index.search("  ", null, null, 10).isEmpty());
+    }
+
+    @Test void everyOccurrenceCarriesItsWordTime() throws Exception {
+        TranscriptIndex index = TranscriptIndex.open(Files.createTempDirectory("index-test"), 10);
+        index.add("s", "/t/s.txt", Instant.now(), "{\"text\": \"sí vale sí vale\", \"result\": ["
+            + "{\"word\": \"sí\", \"start\": 0.5}, {\"word\": \"vale\", \"start\": 0.9},"
+            + "{\"word\": \"sí\", \"start\": 12.25}, {\"word\": \"vale\", \"start\": 12.6}]}");
+
+        List<SearchHit> hits = index.search("si vale", null, null, 10);
+        assertEquals(2, hits.size());
+        assertEquals(0.5, hits.get(0).startSeconds(), 1e-9);
+        assertEquals(2, hits.get(1).wordIndex());
+        assertEquals(12.25, hits.get(1).startSeconds(), 1e-9);
+        assertEquals(1, index.search("si vale", null, null, 1).size());
+    }
+
+    @Test void dateRangeIsInclusiveFromAndExclusiveTo() throws Exception {
+        TranscriptIndex index = TranscriptIndex.open(Files.createTempDirectory("index-test"), 10);
+        Instant day1 = Instant.parse("2024-03-01T10:00:00Z");
+        Instant day2 = Instant.parse("2024-03-02T10:00:00Z");
+        Instant day3 = Instant.parse("2024-03-03T10:00:00Z");
+        index.addDocument("uno", "/t/1.txt", day1, TranscriptIndex.textWords("acta de la reunión"));
+        index.addDocument("dos", "/t/2.txt", day2, TranscriptIndex.textWords("acta de la reunión"));
+        index.addDocument("tres", "/t/3.txt", day3, TranscriptIndex.textWords("acta de la reunión"));
+
+        assertEquals(List.of("dos"), index.search("acta", day2, day3, 10).stream().map(SearchHit::session).toList());
+        assertEquals(List.of("tres", "dos"), index.search("acta", day2, null, 10).stream().map(SearchHit::session).toList());
+        assertEquals(List.of("uno"), index.search("acta", null, day2, 10).stream().map(SearchHit::session).toList());
+        assertTrue(index.search("acta", day3.plusMillis(1), null, 10).isEmpty());
+    }
+
+    @Test void mergedSegmentsAnswerLikeTheOriginalsAndSurviveReopen() throws Exception {
+        Path directory = Files.createTempDirectory("index-test");
+        TranscriptIndex index = TranscriptIndex.open(directory, 2);
+        Instant base = Instant.parse("2024-03-01T00:00:00Z");
+        for (int i = 0; i < 16; i++) {
+            index.addDocument("s" + i, "/t/" + i + ".txt", base.plusSeconds(i),
+                TranscriptIndex.textWords("tema común " + (i % 2 == 0 ? "par" : "impar") + " número" + i));
+            // Con factor 2 y sin guardados durante la fusión, los segmentos siguen
+            // los bits del número de documentos (16 = un solo segmento)
+            int expected = Integer.bitCount(i + 1);
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (index.segmentCount() != expected && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(expected, index.segmentCount());
+        }
+        assertEquals(16, index.documentCount());
+        assertEquals(16, index.search("tema común", null, null, 100).size());
+        assertEquals(8, index.search("común impar", null, null, 100).size());
+        assertEquals("s15", index.search("tema", null, null, 100).get(0).session());
+
+        TranscriptIndex reopened = TranscriptIndex.open(directory, 2);
+        assertEquals(1, reopened.segmentCount());
+        assertEquals(List.of("s7"), reopened.search("impar número7", null, null, 10).stream()
+            .map(SearchHit::session).toList());
+        assertEquals(8, reopened.search("par", base, base.plusSeconds(16), 100).size());
+        // Los segmentos fusionados ya no están en disco
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().endsWith(".idx")).count());
+        }
+    }
+}
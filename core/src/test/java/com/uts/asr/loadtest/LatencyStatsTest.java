@@ -0,0 +1,33 @@
+package com.uts.asr.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Percentiles por rango más cercano del informe de capacidad.
+ */
+class LatencyStatsTest {
+
+    @Test void nearestRankPercentiles() {
+        LatencyStats stats = new LatencyStats();
+        for (int i = 100; i >= 1; i--) {
+            stats.add(i);
+        }
+        assertEquals(50, stats.percentile(50), 1e-9);
+        assertEquals(95, stats.percentile(95), 1e-9);
+        assertEquals(100, stats.percentile(100), 1e-9);
+        assertEquals(1, stats.percentile(0), 1e-9);
+        assertEquals(100, stats.max(), 1e-9);
+    }
+
+    @Test void growsBeyondInitialCapacityAndHandlesEmpty() {
+        LatencyStats stats = new LatencyStats();
+        assertEquals(0, stats.percentile(95), 1e-9);
+        for (int i = 0; i < 5000; i++) {
+            stats.add(i % 10);
+        }
+        assertEquals(5000, stats.count());
+        assertEquals(9, stats.percentile(99), 1e-9);
+    }
+}
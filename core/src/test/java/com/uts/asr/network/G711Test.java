@@ -0,0 +1,46 @@
+package com.uts.asr.network;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Valores de referencia de G.711 y orden de bytes de la expansión.
+ */
+class G711Test {
+
+    @Test
+    void mulawReferenceValues() {
+        assertEquals(0, G711.mulawToLinear(0xFF));
+        assertEquals(0, G711.mulawToLinear(0x7F));
+        assertEquals(-32124, G711.mulawToLinear(0x00));
+        assertEquals(32124, G711.mulawToLinear(0x80));
+        // Simétrico: el bit 7 solo cambia el signo
+        for (int value = 0; value < 128; value++) {
+            assertEquals(-G711.mulawToLinear(value | 0x80), G711.mulawToLinear(value));
+        }
+    }
+
+    @Test
+    void alawReferenceValues() {
+        assertEquals(8, G711.alawToLinear(0xD5));
+        assertEquals(-8, G711.alawToLinear(0x55));
+        assertEquals(32256, G711.alawToLinear(0xAA));
+        assertEquals(-32256, G711.alawToLinear(0x2A));
+        for (int value = 0; value < 128; value++) {
+            assertEquals(-G711.alawToLinear(value | 0x80), G711.alawToLinear(value));
+        }
+    }
+
+    @Test
+    void expandWritesLittleEndianAtTheOffsets() {
+        byte[] in = {0x11, (byte) 0x80, 0x00, 0x22};
+        byte[] out = new byte[6];
+        G711.expand(StreamEncoding.MULAW, in, 1, 2, out, 2);
+
+        assertEquals(0, out[0]);
+        assertEquals(0, out[1]);
+        assertEquals(32124, (short) ((out[2] & 0xFF) | (out[3] << 8)));
+        assertEquals(-32124, (short) ((out[4] & 0xFF) | (out[5] << 8)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.uts.asr.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Framing del cuerpo HTTP (chunked, Content-Length, hasta el cierre) y rechazo
+ * de peticiones mal formadas.
+ */
+class HttpStreamParserTest {
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /** Entrega la petición de {@code step} en {@code step} bytes, como llegaría por la red. */
+    private static HttpStreamParser.State feed(HttpStreamParser parser, String request, int step,
+                                              ByteArrayOutputStream body) {
+        byte[] data = request.getBytes(StandardCharsets.ISO_8859_1);
+        HttpStreamParser.State state = parser.state();
+        for (int offset = 0; offset < data.length; offset += step) {
+            ByteBuffer piece = ByteBuffer.wrap(data, offset, Math.min(step, data.length - offset)).slice();
+            state = parser.feed(piece, body::write);
+        }
+        return state;
+    }
+
+    @Test
+    void chunkedBodySplitAcrossReadsIsReassembled() {
+        String request = "POST /stream?encoding=mulaw&rate=8000&Channels=1 HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "Transfer-Encoding: chunked\r\n\r\n"
+            + "5;ext=1\r\nhola \r\n"
+            + "6\r\nmundo!\r\n"
+            + "0\r\nX-Trailer: fin\r\n\r\n";
+        for (int step : new int[]{1, 7, request.length()}) {
+            HttpStreamParser parser = new HttpStreamParser();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            assertEquals(HttpStreamParser.State.DONE, feed(parser, request, step, body));
+            assertEquals("hola mundo!", body.toString(StandardCharsets.ISO_8859_1));
+            assertEquals("POST", parser.method());
+            assertEquals("mulaw", parser.queryParameter("encoding"));
+            assertEquals("8000", parser.queryParameter("RATE"));
+            assertEquals("1", parser.queryParameter("channels"));
+            assertNull(parser.queryParameter("format"));
+        }
+    }
+
+    @Test
+    void contentLengthAndUntilCloseBodies() {
+        HttpStreamParser parser = new HttpStreamParser();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        // Lo que sigue al cuerpo declarado no se consume
+        ByteBuffer in = bytes("PUT /stream HTTP/1.1\r\nContent-Length: 4\r\n\r\nabcdEXTRA");
+        assertEquals(HttpStreamParser.State.DONE, parser.feed(in, body::write));
+        assertEquals("abcd", body.toString(StandardCharsets.ISO_8859_1));
+        assertEquals(5, in.remaining());
+
+        HttpStreamParser empty = new HttpStreamParser();
+        assertEquals(HttpStreamParser.State.DONE,
+            empty.feed(bytes("POST /stream HTTP/1.1\nContent-Length: 0\n\n"), body::write));
+
+        HttpStreamParser open = new HttpStreamParser();
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        assertEquals(HttpStreamParser.State.BODY_UNTIL_CLOSE,
+            open.feed(bytes("POST /stream HTTP/1.0\r\n\r\naudio"), streamed::write));
+        open.feed(bytes(" sin fin"), streamed::write);
+        assertEquals("audio sin fin", streamed.toString(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void malformedRequestsAreRejected() {
+        String[] requests = {
+            "GET /stream\r\n\r\n",
+            "POST /stream SPDY/3\r\n\r\n",
+            "POST /stream HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\nzz\r\n",
+            "POST /stream HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n-5\r\nhola\r\n",
+            "POST /stream HTTP/1.1\r\nContent-Length: diez\r\n\r\n",
+            "POST /stream HTTP/1.1\r\nContent-Length: -1\r\n\r\n",
+            "POST /stream HTTP/1.1\r\nX-Larga: " + "a".repeat(20_000) + "\r\n\r\n",
+        };
+        for (String request : requests) {
+            HttpStreamParser parser = new HttpStreamParser();
+            assertThrows(IllegalArgumentException.class,
+                () -> parser.feed(bytes(request), (data, offset, length) -> { }),
+                request.length() > 80 ? request.substring(0, 80) : request);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.uts.asr.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reordenación, ocultación de pérdidas y estadísticas del jitter buffer.
+ */
+class JitterBufferTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test void reorderedPacketsComeOutInSequence() {
+        JitterBuffer buffer = new JitterBuffer(8000, 60);
+        List<Integer> played = new ArrayList<>();
+        int[] order = {10, 12, 11, 13};
+        for (int i = 0; i < order.length; i++) {
+            buffer.offer(order[i], order[i] * 160L, packet(order[i]), i * 20 * MS);
+            buffer.drain(i * 20 * MS, (payload, length) -> played.add(payload == null ? -1 : payload[0] & 0xFF));
+        }
+        assertEquals(List.of(10, 11, 12, 13), played);
+        assertEquals(0, buffer.lost());
+        assertEquals(0, buffer.concealed());
+    }
+
+    @Test void gapIsConcealedAfterDelay() {
+        JitterBuffer buffer = new JitterBuffer(8000, 60);
+        List<Integer> played = new ArrayList<>();
+        JitterBuffer.Sink sink = (payload, length) -> played.add(payload == null ? -1 : payload[0] & 0xFF);
+        buffer.offer(1, 160, packet(1), 0);
+        buffer.offer(3, 480, packet(3), 40 * MS);
+        buffer.drain(50 * MS, sink);
+        assertEquals(List.of(1), played, "No se oculta antes de vencer el plazo");
+
+        buffer.drain(100 * MS, sink);
+        assertEquals(List.of(1, -1, 3), played);
+        assertEquals(1, buffer.lost());
+        assertEquals(1, buffer.concealed());
+
+        // El perdido llega tarde: se descarta
+        buffer.offer(2, 320, packet(2), 120 * MS);
+        buffer.drain(120 * MS, sink);
+        assertEquals(1, buffer.late());
+        assertEquals(3, played.size());
+    }
+
+    @Test void duplicatesAreCountedOnce() {
+        JitterBuffer buffer = new JitterBuffer(8000, 60);
+        buffer.offer(5, 0, packet(5), 0);
+        buffer.offer(6, 160, packet(6), 20 * MS);
+        buffer.offer(6, 160, packet(6), 21 * MS);
+        assertEquals(2, buffer.received());
+        assertEquals(1, buffer.duplicates());
+    }
+
+    @Test void sequenceWrapKeepsOrder() {
+        JitterBuffer buffer = new JitterBuffer(8000, 60);
+        List<Integer> played = new ArrayList<>();
+        int[] sequences = {65534, 65535, 1, 0, 2};
+        for (int i = 0; i < sequences.length; i++) {
+            buffer.offer(sequences[i], i * 160L, packet(i), i * 20 * MS);
+            buffer.drain(i * 20 * MS, (payload, length) -> played.add(payload[0] & 0xFF));
+        }
+        assertEquals(List.of(0, 1, 3, 2, 4), played, "0 va antes que 1 tras la vuelta");
+        assertEquals(0, buffer.lost());
+    }
+
+    @Test void steadyArrivalHasNoJitter() {
+        JitterBuffer buffer = new JitterBuffer(8000, 60);
+        for (int i = 0; i < 50; i++) {
+            buffer.offer(i, i * 160L, packet(i), i * 20 * MS);
+        }
+        assertEquals(0, buffer.jitterMs(), 0.01);
+
+        JitterBuffer jittery = new JitterBuffer(8000, 60);
+        for (int i = 0; i < 200; i++) {
+            long arrival = i * 20 * MS + (i % 2 == 0 ? 0 : 10 * MS);
+            jittery.offer(i, i * 160L, packet(i), arrival);
+        }
+        assertEquals(10, jittery.jitterMs(), 0.5, "Alternar ±10 ms converge a 10 ms");
+    }
+
+    private static byte[] packet(int marker) {
+        byte[] payload = new byte[160];
+        payload[0] = (byte) marker;
+        return payload;
+    }
+}
@@ -0,0 +1,149 @@
+package com.uts.asr.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ingesta de extremo a extremo: {@link LoopbackSender} contra el servidor real
+ * en puertos efímeros.
+ */
+class StreamIngestServerTest {
+
+    private static final int RATE = 16000;
+
+    /** Acumula el PCM de cada stream y cuenta los que se cierran. */
+    private static final class Collector implements StreamIngestServer.StreamHandler {
+        final Map<String, ByteArrayOutputStream> audio = new ConcurrentHashMap<>();
+        final List<StreamStats> closed = new CopyOnWriteArrayList<>();
+        final CountDownLatch closings;
+
+        Collector(int streams) {
+            closings = new CountDownLatch(streams);
+        }
+
+        @Override
+        public StreamIngestServer.StreamConsumer open(StreamInfo info) {
+            ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+            audio.put(info.name(), pcm);
+            return new StreamIngestServer.StreamConsumer() {
+                @Override
+                public void accept(byte[] data) {
+                    pcm.writeBytes(data);
+                }
+
+                @Override
+                public void close(StreamStats stats) {
+                    closed.add(stats);
+                    closings.countDown();
+                }
+            };
+        }
+    }
+
+    private static StreamIngestServer start(Collector collector) throws Exception {
+        NetworkStreamConfig config = new NetworkStreamConfig("127.0.0.1", 0, NetworkStreamConfig.DISABLED, 0,
+            new StreamFormat(StreamEncoding.PCM_S16LE, RATE, 1), false, 60, 2000);
+        StreamIngestServer server = new StreamIngestServer(config, RATE, collector);
+        server.bind();
+        Thread selector = new Thread(() -> {
+            try {
+                server.run();
+            } catch (Exception e) {
+                // El test lo detecta por los streams que faltan
+            }
+        }, "ingest-test");
+        selector.setDaemon(true);
+        selector.start();
+        return server;
+    }
+
+    private static byte[] ramp(int bytes) {
+        byte[] audio = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            audio[i] = (byte) i;
+        }
+        return audio;
+    }
+
+    @Test
+    void tcpAndChunkedHttpStreamsArriveWhole() throws Exception {
+        Collector collector = new Collector(2);
+        StreamIngestServer server = start(collector);
+        try {
+            byte[] audio = ramp(20_000);
+            LoopbackSender.sendTcp("127.0.0.1", server.tcpPort(), audio, 640, 0);
+            String response = LoopbackSender.sendHttpChunked("127.0.0.1", server.httpPort(), null,
+                audio, 1000, 0);
+            assertTrue(response.startsWith("HTTP/1.1 200"), response);
+            assertTrue(response.contains("\"bytes\":20000"), response);
+
+            assertTrue(collector.closings.await(5, TimeUnit.SECONDS));
+            assertArrayEquals(audio, collector.audio.get("tcp-1").toByteArray());
+            assertArrayEquals(audio, collector.audio.get("http-2").toByteArray());
+            for (StreamStats stats : collector.closed) {
+                assertEquals(20_000, stats.bytes());
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void httpQueryChangesTheFormat() throws Exception {
+        Collector collector = new Collector(1);
+        StreamIngestServer server = start(collector);
+        try {
+            // µ-law: cada byte es una muestra
+            byte[] mulaw = new byte[1600];
+            Arrays.fill(mulaw, (byte) 0x80);
+            String response = LoopbackSender.sendHttpChunked("127.0.0.1", server.httpPort(),
+                "encoding=mulaw&rate=" + RATE, mulaw, 400, 0);
+            assertTrue(response.startsWith("HTTP/1.1 200"), response);
+
+            assertTrue(collector.closings.await(5, TimeUnit.SECONDS));
+            StreamStats stats = collector.closed.get(0);
+            assertEquals(new StreamFormat(StreamEncoding.MULAW, RATE, 1), stats.info().format());
+            assertEquals(1600, stats.bytes());
+            // Expandido a 16 bits (el remuestreador retiene unas pocas muestras)
+            byte[] pcm = collector.audio.values().iterator().next().toByteArray();
+            assertTrue(pcm.length > 3000 && pcm.length <= 3200, pcm.length + " bytes");
+            int last = pcm.length - 2;
+            assertEquals(32124, (short) ((pcm[last] & 0xFF) | (pcm[last + 1] << 8)), 200);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void negativeContentLengthGetsBadRequest() throws Exception {
+        StreamIngestServer server = start(new Collector(0));
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", server.httpPort()), 5000);
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write("POST /stream HTTP/1.1\r\nContent-Length: -10\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(response.startsWith("HTTP/1.1 400"), response);
+            assertTrue(response.contains("negativo"), response);
+        } finally {
+            server.stop();
+        }
+    }
+}
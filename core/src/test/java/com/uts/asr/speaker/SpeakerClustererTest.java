@@ -0,0 +1,63 @@
+package com.uts.asr.speaker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Atribución de embeddings a hablantes dentro de una sesión.
+ */
+class SpeakerClustererTest {
+
+    private static final int DIMENSION = 128;
+    private static final int LONG_SEGMENT = SpeakerClusterer.MIN_RELIABLE_FRAMES * 3;
+
+    /** Embedding de un hablante con ruido propio del segmento. */
+    private static double[] voice(int speaker, int segment, double noise) {
+        Random base = new Random(1000 + speaker);
+        Random jitter = new Random(segment);
+        double[] vector = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = base.nextGaussian() + noise * jitter.nextGaussian();
+        }
+        return vector;
+    }
+
+    @Test
+    void separatesAlternatingSpeakers() {
+        SpeakerClusterer clusterer = new SpeakerClusterer(0.5, 8);
+        int[] expected = {1, 2, 1, 1, 2, 3, 2, 1};
+        int[] voices = {0, 1, 0, 0, 1, 2, 1, 0};
+        for (int segment = 0; segment < voices.length; segment++) {
+            assertEquals(expected[segment], clusterer.assign(voice(voices[segment], segment, 0.3), LONG_SEGMENT),
+                "segmento " + segment);
+        }
+        assertEquals(3, clusterer.speakers());
+    }
+
+    @Test
+    void shortSegmentsDoNotOpenSpeakers() {
+        SpeakerClusterer clusterer = new SpeakerClusterer(0.5, 8);
+        // Sin hablantes aún, un segmento corto queda sin etiquetar
+        assertEquals(0, clusterer.assign(voice(1, 0, 0.3), SpeakerClusterer.MIN_RELIABLE_FRAMES - 1));
+        assertEquals(0, clusterer.speakers());
+        assertEquals(1, clusterer.assign(voice(0, 0, 0.3), LONG_SEGMENT));
+        // Demasiado corto para fiarse: va al más parecido aunque sea otra voz
+        assertEquals(1, clusterer.assign(voice(1, 1, 0.3), SpeakerClusterer.MIN_RELIABLE_FRAMES - 1));
+        assertEquals(1, clusterer.speakers());
+        assertEquals(2, clusterer.assign(voice(1, 2, 0.3), LONG_SEGMENT));
+    }
+
+    @Test
+    void capsSpeakersAndIgnoresEmptyEmbeddings() {
+        SpeakerClusterer clusterer = new SpeakerClusterer(0.5, 2);
+        assertEquals(1, clusterer.assign(voice(0, 0, 0.1), LONG_SEGMENT));
+        assertEquals(2, clusterer.assign(voice(1, 1, 0.1), LONG_SEGMENT));
+        int third = clusterer.assign(voice(2, 2, 0.1), LONG_SEGMENT);
+        assertTrue(third == 1 || third == 2);
+        assertEquals(2, clusterer.speakers());
+        assertEquals(0, clusterer.assign(new double[DIMENSION], LONG_SEGMENT));
+    }
+}
@@ -0,0 +1,236 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.SettingsLoader;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.util.CheckpointStore;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Orden, fallos, cancelación e informe del lote por etapas con el motor sintético.
+ */
+class BatchPipelineTest {
+
+    /** 1 s de PCM a 16 kHz. */
+    private static final int SECOND = 32_000;
+
+    private static final class FileListener implements TranscriptionListener {
+        final List<String> finals = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Throwable error;
+        volatile boolean completed;
+
+        @Override
+        public void onPartial(String json) {
+        }
+
+        @Override
+        public void onFinal(String json) {
+            finals.add(json);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Carga la configuración del lote en {@code temp}. Sin ffmpeg en las
+     * pruebas: cada archivo llega con un checkpoint en el offset 0 que apunta
+     * a su PCM ya convertido.
+     */
+    private static List<Path> files(Path temp, int count, int seconds) throws Exception {
+        SettingsLoader.load(new String[]{"--dirs.temp=" + temp, "--dirs.transcriptions=" + temp.resolve("out"),
+            "--engine.id=synthetic", "--index.enabled=false", "--audio.chunkFile=3200",
+            "--checkpoint.intervalBytes=" + (100 * SECOND)});
+        VoskService.init();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path audio = temp.resolve("audio" + i + ".mp3");
+            Files.write(audio, new byte[100]);
+            Path converted = temp.resolve("audio" + i + "_converted.wav");
+            Files.write(converted, new byte[seconds * SECOND]);
+            CheckpointStore.save(CheckpointStore.begin(audio, converted));
+            files.add(audio);
+        }
+        return files;
+    }
+
+    private static double wordStart(String json, int word) {
+        return new JSONObject(json).getJSONArray("result").getJSONObject(word).getDouble("start");
+    }
+
+    @Test
+    void everyFileIsTranscribedInOrderAndReported() throws Exception {
+        Path temp = Files.createTempDirectory("batch-test");
+        AppSettings previous = AppSettings.current();
+        try {
+            List<Path> files = files(temp, 5, 7);
+            Map<Path, FileListener> listeners = new ConcurrentHashMap<>();
+            BatchPipeline.Report report = new BatchPipeline(2, 2, 1, 1)
+                .run(files, file -> listeners.computeIfAbsent(file, f -> new FileListener()));
+
+            assertEquals(5, report.files());
+            assertEquals(5, report.completed());
+            assertEquals(0, report.failed());
+            for (Path file : files) {
+                FileListener listener = listeners.get(file);
+                assertTrue(listener.completed, file.toString());
+                assertNull(listener.error);
+                // Finales a los 3 y 6 s y el último: en el orden del audio
+                assertEquals(3, listener.finals.size());
+                for (int i = 1; i < listener.finals.size(); i++) {
+                    assertTrue(wordStart(listener.finals.get(i), 0) > wordStart(listener.finals.get(i - 1), 0));
+                }
+                assertFalse(CheckpointStore.exists(file));
+            }
+
+            List<String> stages = report.stages().stream().map(BatchPipeline.StageReport::stage).toList();
+            assertEquals(List.of("convert", "decode", "persist"), stages);
+            for (BatchPipeline.StageReport stage : report.stages()) {
+                assertEquals(5, stage.files(), stage.toString());
+                assertEquals(0, stage.failed());
+                assertTrue(stage.utilization() >= 0 && stage.utilization() <= 1, stage.toString());
+            }
+            assertEquals(2, report.stages().get(1).threads());
+            assertTrue(report.stages().get(1).busyMs() > 0);
+            assertTrue(report.toString().contains("5 completado(s)"), report.toString());
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    @Test
+    void aFailedFilePassesThroughTheLaterStages() throws Exception {
+        Path temp = Files.createTempDirectory("batch-test");
+        AppSettings previous = AppSettings.current();
+        try {
+            List<Path> files = new ArrayList<>(files(temp, 3, 4));
+            Path missing = temp.resolve("no-existe.mp3");
+            files.add(1, missing);
+            Map<Path, FileListener> listeners = new ConcurrentHashMap<>();
+            BatchPipeline.Report report = new BatchPipeline(1, 1, 1, 1)
+                .run(files, file -> listeners.computeIfAbsent(file, f -> new FileListener()));
+
+            assertEquals(4, report.files());
+            assertEquals(3, report.completed());
+            assertEquals(1, report.failed());
+            assertTrue(listeners.get(missing).error instanceof IllegalArgumentException);
+            assertFalse(listeners.get(missing).completed);
+
+            BatchPipeline.StageReport convert = report.stages().get(0);
+            assertEquals(4, convert.files());
+            assertEquals(1, convert.failed());
+            // Las siguientes lo dejan pasar sin contarlo
+            assertEquals(3, report.stages().get(1).files());
+            assertEquals(3, report.stages().get(2).files());
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    @Test
+    void cancellingFailsEveryPendingFileAndKeepsCheckpoints() throws Exception {
+        Path temp = Files.createTempDirectory("batch-test");
+        AppSettings previous = AppSettings.current();
+        try {
+            List<Path> files = files(temp, 4, 3);
+            BatchPipeline pipeline = new BatchPipeline(1, 1, 1, 1);
+            pipeline.cancel();
+            Map<Path, FileListener> listeners = new ConcurrentHashMap<>();
+            BatchPipeline.Report report = pipeline.run(files,
+                file -> listeners.computeIfAbsent(file, f -> new FileListener()));
+
+            assertEquals(0, report.completed());
+            assertEquals(4, report.failed());
+            for (Path file : files) {
+                assertTrue(listeners.get(file).error instanceof CancellationException);
+                assertTrue(CheckpointStore.exists(file));
+                CheckpointStore.delete(file);
+            }
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    @Test
+    void anInterruptedStageStillHandsItsFileOn() throws Exception {
+        Path temp = Files.createTempDirectory("batch-test");
+        AppSettings previous = AppSettings.current();
+        try {
+            List<Path> files = files(temp, 4, 30);
+            Map<Path, FileListener> listeners = new ConcurrentHashMap<>();
+            BatchPipeline pipeline = new BatchPipeline(1, 1, 1, 1);
+            AtomicReference<BatchPipeline.Report> report = new AtomicReference<>();
+            Thread runner = new Thread(() -> {
+                try {
+                    report.set(pipeline.run(files, file -> listeners.computeIfAbsent(file, f -> new FileListener())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            runner.start();
+
+            // Con la cola de decodificación llena, la conversión espera sitio para el tercero
+            Thread converter = awaitBlockedInPut("batch-convert-1");
+            converter.interrupt();
+            runner.join(30_000);
+            assertFalse(runner.isAlive());
+
+            // Ningún archivo se pierde: el lote se cancela y el informe los cuenta todos
+            assertNotNull(report.get());
+            assertEquals(4, report.get().files());
+            assertEquals(4, report.get().completed() + report.get().failed());
+            assertTrue(report.get().failed() >= 1);
+            for (Path file : files) {
+                FileListener listener = listeners.get(file);
+                assertTrue(listener.done.await(1, TimeUnit.SECONDS), file.toString());
+                CheckpointStore.delete(file);
+            }
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    private static Thread awaitBlockedInPut(String name) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+                if (!entry.getKey().getName().equals(name)) {
+                    continue;
+                }
+                for (StackTraceElement frame : entry.getValue()) {
+                    if (frame.getMethodName().equals("put") && frame.getClassName().endsWith("ArrayBlockingQueue")) {
+                        return entry.getKey();
+                    }
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail(name + " no llegó a esperar sitio en la cola");
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.SettingsLoader;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.util.CancellationToken;
+import com.uts.asr.util.CheckpointStore;
+import com.uts.asr.util.CheckpointStore.Checkpoint;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reanudación de un archivo desde su checkpoint con el motor sintético.
+ */
+class FileJobTest {
+
+    /** 1 s de PCM a 16 kHz. */
+    private static final int SECOND = 32_000;
+
+    private static final class CollectingListener implements TranscriptionListener {
+        final List<String> finals = Collections.synchronizedList(new ArrayList<>());
+        volatile Throwable error;
+
+        @Override
+        public void onPartial(String json) {
+        }
+
+        @Override
+        public void onFinal(String json) {
+            finals.add(json);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    private static double firstWordStart(String json) {
+        return new JSONObject(json).getJSONArray("result").getJSONObject(0).getDouble("start");
+    }
+
+    @Test
+    void resumeSeeksToTheOffsetAndShiftsWordTimes() throws Exception {
+        Path temp = Files.createTempDirectory("filejob-test");
+        AppSettings previous = AppSettings.current();
+        // Un final del motor sintético cada 3 s; checkpoint tras cada final
+        SettingsLoader.load(new String[]{"--dirs.temp=" + temp, "--engine.id=synthetic",
+            "--audio.chunkFile=3200", "--checkpoint.intervalBytes=" + SECOND});
+        try {
+            VoskService.init();
+            Path audio = temp.resolve("reunion.mp3");
+            Files.write(audio, new byte[100]);
+            Path converted = temp.resolve("reunion_converted.wav");
+            Files.write(converted, new byte[10 * SECOND]);
+            String restored = "{\"text\": \"previo\", \"result\": [{\"word\": \"previo\", \"start\": 1.0, "
+                + "\"end\": 1.5, \"conf\": 1.0}]}";
+            CheckpointStore.save(CheckpointStore.begin(audio, converted).advance(3 * SECOND, List.of(restored)));
+
+            CollectingListener listener = new CollectingListener();
+            FileJob job = new FileJob("reunion", audio, CancellationToken.create(), listener);
+            job.convert();
+            job.decode();
+            job.cleanup();
+            assertNull(listener.error);
+
+            // Se reentrega el restaurado y se decodifican solo los 7 s restantes:
+            // finales a los 3 y 6 s del recognizer nuevo más el último
+            assertEquals(4, listener.finals.size());
+            assertEquals(restored, listener.finals.get(0));
+
+            Checkpoint checkpoint = CheckpointStore.load(audio);
+            assertEquals(9 * SECOND, checkpoint.offset());
+            assertEquals(3, checkpoint.finals().size());
+            assertEquals(restored, checkpoint.finals().get(0));
+            // Tiempos relativos al archivo, no al recognizer creado al reanudar
+            assertEquals(0.0, firstWordStart(listener.finals.get(1)), 1e-9);
+            assertEquals(3.0, firstWordStart(checkpoint.finals().get(1)), 1e-9);
+            assertTrue(firstWordStart(checkpoint.finals().get(2)) >= 6.0);
+            // El checkpoint sigue: el PCM convertido no se borra
+            assertTrue(Files.exists(converted));
+            CheckpointStore.delete(audio);
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+}
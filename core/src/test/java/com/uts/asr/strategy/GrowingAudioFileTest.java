@@ -0,0 +1,113 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.util.CancellationToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lectura incremental de grabaciones en curso y sus condiciones de fin.
+ */
+class GrowingAudioFileTest {
+
+    private static final int RATE = 16000;
+
+    /** Encabezado de un WAV en curso: tamaños a 0, como lo dejan los grabadores. */
+    private static byte[] wavHeader(int rate, int channels) {
+        return ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(0x46464952).putInt(0).putInt(0x45564157)
+            .putInt(0x20746d66).putInt(16).putShort((short) 1).putShort((short) channels)
+            .putInt(rate).putInt(rate * channels * 2).putShort((short) (channels * 2)).putShort((short) 16)
+            .putInt(0x61746164).putInt(0)
+            .array();
+    }
+
+    private static long drain(GrowingAudioFile source, byte[] buffer) throws Exception {
+        long total = 0;
+        int read;
+        while ((read = source.read(buffer)) >= 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    @Test
+    void readsAppendedPcmUntilTheSentinelAppears() throws Exception {
+        Path directory = Files.createTempDirectory("follow-test");
+        Path file = directory.resolve("grabacion.pcm");
+        Path sentinel = directory.resolve("grabacion.pcm.done");
+        Files.write(file, new byte[3200]);
+
+        try (GrowingAudioFile source = new GrowingAudioFile(file, sentinel, RATE, 60_000, 20,
+                CancellationToken.create())) {
+            byte[] buffer = new byte[8000];
+            assertEquals(3200, source.read(buffer));
+
+            // Lo que se escribe antes del centinela se lee entero
+            Files.write(file, new byte[12000], StandardOpenOption.APPEND);
+            Files.write(sentinel, new byte[0]);
+            assertEquals(12000, drain(source, buffer));
+            assertEquals(GrowingAudioFile.End.SENTINEL, source.end());
+        }
+    }
+
+    @Test
+    void waitsForTheWavHeaderAndResamplesToTheModelRate() throws Exception {
+        Path directory = Files.createTempDirectory("follow-test");
+        Path file = directory.resolve("grabacion.wav");
+        byte[] header = wavHeader(48000, 2);
+        Files.write(file, Arrays.copyOf(header, 20));
+
+        try (GrowingAudioFile source = new GrowingAudioFile(file, directory.resolve("x.done"), RATE, 300, 20,
+                CancellationToken.create())) {
+            Thread writer = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                    Files.write(file, Arrays.copyOfRange(header, 20, 44), StandardOpenOption.APPEND);
+                    // Un segundo de audio estéreo a 48 kHz
+                    Files.write(file, new byte[48000 * 4], StandardOpenOption.APPEND);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            writer.start();
+            long total = drain(source, new byte[3200]);
+            writer.join();
+
+            // Un segundo a 16 kHz mono, salvo el retardo del filtro
+            assertTrue(Math.abs(total - RATE * 2) <= 200, "bytes convertidos: " + total);
+            assertEquals(GrowingAudioFile.End.IDLE, source.end());
+        }
+    }
+
+    @Test
+    void stopsOnCancellationAndTruncation() throws Exception {
+        Path directory = Files.createTempDirectory("follow-test");
+        Path file = directory.resolve("grabacion.pcm");
+        Files.write(file, new byte[4000]);
+
+        CancellationToken token = CancellationToken.create();
+        try (GrowingAudioFile source = new GrowingAudioFile(file, directory.resolve("x.done"), RATE, 60_000, 20,
+                token)) {
+            assertEquals(4000, source.read(new byte[8000]));
+            token.cancel("prueba");
+            assertEquals(-1, source.read(new byte[8000]));
+            assertEquals(GrowingAudioFile.End.CANCELLED, source.end());
+        }
+
+        try (GrowingAudioFile source = new GrowingAudioFile(file, directory.resolve("x.done"), RATE, 60_000, 20,
+                CancellationToken.create())) {
+            assertEquals(4000, source.read(new byte[8000]));
+            Files.write(file, new byte[1000]);
+            assertEquals(-1, source.read(new byte[8000]));
+            assertEquals(GrowingAudioFile.End.TRUNCATED, source.end());
+        }
+    }
+}
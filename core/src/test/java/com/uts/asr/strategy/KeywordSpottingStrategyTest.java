@@ -0,0 +1,107 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.SettingsLoader;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.core.WorkerFactory;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gramáticas de frases y búsqueda de coincidencias en resultados de Vosk.
+ */
+class KeywordSpottingStrategyTest {
+
+    private static JSONObject word(String word, double conf, double start, double end) {
+        return new JSONObject().put("word", word).put("conf", conf).put("start", start).put("end", end);
+    }
+
+    private static String result(JSONObject... words) {
+        JSONArray array = new JSONArray();
+        for (JSONObject word : words) {
+            array.put(word);
+        }
+        return new JSONObject().put("result", array).put("text", "").toString();
+    }
+
+    @Test
+    void grammarIsNormalizedAndEndsWithUnknown() {
+        String grammar = WorkerFactory.buildGrammar(List.of("  Apaga   la Luz ", "enciende la luz", "apaga la luz", ""));
+        assertEquals("[\"apaga la luz\",\"enciende la luz\",\"[unk]\"]", grammar);
+
+        assertThrows(IllegalArgumentException.class, () -> WorkerFactory.buildGrammar(List.of(" ", "")));
+    }
+
+    @Test
+    void multiWordPhraseMatchesWithItsTimesAndMeanConfidence() {
+        KeywordSpottingStrategy strategy = new KeywordSpottingStrategy(List.of("Enciende la luz", "para"), 0.5);
+        List<KeywordMatch> matches = strategy.findMatches(result(
+            word("[unk]", 1.0, 0.0, 0.3),
+            word("Enciende", 0.9, 0.5, 0.9), word("la", 0.6, 1.0, 1.1), word("luz", 0.9, 1.2, 1.5),
+            word("para", 1.0, 2.0, 2.3)));
+
+        assertEquals(2, matches.size());
+        KeywordMatch light = matches.get(0);
+        assertEquals("enciende la luz", light.phrase());
+        assertEquals(0.8, light.confidence(), 1e-9);
+        assertEquals(0.5, light.startSeconds(), 1e-9);
+        assertEquals(1.5, light.endSeconds(), 1e-9);
+        assertEquals(new KeywordMatch("para", 1.0, 2.0, 2.3), matches.get(1));
+    }
+
+    @Test
+    void lowConfidenceAndPartialPhrasesAreNotReported() {
+        KeywordSpottingStrategy strategy = new KeywordSpottingStrategy(List.of("enciende la luz"), 0.7);
+        // Media 0.6: por debajo del umbral
+        assertTrue(strategy.findMatches(result(
+            word("enciende", 0.6, 0, 0.4), word("la", 0.6, 0.5, 0.6), word("luz", 0.6, 0.7, 1.0))).isEmpty());
+        // La frase cortada al final del resultado no coincide
+        assertTrue(strategy.findMatches(result(word("enciende", 1.0, 0, 0.4), word("la", 1.0, 0.5, 0.6))).isEmpty());
+        // Sin palabras o con JSON inválido no hay coincidencias
+        assertTrue(strategy.findMatches("{\"text\": \"\"}").isEmpty());
+        assertTrue(strategy.findMatches("no es json").isEmpty());
+    }
+
+    @Test
+    void cancelBeforeExecuteStopsBeforeConverting() throws Exception {
+        // Motor sintético: no hace falta modelo en disco
+        SettingsLoader.load(new String[]{"--engine.id=synthetic"});
+        VoskService.init();
+        Path audio = Files.createTempFile("keywords-test", ".mp3");
+        Files.write(audio, new byte[3200]);
+
+        KeywordSpottingStrategy strategy = new KeywordSpottingStrategy(List.of("enciende la luz"), 0.5);
+        strategy.cancel();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        strategy.execute(audio, new TranscriptionListener() {
+            @Override
+            public void onPartial(String json) {
+            }
+
+            @Override
+            public void onFinal(String json) {
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                errors.incrementAndGet();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.incrementAndGet();
+            }
+        });
+        // Sin ffmpeg en marcha ni error: la cancelación previa no se pierde
+        assertEquals(1, completed.get());
+        assertEquals(0, errors.get());
+    }
+}
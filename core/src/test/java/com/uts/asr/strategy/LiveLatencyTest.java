@@ -0,0 +1,60 @@
+package com.uts.asr.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Desglose por etapas y ventana de muestras de la latencia en vivo.
+ */
+class LiveLatencyTest {
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void splitsLatencyIntoStages() {
+        LiveLatency latency = new LiveLatency();
+        // Captura en 0, resultado a los 30 ms, evento a los 32, pintado a los 50
+        latency.record(new ChunkStamp(ms(1000), 2500, ms(1030)), ms(1032), ms(1050));
+
+        LiveLatency.Snapshot snapshot = latency.snapshot();
+        assertEquals(1, snapshot.samples());
+        assertEquals(50, snapshot.lastLagMs(), 1e-9);
+        assertEquals(2500, snapshot.lastOffsetMs());
+        assertEquals(30, snapshot.stages().get(LiveLatency.Stage.DECODE.ordinal()).p50(), 1e-9);
+        assertEquals(2, snapshot.stages().get(LiveLatency.Stage.DISPATCH.ordinal()).p50(), 1e-9);
+        assertEquals(18, snapshot.stages().get(LiveLatency.Stage.PAINT.ordinal()).p50(), 1e-9);
+    }
+
+    @Test
+    void percentilesCoverOnlyTheLatestWindow() {
+        LiveLatency latency = new LiveLatency();
+        // Una ventana entera de eventos lentos y después otra de rápidos
+        for (int i = 0; i < LiveLatency.WINDOW; i++) {
+            latency.record(new ChunkStamp(0, i, ms(900)), ms(900), ms(900));
+        }
+        for (int i = 0; i < LiveLatency.WINDOW; i++) {
+            latency.record(new ChunkStamp(0, i, ms(10)), ms(10), ms(10));
+        }
+
+        LiveLatency.StageStats decode = latency.snapshot().stages().get(LiveLatency.Stage.DECODE.ordinal());
+        assertEquals(2L * LiveLatency.WINDOW, latency.snapshot().samples());
+        assertEquals(10, decode.p99(), 1e-9);
+        assertEquals(10, decode.max(), 1e-9);
+    }
+
+    @Test
+    void resetStartsEmpty() {
+        LiveLatency latency = new LiveLatency();
+        latency.record(new ChunkStamp(0, 0, ms(5)), ms(6), ms(7));
+        latency.reset();
+
+        assertEquals(0, latency.snapshot().samples());
+        assertTrue(latency.snapshot().stages().isEmpty());
+        assertEquals("sin muestras", latency.snapshot().toString());
+    }
+}
@@ -0,0 +1,77 @@
+package com.uts.asr.strategy;
+
+import com.uts.asr.config.PartialResultMode;
+import com.uts.asr.engine.SpeechRecognizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuántas veces se pide el parcial al recognizer según el modo.
+ */
+class PartialResultPolicyTest {
+
+    /** Devuelve el texto fijado y cuenta las peticiones de parcial. */
+    private static final class PartialRecognizer implements SpeechRecognizer {
+        String partial = "{\"partial\":\"\"}";
+        int calls;
+
+        @Override
+        public boolean acceptWaveForm(byte[] data, int length) {
+            return false;
+        }
+
+        @Override
+        public String getResult() {
+            return "{\"text\":\"\"}";
+        }
+
+        @Override
+        public String getPartialResult() {
+            calls++;
+            return partial;
+        }
+
+        @Override
+        public String getFinalResult() {
+            return "{\"text\":\"\"}";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test void offNeverAsksTheRecognizer() {
+        PartialRecognizer recognizer = new PartialRecognizer();
+        PartialResultPolicy policy = new PartialResultPolicy(PartialResultMode.OFF, 0);
+        for (int i = 0; i < 10; i++) {
+            assertNull(policy.poll(recognizer));
+        }
+        assertEquals(0, recognizer.calls);
+    }
+
+    @Test void intervalSkipsChunksInsideTheWindow() {
+        PartialRecognizer recognizer = new PartialRecognizer();
+        PartialResultPolicy policy = new PartialResultPolicy(PartialResultMode.INTERVAL, 60_000);
+        assertNotNull(policy.poll(recognizer));
+        for (int i = 0; i < 10; i++) {
+            assertNull(policy.poll(recognizer));
+        }
+        assertEquals(1, recognizer.calls);
+    }
+
+    @Test void changedDeliversOnlyNewTextAndRestartsAfterAFinal() {
+        PartialRecognizer recognizer = new PartialRecognizer();
+        PartialResultPolicy policy = new PartialResultPolicy(PartialResultMode.CHANGED, 0);
+        recognizer.partial = "{\"partial\":\"hola\"}";
+        assertEquals(recognizer.partial, policy.poll(recognizer));
+        assertNull(policy.poll(recognizer));
+        recognizer.partial = "{\"partial\":\"hola mundo\"}";
+        assertEquals(recognizer.partial, policy.poll(recognizer));
+
+        policy.segmentClosed();
+        assertEquals(recognizer.partial, policy.poll(recognizer));
+        assertEquals(4, recognizer.calls);
+    }
+}
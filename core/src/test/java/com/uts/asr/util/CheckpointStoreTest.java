@@ -0,0 +1,136 @@
+package com.uts.asr.util;
+
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.SettingsLoader;
+import com.uts.asr.util.CheckpointStore.Checkpoint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Log de finales del checkpoint y descarte de checkpoints que ya no sirven.
+ */
+class CheckpointStoreTest {
+
+    /** Final como los de Vosk: con saltos de línea dentro. */
+    private static String json(int n) {
+        return "{\n  \"text\" : \"frase " + n + "\"\n}";
+    }
+
+    /** Ejecuta con el directorio temporal (y de checkpoints) en {@code temp}. */
+    private static <T> T withTemp(Path temp, ThrowingSupplier<T> action) throws Exception {
+        AppSettings previous = AppSettings.current();
+        SettingsLoader.load(new String[]{"--dirs.temp=" + temp});
+        try {
+            return action.get();
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    private static Path file(Path directory, String name, int bytes) throws Exception {
+        Path file = directory.resolve(name);
+        Files.write(file, new byte[bytes]);
+        return file;
+    }
+
+    private static Path log(Path temp) throws Exception {
+        try (Stream<Path> files = Files.list(temp.resolve("checkpoints"))) {
+            return files.filter(f -> f.toString().endsWith(".ckpt.log")).findFirst().orElseThrow();
+        }
+    }
+
+    @Test
+    void eachSaveAppendsOnlyTheNewFinals() throws Exception {
+        Path temp = Files.createTempDirectory("checkpoint-test");
+        Path audio = file(temp, "reunion.mp3", 100);
+        Path converted = file(temp, "reunion_converted.wav", 64_000);
+        withTemp(temp, () -> {
+            Checkpoint checkpoint = CheckpointStore.save(CheckpointStore.begin(audio, converted));
+            List<String> finals = new ArrayList<>(List.of(json(1), json(2)));
+            checkpoint = CheckpointStore.save(checkpoint.advance(16_000, finals));
+            long firstLog = Files.size(log(temp));
+            assertEquals(firstLog, checkpoint.logBytes());
+
+            finals.add(json(3));
+            checkpoint = CheckpointStore.save(checkpoint.advance(32_000, finals));
+            long growth = Files.size(log(temp)) - firstLog;
+            // Solo la línea del final nuevo, no los tres otra vez
+            assertTrue(growth > 0 && growth < firstLog, growth + " bytes añadidos");
+
+            Checkpoint loaded = CheckpointStore.load(audio);
+            assertEquals(32_000, loaded.offset());
+            assertEquals(List.of(json(1), json(2), json(3)), loaded.finals());
+            assertEquals(converted.toAbsolutePath(), loaded.convertedFile());
+            return null;
+        });
+    }
+
+    @Test
+    void finalsWrittenAfterTheLastRecordAreIgnored() throws Exception {
+        Path temp = Files.createTempDirectory("checkpoint-test");
+        Path audio = file(temp, "reunion.mp3", 100);
+        Path converted = file(temp, "reunion_converted.wav", 64_000);
+        withTemp(temp, () -> {
+            Checkpoint checkpoint = CheckpointStore.save(
+                CheckpointStore.begin(audio, converted).advance(16_000, List.of(json(1))));
+            // Caída entre el log y el registro: una línea sin registrar, a medias
+            Files.writeString(log(temp), "[\"{\\\"text\\\": \\\"perd", StandardOpenOption.APPEND);
+
+            Checkpoint loaded = CheckpointStore.load(audio);
+            assertEquals(List.of(json(1)), loaded.finals());
+            CheckpointStore.save(loaded.advance(32_000, List.of(json(1), json(2))));
+            assertEquals(List.of(json(1), json(2)), CheckpointStore.load(audio).finals());
+            assertEquals(checkpoint.logBytes() * 2, Files.size(log(temp)));
+            return null;
+        });
+    }
+
+    @Test
+    void staleOrBrokenCheckpointsAreDiscarded() throws Exception {
+        Path temp = Files.createTempDirectory("checkpoint-test");
+        Path audio = file(temp, "reunion.mp3", 100);
+        Path converted = file(temp, "reunion_converted.wav", 64_000);
+        withTemp(temp, () -> {
+            Checkpoint start = CheckpointStore.begin(audio, converted).advance(16_000, List.of(json(1)));
+
+            // El original cambió
+            CheckpointStore.save(start);
+            Files.write(audio, new byte[200]);
+            assertNull(CheckpointStore.load(audio));
+            assertFalse(CheckpointStore.exists(audio));
+            Files.write(audio, new byte[100]);
+
+            // Falta el PCM convertido
+            Checkpoint again = CheckpointStore.begin(audio, converted).advance(16_000, List.of(json(1)));
+            CheckpointStore.save(again);
+            Files.move(converted, temp.resolve("movido.wav"));
+            assertNull(CheckpointStore.load(audio));
+            Files.move(temp.resolve("movido.wav"), converted);
+
+            // Registro ilegible
+            CheckpointStore.save(CheckpointStore.begin(audio, converted).advance(16_000, List.of(json(1))));
+            Path record = log(temp).resolveSibling(log(temp).getFileName().toString().replace(".log", ".json"));
+            Files.writeString(record, "{\"source\": ");
+            assertNull(CheckpointStore.load(audio));
+            assertFalse(CheckpointStore.exists(audio));
+
+            // Log más corto que lo registrado
+            CheckpointStore.save(CheckpointStore.begin(audio, converted).advance(16_000, List.of(json(1))));
+            Files.write(log(temp), new byte[3]);
+            assertNull(CheckpointStore.load(audio));
+            return null;
+        });
+    }
+}
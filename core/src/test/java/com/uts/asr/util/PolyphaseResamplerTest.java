@@ -0,0 +1,147 @@
+package com.uts.asr.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calidad del remuestreador: fidelidad en banda, rechazo de aliasing y tamaños.
+ */
+class PolyphaseResamplerTest {
+
+    private static final int OUT_RATE = 16000;
+
+    @Test void stereo48kToneKeepsHighSnr() {
+        double[] out = resample(48000, 2, 1000, 4000);
+        assertTrue(snr(out, 1000) > 70, "SNR insuficiente: " + snr(out, 1000));
+        assertEquals(2 * OUT_RATE, out.length, "2 s de audio deben producir 2 s a 16 kHz");
+    }
+
+    @Test void mono44kToneKeepsHighSnr() {
+        double[] out = resample(44100, 1, 3000, 4000);
+        assertTrue(snr(out, 3000) > 70, "SNR insuficiente: " + snr(out, 3000));
+    }
+
+    @Test void upsampling8kKeepsHighSnr() {
+        double[] out = resample(8000, 1, 1000, 4000);
+        assertTrue(snr(out, 1000) > 70, "SNR insuficiente: " + snr(out, 1000));
+    }
+
+    @Test void toneAboveOutputNyquistIsRejected() {
+        // 12 kHz no cabe en 16 kHz: debe atenuarse > 60 dB en vez de plegarse a 4 kHz
+        double[] out = resample(48000, 1, 12000, 4000);
+        double inputRms = 10000 / Math.sqrt(2);
+        assertTrue(rms(out) < inputRms / 1000, "Aliasing excesivo, rms " + rms(out));
+    }
+
+    @Test void stereoIsDownmixedToMono() {
+        PolyphaseResampler resampler = new PolyphaseResampler(16000, 16000, 2, false);
+        byte[] in = new byte[16000 * 4];
+        for (int i = 0; i < 16000; i++) {
+            // Canal izquierdo 1000, derecho 3000: la mezcla debe dar ~2000
+            putSample(in, i * 4, (short) 1000, false);
+            putSample(in, i * 4 + 2, (short) 3000, false);
+        }
+        byte[] out = new byte[resampler.maxOutputBytes(in.length)];
+        int written = resampler.process(in, in.length, out, 0);
+        short middle = (short) ((out[written / 2 + 1] << 8) | (out[written / 2] & 0xFF));
+        assertEquals(2000, middle, 2);
+    }
+
+    @Test void chunkSizingNeverOverflowsOutput() {
+        int[][] formats = {{44100, 2}, {48000, 1}, {22050, 2}, {8000, 1}, {96000, 2}};
+        for (int[] format : formats) {
+            PolyphaseResampler resampler = new PolyphaseResampler(format[0], OUT_RATE, format[1], true);
+            int inBytes = resampler.inputBytesFor(4000);
+            byte[] out = new byte[4000];
+            for (int i = 0; i < 200; i++) {
+                assertTrue(resampler.process(new byte[inBytes], inBytes, out, 0) <= 4000);
+            }
+        }
+    }
+
+    /**
+     * Remuestrea 2 s de un tono a 16 kHz en bloques, como la captura en vivo.
+     */
+    static double[] resample(int inRate, int channels, double freq, int outChunk) {
+        return resample(inRate, channels, freq, outChunk, PolyphaseResampler.DEFAULT_TAPS_PER_PHASE);
+    }
+
+    static double[] resample(int inRate, int channels, double freq, int outChunk, int taps) {
+        PolyphaseResampler resampler = new PolyphaseResampler(inRate, OUT_RATE, channels, false, taps);
+        int frames = inRate * 2;
+        byte[] in = new byte[frames * 2 * channels];
+        for (int i = 0; i < frames; i++) {
+            short v = (short) Math.round(10000 * Math.sin(2 * Math.PI * freq * i / inRate));
+            for (int c = 0; c < channels; c++) {
+                putSample(in, (i * channels + c) * 2, v, false);
+            }
+        }
+
+        int block = resampler.inputBytesFor(outChunk);
+        byte[] chunk = new byte[block];
+        byte[] out = new byte[outChunk];
+        double[] samples = new double[2 * OUT_RATE + outChunk];
+        int count = 0;
+        for (int off = 0; off < in.length; off += block) {
+            int len = Math.min(block, in.length - off);
+            System.arraycopy(in, off, chunk, 0, len);
+            int written = resampler.process(chunk, len, out, 0);
+            for (int i = 0; i < written; i += 2) {
+                samples[count++] = (short) ((out[i + 1] << 8) | (out[i] & 0xFF));
+            }
+        }
+        double[] result = new double[count];
+        System.arraycopy(samples, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * SNR respecto al mejor ajuste seno/coseno (ignora fase y retardo de grupo).
+     */
+    static double snr(double[] y, double freq) {
+        int start = OUT_RATE / 4;
+        int end = y.length - OUT_RATE / 4;
+        double ss = 0, sc = 0, cc = 0, ys = 0, yc = 0;
+        for (int i = start; i < end; i++) {
+            double s = Math.sin(2 * Math.PI * freq * i / OUT_RATE);
+            double c = Math.cos(2 * Math.PI * freq * i / OUT_RATE);
+            ss += s * s;
+            sc += s * c;
+            cc += c * c;
+            ys += y[i] * s;
+            yc += y[i] * c;
+        }
+        double det = ss * cc - sc * sc;
+        double a = (ys * cc - yc * sc) / det;
+        double b = (yc * ss - ys * sc) / det;
+        double signal = 0, error = 0;
+        for (int i = start; i < end; i++) {
+            double fit = a * Math.sin(2 * Math.PI * freq * i / OUT_RATE)
+                + b * Math.cos(2 * Math.PI * freq * i / OUT_RATE);
+            signal += fit * fit;
+            error += (y[i] - fit) * (y[i] - fit);
+        }
+        return 10 * Math.log10(signal / Math.max(error, 1e-9));
+    }
+
+    static double rms(double[] y) {
+        double sum = 0;
+        int n = 0;
+        for (int i = OUT_RATE / 4; i < y.length - OUT_RATE / 4; i++) {
+            sum += y[i] * y[i];
+            n++;
+        }
+        return Math.sqrt(sum / n);
+    }
+
+    private static void putSample(byte[] buffer, int pos, short value, boolean bigEndian) {
+        if (bigEndian) {
+            buffer[pos] = (byte) (value >> 8);
+            buffer[pos + 1] = (byte) value;
+        } else {
+            buffer[pos] = (byte) value;
+            buffer[pos + 1] = (byte) (value >> 8);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.uts.asr.util;
+
+/**
+ * Benchmark de CPU y calidad del remuestreador para los formatos nativos habituales.
+ * Ejecutar con {@code ./gradlew :core:resamplerBenchmark}.
+ */
+public final class ResamplerBenchmark {
+
+    private static final int[][] FORMATS = {{48000, 2}, {48000, 1}, {44100, 2}, {44100, 1}, {96000, 2}, {8000, 1}};
+    private static final int SECONDS = 10;
+
+    private ResamplerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-4s %-6s %12s %14s %10s%n",
+            "tasa", "can", "taps", "x tiempo real", "ns/muestra out", "SNR 1k dB");
+        for (int[] format : FORMATS) {
+            for (int taps : new int[] {16, 32, PolyphaseResampler.DEFAULT_TAPS_PER_PHASE}) {
+                run(format[0], format[1], taps);
+            }
+        }
+    }
+
+    private static void run(int rate, int channels, int taps) {
+        PolyphaseResampler resampler = new PolyphaseResampler(rate, 16000, channels, false, taps);
+        int block = resampler.inputBytesFor(4000);
+        byte[] in = new byte[block];
+        for (int i = 0; i + 1 < block; i += 2) {
+            short v = (short) (8000 * Math.sin(i * 0.01));
+            in[i] = (byte) v;
+            in[i + 1] = (byte) (v >> 8);
+        }
+        byte[] out = new byte[4000];
+        int blocks = (int) ((long) rate * channels * 2 * SECONDS / block);
+
+        // Calentamiento JIT
+        for (int i = 0; i < blocks; i++) {
+            resampler.process(in, block, out, 0);
+        }
+        long produced = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < blocks; i++) {
+            produced += resampler.process(in, block, out, 0);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double realtime = SECONDS / (elapsed / 1e9);
+        double nsPerSample = (double) elapsed / (produced / 2);
+        double snr = PolyphaseResamplerTest.snr(
+            PolyphaseResamplerTest.resample(rate, channels, 1000, 4000, taps), 1000);
+        System.out.printf("%-8d %-4d %-6d %12.0f %14.1f %10.1f%n",
+            rate, channels, taps, realtime, nsPerSample, snr);
+    }
+}
@@ -0,0 +1,90 @@
+package com.uts.asr.util;
+
+import com.uts.asr.archive.TranscriptArchive;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.SettingsLoader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Qué borra la retención de temporales y qué conserva.
+ */
+class TempRetentionTest {
+
+    private static Path file(Path directory, String name, long hoursOld) throws Exception {
+        Path file = directory.resolve(name);
+        Files.createDirectories(directory);
+        Files.writeString(file, "{\"text\": \"hola\"}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(hoursOld, ChronoUnit.HOURS)));
+        return file;
+    }
+
+    private static int sweep(Path temp, String... flags) throws Exception {
+        AppSettings previous = AppSettings.current();
+        String[] args = new String[flags.length + 1];
+        args[0] = "--dirs.temp=" + temp;
+        System.arraycopy(flags, 0, args, 1, flags.length);
+        SettingsLoader.load(args);
+        try {
+            return TempRetention.sweep();
+        } finally {
+            AppSettings.install(previous);
+        }
+    }
+
+    @Test
+    void oldLooseFilesGoAndTheRestStays() throws Exception {
+        Path temp = Files.createTempDirectory("retention-test");
+        Path oldJson = file(temp, "reunion_2024-01-02_10-00-00.json", 5);
+        Path newJson = file(temp, "reunion_2024-01-02_11-00-00.json", 0);
+        Path orphan = file(temp, "escritura.tmp", 5);
+        Path converted = file(temp, "audio_converted.wav", 5);
+        Path resumable = file(temp, "pendiente_converted.wav", 5);
+        Path unrelated = file(temp, "notas.txt", 5);
+        Path recording = file(temp.resolve("recordings"), "segunda.pcm", 5);
+        Files.createDirectories(temp.resolve("checkpoints"));
+        Files.writeString(temp.resolve("checkpoints").resolve("pendiente.ckpt.json"),
+            "{\"converted\": \"" + resumable.toString().replace("\\", "\\\\") + "\"}");
+
+        assertEquals(4, sweep(temp, "--temp.retentionHours=1"));
+        assertFalse(Files.exists(oldJson));
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(converted));
+        assertFalse(Files.exists(recording));
+        assertTrue(Files.exists(newJson));
+        // Un checkpoint aún lo necesita para reanudar
+        assertTrue(Files.exists(resumable));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    void zeroHoursKeepsEverything() throws Exception {
+        Path temp = Files.createTempDirectory("retention-test");
+        Path oldJson = file(temp, "reunion_2024-01-02_10-00-00.json", 5000);
+        assertEquals(0, sweep(temp, "--temp.retentionHours=0"));
+        assertTrue(Files.exists(oldJson));
+    }
+
+    @Test
+    void archiveFormatImportsJsonBeforeDeletingIt() throws Exception {
+        Path temp = Files.createTempDirectory("retention-test");
+        Path oldJson = file(temp, "reunion_2024-01-02_10-00-00.json", 5);
+        Path archiveDir = temp.resolve("archivo");
+
+        assertEquals(1, sweep(temp, "--temp.retentionHours=1", "--writer.format=archive",
+            "--dirs.archive=" + archiveDir));
+        assertFalse(Files.exists(oldJson));
+
+        TranscriptArchive archive = TranscriptArchive.open(archiveDir, 1 << 20, 4096);
+        assertEquals(1, archive.size());
+        assertEquals("reunion", archive.read(0).session());
+        assertEquals("hola", archive.read(0).text());
+    }
+}
@@ -0,0 +1,130 @@
+package com.uts.asr.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrapresión, confirmación por lotes y cierre de la cola de escritura.
+ */
+class TranscriptWriteQueueTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    /**
+     * Escritura falsa: anota el tamaño de cada lote y, mientras {@code release}
+     * no se abra, se queda en el primero (disco lento).
+     */
+    private static final class SlowDisk {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+        void commit(List<TranscriptWriteQueue.Job> batch) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(batch.size());
+            threads.add(Thread.currentThread().getName());
+            for (TranscriptWriteQueue.Job job : batch) {
+                job.source = "guardado:" + job.session;
+            }
+        }
+    }
+
+    private static TranscriptWriteQueue queue(int capacity, int batchMax, long timeoutMs, SlowDisk disk) {
+        return new TranscriptWriteQueue(capacity, batchMax, timeoutMs, (batch, directories) -> disk.commit(batch));
+    }
+
+    private static CompletableFuture<String> submit(TranscriptWriteQueue queue, String session) {
+        return queue.submit(session, AT, "{\"text\": \"" + session + "\"}", null);
+    }
+
+    @Test
+    void fullQueueFailsAfterTheSubmitTimeout() throws Exception {
+        SlowDisk disk = new SlowDisk();
+        TranscriptWriteQueue queue = queue(1, 8, 150, disk);
+        CompletableFuture<String> writing = submit(queue, "a");
+        assertTrue(disk.entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = submit(queue, "b");
+
+        long start = System.nanoTime();
+        CompletableFuture<String> rejected = submit(queue, "c");
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(waitedMs >= 140, "esperó " + waitedMs + " ms");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IOException);
+
+        disk.release.countDown();
+        assertEquals("guardado:a", writing.get(5, TimeUnit.SECONDS));
+        assertEquals("guardado:b", queued.get(5, TimeUnit.SECONDS));
+        TranscriptWriteQueue.Metrics metrics = queue.metrics();
+        assertEquals(3, metrics.submitted());
+        assertEquals(2, metrics.written());
+        assertEquals(1, metrics.failed());
+        queue.close();
+    }
+
+    @Test
+    void pendingSavesAreCommittedTogether() throws Exception {
+        SlowDisk disk = new SlowDisk();
+        TranscriptWriteQueue queue = queue(16, 3, 1000, disk);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        results.add(submit(queue, "s0"));
+        assertTrue(disk.entered.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            results.add(submit(queue, "s" + i));
+        }
+
+        disk.release.countDown();
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("guardado:s" + i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        // Lo acumulado mientras el disco estaba ocupado sale en lotes de writer.batchMax
+        assertEquals(List.of(1, 3, 2), disk.batches);
+        assertEquals(3, queue.metrics().batches());
+        assertEquals(2.0, queue.metrics().averageBatch(), 1e-9);
+        queue.close();
+    }
+
+    @Test
+    void closeDrainsPendingSavesAndRejectsLaterOnes() throws Exception {
+        SlowDisk disk = new SlowDisk();
+        TranscriptWriteQueue queue = queue(16, 8, 200, disk);
+        CompletableFuture<String> first = submit(queue, "uno");
+        assertTrue(disk.entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = submit(queue, "dos");
+
+        Thread closer = new Thread(queue::close);
+        closer.start();
+        Thread.sleep(50);
+        disk.release.countDown();
+        closer.join(5000);
+        assertFalse(closer.isAlive());
+        assertEquals("guardado:uno", first.get(1, TimeUnit.SECONDS));
+        assertEquals("guardado:dos", second.get(1, TimeUnit.SECONDS));
+
+        // Cerrada: se rechaza al momento y nunca se escribe en el hilo de quien guarda
+        long start = System.nanoTime();
+        CompletableFuture<String> late = submit(queue, "tarde");
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1000);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> late.get(1, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IOException);
+        assertEquals(List.of("transcript-writer", "transcript-writer"), disk.threads);
+        assertEquals(2, disk.batches.stream().mapToInt(Integer::intValue).sum());
+    }
+}
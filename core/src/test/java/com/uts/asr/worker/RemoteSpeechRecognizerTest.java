@@ -0,0 +1,208 @@
+package com.uts.asr.worker;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reintento de sesión cuando el worker cae a mitad de un envío.
+ */
+class RemoteSpeechRecognizerTest {
+
+    /**
+     * Worker falso: la conexión {@code n} se corta al recibir su trozo
+     * {@code dropAt[n]} (0 o fuera del array: nunca); las demás aceptan el
+     * audio y lo anotan. Cierra un segmento tras los trozos que indique
+     * {@code finalOn} (conexión, trozo).
+     */
+    private static final class FakeWorker implements AutoCloseable {
+        final ServerSocket server;
+        final int[] dropAt;
+        final BiPredicate<Integer, Integer> finalOn;
+        final List<List<Integer>> received = Collections.synchronizedList(new ArrayList<>());
+        final Thread thread;
+
+        FakeWorker(int dropAt) throws IOException {
+            this(new int[]{dropAt}, (connection, id) -> false);
+        }
+
+        FakeWorker(int[] dropAt, BiPredicate<Integer, Integer> finalOn) throws IOException {
+            this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.dropAt = dropAt;
+            this.finalOn = finalOn;
+            this.thread = new Thread(this::serve, "fake-worker");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String endpoint() {
+            return "127.0.0.1:" + server.getLocalPort();
+        }
+
+        private void serve() {
+            int connection = 0;
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    List<Integer> chunks = Collections.synchronizedList(new ArrayList<>());
+                    received.add(chunks);
+                    int drop = connection < dropAt.length ? dropAt[connection] : 0;
+                    handle(socket, chunks, connection++, drop);
+                } catch (IOException e) {
+                    // Conexión cerrada por el cliente o por el test
+                }
+            }
+        }
+
+        private void handle(Socket socket, List<Integer> chunks, int connection, int drop) throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                WorkerProtocol.Frame frame = WorkerProtocol.read(in, null);
+                switch (frame.type()) {
+                    case WorkerProtocol.AUDIO -> {
+                        int id = frame.payload()[0] & 0xFF;
+                        chunks.add(id);
+                        if (chunks.size() == drop) {
+                            return; // cae sin responder
+                        }
+                        if (finalOn.test(connection, id)) {
+                            byte[] json = ("{\"text\": \"c" + id + "\", \"result\": [{\"word\": \"c" + id
+                                + "\", \"start\": " + id + ", \"end\": " + id + ".5, \"conf\": 1.0}]}")
+                                .getBytes(StandardCharsets.UTF_8);
+                            byte[] payload = new byte[json.length + 1];
+                            payload[0] = 1;
+                            System.arraycopy(json, 0, payload, 1, json.length);
+                            WorkerProtocol.write(out, WorkerProtocol.ACCEPTED, payload, payload.length);
+                        } else {
+                            WorkerProtocol.write(out, WorkerProtocol.ACCEPTED, new byte[]{0}, 1);
+                        }
+                    }
+                    case WorkerProtocol.FINAL ->
+                        WorkerProtocol.writeText(out, WorkerProtocol.RESULT, "{\"text\": \"\"}");
+                    case WorkerProtocol.CLOSE -> {
+                        return;
+                    }
+                    default -> throw new IOException("Trama inesperada " + frame.type());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+
+    private static byte[] chunk(int id) {
+        byte[] data = new byte[640];
+        Arrays.fill(data, (byte) id);
+        return data;
+    }
+
+    @Test
+    void failedChunkReachesTheNewWorkerOnce() throws Exception {
+        try (FakeWorker worker = new FakeWorker(3)) {
+            WorkerProcessPool pool = new WorkerProcessPool();
+            pool.addRemoteWorker(worker.endpoint());
+            RemoteSpeechRecognizer recognizer = new RemoteSpeechRecognizer(pool, 2, false);
+            for (int id = 1; id <= 4; id++) {
+                assertFalse(recognizer.acceptWaveForm(chunk(id), 640));
+            }
+            recognizer.getFinalResult();
+            recognizer.close();
+
+            assertEquals(List.of(1, 2, 3), worker.received.get(0));
+            // Se reenvía lo aceptado (1, 2) y el trozo que falló una sola vez
+            assertEquals(List.of(1, 2, 3, 4), worker.received.get(1));
+        }
+    }
+
+    @Test
+    void chunkLostOnTheFirstSendIsSentAgain() throws Exception {
+        try (FakeWorker worker = new FakeWorker(1)) {
+            WorkerProcessPool pool = new WorkerProcessPool();
+            pool.addRemoteWorker(worker.endpoint());
+            RemoteSpeechRecognizer recognizer = new RemoteSpeechRecognizer(pool, 2, false);
+            assertFalse(recognizer.acceptWaveForm(chunk(7), 640));
+            recognizer.close();
+
+            assertEquals(List.of(7), worker.received.get(0));
+            assertEquals(List.of(7), worker.received.get(1));
+        }
+    }
+
+    @Test
+    void audioBeforeAReplayedFinalIsNotDecodedAgain() throws Exception {
+        // El recognizer nuevo cierra segmento en el trozo 2 al reenviarlo; luego
+        // esa conexión también cae
+        try (FakeWorker worker = new FakeWorker(new int[]{3, 3}, (connection, id) -> connection > 0 && id == 2)) {
+            WorkerProcessPool pool = new WorkerProcessPool();
+            pool.addRemoteWorker(worker.endpoint());
+            RemoteSpeechRecognizer recognizer = new RemoteSpeechRecognizer(pool, 3, false);
+            assertFalse(recognizer.acceptWaveForm(chunk(1), 640));
+            assertFalse(recognizer.acceptWaveForm(chunk(2), 640));
+            assertTrue(recognizer.acceptWaveForm(chunk(3), 640));
+            JSONObject result = new JSONObject(recognizer.getResult());
+            assertEquals("c2", result.getString("text"));
+            assertEquals(2.5, result.getJSONArray("result").getJSONObject(0).getDouble("end"), 1e-9);
+            assertFalse(recognizer.acceptWaveForm(chunk(4), 640));
+            assertEquals("", new JSONObject(recognizer.getFinalResult()).getString("text"));
+            recognizer.close();
+
+            assertEquals(List.of(1, 2, 3), worker.received.get(0));
+            assertEquals(List.of(1, 2, 3), worker.received.get(1));
+            // Solo el audio posterior al final: el texto "c2" no se repite
+            assertEquals(List.of(3, 4), worker.received.get(2));
+        }
+    }
+
+    @Test
+    void finalsLeftAtTheEndKeepTheirWords() throws Exception {
+        // Al reenviar salen dos finales y la estrategia solo recoge uno
+        try (FakeWorker worker = new FakeWorker(new int[]{4},
+                (connection, id) -> connection > 0 && (id == 1 || id == 3))) {
+            WorkerProcessPool pool = new WorkerProcessPool();
+            pool.addRemoteWorker(worker.endpoint());
+            RemoteSpeechRecognizer recognizer = new RemoteSpeechRecognizer(pool, 2, false);
+            for (int id = 1; id <= 3; id++) {
+                assertFalse(recognizer.acceptWaveForm(chunk(id), 640));
+            }
+            assertTrue(recognizer.acceptWaveForm(chunk(4), 640));
+            assertEquals("c1", new JSONObject(recognizer.getResult()).getString("text"));
+
+            JSONObject last = new JSONObject(recognizer.getFinalResult());
+            recognizer.close();
+            assertEquals("c3", last.getString("text"));
+            assertEquals("c3", last.getJSONArray("result").getJSONObject(0).getString("word"));
+        }
+    }
+
+    @Test
+    void mergedFinalsAverageTheSpeakerEmbedding() {
+        JSONObject merged = new JSONObject(RemoteSpeechRecognizer.merge(List.of(
+            "{\"text\": \"hola\", \"spk\": [1.0, 0.0], \"spk_frames\": 30}",
+            "{\"text\": \"\"}",
+            "{\"text\": \"mundo\", \"spk\": [0.0, 1.0], \"spk_frames\": 10}")));
+        assertEquals("hola mundo", merged.getString("text"));
+        assertEquals(40, merged.getInt("spk_frames"));
+        assertEquals(0.75, merged.getJSONArray("spk").getDouble(0), 1e-9);
+        assertEquals(0.25, merged.getJSONArray("spk").getDouble(1), 1e-9);
+        assertFalse(merged.has("result"));
+    }
+}
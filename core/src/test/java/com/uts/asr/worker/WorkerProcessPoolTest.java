@@ -0,0 +1,20 @@
+package com.uts.asr.worker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Esperas entre relanzamientos de workers caídos.
+ */
+class WorkerProcessPoolTest {
+
+    @Test
+    void restartBackoffDoublesUpToTheCap() {
+        assertEquals(1000, WorkerProcessPool.restartBackoffMs(1));
+        assertEquals(2000, WorkerProcessPool.restartBackoffMs(2));
+        assertEquals(16_000, WorkerProcessPool.restartBackoffMs(5));
+        assertEquals(30_000, WorkerProcessPool.restartBackoffMs(6));
+        assertEquals(30_000, WorkerProcessPool.restartBackoffMs(100));
+    }
+}
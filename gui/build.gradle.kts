@@ -16,18 +16,11 @@ application {
 }
 
 dependencies {
-    // Vosk - Speech Recognition Library
-    implementation("com.alphacephei:vosk:0.3.45")
-
-    // JNA (Java Native Access) - Requerido por Vosk
-    implementation("net.java.dev.jna:jna:5.13.0")
-
-    // JSON - Para parsear resultados de Vosk
-    implementation("org.json:json:20230227")
+    // Núcleo de transcripción (sin interfaz)
+    implementation(project(":core"))
 
     // Logging
-    implementation("org.slf4j:slf4j-api:2.0.12")
-    implementation("org.slf4j:slf4j-simple:2.0.12")
+    runtimeOnly("org.slf4j:slf4j-simple:2.0.12")
 
     // Testing
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
@@ -37,4 +30,4 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
@@ -0,0 +1,540 @@
+package com.uts.asr;
+
+import com.uts.asr.admin.AdminServer;
+import com.uts.asr.archive.ArchivedTranscript;
+import com.uts.asr.archive.StorageMaintenance;
+import com.uts.asr.archive.TranscriptArchive;
+import com.uts.asr.config.AppConfig;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.config.SettingsLoader;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.gui.LiveSessionPanel;
+import com.uts.asr.gui.SearchPanel;
+import com.uts.asr.index.SearchHit;
+import com.uts.asr.index.TranscriptIndex;
+import com.uts.asr.jfr.JfrRecording;
+import com.uts.asr.loadtest.LoadGenerator;
+import com.uts.asr.network.NetworkStreamConfig;
+import com.uts.asr.network.StreamTranscriptCollector;
+import com.uts.asr.strategy.BatchPipeline;
+import com.uts.asr.strategy.FollowFileStrategy;
+import com.uts.asr.strategy.KeywordListener;
+import com.uts.asr.strategy.KeywordMatch;
+import com.uts.asr.strategy.KeywordSpottingStrategy;
+import com.uts.asr.strategy.NetworkStreamStrategy;
+import com.uts.asr.strategy.TranscriptionListener;
+import com.uts.asr.util.Writer;
+import com.uts.asr.worker.WorkerProcessPool;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Punto de entrada de la aplicación de transcripción de voz.
+ * <p>
+ * Punto de entrada de la aplicación de transcripción.
+ * Inicializa Vosk, configura el frame principal y muestra la interfaz.
+ * </p>
+ */
+
+
+public class App {
+    private static final Logger logger = LoggerFactory.getLogger(App.class);
+    private static final int REINDEX_BATCH = 5000;
+    private static final int LISTEN_SHUTDOWN_SECONDS = 10;
+
+    public static void main(String[] args) {
+        // Configurar look and feel nativo
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            logger.warn("No se pudo establecer look and feel del sistema", e);
+        }
+
+        // Resolver configuración (perfil, archivo, entorno y flags) antes del core
+        try {
+            SettingsLoader.load(args);
+        } catch (Exception e) {
+            logger.error("Configuración inválida", e);
+            JOptionPane.showMessageDialog(null,
+                    "La configuración no es válida.\n" + e.getMessage(),
+                    "Error de Configuración",
+                    JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+        startJfr();
+
+        // Comandos de línea de comandos (sin interfaz ni modelo)
+        List<String> positional = SettingsLoader.positionalArgs(args);
+        if (!positional.isEmpty()) {
+            System.exit(runCommand(positional));
+        }
+
+        // Inicializar Vosk en el hilo principal (o los workers, si se delega)
+        try {
+            if (AppSettings.current().workerModeEnabled()) {
+                logger.info("Iniciando procesos worker de reconocimiento...");
+                WorkerProcessPool.get();
+                logger.info("Workers de reconocimiento listos");
+            } else {
+                logger.info("Inicializando servicio Vosk...");
+                VoskService.init();
+                logger.info("Vosk inicializado correctamente");
+            }
+        } catch (Exception e) {
+            logger.error("Error fatal al inicializar Vosk", e);
+            JOptionPane.showMessageDialog(null,
+                    "No se pudo cargar el modelo de Vosk.\n" +
+                            "Verifica que la carpeta del modelo esté presente.\n" +
+                            "Error: " + e.getMessage(),
+                    "Error de Inicialización",
+                    JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+
+        // Retención de temporales y compactación del archivo en segundo plano
+        StorageMaintenance.start();
+        startAdmin();
+
+        // Crear y mostrar interfaz en EDT
+        SwingUtilities.invokeLater(() -> {
+            try {
+                JFrame frame = new JFrame("Transcriptor de Audio - Vosk ASR");
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                
+                LiveSessionPanel panel = new LiveSessionPanel();
+                frame.add(panel);
+                
+                frame.setSize(800, 600);
+                frame.setMinimumSize(new Dimension(600, 400));
+                frame.setLocationRelativeTo(null);
+                frame.setVisible(true);
+                
+                logger.info("Interfaz gráfica iniciada");
+            } catch (Exception e) {
+                logger.error("Error al crear la interfaz", e);
+                JOptionPane.showMessageDialog(null,
+                        "Error al iniciar la interfaz: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
+
+    /**
+     * Ejecuta un comando sin interfaz:
+     * {@code search <frase> [desde yyyy-MM-dd] [hasta yyyy-MM-dd]}, {@code show <archive:id>},
+     * {@code reindex}, {@code maintenance}, {@code listen} (ingesta de red hasta
+     * terminar el proceso), {@code batch <archivo|carpeta>...},
+     * {@code follow <archivo>} (transcribe una grabación que sigue creciendo),
+     * {@code keywords <frase>[,<frase>...] [archivo]} (detecta frases en el
+     * archivo o, sin él, en el micrófono),
+     * {@code loadtest [carpeta-wav]} o
+     * {@code swap-model <carpeta>} (cambia el modelo de la instancia en marcha
+     * a través de su {@code admin.port}).
+     *
+     * @return código de salida del proceso
+     */
+    private static int runCommand(List<String> command) {
+        try {
+            switch (command.get(0)) {
+                case "search" -> {
+                    if (command.size() < 2) {
+                        System.err.println("Uso: search <frase> [desde yyyy-MM-dd] [hasta yyyy-MM-dd]");
+                        return 2;
+                    }
+                    long start = System.nanoTime();
+                    List<SearchHit> hits = TranscriptIndex.shared().search(command.get(1),
+                        SearchPanel.parseDay(command.size() > 2 ? command.get(2) : null, 0),
+                        SearchPanel.parseDay(command.size() > 3 ? command.get(3) : null, 1),
+                        Integer.MAX_VALUE);
+                    double elapsedMs = (System.nanoTime() - start) / 1e6;
+                    for (SearchHit hit : hits) {
+                        System.out.println(SearchPanel.format(hit));
+                    }
+                    System.err.printf("%d resultado(s) en %.1f ms%n", hits.size(), elapsedMs);
+                    return 0;
+                }
+                case "reindex" -> {
+                    AppSettings settings = AppSettings.current();
+                    TranscriptIndex index = TranscriptIndex.shared();
+                    int count = index.rebuild(settings.transcriptionsDir(), settings.tempDir());
+                    if (Files.isDirectory(settings.archiveDir())) {
+                        count += reindexArchive(index);
+                    }
+                    System.err.println(count + " transcripciones indexadas");
+                    return 0;
+                }
+                case "show" -> {
+                    if (command.size() < 2) {
+                        System.err.println("Uso: show <archive:id>");
+                        return 2;
+                    }
+                    ArchivedTranscript transcript = TranscriptArchive.shared().read(command.get(1));
+                    if (transcript == null) {
+                        System.err.println("No existe en el archivo: " + command.get(1));
+                        return 1;
+                    }
+                    // Con hablantes, un turno por línea como en el .txt
+                    System.out.println(Writer.extractTextFromJson(transcript.toVoskJson()));
+                    return 0;
+                }
+                case "maintenance" -> {
+                    StorageMaintenance.runOnce();
+                    return 0;
+                }
+                case "listen" -> {
+                    return listen();
+                }
+                case "batch" -> {
+                    if (command.size() < 2) {
+                        System.err.println("Uso: batch <archivo|carpeta>...");
+                        return 2;
+                    }
+                    return batch(command.subList(1, command.size()));
+                }
+                case "follow" -> {
+                    if (command.size() < 2) {
+                        System.err.println("Uso: follow <archivo>");
+                        return 2;
+                    }
+                    return follow(Path.of(command.get(1)));
+                }
+                case "keywords" -> {
+                    if (command.size() < 2) {
+                        System.err.println("Uso: keywords <frase>[,<frase>...] [archivo]");
+                        return 2;
+                    }
+                    return keywords(List.of(command.get(1).split(",")),
+                        command.size() > 2 ? Path.of(command.get(2)) : null);
+                }
+                case "loadtest" -> {
+                    return loadTest(command.size() > 1 ? Path.of(command.get(1)) : null);
+                }
+                case "swap-model" -> {
+                    if (command.size() < 2) {
+                        System.err.println("Uso: swap-model <carpeta-del-modelo>");
+                        return 2;
+                    }
+                    return swapModel(command.get(1));
+                }
+                default -> {
+                    System.err.println("Comando desconocido: " + command.get(0)
+                        + " (use search, show, reindex, maintenance, listen, batch, follow, keywords, loadtest o swap-model)");
+                    return 2;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error ejecutando {}", command.get(0), e);
+            return 1;
+        }
+    }
+
+    /**
+     * Transcribe los streams de red de {@code network.*} y guarda cada uno al
+     * terminar. Bloquea hasta que el proceso recibe la señal de parada.
+     */
+    private static int listen() throws Exception {
+        initRecognition();
+        StorageMaintenance.start();
+        startAdmin();
+
+        NetworkStreamStrategy strategy = new NetworkStreamStrategy(NetworkStreamConfig.fromSettings(),
+            StreamTranscriptCollector::new, WorkerFactory::createRecognizer);
+        CountDownLatch finished = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Cerrar los streams abiertos y dar tiempo a guardar sus transcripciones
+            strategy.cancel();
+            try {
+                finished.await(LISTEN_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "network-listen-shutdown"));
+        try {
+            strategy.execute(null, new TranscriptionListener() {
+                @Override
+                public void onPartial(String json) {
+                    // Cada stream reporta a su propio colector
+                }
+
+                @Override
+                public void onFinal(String json) {
+                    // Cada stream reporta a su propio colector
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    logger.error("Ingesta de red detenida por error", error);
+                }
+            });
+        } finally {
+            finished.countDown();
+        }
+        return 0;
+    }
+
+    /**
+     * Transcribe archivos sueltos y el contenido de carpetas (sin recorrer
+     * subcarpetas) con {@link BatchPipeline} e imprime la utilización de cada
+     * etapa. Al parar el proceso se cancela el lote; los checkpoints permiten
+     * reanudarlo.
+     */
+    private static int batch(List<String> arguments) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (String argument : arguments) {
+            Path path = Path.of(argument);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> listing = Files.list(path)) {
+                    listing.filter(Files::isRegularFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        initRecognition();
+
+        BatchPipeline pipeline = BatchPipeline.fromSettings();
+        CountDownLatch finished = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            pipeline.cancel();
+            try {
+                finished.await(LISTEN_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "batch-shutdown"));
+        BatchPipeline.Report report;
+        try {
+            report = pipeline.run(files, file -> new TranscriptionListener() {
+                @Override
+                public void onPartial(String json) {
+                    // Solo interesa el resultado guardado
+                }
+
+                @Override
+                public void onFinal(String json) {
+                    // Solo interesa el resultado guardado
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    System.err.println(file + ": " + error.getMessage());
+                }
+
+                @Override
+                public void onComplete() {
+                    System.err.println(file + ": transcrito");
+                }
+            });
+        } finally {
+            finished.countDown();
+        }
+        System.out.println(report);
+        return report.failed() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Sigue una grabación en curso con {@link FollowFileStrategy} e imprime el
+     * texto de cada final según llega. Al parar el proceso deja de seguirla y
+     * guarda lo transcrito.
+     */
+    private static int follow(Path file) throws Exception {
+        initRecognition();
+
+        FollowFileStrategy strategy = new FollowFileStrategy(file.getFileName().toString());
+        CountDownLatch finished = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            strategy.cancel();
+            try {
+                finished.await(LISTEN_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "follow-shutdown"));
+        try {
+            strategy.execute(file, new TranscriptionListener() {
+                @Override
+                public void onPartial(String json) {
+                    // Solo se imprimen los finales
+                }
+
+                @Override
+                public void onFinal(String json) {
+                    String text = new JSONObject(json).optString("text", "").trim();
+                    if (!text.isEmpty()) {
+                        System.out.println(text);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    System.err.println(file + ": " + error.getMessage());
+                }
+            });
+        } finally {
+            finished.countDown();
+        }
+        return 0;
+    }
+
+    /**
+     * Detecta frases con {@link KeywordSpottingStrategy} e imprime cada
+     * coincidencia (inicio, fin, confianza y frase). Sin archivo escucha el
+     * micrófono hasta parar el proceso. Los recognizers con gramática son
+     * siempre locales, así que se carga el modelo aunque haya workers.
+     */
+    private static int keywords(List<String> phrases, Path file) throws Exception {
+        VoskService.init();
+
+        KeywordSpottingStrategy strategy = new KeywordSpottingStrategy(phrases,
+            AppSettings.current().keywordsMinConfidencePercent() / 100.0);
+        CountDownLatch finished = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            strategy.cancel();
+            try {
+                finished.await(LISTEN_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "keywords-shutdown"));
+        int[] matches = {0};
+        try {
+            strategy.execute(file, new KeywordListener() {
+                @Override
+                public void onMatch(KeywordMatch match) {
+                    matches[0]++;
+                    System.out.printf(Locale.ROOT, "%8.2f %8.2f  %.2f  %s%n", match.startSeconds(),
+                        match.endSeconds(), match.confidence(), match.phrase());
+                }
+
+                @Override
+                public void onFinal(String json) {
+                    // Solo se imprimen las coincidencias
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    System.err.println("Detección detenida: " + error.getMessage());
+                }
+            });
+        } finally {
+            finished.countDown();
+        }
+        System.err.println(matches[0] + " coincidencia(s)");
+        return 0;
+    }
+
+    /**
+     * Rampa de streams simultáneos; imprime el informe de capacidad y lo
+     * guarda en {@code loadtest.report}.
+     */
+    private static int loadTest(Path audioDir) throws Exception {
+        AppSettings settings = AppSettings.current();
+        if (!settings.loadTestStandIn()) {
+            initRecognition();
+        }
+        LoadGenerator.Report report = new LoadGenerator(settings, audioDir, WorkerFactory::createRecognizer).run();
+        LoadGenerator.write(report, settings.loadTestReport());
+        System.out.println(report.json().toString(2));
+        System.err.printf("Capacidad: %d stream(s) con p%d <= %d ms (informe en %s)%n", report.maxStreams(),
+            settings.loadTestPercentile(), settings.loadTestSloMs(), settings.loadTestReport());
+        return report.maxStreams() > 0 ? 0 : 1;
+    }
+
+    /**
+     * Pide el cambio de modelo al endpoint de administración de la instancia
+     * en marcha (misma configuración: {@code admin.bind} y {@code admin.port}).
+     */
+    private static int swapModel(String modelPath) throws IOException {
+        AppSettings settings = AppSettings.current();
+        if (settings.adminPort() <= 0) {
+            System.err.println("Indique el admin.port de la instancia en marcha (p. ej. --admin.port=7070)");
+            return 2;
+        }
+        URI uri = URI.create("http://" + settings.adminBind() + ":" + settings.adminPort()
+            + "/model/swap?path=" + URLEncoder.encode(Path.of(modelPath).toAbsolutePath().toString(),
+            StandardCharsets.UTF_8));
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                System.out.println(body == null ? "" : new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return status == 200 ? 0 : 1;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void startJfr() {
+        try {
+            JfrRecording.startIfEnabled();
+        } catch (IOException | RuntimeException e) {
+            // Sin grabación se puede seguir transcribiendo
+            logger.error("No se pudo arrancar la grabación JFR", e);
+        }
+    }
+
+    private static void startAdmin() {
+        try {
+            AdminServer.startIfEnabled();
+        } catch (IOException e) {
+            // Sin endpoint se puede seguir transcribiendo
+            logger.error("No se pudo abrir el endpoint de administración", e);
+        }
+    }
+
+    private static void initRecognition() throws Exception {
+        if (AppSettings.current().workerModeEnabled()) {
+            WorkerProcessPool.get();
+        } else {
+            VoskService.init();
+        }
+    }
+
+    private static int reindexArchive(TranscriptIndex index) throws Exception {
+        List<TranscriptIndex.Document> batch = new ArrayList<>();
+        int[] count = {0};
+        TranscriptArchive.shared().forEach(transcript -> {
+            batch.add(new TranscriptIndex.Document(transcript.session(), transcript.reference(),
+                transcript.savedAt(), transcript.toVoskJson()));
+            if (batch.size() >= REINDEX_BATCH) {
+                flushBatch(index, batch);
+                count[0] += REINDEX_BATCH;
+            }
+        });
+        count[0] += batch.size();
+        flushBatch(index, batch);
+        return count[0];
+    }
+
+    private static void flushBatch(TranscriptIndex index, List<TranscriptIndex.Document> batch) {
+        try {
+            index.addAll(batch);
+            batch.clear();
+        } catch (Exception e) {
+            throw new IllegalStateException("Error indexando el archivo", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.uts.asr.gui;
+
+import com.uts.asr.strategy.LiveLatency;
+
+import javax.swing.*;
+import javax.swing.plaf.LayerUI;
+import java.awt.*;
+
+/**
+ * Recuadro sobre la transcripción en vivo con el retardo captura→pantalla del
+ * último evento y el p95 de cada etapa. Se refresca con un temporizador, no
+ * por evento, para no añadir trabajo al EDT en cada parcial.
+ */
+final class LatencyOverlay extends LayerUI<JComponent> {
+
+    /** Retardo a partir del cual el recuadro se resalta. */
+    private static final int LAG_WARNING_MS = 1000;
+    private static final int REFRESH_MS = 250;
+
+    private final LiveLatency latency;
+    private final Timer timer;
+    private LiveLatency.Snapshot snapshot;
+
+    LatencyOverlay(LiveLatency latency) {
+        this.latency = latency;
+        this.snapshot = latency.snapshot();
+        this.timer = new Timer(REFRESH_MS, null);
+    }
+
+    /**
+     * Envuelve el componente con el overlay y empieza a refrescarlo.
+     */
+    JLayer<JComponent> install(JComponent view) {
+        JLayer<JComponent> layer = new JLayer<>(view, this);
+        timer.addActionListener(e -> {
+            snapshot = latency.snapshot();
+            layer.repaint();
+        });
+        timer.start();
+        return layer;
+    }
+
+    /**
+     * Detiene el refresco (al cerrar la ventana).
+     */
+    void stop() {
+        timer.stop();
+    }
+
+    @Override
+    public void paint(Graphics g, JComponent c) {
+        super.paint(g, c);
+        LiveLatency.Snapshot current = snapshot;
+        if (current.samples() == 0) {
+            return;
+        }
+
+        String[] lines = new String[current.stages().size() + 1];
+        lines[0] = String.format("Retardo %d ms (audio %.1f s)",
+            Math.round(current.lastLagMs()), current.lastOffsetMs() / 1000.0);
+        for (int i = 0; i < current.stages().size(); i++) {
+            LiveLatency.StageStats stats = current.stages().get(i);
+            lines[i + 1] = String.format("%s p95 %.0f ms", stats.stage().label(), stats.p95());
+        }
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setFont(new Font("SansSerif", Font.PLAIN, 11));
+            FontMetrics metrics = g2.getFontMetrics();
+            int width = 0;
+            for (String line : lines) {
+                width = Math.max(width, metrics.stringWidth(line));
+            }
+            int lineHeight = metrics.getHeight();
+            int boxWidth = width + 16;
+            int boxHeight = lineHeight * lines.length + 8;
+            int x = c.getWidth() - boxWidth - 24; // deja libre la barra de scroll
+            int y = 8;
+
+            Color background = current.lastLagMs() >= LAG_WARNING_MS ? Palette.ACCENT : Palette.BG_3;
+            g2.setColor(new Color(background.getRed(), background.getGreen(), background.getBlue(), 210));
+            g2.fillRoundRect(x, y, boxWidth, boxHeight, 10, 10);
+            g2.setColor(Palette.TEXT);
+            for (int i = 0; i < lines.length; i++) {
+                g2.drawString(lines[i], x + 8, y + 4 + metrics.getAscent() + i * lineHeight);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+}
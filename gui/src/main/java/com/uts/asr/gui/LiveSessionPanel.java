@@ -0,0 +1,491 @@
+package com.uts.asr.gui;
+
+import com.uts.asr.command.TranscriptionCommand;
+import com.uts.asr.config.AppConfig;
+import com.uts.asr.config.AppSettings;
+import com.uts.asr.core.MemoryBudget;
+import com.uts.asr.core.VoskService;
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.jfr.EdtUpdateEvent;
+import com.uts.asr.strategy.ChunkStamp;
+import com.uts.asr.strategy.LiveLatency;
+import com.uts.asr.strategy.LiveMicStrategy;
+import com.uts.asr.strategy.TranscriptionListener;
+import com.uts.asr.util.TranscriptWriteQueue;
+import com.uts.asr.util.Writer;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+
+/**
+ * Panel principal para sesión de transcripción en vivo.
+ * <p>
+ * Mide la latencia de cada parcial y final desde la captura del chunk hasta
+ * que su texto queda pintado ({@link LiveLatency}); el tooltip del estado la
+ * resume y, con {@code live.latencyOverlay}, se muestra sobre el texto.
+ * </p>
+ */
+public class LiveSessionPanel extends JPanel implements TranscriptionListener {
+    private static final Logger logger = LoggerFactory.getLogger(LiveSessionPanel.class);
+
+    private enum State { STOPPED, RUNNING }
+
+    // Componentes UI
+    private JTextField sessionNameField;
+    private JTextArea transcriptionArea;
+    private JButton toggleButton;
+    private JButton saveButton;
+    private JButton clearButton;
+    private JButton searchButton;
+    private JButton modelButton;
+    private JButton closeButton;
+    private JLabel statusLabel;
+
+    // Estado
+    private State currentState = State.STOPPED;
+    private TranscriptionCommand currentCommand;
+    // Sesiones grabadas desde el último "Limpiar": la segunda pasada solo
+    // sustituye el texto guardado si corresponde a una única sesión
+    private LiveMicStrategy lastStrategy;
+    private int sessionsSinceClear;
+    private Future<?> currentTask;
+    private final StringBuilder fullTranscription = new StringBuilder();
+    private final LiveLatency latency = new LiveLatency();
+    private LatencyOverlay latencyOverlay;
+
+    public LiveSessionPanel() {
+        initComponents();
+        layoutComponents();
+    }
+
+    private void initComponents() {
+        setBackground(Palette.BG_1);
+
+        // Campo de nombre de sesión
+        sessionNameField = new JTextField(AppConfig.DEFAULT_SESSION_NAME);
+        sessionNameField.setFont(new Font("SansSerif", Font.BOLD, 16));
+        sessionNameField.setForeground(Palette.TEXT);
+        sessionNameField.setBackground(Palette.BG_2);
+        sessionNameField.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(Palette.BG_3, 2),
+            BorderFactory.createEmptyBorder(5, 10, 5, 10)
+        ));
+
+        // Área de transcripción
+        transcriptionArea = new JTextArea();
+        transcriptionArea.setEditable(false);
+        transcriptionArea.setLineWrap(true);
+        transcriptionArea.setWrapStyleWord(true);
+        transcriptionArea.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        transcriptionArea.setForeground(Palette.TEXT);
+        transcriptionArea.setBackground(Palette.BG_2);
+        transcriptionArea.setMargin(new Insets(10, 10, 10, 10));
+
+        // Botones superiores
+        saveButton = createButton("Guardar", Palette.BG_3);
+        clearButton = createButton("Limpiar", Palette.BG_3);
+        searchButton = createButton("Buscar", Palette.BG_3);
+        modelButton = createButton("Modelo...", Palette.BG_3);
+        closeButton = createButton("Cerrar", Palette.ACCENT);
+
+        saveButton.addActionListener(e -> saveTranscription());
+        clearButton.addActionListener(e -> clearTranscription());
+        searchButton.addActionListener(e -> openSearch());
+        modelButton.addActionListener(e -> swapModel());
+        // Con procesos worker el modelo no vive en este proceso
+        modelButton.setEnabled(!AppSettings.current().workerModeEnabled());
+        closeButton.addActionListener(e -> closeWindow());
+
+        // Botón toggle START/STOP
+        toggleButton = createButton("START", Palette.BG_3);
+        toggleButton.setFont(new Font("SansSerif", Font.BOLD, 18));
+        toggleButton.setPreferredSize(new Dimension(200, 60));
+        toggleButton.addActionListener(e -> toggleRecording());
+
+        // Label de estado; el tooltip muestra memoria, cola de escritura y ciclo del modelo al momento
+        statusLabel = new JLabel("Estado: Idle") {
+            @Override
+            public String getToolTipText(MouseEvent event) {
+                String model = AppSettings.current().workerModeEnabled()
+                    ? "" : "<br>Modelo: " + VoskService.lifecycle();
+                return "<html>Memoria: " + MemoryBudget.shared().usage()
+                    + "<br>Escritura: " + TranscriptWriteQueue.shared().metrics() + model
+                    + "<br>Latencia: " + latency.snapshot() + "</html>";
+            }
+        };
+        ToolTipManager.sharedInstance().registerComponent(statusLabel);
+        statusLabel.setForeground(Palette.TEXT);
+        statusLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        // Panel superior: nombre de sesión
+        JPanel topPanel = new JPanel(new BorderLayout(5, 5));
+        topPanel.setBackground(Palette.BG_1);
+        topPanel.add(new JLabel("Nombre de sesión:"), BorderLayout.WEST);
+        topPanel.add(sessionNameField, BorderLayout.CENTER);
+        add(topPanel, BorderLayout.NORTH);
+
+        // Panel central: área de texto
+        JScrollPane scrollPane = new JScrollPane(transcriptionArea);
+        scrollPane.setBorder(BorderFactory.createLineBorder(Palette.BG_3, 2));
+        if (AppSettings.current().liveLatencyOverlay()) {
+            latencyOverlay = new LatencyOverlay(latency);
+            add(latencyOverlay.install(scrollPane), BorderLayout.CENTER);
+        } else {
+            add(scrollPane, BorderLayout.CENTER);
+        }
+
+        // Panel inferior: botones y estado
+        JPanel bottomPanel = new JPanel(new BorderLayout(10, 10));
+        bottomPanel.setBackground(Palette.BG_1);
+
+        // Botones de acción
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        actionPanel.setBackground(Palette.BG_1);
+        actionPanel.add(saveButton);
+        actionPanel.add(clearButton);
+        actionPanel.add(searchButton);
+        actionPanel.add(modelButton);
+        actionPanel.add(closeButton);
+
+        // Panel de control
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        controlPanel.setBackground(Palette.BG_1);
+        controlPanel.add(toggleButton);
+
+        bottomPanel.add(actionPanel, BorderLayout.NORTH);
+        bottomPanel.add(statusLabel, BorderLayout.CENTER);
+        bottomPanel.add(controlPanel, BorderLayout.SOUTH);
+
+        add(bottomPanel, BorderLayout.SOUTH);
+    }
+
+    private JButton createButton(String text, Color bg) {
+        JButton button = new JButton(text);
+        button.setBackground(bg);
+        button.setForeground(Palette.TEXT);
+        button.setFocusPainted(false);
+        button.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(Palette.TEXT, 1),
+            BorderFactory.createEmptyBorder(8, 15, 8, 15)
+        ));
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        return button;
+    }
+
+    private void toggleRecording() {
+        if (currentState == State.STOPPED) {
+            startRecording();
+        } else {
+            stopRecording();
+        }
+    }
+
+    private void startRecording() {
+        logger.info("Iniciando grabación...");
+        updateStatus("Escuchando...");
+        
+        try {
+            LiveMicStrategy strategy = new LiveMicStrategy(sessionNameField.getText().trim());
+            if (lastStrategy != null) {
+                // Con otra sesión en el texto la segunda pasada ya no sustituiría nada
+                lastStrategy.discardRecording();
+            }
+            lastStrategy = strategy;
+            sessionsSinceClear++;
+            latency.reset();
+            currentCommand = new TranscriptionCommand(strategy);
+            
+            currentTask = WorkerFactory.getExecutor().submit(() -> {
+                currentCommand.run(null, this);
+            });
+            
+            currentState = State.RUNNING;
+            toggleButton.setText("STOP");
+            toggleButton.setBackground(Palette.ACCENT);
+            sessionNameField.setEnabled(false);
+            
+        } catch (Exception e) {
+            logger.error("Error al iniciar grabación", e);
+            onError(e);
+        }
+    }
+
+    private void stopRecording() {
+        logger.info("Deteniendo grabación...");
+        updateStatus("Procesando...");
+        
+        if (currentCommand != null && currentCommand.isCancellable()) {
+            currentCommand.cancel();
+        }
+        
+        if (currentTask != null) {
+            currentTask.cancel(true);
+        }
+        
+        currentState = State.STOPPED;
+        toggleButton.setText("START");
+        toggleButton.setBackground(Palette.BG_3);
+        sessionNameField.setEnabled(true);
+        updateStatus("Idle");
+    }
+
+    private void saveTranscription() {
+        String text = fullTranscription.toString().trim();
+        if (text.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                "No hay transcripción para guardar.",
+                "Información",
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        // El EDT no espera al disco: el resultado llega por el futuro
+        String sessionName = sessionNameField.getText().trim();
+        saveButton.setEnabled(false);
+        CompletableFuture<String> saved =
+            Writer.saveTranscriptionAsync(sessionName, new JSONObject().put("text", text).toString());
+        CompletableFuture<String> secondPass = lastStrategy != null && sessionsSinceClear == 1
+            ? lastStrategy.secondPass() : null;
+        if (secondPass != null) {
+            replaceWithSecondPass(sessionName, saved, secondPass);
+        }
+        saved.whenComplete((source, error) -> SwingUtilities.invokeLater(() -> {
+                saveButton.setEnabled(true);
+                if (error == null) {
+                    JOptionPane.showMessageDialog(this,
+                        "Transcripción guardada exitosamente.",
+                        "Guardado",
+                        JOptionPane.INFORMATION_MESSAGE);
+
+                    logger.info("Transcripción guardada manualmente");
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    logger.error("Error al guardar transcripción", cause);
+                    JOptionPane.showMessageDialog(this,
+                        "Error al guardar: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }));
+    }
+
+    /**
+     * Cuando terminen el guardado y la segunda pasada, sustituye lo guardado
+     * por la transcripción del modelo preciso.
+     */
+    private void replaceWithSecondPass(String sessionName, CompletableFuture<String> saved,
+                                       CompletableFuture<String> secondPass) {
+        updateStatus("Guardado; segunda pasada en curso...");
+        saved.thenCombine(secondPass, (source, accurate) ->
+                Writer.replaceTranscriptionAsync(source, sessionName, accurate))
+            .thenCompose(replacement -> replacement)
+            .whenComplete((source, error) -> {
+                if (error == null) {
+                    logger.info("Transcripción sustituida por la segunda pasada: {}", source);
+                    updateStatus("Segunda pasada aplicada");
+                } else {
+                    logger.warn("Segunda pasada no aplicada a {}: {}", sessionName, error.getMessage());
+                    updateStatus("Segunda pasada fallida (se conserva la transcripción en vivo)");
+                }
+            });
+    }
+
+    private void clearTranscription() {
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "¿Desea limpiar toda la transcripción?",
+            "Confirmar",
+            JOptionPane.YES_NO_OPTION);
+            
+        if (confirm == JOptionPane.YES_OPTION) {
+            transcriptionArea.setText("");
+            fullTranscription.setLength(0);
+            if (lastStrategy != null) {
+                lastStrategy.discardRecording();
+            }
+            lastStrategy = null;
+            sessionsSinceClear = 0;
+            logger.info("Transcripción limpiada");
+        }
+    }
+
+    private void openSearch() {
+        Window owner = SwingUtilities.getWindowAncestor(this);
+        JDialog dialog = new JDialog(owner, "Buscar en transcripciones", Dialog.ModalityType.MODELESS);
+        dialog.add(new SearchPanel());
+        dialog.setSize(800, 500);
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Cambia el modelo en caliente; las sesiones en curso terminan con el anterior.
+     */
+    private void swapModel() {
+        JFileChooser chooser = new JFileChooser(VoskService.modelPath().toAbsolutePath().toFile());
+        chooser.setDialogTitle("Carpeta del modelo Vosk");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        modelButton.setEnabled(false);
+        updateStatus("Cargando modelo " + chooser.getSelectedFile().getName() + "...");
+        VoskService.swapModelAsync(chooser.getSelectedFile().toPath())
+            .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                modelButton.setEnabled(true);
+                if (error == null) {
+                    updateStatus("Modelo " + result.current().getFileName() + " activo");
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    logger.error("Error al cambiar de modelo", cause);
+                    updateStatus("Cambio de modelo fallido (se mantiene el anterior)");
+                    JOptionPane.showMessageDialog(this,
+                        "No se pudo cambiar el modelo: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }));
+    }
+
+    private void closeWindow() {
+        if (currentState == State.RUNNING) {
+            stopRecording();
+        }
+        if (latencyOverlay != null) {
+            latencyOverlay.stop();
+        }
+        Window window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.dispose();
+        }
+    }
+
+    private void updateStatus(String status) {
+        SwingUtilities.invokeLater(() -> 
+            statusLabel.setText("Estado: " + status)
+        );
+    }
+
+    // Implementación de TranscriptionListener
+
+    @Override
+    public void onPartial(String json) {
+        onPartial(json, null);
+    }
+
+    @Override
+    public void onPartial(String json, ChunkStamp stamp) {
+        updateOnEdt("partial", stamp, () -> {
+            try {
+                JSONObject obj = new JSONObject(json);
+                String text = obj.optString("partial", "").trim();
+                if (!text.isEmpty()) {
+                    transcriptionArea.append("⌛ " + text + "\n");
+                    transcriptionArea.setCaretPosition(transcriptionArea.getDocument().getLength());
+                    return text.length();
+                }
+            } catch (Exception e) {
+                logger.warn("Error parseando partial JSON", e);
+            }
+            return 0;
+        });
+    }
+
+    @Override
+    public void onFinal(String json) {
+        onFinal(json, null);
+    }
+
+    @Override
+    public void onFinal(String json, ChunkStamp stamp) {
+        updateOnEdt("final", stamp, () -> {
+            try {
+                JSONObject obj = new JSONObject(json);
+                String text = obj.optString("text", "").trim();
+                if (!text.isEmpty()) {
+                    if (obj.has("speaker")) {
+                        // speaker.live: 0 = segmento sin hablante atribuido
+                        int speaker = obj.optInt("speaker", 0);
+                        text = "Hablante " + (speaker > 0 ? String.valueOf(speaker) : "?") + ": " + text;
+                    }
+                    transcriptionArea.append("✅ " + text + "\n\n");
+                    transcriptionArea.setCaretPosition(transcriptionArea.getDocument().getLength());
+                    fullTranscription.append(text).append(" ");
+                    return text.length();
+                }
+            } catch (Exception e) {
+                logger.warn("Error parseando final JSON", e);
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * Aplica una actualización de la transcripción en el EDT y la mide con un
+     * {@link EdtUpdateEvent}: espera en la cola de eventos más el tiempo de aplicarla.
+     * Con marcas del chunk registra además su latencia en {@link #latency}.
+     *
+     * @param stamp marcas de captura y decodificación, o null
+     * @param update devuelve los caracteres añadidos
+     */
+    private void updateOnEdt(String kind, ChunkStamp stamp, IntSupplier update) {
+        long received = System.nanoTime();
+        EdtUpdateEvent event = new EdtUpdateEvent();
+        event.begin();
+        SwingUtilities.invokeLater(() -> {
+            long start = System.nanoTime();
+            int chars = update.getAsInt();
+            event.end();
+            if (event.shouldCommit()) {
+                event.update = kind;
+                event.chars = chars;
+                event.runTime = System.nanoTime() - start;
+                event.captureLatency = stamp != null ? System.nanoTime() - stamp.captureNanos() : 0;
+                event.commit();
+            }
+            if (stamp != null && chars > 0) {
+                // El repintado que pidió el append ya está en la cola: esto corre detrás
+                SwingUtilities.invokeLater(() -> latency.record(stamp, received, System.nanoTime()));
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        logger.error("Error en transcripción", error);
+        SwingUtilities.invokeLater(() -> {
+            updateStatus("Error");
+            JOptionPane.showMessageDialog(this,
+                "Error: " + error.getMessage(),
+                "Error de Transcripción",
+                JOptionPane.ERROR_MESSAGE);
+            
+            if (currentState == State.RUNNING) {
+                stopRecording();
+            }
+        });
+    }
+
+    @Override
+    public void onComplete() {
+        logger.info("Transcripción completada; latencia: {}", latency.snapshot());
+        SwingUtilities.invokeLater(() -> {
+            updateStatus("Completado");
+        });
+    }
+}
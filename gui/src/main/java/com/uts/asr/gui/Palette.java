@@ -0,0 +1,38 @@
+package com.uts.asr.gui;
+
+import java.awt.Color;
+
+/**
+ * Paleta de colores de la interfaz. Vive en el módulo {@code gui} para que
+ * el núcleo no cargue AWT.
+ */
+public final class Palette {
+
+    public static final Color BG_1 = parseColor("212,224,155");
+    public static final Color BG_2 = parseColor("246,244,210");
+    public static final Color BG_3 = parseColor("203,223,189");
+    public static final Color ACCENT = parseColor("241,156,121");
+    public static final Color TEXT = parseColor("70,63,58");
+
+    private Palette() {
+        throw new UnsupportedOperationException("Clase de utilidad no instanciable");
+    }
+
+    /**
+     * Parsea un string RGB como "R,G,B" a Color.
+     */
+    private static Color parseColor(String rgb) {
+        String[] parts = rgb.split(",");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Formato RGB inválido: " + rgb);
+        }
+        try {
+            int r = Integer.parseInt(parts[0].trim());
+            int g = Integer.parseInt(parts[1].trim());
+            int b = Integer.parseInt(parts[2].trim());
+            return new Color(r, g, b);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Componente RGB no numérico: " + rgb, e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.uts.asr.gui;
+
+import com.uts.asr.core.WorkerFactory;
+import com.uts.asr.index.SearchHit;
+import com.uts.asr.index.TranscriptIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Panel de búsqueda sobre el índice de transcripciones guardadas.
+ */
+public class SearchPanel extends JPanel {
+    private static final Logger logger = LoggerFactory.getLogger(SearchPanel.class);
+
+    private static final int MAX_RESULTS = 500;
+    private static final DateTimeFormatter RESULT_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private JTextField queryField;
+    private JTextField fromField;
+    private JTextField toField;
+    private JButton searchButton;
+    private DefaultListModel<String> resultsModel;
+    private JList<String> resultsList;
+    private JLabel statusLabel;
+
+    public SearchPanel() {
+        initComponents();
+        layoutComponents();
+    }
+
+    private void initComponents() {
+        setBackground(Palette.BG_1);
+
+        queryField = createField(20);
+        fromField = createField(9);
+        toField = createField(9);
+        fromField.setToolTipText("Desde (yyyy-MM-dd), opcional");
+        toField.setToolTipText("Hasta (yyyy-MM-dd, inclusive), opcional");
+
+        searchButton = new JButton("Buscar");
+        searchButton.setBackground(Palette.BG_3);
+        searchButton.setForeground(Palette.TEXT);
+        searchButton.setFocusPainted(false);
+        searchButton.addActionListener(e -> runSearch());
+        queryField.addActionListener(e -> runSearch());
+
+        resultsModel = new DefaultListModel<>();
+        resultsList = new JList<>(resultsModel);
+        resultsList.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        resultsList.setForeground(Palette.TEXT);
+        resultsList.setBackground(Palette.BG_2);
+
+        statusLabel = new JLabel(" ");
+        statusLabel.setForeground(Palette.TEXT);
+        statusLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        JPanel queryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        queryPanel.setBackground(Palette.BG_1);
+        queryPanel.add(createLabel("Frase:"));
+        queryPanel.add(queryField);
+        queryPanel.add(createLabel("Desde:"));
+        queryPanel.add(fromField);
+        queryPanel.add(createLabel("Hasta:"));
+        queryPanel.add(toField);
+        queryPanel.add(searchButton);
+        add(queryPanel, BorderLayout.NORTH);
+
+        JScrollPane scrollPane = new JScrollPane(resultsList);
+        scrollPane.setBorder(BorderFactory.createLineBorder(Palette.BG_3, 2));
+        add(scrollPane, BorderLayout.CENTER);
+
+        add(statusLabel, BorderLayout.SOUTH);
+    }
+
+    private JTextField createField(int columns) {
+        JTextField field = new JTextField(columns);
+        field.setForeground(Palette.TEXT);
+        field.setBackground(Palette.BG_2);
+        field.setCaretColor(Palette.TEXT);
+        return field;
+    }
+
+    private JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(Palette.TEXT);
+        return label;
+    }
+
+    private void runSearch() {
+        String phrase = queryField.getText().trim();
+        if (phrase.isEmpty()) {
+            return;
+        }
+
+        Instant from;
+        Instant to;
+        try {
+            from = parseDay(fromField.getText(), 0);
+            to = parseDay(toField.getText(), 1);
+        } catch (DateTimeParseException e) {
+            statusLabel.setText("Fecha inválida (use yyyy-MM-dd)");
+            return;
+        }
+
+        searchButton.setEnabled(false);
+        statusLabel.setText("Buscando...");
+        WorkerFactory.getExecutor().submit(() -> {
+            try {
+                long start = System.nanoTime();
+                List<SearchHit> hits = TranscriptIndex.shared().search(phrase, from, to, MAX_RESULTS);
+                double elapsedMs = (System.nanoTime() - start) / 1e6;
+                SwingUtilities.invokeLater(() -> showResults(hits, elapsedMs));
+            } catch (Exception e) {
+                logger.error("Error en búsqueda", e);
+                SwingUtilities.invokeLater(() -> {
+                    statusLabel.setText("Error: " + e.getMessage());
+                    searchButton.setEnabled(true);
+                });
+            }
+        });
+    }
+
+    private void showResults(List<SearchHit> hits, double elapsedMs) {
+        resultsModel.clear();
+        for (SearchHit hit : hits) {
+            resultsModel.addElement(format(hit));
+        }
+        statusLabel.setText(String.format("%d resultado(s) en %.1f ms%s", hits.size(), elapsedMs,
+            hits.size() >= MAX_RESULTS ? " (limitado)" : ""));
+        searchButton.setEnabled(true);
+    }
+
+    /**
+     * Línea de resultado: fecha, sesión, tiempo en el audio y archivo.
+     * También la usa la búsqueda por línea de comandos.
+     */
+    public static String format(SearchHit hit) {
+        String time = hit.startSeconds() < 0
+            ? "   --   "
+            : String.format("%02d:%05.2f", (int) (hit.startSeconds() / 60), hit.startSeconds() % 60);
+        return String.format("%s  %-24s  %s  %s", RESULT_FORMAT.format(hit.savedAt()),
+            hit.session(), time, hit.source());
+    }
+
+    /**
+     * Inicio del día indicado más {@code plusDays}, o null si el texto está vacío.
+     */
+    public static Instant parseDay(String text, int plusDays) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return LocalDate.parse(text.trim()).plusDays(plusDays)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+}
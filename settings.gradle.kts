@@ -11,4 +11,4 @@ plugins {
 }
 
 rootProject.name = "vosk-transcriber"
-include("app")
+include("core", "gui")